@@ -91,11 +91,11 @@ public class Circuit extends AbstractMathModel {
     }
 
     public Collection<FunctionContact> getFunctionContacts() {
-        return Hierarchy.getDescendantsOfType(getRoot(), FunctionContact.class);
+        return getNodesOfType(FunctionContact.class);
     }
 
     public Collection<FunctionComponent> getFunctionComponents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), FunctionComponent.class);
+        return getNodesOfType(FunctionComponent.class);
     }
 
     @Override
@@ -110,7 +110,7 @@ public class Circuit extends AbstractMathModel {
     }
 
     public Collection<Contact> getPorts() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Contact.class, new Func<Contact, Boolean>() {
+        return getNodesOfType(Contact.class, new Func<Contact, Boolean>() {
             @Override
             public Boolean eval(Contact arg) {
                 return arg.isPort();
@@ -119,7 +119,7 @@ public class Circuit extends AbstractMathModel {
     }
 
     public Collection<Contact> getDrivers() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Contact.class, new Func<Contact, Boolean>() {
+        return getNodesOfType(Contact.class, new Func<Contact, Boolean>() {
             @Override
             public Boolean eval(Contact arg) {
                 return arg.isDriver();
@@ -6,7 +6,7 @@ import java.util.Collection;
 import org.workcraft.annotations.VisualClass;
 import org.workcraft.dom.Node;
 import org.workcraft.formula.BooleanFormula;
-import org.workcraft.formula.One;
+import org.workcraft.formula.Not;
 import org.workcraft.formula.Zero;
 import org.workcraft.formula.utils.BooleanUtils;
 import org.workcraft.observation.HierarchyEvent;
@@ -76,9 +76,7 @@ public class FunctionComponent extends CircuitComponent {
         if ((inputContact != null) && (outputContact != null)) {
             BooleanFormula setFunction = outputContact.getSetFunction();
             if ((setFunction != null) && (outputContact.getResetFunction() == null)) {
-                BooleanFormula zeroReplace = BooleanUtils.cleverReplace(setFunction, inputContact, Zero.instance());
-                BooleanFormula oneReplace = BooleanUtils.cleverReplace(setFunction, inputContact, One.instance());
-                result = (zeroReplace == Zero.instance()) && (oneReplace == One.instance());
+                result = BooleanUtils.isEquivalent(setFunction, inputContact);
             }
         }
         return result;
@@ -96,9 +94,7 @@ public class FunctionComponent extends CircuitComponent {
         if ((inputContact != null) && (outputContact != null)) {
             BooleanFormula setFunction = outputContact.getSetFunction();
             if ((setFunction != null) && (outputContact.getResetFunction() == null)) {
-                BooleanFormula zeroReplace = BooleanUtils.cleverReplace(setFunction, inputContact, Zero.instance());
-                BooleanFormula oneReplace = BooleanUtils.cleverReplace(setFunction, inputContact, One.instance());
-                result = (zeroReplace == One.instance()) && (oneReplace == Zero.instance());
+                result = BooleanUtils.isEquivalent(setFunction, new Not(inputContact));
             }
         }
         return result;
@@ -224,11 +224,11 @@ public class VisualCircuit extends AbstractVisualModel {
     }
 
     public Collection<VisualFunctionContact> getVisualFunctionContacts() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualFunctionContact.class);
+        return getNodesOfType(VisualFunctionContact.class);
     }
 
     public Collection<VisualFunctionComponent> getVisualFunctionComponents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualFunctionComponent.class);
+        return getNodesOfType(VisualFunctionComponent.class);
     }
 
     public VisualFunctionContact getOrCreateContact(Container container, String name, IOType ioType) {
@@ -286,7 +286,7 @@ public class VisualCircuit extends AbstractVisualModel {
     }
 
     public Collection<VisualContact> getVisualPorts() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualContact.class, new Func<VisualContact, Boolean>() {
+        return getNodesOfType(VisualContact.class, new Func<VisualContact, Boolean>() {
             @Override
             public Boolean eval(VisualContact arg) {
                 return arg.isPort();
@@ -295,7 +295,7 @@ public class VisualCircuit extends AbstractVisualModel {
     }
 
     public Collection<VisualContact> getVisualDrivers() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualContact.class, new Func<VisualContact, Boolean>() {
+        return getNodesOfType(VisualContact.class, new Func<VisualContact, Boolean>() {
             @Override
             public Boolean eval(VisualContact arg) {
                 return arg.isDriver();
@@ -7,10 +7,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.workcraft.Framework;
 import org.workcraft.plugins.circuit.VisualCircuit;
+import org.workcraft.plugins.circuit.tasks.CheckPipeline.Step;
 import org.workcraft.plugins.circuit.stg.CircuitStgUtils;
 import org.workcraft.plugins.circuit.stg.CircuitToStgConverter;
 import org.workcraft.plugins.mpsat.MpsatMode;
@@ -30,7 +32,9 @@ import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Result.Outcome;
 import org.workcraft.tasks.SubtaskMonitor;
+import org.workcraft.tasks.Task;
 import org.workcraft.util.FileUtils;
+import org.workcraft.util.LogUtils;
 import org.workcraft.workspace.WorkspaceEntry;
 
 public class CheckCircuitTask extends MpsatChainTask {
@@ -66,6 +70,9 @@ public class CheckCircuitTask extends MpsatChainTask {
         Framework framework = Framework.getInstance();
         String prefix = FileUtils.getTempPrefix(we.getTitle());
         File directory = FileUtils.createTempDirectory(prefix);
+        // The additional parameters are asked for before every MPSat run, one dialog at a time.
+        int parallelism = MpsatUtilitySettings.getAdvancedMode() ? 1 : MpsatUtilitySettings.getParallelism();
+        CheckPipeline pipeline = new CheckPipeline(framework.getTaskManager(), parallelism, monitor);
         try {
             // Common variables
             VisualCircuit visualCircuit = (VisualCircuit) we.getModelEntry().getVisualModel();
@@ -76,15 +83,8 @@ public class CheckCircuitTask extends MpsatChainTask {
             Stg devStg = (Stg) generator.getStg().getMathModel();
             String devStgName = (hasEnvironment ? StgUtils.DEVICE_FILE_NAME : StgUtils.SYSTEM_FILE_NAME) + StgUtils.ASTG_FILE_EXT;
             File devStgFile = new File(directory, devStgName);
-            Result<? extends Object> devExportResult = CircuitStgUtils.exportStg(devStg, devStgFile, directory, monitor);
-            if (devExportResult.getOutcome() != Outcome.FINISHED) {
-                if (devExportResult.getOutcome() == Outcome.CANCELLED) {
-                    return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                }
-                return new Result<MpsatChainResult>(Outcome.FAILED,
-                        new MpsatChainResult(devExportResult, null, null, null, toolchainPreparationSettings));
-            }
-            monitor.progressUpdate(0.10);
+            Step<Object> devExportStep = pipeline.add("Device export",
+                    createExportTask(devStg, devStgFile, directory, false));
 
             // Environment STG
             Stg envStg = null;
@@ -99,172 +99,135 @@ public class CheckCircuitTask extends MpsatChainTask {
             // Generating system .g for deadlock and hazard checks (only if needed)
             File sysStgFile = null;
             File placesFile = null;
-            Result<? extends ExternalProcessResult>  pcompResult = null;
+            Step<Object> envExportStep = null;
+            Step<ExternalProcessResult> pcompStep = null;
             if (checkDeadlock || checkHazard) {
                 if (envStg == null) {
                     sysStgFile = devStgFile;
                 } else {
                     File envStgFile = new File(directory, StgUtils.ENVIRONMENT_FILE_NAME + StgUtils.ASTG_FILE_EXT);
-                    Result<? extends Object> envExportResult = CircuitStgUtils.exportStg(envStg, envStgFile, directory, monitor);
-                    if (envExportResult.getOutcome() != Outcome.FINISHED) {
-                        if (envExportResult.getOutcome() == Outcome.CANCELLED) {
-                            return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                        }
-                        return new Result<MpsatChainResult>(Outcome.FAILED,
-                                new MpsatChainResult(envExportResult, null, null, null, toolchainPreparationSettings));
-                    }
+                    envExportStep = pipeline.add("Environment export",
+                            createExportTask(envStg, envStgFile, directory, false));
 
                     // Generating .g for the whole system (circuit and environment)
                     sysStgFile = new File(directory, StgUtils.SYSTEM_FILE_NAME + StgUtils.ASTG_FILE_EXT);
                     placesFile = new File(directory, StgUtils.PLACES_FILE_NAME + StgUtils.LIST_FILE_EXT);
-                    pcompResult = CircuitStgUtils.composeDevWithEnv(devStgFile, envStgFile, sysStgFile, placesFile, directory, monitor);
-                    if (pcompResult.getOutcome() != Outcome.FINISHED) {
-                        if (pcompResult.getOutcome() == Outcome.CANCELLED) {
-                            return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                        }
-                        return new Result<MpsatChainResult>(Outcome.FAILED,
-                                new MpsatChainResult(devExportResult, pcompResult, null, null, toolchainPreparationSettings));
-                    }
+                    pcompStep = pipeline.add("Composition",
+                            createComposeTask(devStgFile, envStgFile, sysStgFile, placesFile, directory),
+                            devExportStep, envExportStep);
                 }
             }
-            monitor.progressUpdate(0.20);
 
             // Generating system .g for conformation check (only if needed) -- should be without environment internal signals
             File sysModStgFile = null;
             File placesModFile = null;
-            Result<? extends ExternalProcessResult>  pcompModResult = null;
+            Step<Object> envModExportStep = null;
+            Step<ExternalProcessResult> pcompModStep = null;
             if (checkConformation) {
                 if (envStg == null) {
                     sysModStgFile = devStgFile;
                 } else if (envStg.getSignalNames(Type.INTERNAL, null).isEmpty() && (sysStgFile != null)) {
                     sysModStgFile = sysStgFile;
                     placesModFile = placesFile;
-                    pcompModResult = pcompResult;
+                    pcompModStep = pcompStep;
                 } else {
                     String fileSuffix = (sysStgFile == null) ? "" : StgUtils.MODIFIED_FILE_SUFFIX;
-                    // Convert internal signals to dummies
-                    CircuitStgUtils.convertInternalSignalsToDummies(envStg);
+                    // Internal signals are converted to dummies after the environment STG is exported
                     File envModStgFile = new File(directory, StgUtils.ENVIRONMENT_FILE_NAME + fileSuffix + StgUtils.ASTG_FILE_EXT);
-                    Result<? extends Object> envModExportResult = CircuitStgUtils.exportStg(envStg, envModStgFile, directory, monitor);
-                    if (envModExportResult.getOutcome() != Outcome.FINISHED) {
-                        if (envModExportResult.getOutcome() == Outcome.CANCELLED) {
-                            return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                        }
-                        return new Result<MpsatChainResult>(Outcome.FAILED,
-                                new MpsatChainResult(envModExportResult, null, null, null, toolchainPreparationSettings));
-                    }
+                    envModExportStep = pipeline.add("Modified environment export",
+                            createExportTask(envStg, envModStgFile, directory, true), envExportStep);
 
                     // Generating .g for the whole system (circuit and environment) without internal signals
                     sysModStgFile = new File(directory, StgUtils.SYSTEM_FILE_NAME + fileSuffix + StgUtils.ASTG_FILE_EXT);
                     sysModStgFile.deleteOnExit();
                     placesModFile = new File(directory, StgUtils.PLACES_FILE_NAME + fileSuffix + StgUtils.LIST_FILE_EXT);
                     placesModFile.deleteOnExit();
-                    pcompModResult = CircuitStgUtils.composeDevWithEnv(devStgFile, envModStgFile, sysModStgFile, placesModFile, directory, monitor);
-                    if (pcompModResult.getOutcome() != Outcome.FINISHED) {
-                        if (pcompModResult.getOutcome() == Outcome.CANCELLED) {
-                            return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                        }
-                        return new Result<MpsatChainResult>(Outcome.FAILED,
-                                new MpsatChainResult(devExportResult, pcompModResult, null, null, toolchainPreparationSettings));
-                    }
+                    pcompModStep = pipeline.add("Modified composition",
+                            createComposeTask(devStgFile, envModStgFile, sysModStgFile, placesModFile, directory),
+                            devExportStep, envModExportStep);
                 }
             }
-            monitor.progressUpdate(0.30);
 
             // Generate unfolding for deadlock and hazard checks (only if needed)
             File unfoldingFile = null;
-            PunfTask punfTask = null;
-            Result<? extends ExternalProcessResult> punfResult = null;
+            Step<ExternalProcessResult> punfStep = null;
             if (checkDeadlock || checkHazard) {
                 unfoldingFile = new File(directory, StgUtils.SYSTEM_FILE_NAME + PunfUtilitySettings.getUnfoldingExtension(true));
-                punfTask = new PunfTask(sysStgFile.getAbsolutePath(), unfoldingFile.getAbsolutePath());
-                SubtaskMonitor<Object> punfMonitor = new SubtaskMonitor<>(monitor);
-                punfResult = framework.getTaskManager().execute(punfTask, "Unfolding .g", punfMonitor);
-
-                if (punfResult.getOutcome() != Outcome.FINISHED) {
-                    if (punfResult.getOutcome() == Outcome.CANCELLED) {
-                        return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                    }
-                    return new Result<MpsatChainResult>(Outcome.FAILED,
-                            new MpsatChainResult(devExportResult, pcompResult, punfResult, null, toolchainPreparationSettings));
-                }
+                punfStep = pipeline.add("Unfolding", createUnfoldTask(sysStgFile, unfoldingFile),
+                        (pcompStep == null) ? devExportStep : pcompStep);
             }
             // Generate unfolding for conformation checks (if needed)
             File unfoldingModFile = unfoldingFile;
-            PunfTask punfModTask = punfTask;
-            Result<? extends ExternalProcessResult> punfModResult = punfResult;
+            Step<ExternalProcessResult> punfModStep = punfStep;
             if (hasEnvironment && checkConformation) {
                 if ((sysStgFile != sysModStgFile) || (unfoldingModFile == null)) {
                     String fileSuffix = (sysStgFile == null) ? "" : StgUtils.MODIFIED_FILE_SUFFIX;
                     unfoldingModFile = new File(directory, StgUtils.SYSTEM_FILE_NAME + fileSuffix + PunfUtilitySettings.getUnfoldingExtension(true));
-                    punfModTask = new PunfTask(sysModStgFile.getAbsolutePath(), unfoldingModFile.getAbsolutePath());
-                    SubtaskMonitor<Object> punfModMonitor = new SubtaskMonitor<>(monitor);
-                    punfModResult = framework.getTaskManager().execute(punfModTask, "Unfolding .g", punfModMonitor);
-
-                    if (punfModResult.getOutcome() != Outcome.FINISHED) {
-                        if (punfModResult.getOutcome() == Outcome.CANCELLED) {
-                            return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                        }
-                        return new Result<MpsatChainResult>(Outcome.FAILED,
-                                new MpsatChainResult(devExportResult, pcompModResult, punfModResult, null, toolchainPreparationSettings));
-                    }
+                    punfModStep = pipeline.add("Modified unfolding", createUnfoldTask(sysModStgFile, unfoldingModFile),
+                            (pcompModStep == null) ? devExportStep : pcompModStep);
                 }
             }
-            monitor.progressUpdate(0.40);
 
-            // Check for deadlock (if requested)
+            // Deadlock and hazard checks (if requested) start as soon as the unfolding is ready
+            Step<ExternalProcessResult> deadlockStep = null;
             if (checkDeadlock) {
-                MpsatTask mpsatDeadlockTask = new MpsatTask(deadlockSettings.getMpsatArguments(directory),
-                        unfoldingFile.getAbsolutePath(), directory, true);
-                SubtaskMonitor<Object> mpsatMonitor = new SubtaskMonitor<>(monitor);
-                Result<? extends ExternalProcessResult> mpsatDeadlockResult = framework.getTaskManager().execute(
-                        mpsatDeadlockTask, "Running deadlock check [MPSat]", mpsatMonitor);
-
-                if (mpsatDeadlockResult.getOutcome() != Outcome.FINISHED) {
-                    if (mpsatDeadlockResult.getOutcome() == Outcome.CANCELLED) {
-                        return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                    }
-                    return new Result<MpsatChainResult>(Outcome.FAILED,
-                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatDeadlockResult, deadlockSettings));
-                }
-                monitor.progressUpdate(0.50);
+                deadlockStep = pipeline.add("Deadlock check", createMpsatTask(deadlockSettings, unfoldingFile,
+                        new File(directory, "deadlock"), "Running deadlock check [MPSat]"), punfStep);
+            }
+            Step<ExternalProcessResult> hazardStep = null;
+            if (checkHazard) {
+                hazardStep = pipeline.add("Hazard check", createMpsatTask(hazardSettings, unfoldingFile,
+                        new File(directory, "hazard"), "Running hazard check [MPSat]"), punfStep);
+            }
 
-                MpsatResultParser mpsatDeadlockParser = new MpsatResultParser(mpsatDeadlockResult.getReturnValue());
-                if (!mpsatDeadlockParser.getSolutions().isEmpty()) {
-                    return new Result<MpsatChainResult>(Outcome.FINISHED,
-                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatDeadlockResult, deadlockSettings,
-                                    "Circuit has a deadlock after the following trace(s):"));
-                }
+            // Preparation of data, in the order of the sequential toolchain
+            Result<? extends Object> devExportResult = devExportStep.getResult();
+            Result<MpsatChainResult> failure = checkStep(devExportResult, pipeline,
+                    new MpsatChainResult(devExportResult, null, null, null, toolchainPreparationSettings));
+            if (failure != null) {
+                return failure;
             }
-            monitor.progressUpdate(0.60);
+            monitor.progressUpdate(0.10);
 
-            // Check for hazards (if requested)
-            if (checkHazard) {
-                MpsatTask mpsatHazardTask = new MpsatTask(hazardSettings.getMpsatArguments(directory),
-                        unfoldingFile.getAbsolutePath(), directory, true);
-                SubtaskMonitor<Object> mpsatMonitor = new SubtaskMonitor<>(monitor);
-                Result<? extends ExternalProcessResult>  mpsatHazardResult = framework.getTaskManager().execute(
-                        mpsatHazardTask, "Running hazard check [MPSat]", mpsatMonitor);
-
-                if (mpsatHazardResult.getOutcome() != Outcome.FINISHED) {
-                    if (mpsatHazardResult.getOutcome() == Outcome.CANCELLED) {
-                        return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                    }
-                    return new Result<MpsatChainResult>(Outcome.FAILED,
-                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatHazardResult, hazardSettings));
+            Result<? extends ExternalProcessResult> pcompResult = null;
+            if (pcompStep != null) {
+                Result<? extends Object> envExportResult = envExportStep.getResult();
+                failure = checkStep(envExportResult, pipeline,
+                        new MpsatChainResult(envExportResult, null, null, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
                 }
-                monitor.progressUpdate(0.70);
+                pcompResult = pcompStep.getResult();
+                failure = checkStep(pcompResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompResult, null, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            monitor.progressUpdate(0.20);
 
-                MpsatResultParser mpsatHazardParser = new MpsatResultParser(mpsatHazardResult.getReturnValue());
-                if (!mpsatHazardParser.getSolutions().isEmpty()) {
-                    return new Result<MpsatChainResult>(Outcome.FINISHED,
-                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatHazardResult, hazardSettings,
-                                    "Circuit has a hazard after the following trace(s):"));
+            Result<? extends ExternalProcessResult> pcompModResult = null;
+            if (envModExportStep != null) {
+                Result<? extends Object> envModExportResult = envModExportStep.getResult();
+                failure = checkStep(envModExportResult, pipeline,
+                        new MpsatChainResult(envModExportResult, null, null, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
                 }
+                pcompModResult = pcompModStep.getResult();
+                failure = checkStep(pcompModResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompModResult, null, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
+                }
+            } else {
+                pcompModResult = pcompResult;
             }
-            monitor.progressUpdate(0.80);
+            monitor.progressUpdate(0.30);
 
-            // Check for interface conformation (only if requested and if the environment is specified)
+            // The conformation property refers to the places of the device in the composed STG
+            MpsatSettings conformationSettings = null;
+            Step<ExternalProcessResult> conformationStep = null;
             if (hasEnvironment && checkConformation) {
                 Set<String> devOutputNames = devStg.getSignalFlatNames(Type.OUTPUT);
                 byte[] placesList = FileUtils.readAllBytes(placesModFile);
@@ -274,28 +237,79 @@ public class CheckCircuitTask extends MpsatChainTask {
                     System.out.println("\nReach expression for the interface conformation property:");
                     System.out.println(reachConformation);
                 }
-                MpsatSettings conformationSettings = new MpsatSettings("Interface conformation",
+                conformationSettings = new MpsatSettings("Interface conformation",
                         MpsatMode.STG_REACHABILITY, 0, MpsatUtilitySettings.getSolutionMode(),
                         MpsatUtilitySettings.getSolutionCount(), reachConformation, true);
+                conformationStep = pipeline.add("Conformation check", createMpsatTask(conformationSettings, unfoldingModFile,
+                        new File(directory, "conformation"), "Running conformation check [MPSat]"), punfModStep);
+            }
+
+            Result<? extends ExternalProcessResult> punfResult = null;
+            if (punfStep != null) {
+                punfResult = punfStep.getResult();
+                failure = checkStep(punfResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompResult, punfResult, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            Result<? extends ExternalProcessResult> punfModResult = punfResult;
+            if (punfModStep != punfStep) {
+                punfModResult = punfModStep.getResult();
+                failure = checkStep(punfModResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompModResult, punfModResult, null, toolchainPreparationSettings));
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            monitor.progressUpdate(0.40);
 
-                MpsatTask mpsatConformationTask = new MpsatTask(conformationSettings.getMpsatArguments(directory),
-                        unfoldingModFile.getAbsolutePath(), directory, true);
-                SubtaskMonitor<Object> mpsatMonitor = new SubtaskMonitor<>(monitor);
-                Result<? extends ExternalProcessResult>  mpsatConformationResult = framework.getTaskManager().execute(
-                        mpsatConformationTask, "Running conformation check [MPSat]", mpsatMonitor);
-
-                if (mpsatConformationResult.getOutcome() != Outcome.FINISHED) {
-                    if (mpsatConformationResult.getOutcome() == Outcome.CANCELLED) {
-                        return new Result<MpsatChainResult>(Outcome.CANCELLED);
-                    }
-                    return new Result<MpsatChainResult>(Outcome.FAILED,
-                            new MpsatChainResult(devExportResult, pcompModResult, punfModResult, mpsatConformationResult, conformationSettings));
+            // Check results in the order of priority; a violation makes the remaining checks unnecessary
+            if (deadlockStep != null) {
+                Result<? extends ExternalProcessResult> mpsatDeadlockResult = deadlockStep.getResult();
+                failure = checkStep(mpsatDeadlockResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatDeadlockResult, deadlockSettings));
+                if (failure != null) {
+                    return failure;
+                }
+                monitor.progressUpdate(0.50);
+
+                if (!MpsatResultParser.getSolutions(mpsatDeadlockResult.getReturnValue()).isEmpty()) {
+                    return finish(Outcome.FINISHED, pipeline,
+                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatDeadlockResult, deadlockSettings,
+                                    "Circuit has a deadlock after the following trace(s):"));
+                }
+            }
+            monitor.progressUpdate(0.60);
+
+            if (hazardStep != null) {
+                Result<? extends ExternalProcessResult> mpsatHazardResult = hazardStep.getResult();
+                failure = checkStep(mpsatHazardResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatHazardResult, hazardSettings));
+                if (failure != null) {
+                    return failure;
+                }
+                monitor.progressUpdate(0.70);
+
+                if (!MpsatResultParser.getSolutions(mpsatHazardResult.getReturnValue()).isEmpty()) {
+                    return finish(Outcome.FINISHED, pipeline,
+                            new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatHazardResult, hazardSettings,
+                                    "Circuit has a hazard after the following trace(s):"));
+                }
+            }
+            monitor.progressUpdate(0.80);
+
+            if (conformationStep != null) {
+                Result<? extends ExternalProcessResult> mpsatConformationResult = conformationStep.getResult();
+                failure = checkStep(mpsatConformationResult, pipeline,
+                        new MpsatChainResult(devExportResult, pcompModResult, punfModResult, mpsatConformationResult, conformationSettings));
+                if (failure != null) {
+                    return failure;
                 }
                 monitor.progressUpdate(0.90);
 
-                MpsatResultParser mpsatConformationParser = new MpsatResultParser(mpsatConformationResult.getReturnValue());
-                if (!mpsatConformationParser.getSolutions().isEmpty()) {
-                    return new Result<MpsatChainResult>(Outcome.FINISHED,
+                if (!MpsatResultParser.getSolutions(mpsatConformationResult.getReturnValue()).isEmpty()) {
+                    return finish(Outcome.FINISHED, pipeline,
                             new MpsatChainResult(devExportResult, pcompModResult, punfModResult, mpsatConformationResult, conformationSettings,
                                     "Circuit does not conform to the environment after the following trace(s):"));
                 }
@@ -304,16 +318,94 @@ public class CheckCircuitTask extends MpsatChainTask {
 
             // Success
             String message = getSuccessMessage(envFile);
-            return new Result<MpsatChainResult>(Outcome.FINISHED,
+            return finish(Outcome.FINISHED, pipeline,
                     new MpsatChainResult(devExportResult, pcompResult, punfResult, null, toolchainCompletionSettings, message));
 
         } catch (Throwable e) {
             return new Result<MpsatChainResult>(e);
         } finally {
+            pipeline.cancel();
             FileUtils.deleteOnExitRecursively(directory);
         }
     }
 
+    /**
+     * @return null if the step finished, otherwise the result of the whole check.
+     */
+    private Result<MpsatChainResult> checkStep(Result<?> stepResult, CheckPipeline pipeline, MpsatChainResult chainResult) {
+        if ((stepResult != null) && (stepResult.getOutcome() == Outcome.FINISHED)) {
+            return null;
+        }
+        // A step is skipped only if the check is cancelled or an earlier step has not finished
+        if ((stepResult == null) || (stepResult.getOutcome() == Outcome.CANCELLED)) {
+            return new Result<MpsatChainResult>(Outcome.CANCELLED);
+        }
+        return finish(Outcome.FAILED, pipeline, chainResult);
+    }
+
+    private Result<MpsatChainResult> finish(Outcome outcome, CheckPipeline pipeline, MpsatChainResult chainResult) {
+        Map<String, Long> stepTimes = pipeline.getStepTimes();
+        String text = "";
+        for (Map.Entry<String, Long> entry : stepTimes.entrySet()) {
+            text += (text.isEmpty() ? "" : ", ") + entry.getKey() + " " + entry.getValue() + " ms";
+        }
+        LogUtils.logInfoLine("Circuit check steps: " + text);
+        chainResult.setStepTimes(stepTimes);
+        return new Result<MpsatChainResult>(outcome, chainResult);
+    }
+
+    private Task<Object> createExportTask(final Stg stg, final File stgFile, final File directory,
+            final boolean convertInternalSignals) {
+        return new Task<Object>() {
+            @Override
+            public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+                if (convertInternalSignals) {
+                    CircuitStgUtils.convertInternalSignalsToDummies(stg);
+                }
+                return CircuitStgUtils.exportStg(stg, stgFile, directory, new SubtaskMonitor<Object>(monitor));
+            }
+        };
+    }
+
+    private Task<ExternalProcessResult> createComposeTask(final File devStgFile, final File envStgFile,
+            final File sysStgFile, final File placesFile, final File directory) {
+        return new Task<ExternalProcessResult>() {
+            @Override
+            public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+                return CircuitStgUtils.composeDevWithEnv(devStgFile, envStgFile, sysStgFile, placesFile, directory,
+                        new SubtaskMonitor<Object>(monitor));
+            }
+        };
+    }
+
+    private Task<ExternalProcessResult> createUnfoldTask(final File stgFile, final File unfoldingFile) {
+        return new Task<ExternalProcessResult>() {
+            @Override
+            public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+                PunfTask punfTask = new PunfTask(stgFile.getAbsolutePath(), unfoldingFile.getAbsolutePath());
+                return Framework.getInstance().getTaskManager().execute(punfTask, "Unfolding .g",
+                        new SubtaskMonitor<Object>(monitor));
+            }
+        };
+    }
+
+    /**
+     * Each check runs in its own directory, so that the files of concurrent MPSat runs do not clash.
+     */
+    private Task<ExternalProcessResult> createMpsatTask(final MpsatSettings settings, final File unfoldingFile,
+            final File directory, final String description) {
+        return new Task<ExternalProcessResult>() {
+            @Override
+            public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+                directory.mkdir();
+                MpsatTask mpsatTask = new MpsatTask(settings.getMpsatArguments(directory),
+                        unfoldingFile.getAbsolutePath(), directory, true);
+                return Framework.getInstance().getTaskManager().execute(mpsatTask, description,
+                        new SubtaskMonitor<Object>(monitor));
+            }
+        };
+    }
+
     private HashSet<String> parsePlaceNames(byte[] bufferedInput, int lineIndex) {
         HashSet<String> result = new HashSet<>();
         InputStream is = new ByteArrayInputStream(bufferedInput);
@@ -0,0 +1,269 @@
+package org.workcraft.plugins.circuit.tasks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Result.Outcome;
+import org.workcraft.tasks.ScheduledTask;
+import org.workcraft.tasks.Task;
+import org.workcraft.tasks.TaskManager;
+
+/**
+ * Dependency graph of the steps of a check (export, composition, unfolding, verification).
+ * A step starts as soon as all its dependencies have finished, so every intermediate file is
+ * produced once and the independent steps run at the same time, up to the given number of them,
+ * on the workers of the task manager. A step whose dependency did not finish successfully is skipped.
+ */
+public class CheckPipeline {
+
+    public final class Step<T> implements Task<Object> {
+        private final String name;
+        private final Task<T> task;
+        private final Step<?>[] dependencies;
+        private volatile boolean done = false;
+        private volatile Result<? extends T> result = null;
+        private volatile boolean cancelRequested = false;
+        private volatile long time = -1;
+        private boolean started = false;
+        private ScheduledTask scheduledTask = null;
+
+        private Step(String name, Task<T> task, Step<?>[] dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Waits for the step to complete. While waiting, the calling thread runs the steps that no
+         * worker has taken yet.
+         * @return the result of the step, or null if the step was skipped.
+         */
+        public Result<? extends T> getResult() throws InterruptedException {
+            while (!done) {
+                if (!runQueuedStep()) {
+                    synchronized (CheckPipeline.this) {
+                        if (!done && !hasQueuedStep()) {
+                            CheckPipeline.this.wait();
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        public void cancel() {
+            cancelRequested = true;
+        }
+
+        private boolean isReady() {
+            for (Step<?> dependency : dependencies) {
+                if (!dependency.done) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean canRun() {
+            if (cancelRequested || monitor.isCancelRequested()) {
+                return false;
+            }
+            for (Step<?> dependency : dependencies) {
+                if ((dependency.result == null) || (dependency.result.getOutcome() != Outcome.FINISHED)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Result<? extends Object> run(ProgressMonitor<? super Object> taskMonitor) {
+            ProgressMonitor<Object> stepMonitor = new DummyProgressMonitor<Object>() {
+                @Override
+                public boolean isCancelRequested() {
+                    return cancelRequested || monitor.isCancelRequested();
+                }
+            };
+            long start = System.nanoTime();
+            try {
+                result = task.run(stepMonitor);
+            } catch (Throwable e) {
+                result = Result.exception(e);
+            }
+            time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            complete(result);
+            return Result.finished(null);
+        }
+
+        /**
+         * Sets the result unless the step has already completed, e.g. when it was withdrawn from the queue.
+         */
+        private void complete(Result<? extends T> result) {
+            synchronized (CheckPipeline.this) {
+                if (done) {
+                    return;
+                }
+                this.result = result;
+                done = true;
+                if (started) {
+                    running--;
+                }
+                CheckPipeline.this.notifyAll();
+            }
+            schedule();
+        }
+    }
+
+    private final TaskManager taskManager;
+    private final int parallelism;
+    private final ProgressMonitor<?> monitor;
+    private final List<Step<?>> steps = new ArrayList<>();
+    private final List<Step<?>> pending = new ArrayList<>();
+    private final List<Step<?>> ready = new ArrayList<>();
+    private int running = 0;
+
+    public CheckPipeline(TaskManager taskManager, int parallelism, ProgressMonitor<?> monitor) {
+        this.taskManager = taskManager;
+        this.parallelism = Math.max(1, parallelism);
+        this.monitor = monitor;
+    }
+
+    /**
+     * Adds a step, which is started once the given dependencies are complete. Null dependencies are ignored.
+     */
+    public <T> Step<T> add(String name, Task<T> task, Step<?>... dependencies) {
+        List<Step<?>> nonNullDependencies = new ArrayList<>();
+        for (Step<?> dependency : dependencies) {
+            if (dependency != null) {
+                nonNullDependencies.add(dependency);
+            }
+        }
+        Step<T> step = new Step<>(name, task, nonNullDependencies.toArray(new Step<?>[nonNullDependencies.size()]));
+        synchronized (this) {
+            steps.add(step);
+            pending.add(step);
+        }
+        schedule();
+        return step;
+    }
+
+    private void schedule() {
+        List<Step<?>> skipped = new ArrayList<>();
+        List<Step<?>> queued = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Step<?>> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                Step<?> step = iterator.next();
+                if (step.isReady()) {
+                    iterator.remove();
+                    if (step.canRun()) {
+                        ready.add(step);
+                    } else {
+                        skipped.add(step);
+                    }
+                }
+            }
+            while (!ready.isEmpty() && (running < parallelism)) {
+                Step<?> step = ready.remove(0);
+                step.started = true;
+                queued.add(step);
+                running++;
+            }
+        }
+        for (Step<?> step : queued) {
+            queue(step);
+        }
+        // Completing a skipped step may make its dependants ready.
+        for (Step<?> step : skipped) {
+            step.complete(null);
+        }
+    }
+
+    private <T> void queue(final Step<T> step) {
+        ProgressMonitor<Object> observer = new DummyProgressMonitor<Object>() {
+            @Override
+            public void finished(Result<? extends Object> result, String description) {
+                // The step did not run if it was withdrawn from the queue or rejected by it.
+                if (result.getOutcome() == Outcome.FAILED) {
+                    step.complete(Result.<T>exception(result.getCause()));
+                } else {
+                    step.complete(Result.<T>cancelled());
+                }
+            }
+        };
+        ScheduledTask scheduledTask = taskManager.queue(step, step.getName(), observer, TaskManager.Priority.INTERACTIVE);
+        synchronized (this) {
+            step.scheduledTask = scheduledTask;
+            notifyAll();
+        }
+    }
+
+    private synchronized boolean hasQueuedStep() {
+        for (Step<?> step : steps) {
+            if ((step.scheduledTask != null) && (step.scheduledTask.getState() == ScheduledTask.State.QUEUED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean runQueuedStep() {
+        List<ScheduledTask> scheduledTasks = new ArrayList<>();
+        synchronized (this) {
+            for (Step<?> step : steps) {
+                if (step.scheduledTask != null) {
+                    scheduledTasks.add(step.scheduledTask);
+                }
+            }
+        }
+        for (ScheduledTask scheduledTask : scheduledTasks) {
+            if (scheduledTask.runIfQueued()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancels the running steps and skips the ones not started yet.
+     */
+    public void cancel() {
+        List<ScheduledTask> scheduledTasks = new ArrayList<>();
+        synchronized (this) {
+            for (Step<?> step : steps) {
+                step.cancel();
+                if (step.scheduledTask != null) {
+                    scheduledTasks.add(step.scheduledTask);
+                }
+            }
+        }
+        for (ScheduledTask scheduledTask : scheduledTasks) {
+            scheduledTask.cancel();
+        }
+    }
+
+    /**
+     * @return the running time in milliseconds of each step that was run, in the order the steps were added.
+     */
+    public synchronized Map<String, Long> getStepTimes() {
+        LinkedHashMap<String, Long> result = new LinkedHashMap<>();
+        for (Step<?> step : steps) {
+            if (step.time >= 0) {
+                result.put(step.getName(), step.time);
+            }
+        }
+        return result;
+    }
+
+}
@@ -137,8 +137,7 @@ public class CustomCheckCircuitTask extends MpsatChainTask {
             }
             monitor.progressUpdate(0.50);
 
-            MpsatResultParser mpsatParser = new MpsatResultParser(mpsatResult.getReturnValue());
-            if (!mpsatParser.getSolutions().isEmpty()) {
+            if (!MpsatResultParser.getSolutions(mpsatResult.getReturnValue()).isEmpty()) {
                 return new Result<MpsatChainResult>(Outcome.FINISHED,
                         new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatResult, settings,
                                 "Custom property is violated after the following trace(s):"));
@@ -80,7 +80,7 @@ public class CircuitSimulationTool extends StgSimulationTool {
                 if (t != null) {
                     String circuitRef = getUnderlyingStg().getNodeReference(t);
                     circuitTrace.add(circuitRef);
-                    getUnderlyingStg().fire(t);
+                    fire(circuitRef);
                 }
             }
             writeModelState(initialState);
@@ -160,8 +160,8 @@ public class InitialisationAnalyserTool extends AbstractTool {
 
     private HashSet<Node> chooseFunctionLevelSet(FunctionContact contact, LinkedList<BooleanVariable> variables,
             LinkedList<BooleanFormula> values, HashSet<Node> highSet, HashSet<Node> lowSet) {
-        BooleanFormula setFunction = BooleanUtils.cleverReplace(contact.getSetFunction(), variables, values);
-        BooleanFormula resetFunction = BooleanUtils.cleverReplace(contact.getResetFunction(), variables, values);
+        BooleanFormula setFunction = BooleanUtils.aigReplace(contact.getSetFunction(), variables, values);
+        BooleanFormula resetFunction = BooleanUtils.aigReplace(contact.getResetFunction(), variables, values);
         if (isEvaluatedHigh(setFunction, resetFunction)) {
             return highSet;
         } else if (isEvaluatedLow(setFunction, resetFunction)) {
@@ -0,0 +1,136 @@
+package org.workcraft.testing.plugins.circuit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.circuit.tasks.CheckPipeline;
+import org.workcraft.plugins.circuit.tasks.CheckPipeline.Step;
+import org.workcraft.tasks.DefaultTaskManager;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Result.Outcome;
+import org.workcraft.tasks.Task;
+
+public class CheckPipelineTests {
+
+    private static class RecordingTask implements Task<Object> {
+        private final List<String> log;
+        private final String name;
+        private final AtomicInteger running;
+        private final AtomicInteger peak;
+
+        RecordingTask(List<String> log, String name, AtomicInteger running, AtomicInteger peak) {
+            this.log = log;
+            this.name = name;
+            this.running = running;
+            this.peak = peak;
+        }
+
+        @Override
+        public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+            int count = running.incrementAndGet();
+            synchronized (peak) {
+                peak.set(Math.max(peak.get(), count));
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return Result.exception(e);
+            }
+            log.add(name);
+            running.decrementAndGet();
+            return Result.finished(null);
+        }
+    }
+
+    private static class BlockingTask implements Task<Object> {
+        final CountDownLatch started = new CountDownLatch(1);
+
+        @Override
+        public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+            started.countDown();
+            while (!monitor.isCancelRequested()) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return Result.exception(e);
+                }
+            }
+            return Result.cancelled();
+        }
+    }
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+    private RecordingTask record(String name) {
+        return new RecordingTask(log, name, running, peak);
+    }
+
+    @Test
+    public void testDependencyOrder() throws Exception {
+        CheckPipeline pipeline = new CheckPipeline(new DefaultTaskManager(), 2, new DummyProgressMonitor<Object>());
+        Step<Object> a = pipeline.add("a", record("a"));
+        Step<Object> b = pipeline.add("b", record("b"), a);
+        Step<Object> c = pipeline.add("c", record("c"), a, null);
+        Step<Object> d = pipeline.add("d", record("d"), b, c);
+        Assert.assertEquals(Outcome.FINISHED, d.getResult().getOutcome());
+        Assert.assertEquals(4, log.size());
+        Assert.assertEquals("a", log.get(0));
+        Assert.assertEquals("d", log.get(3));
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), new ArrayList<>(pipeline.getStepTimes().keySet()));
+    }
+
+    @Test
+    public void testFailureSkipsDependants() throws Exception {
+        CheckPipeline pipeline = new CheckPipeline(new DefaultTaskManager(), 2, new DummyProgressMonitor<Object>());
+        Step<Object> failed = pipeline.add("failed", new Task<Object>() {
+            @Override
+            public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+                throw new RuntimeException("Step failed");
+            }
+        });
+        Step<Object> dependant = pipeline.add("dependant", record("dependant"), failed);
+        Step<Object> independent = pipeline.add("independent", record("independent"));
+        Assert.assertEquals(Outcome.FAILED, failed.getResult().getOutcome());
+        Assert.assertNull(dependant.getResult());
+        Assert.assertEquals(Outcome.FINISHED, independent.getResult().getOutcome());
+        Assert.assertEquals(Collections.singletonList("independent"), log);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        CheckPipeline pipeline = new CheckPipeline(new DefaultTaskManager(), 2, new DummyProgressMonitor<Object>());
+        BlockingTask blocker = new BlockingTask();
+        Step<Object> blocked = pipeline.add("blocked", blocker);
+        Step<Object> dependant = pipeline.add("dependant", record("dependant"), blocked);
+        Assert.assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+        pipeline.cancel();
+        Assert.assertEquals(Outcome.CANCELLED, blocked.getResult().getOutcome());
+        Assert.assertNull(dependant.getResult());
+        Assert.assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void testOneStepAtATime() throws Exception {
+        CheckPipeline pipeline = new CheckPipeline(new DefaultTaskManager(), 1, new DummyProgressMonitor<Object>());
+        List<Step<Object>> steps = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            steps.add(pipeline.add("step" + i, record("step" + i)));
+        }
+        for (Step<Object> step : steps) {
+            Assert.assertEquals(Outcome.FINISHED, step.getResult().getOutcome());
+        }
+        Assert.assertEquals(1, peak.get());
+    }
+
+}
@@ -101,8 +101,7 @@ public class CheckDataflowTask extends MpsatChainTask {
             }
             monitor.progressUpdate(0.60);
 
-            MpsatResultParser mdp = new MpsatResultParser(mpsatResult.getReturnValue());
-            if (!mdp.getSolutions().isEmpty()) {
+            if (!MpsatResultParser.getSolutions(mpsatResult.getReturnValue()).isEmpty()) {
                 return new Result<MpsatChainResult>(Outcome.FINISHED,
                         new MpsatChainResult(exportResult, null, punfResult, mpsatResult, deadlockSettings, "Dataflow has a deadlock"));
             }
@@ -120,8 +119,7 @@ public class CheckDataflowTask extends MpsatChainTask {
             }
             monitor.progressUpdate(0.90);
 
-            mdp = new MpsatResultParser(mpsatResult.getReturnValue());
-            if (!mdp.getSolutions().isEmpty()) {
+            if (!MpsatResultParser.getSolutions(mpsatResult.getReturnValue()).isEmpty()) {
                 return new Result<MpsatChainResult>(Outcome.FINISHED,
                         new MpsatChainResult(exportResult, null, punfResult, mpsatResult, hazardSettings, "Dataflow has hazard(s)"));
             }
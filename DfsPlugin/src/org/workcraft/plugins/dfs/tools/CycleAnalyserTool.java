@@ -12,9 +12,9 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 
@@ -28,6 +28,7 @@ import javax.swing.ListSelectionModel;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableColumnModel;
 
+import org.workcraft.dom.GraphSnapshot;
 import org.workcraft.dom.Node;
 import org.workcraft.dom.visual.VisualComponent;
 import org.workcraft.gui.graph.tools.AbstractTool;
@@ -275,20 +276,33 @@ public class CycleAnalyserTool extends AbstractTool {
             }
             first = false;
         }
-        // Prepare temporary node array and adjacency matrix
+        // Prepare temporary node array and adjacency list from the model graph snapshot
         int size = allComponents.size();
         VisualComponent[] tmpComponents = allComponents.toArray(new VisualComponent[size]);
-        boolean[][] adjMatrix = new boolean[size][size];
+        GraphSnapshot snapshot = dfs.getGraphSnapshot();
+        int[] snapshotToLocal = new int[snapshot.getNodeCount()];
+        Arrays.fill(snapshotToLocal, -1);
         for (int i = 0; i < size; i++) {
-            HashSet<Node> preset = new HashSet<>(dfs.getPreset(tmpComponents[i]));
-            HashSet<Node> postset = new HashSet<>(dfs.getPostset(tmpComponents[i]));
-            for (int j = i + 1; j < size; j++) {
-                adjMatrix[i][j] = postset.contains(tmpComponents[j]);
-                adjMatrix[j][i] = preset.contains(tmpComponents[j]);
+            snapshotToLocal[snapshot.getId(tmpComponents[i])] = i;
+        }
+        int[][] adjList = new int[size][];
+        int[] postsetOffsets = snapshot.getPostsetOffsets();
+        int[] postsetIds = snapshot.getPostsetIds();
+        for (int i = 0; i < size; i++) {
+            int id = snapshot.getId(tmpComponents[i]);
+            int[] successors = new int[postsetOffsets[id + 1] - postsetOffsets[id]];
+            int count = 0;
+            for (int k = postsetOffsets[id]; k < postsetOffsets[id + 1]; k++) {
+                int succId = postsetIds[k];
+                if ((succId >= 0) && (snapshotToLocal[succId] >= 0)) {
+                    successors[count++] = snapshotToLocal[succId];
+                }
             }
+            adjList[i] = Arrays.copyOf(successors, count);
+            Arrays.sort(adjList[i]);
         }
         // Calculate simple cycles and process the results
-        ElementaryCyclesSearch ecs = new ElementaryCyclesSearch(adjMatrix, tmpComponents);
+        ElementaryCyclesSearch ecs = new ElementaryCyclesSearch(adjList, tmpComponents);
         List tmpCycles = ecs.getElementaryCycles();
         for (int i = 0; i < tmpCycles.size(); i++) {
             List tmpCycle = (List) tmpCycles.get(i);
@@ -13,7 +13,6 @@ import org.workcraft.plugins.dtd.propertydescriptors.SignalTypePropertyDescripto
 import org.workcraft.plugins.graph.Graph;
 import org.workcraft.serialisation.References;
 import org.workcraft.util.Func;
-import org.workcraft.util.Hierarchy;
 
 @VisualClass(org.workcraft.plugins.dtd.VisualDtd.class)
 public class Dtd extends Graph {
@@ -68,11 +67,11 @@ public class Dtd extends Graph {
     }
 
     public final Collection<Signal> getSignals() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Signal.class);
+        return getNodesOfType(Signal.class);
     }
 
     public final Collection<Signal> getSignals(final Type type) {
-        return Hierarchy.getDescendantsOfType(getRoot(), Signal.class, new Func<Signal, Boolean>() {
+        return getNodesOfType(Signal.class, new Func<Signal, Boolean>() {
             @Override
             public Boolean eval(Signal arg) {
                 return (arg != null) && (arg.getType() == type);
@@ -81,7 +80,7 @@ public class Dtd extends Graph {
     }
 
     public final Collection<Transition> getTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Transition.class);
+        return getNodesOfType(Transition.class);
     }
 
     @Override
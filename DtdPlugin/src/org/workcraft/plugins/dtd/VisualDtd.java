@@ -175,11 +175,11 @@ public class VisualDtd extends VisualGraph {
     }
 
     public Collection<VisualSignal> getVisualSignals() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualSignal.class);
+        return getNodesOfType(VisualSignal.class);
     }
 
     public Collection<VisualTransition> getVisualTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualTransition.class);
+        return getNodesOfType(VisualTransition.class);
     }
 
     protected VisualSignal getVisualSignal(VisualTransition transition) {
@@ -85,11 +85,11 @@ public class Fsm extends AbstractMathModel {
     }
 
     public final Collection<State> getStates() {
-        return Hierarchy.getDescendantsOfType(getRoot(), State.class);
+        return getNodesOfType(State.class);
     }
 
     public final Collection<Symbol> getSymbols() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Symbol.class);
+        return getNodesOfType(Symbol.class);
     }
 
     public boolean isDeterministicSymbol(Symbol symbol) {
@@ -97,11 +97,11 @@ public class Fsm extends AbstractMathModel {
     }
 
     public final Collection<Event> getEvents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Event.class);
+        return getNodesOfType(Event.class);
     }
 
     public final Collection<Event> getEvents(final Symbol symbol) {
-        return Hierarchy.getDescendantsOfType(getRoot(), Event.class, new Func<Event, Boolean>() {
+        return getNodesOfType(Event.class, new Func<Event, Boolean>() {
             @Override
             public Boolean eval(Event arg) {
                 return arg.getSymbol() == symbol;
@@ -80,11 +80,11 @@ public class VisualFsm extends AbstractVisualModel {
     }
 
     public Collection<VisualState> getVisualStates() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualState.class);
+        return getNodesOfType(VisualState.class);
     }
 
     public Collection<VisualEvent> getVisualSymbols() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualEvent.class);
+        return getNodesOfType(VisualEvent.class);
     }
 
 }
@@ -105,11 +105,11 @@ public class Fst extends Fsm {
     }
 
     public final Collection<Signal> getSignals() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Signal.class);
+        return getNodesOfType(Signal.class);
     }
 
     public final Collection<Signal> getSignals(final Type type) {
-        return Hierarchy.getDescendantsOfType(getRoot(), Signal.class, new Func<Signal, Boolean>() {
+        return getNodesOfType(Signal.class, new Func<Signal, Boolean>() {
             @Override
             public Boolean eval(Signal arg) {
                 return (arg != null) && (arg.getType() == type);
@@ -118,7 +118,7 @@ public class Fst extends Fsm {
     }
 
     public final Collection<SignalEvent> getSignalEvents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), SignalEvent.class);
+        return getNodesOfType(SignalEvent.class);
     }
 
     @Override
@@ -28,6 +28,32 @@ public class FstModule implements Module {
         }
     }
 
+    private final class StgToNativeFstConverterTool extends StgToFstConverterTool {
+        @Override
+        public boolean isNative() {
+            return true;
+        }
+    }
+
+    private final class StgToNativeBinaryFstConverterTool extends StgToFstConverterTool {
+        @Override
+        public boolean isBinary() {
+            return true;
+        }
+
+        @Override
+        public boolean isNative() {
+            return true;
+        }
+    }
+
+    private final class PetriToNativeFsmConverterTool extends PetriToFsmConverterTool {
+        @Override
+        public boolean isNative() {
+            return true;
+        }
+    }
+
     @Override
     public String getDescription() {
         return "Finite State Transducer";
@@ -62,6 +88,27 @@ public class FstModule implements Module {
                 return new StgToBinaryFstConverterTool();
             }
         });
+
+        pm.registerClass(Tool.class, new Initialiser<Tool>() {
+            @Override
+            public Tool create() {
+                return new StgToNativeFstConverterTool();
+            }
+        });
+
+        pm.registerClass(Tool.class, new Initialiser<Tool>() {
+            @Override
+            public Tool create() {
+                return new StgToNativeBinaryFstConverterTool();
+            }
+        });
+
+        pm.registerClass(Tool.class, new Initialiser<Tool>() {
+            @Override
+            public Tool create() {
+                return new PetriToNativeFsmConverterTool();
+            }
+        });
     }
 
     private void initCompatibilityManager() {
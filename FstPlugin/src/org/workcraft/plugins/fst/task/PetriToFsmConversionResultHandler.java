@@ -14,6 +14,7 @@ import org.workcraft.plugins.fsm.FsmDescriptor;
 import org.workcraft.plugins.fsm.VisualFsm;
 import org.workcraft.plugins.fst.VisualFst;
 import org.workcraft.plugins.fst.tools.FstToFsmConverter;
+import org.workcraft.plugins.petri.statespace.StateSpaceLimitException;
 import org.workcraft.plugins.shared.CommonEditorSettings;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.tasks.DummyProgressMonitor;
@@ -25,16 +26,19 @@ import org.workcraft.workspace.Workspace;
 import org.workcraft.workspace.WorkspaceEntry;
 
 public class PetriToFsmConversionResultHandler extends DummyProgressMonitor<WriteSgConversionResult> {
-    private final WriteSgConversionTask task;
+    private final WorkspaceEntry we;
 
     public PetriToFsmConversionResultHandler(WriteSgConversionTask task) {
-        this.task = task;
+        this(task.getWorkspaceEntry());
+    }
+
+    public PetriToFsmConversionResultHandler(WorkspaceEntry we) {
+        this.we = we;
     }
 
     @Override
     public void finished(final Result<? extends WriteSgConversionResult> result, String description) {
         final Framework framework = Framework.getInstance();
-        WorkspaceEntry we = task.getWorkspaceEntry();
         Path<String> path = we.getWorkspacePath();
         if (result.getOutcome() == Outcome.FINISHED) {
             final VisualFst fst = new VisualFst(result.getReturnValue().getConversionResult());
@@ -55,6 +59,9 @@ public class PetriToFsmConversionResultHandler extends DummyProgressMonitor<Writ
                 JOptionPane.showMessageDialog(mainWindow,
                         "Petrify output: \n\n" + new String(writeSgResult.getReturnValue().getErrors()),
                         "Conversion failed", JOptionPane.WARNING_MESSAGE);
+            } else if (result.getCause() instanceof StateSpaceLimitException) {
+                JOptionPane.showMessageDialog(mainWindow, result.getCause().getMessage(),
+                        "Conversion failed", JOptionPane.WARNING_MESSAGE);
             } else {
                 ExceptionDialog.show(mainWindow, result.getCause());
             }
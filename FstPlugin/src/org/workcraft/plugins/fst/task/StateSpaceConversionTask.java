@@ -0,0 +1,195 @@
+package org.workcraft.plugins.fst.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.workcraft.plugins.fsm.State;
+import org.workcraft.plugins.fst.Fst;
+import org.workcraft.plugins.fst.Signal;
+import org.workcraft.plugins.fst.SignalEvent;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.statespace.StateGraph;
+import org.workcraft.plugins.petri.statespace.StateSpaceGenerator;
+import org.workcraft.plugins.stg.SignalTransition;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Task;
+import org.workcraft.workspace.WorkspaceEntry;
+
+/**
+ * Builds the state graph of a Petri net or an STG with {@link StateSpaceGenerator} and
+ * converts it to an FST, without exporting the model for Petrify. The states are named
+ * as by Petrify: in the binary mode the name carries the code of signal values and the
+ * states in CSC conflict get the "_csc" suffix.
+ */
+public class StateSpaceConversionTask implements Task<WriteSgConversionResult> {
+    private final WorkspaceEntry we;
+    private final boolean binary;
+
+    public StateSpaceConversionTask(WorkspaceEntry we, boolean binary) {
+        this.we = we;
+        this.binary = binary;
+    }
+
+    public WorkspaceEntry getWorkspaceEntry() {
+        return we;
+    }
+
+    @Override
+    public Result<? extends WriteSgConversionResult> run(ProgressMonitor<? super WriteSgConversionResult> monitor) {
+        try {
+            PetriNetModel net = (PetriNetModel) we.getModelEntry().getMathModel();
+            StateGraph graph = new StateSpaceGenerator(net).generate(monitor);
+            if (graph == null) {
+                return Result.cancelled();
+            }
+            return Result.finished(new WriteSgConversionResult(null, convert(net, graph, binary)));
+        } catch (Throwable e) {
+            return Result.exception(e);
+        }
+    }
+
+    public static Fst convert(PetriNetModel net, StateGraph graph, boolean binary) {
+        Fst fst = new Fst();
+        HashMap<Transition, Signal> transitionToSignal = new HashMap<>();
+        HashMap<Transition, SignalEvent.Direction> transitionToDirection = new HashMap<>();
+        TreeMap<String, Signal> codeSignals = new TreeMap<>();
+        for (Transition transition : graph.getTransitions()) {
+            Signal signal;
+            SignalEvent.Direction direction = SignalEvent.Direction.TOGGLE;
+            if (transition instanceof SignalTransition) {
+                SignalTransition signalTransition = (SignalTransition) transition;
+                String signalName = signalTransition.getSignalName();
+                signal = fst.getOrCreateSignal(signalName, convertType(signalTransition.getSignalType()));
+                codeSignals.put(signalName, signal);
+                direction = SignalEvent.Direction.fromString(signalTransition.getDirection().toString());
+            } else {
+                signal = fst.getOrCreateSignal(net.getNodeReference(transition), Signal.Type.DUMMY);
+            }
+            transitionToSignal.put(transition, signal);
+            transitionToDirection.put(transition, direction);
+        }
+
+        String[] names = null;
+        if (binary) {
+            names = getBinaryStateNames(graph, new ArrayList<>(codeSignals.values()), transitionToSignal, transitionToDirection);
+        }
+        State[] states = new State[graph.getStateCount()];
+        for (int s = 0; s < states.length; s++) {
+            states[s] = fst.createState((names == null) ? "s" + s : names[s]);
+        }
+        if (states.length > 0) {
+            states[0].setInitial(true);
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            Transition transition = graph.getEdgeTransition(e);
+            State first = states[graph.getEdgeSource(e)];
+            State second = states[graph.getEdgeTarget(e)];
+            SignalEvent event = fst.createSignalEvent(first, second, transitionToSignal.get(transition));
+            event.setDirection(transitionToDirection.get(transition));
+        }
+        return fst;
+    }
+
+    private static Signal.Type convertType(SignalTransition.Type type) {
+        switch (type) {
+        case INPUT:
+            return Signal.Type.INPUT;
+        case OUTPUT:
+            return Signal.Type.OUTPUT;
+        case INTERNAL:
+            return Signal.Type.INTERNAL;
+        default:
+            return Signal.Type.DUMMY;
+        }
+    }
+
+    /**
+     * The code of a state is found along the spanning tree of the breadth-first search:
+     * every state is reached first by an edge from a state with a smaller number.
+     */
+    private static String[] getBinaryStateNames(StateGraph graph, List<Signal> signals,
+            Map<Transition, Signal> transitionToSignal, Map<Transition, SignalEvent.Direction> transitionToDirection) {
+
+        HashMap<Signal, Integer> signalIndices = new HashMap<>();
+        for (int i = 0; i < signals.size(); i++) {
+            signalIndices.put(signals.get(i), i);
+        }
+
+        // Signal values relative to the initial state, and the initial values from the first rising or falling edges
+        int stateCount = graph.getStateCount();
+        boolean[][] toggles = new boolean[stateCount][];
+        boolean[] initialValues = new boolean[signals.size()];
+        boolean[] knownValues = new boolean[signals.size()];
+        if (stateCount > 0) {
+            toggles[0] = new boolean[signals.size()];
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            Transition transition = graph.getEdgeTransition(e);
+            Signal signal = transitionToSignal.get(transition);
+            Integer index = signalIndices.get(signal);
+            boolean[] sourceToggles = toggles[graph.getEdgeSource(e)];
+            if (index != null) {
+                SignalEvent.Direction direction = transitionToDirection.get(transition);
+                if (!knownValues[index] && (direction != SignalEvent.Direction.TOGGLE)) {
+                    initialValues[index] = sourceToggles[index] ^ (direction == SignalEvent.Direction.MINUS);
+                    knownValues[index] = true;
+                }
+            }
+            int target = graph.getEdgeTarget(e);
+            if (toggles[target] == null) {
+                toggles[target] = sourceToggles.clone();
+                if (index != null) {
+                    toggles[target][index] = !toggles[target][index];
+                }
+            }
+        }
+
+        String[] codes = new String[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            StringBuilder code = new StringBuilder();
+            for (int i = 0; i < signals.size(); i++) {
+                code.append((toggles[s][i] ^ initialValues[i]) ? '1' : '0');
+            }
+            codes[s] = code.toString();
+        }
+
+        // States with the same code but different enabled non-input signals are in CSC conflict
+        List<Set<Signal>> enabledOutputs = new ArrayList<>();
+        for (int s = 0; s < stateCount; s++) {
+            enabledOutputs.add(new HashSet<Signal>());
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            Signal signal = transitionToSignal.get(graph.getEdgeTransition(e));
+            if ((signal.getType() == Signal.Type.OUTPUT) || (signal.getType() == Signal.Type.INTERNAL)) {
+                enabledOutputs.get(graph.getEdgeSource(e)).add(signal);
+            }
+        }
+        HashMap<String, Set<Signal>> codeToOutputs = new HashMap<>();
+        HashSet<String> conflictCodes = new HashSet<>();
+        for (int s = 0; s < stateCount; s++) {
+            Set<Signal> outputs = codeToOutputs.get(codes[s]);
+            if (outputs == null) {
+                codeToOutputs.put(codes[s], enabledOutputs.get(s));
+            } else if (!outputs.equals(enabledOutputs.get(s))) {
+                conflictCodes.add(codes[s]);
+            }
+        }
+
+        String[] result = new String[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            result[s] = "s" + s + (codes[s].isEmpty() ? "" : "_" + codes[s]);
+            if (conflictCodes.contains(codes[s])) {
+                result[s] += "_csc";
+            }
+        }
+        return result;
+    }
+
+}
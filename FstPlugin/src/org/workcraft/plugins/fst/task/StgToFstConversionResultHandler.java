@@ -15,6 +15,7 @@ import org.workcraft.plugins.fsm.VisualState;
 import org.workcraft.plugins.fst.Fst;
 import org.workcraft.plugins.fst.FstDescriptor;
 import org.workcraft.plugins.fst.VisualFst;
+import org.workcraft.plugins.petri.statespace.StateSpaceLimitException;
 import org.workcraft.plugins.shared.CommonEditorSettings;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.tasks.DummyProgressMonitor;
@@ -33,16 +34,19 @@ public class StgToFstConversionResultHandler extends DummyProgressMonitor<WriteS
             new float[]{0.45f, 0.15f, 0.70f, 0.25f, 0.05f, 0.80f, 0.55f, 0.20f, 075f, 0.50f},
             new float[]{0.30f}, new float[]{0.9f, 0.7f, 0.5f}));
 
-    private final WriteSgConversionTask task;
+    private final WorkspaceEntry we;
 
     public StgToFstConversionResultHandler(WriteSgConversionTask task) {
-        this.task = task;
+        this(task.getWorkspaceEntry());
+    }
+
+    public StgToFstConversionResultHandler(WorkspaceEntry we) {
+        this.we = we;
     }
 
     @Override
     public void finished(final Result<? extends WriteSgConversionResult> result, String description) {
         final Framework framework = Framework.getInstance();
-        WorkspaceEntry we = task.getWorkspaceEntry();
         Path<String> path = we.getWorkspacePath();
         if (result.getOutcome() == Outcome.FINISHED) {
             Fst model = result.getReturnValue().getConversionResult();
@@ -63,6 +67,9 @@ public class StgToFstConversionResultHandler extends DummyProgressMonitor<WriteS
                 JOptionPane.showMessageDialog(mainWindow,
                         "Petrify output: \n\n" + new String(petrifyResult.getReturnValue().getErrors()),
                         "Conversion failed", JOptionPane.WARNING_MESSAGE);
+            } else if (result.getCause() instanceof StateSpaceLimitException) {
+                JOptionPane.showMessageDialog(mainWindow, result.getCause().getMessage(),
+                        "Conversion failed", JOptionPane.WARNING_MESSAGE);
             } else {
                 ExceptionDialog.show(mainWindow, result.getCause());
             }
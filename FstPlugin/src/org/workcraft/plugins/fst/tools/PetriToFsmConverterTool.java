@@ -3,6 +3,7 @@ package org.workcraft.plugins.fst.tools;
 import org.workcraft.ConversionTool;
 import org.workcraft.Framework;
 import org.workcraft.plugins.fst.task.PetriToFsmConversionResultHandler;
+import org.workcraft.plugins.fst.task.StateSpaceConversionTask;
 import org.workcraft.plugins.fst.task.WriteSgConversionTask;
 import org.workcraft.plugins.petri.PetriNet;
 import org.workcraft.util.WorkspaceUtils;
@@ -10,6 +11,10 @@ import org.workcraft.workspace.WorkspaceEntry;
 
 public class PetriToFsmConverterTool extends ConversionTool {
 
+    public boolean isNative() {
+        return false;
+    }
+
     @Override
     public boolean isApplicableTo(WorkspaceEntry we) {
         return WorkspaceUtils.isApplicable(we, PetriNet.class);
@@ -17,14 +22,19 @@ public class PetriToFsmConverterTool extends ConversionTool {
 
     @Override
     public String getDisplayName() {
-        return "Finite State Machine [Petrify]";
+        return isNative() ? "Finite State Machine [built-in]" : "Finite State Machine [Petrify]";
     }
 
     @Override
     public void run(WorkspaceEntry we) {
-        WriteSgConversionTask task = new WriteSgConversionTask(we, false);
         final Framework framework = Framework.getInstance();
-        framework.getTaskManager().queue(task, "Building state graph", new PetriToFsmConversionResultHandler(task));
+        if (isNative()) {
+            StateSpaceConversionTask task = new StateSpaceConversionTask(we, false);
+            framework.getTaskManager().queue(task, "Building state graph", new PetriToFsmConversionResultHandler(we));
+        } else {
+            WriteSgConversionTask task = new WriteSgConversionTask(we, false);
+            framework.getTaskManager().queue(task, "Building state graph", new PetriToFsmConversionResultHandler(task));
+        }
     }
 
 }
@@ -2,6 +2,7 @@ package org.workcraft.plugins.fst.tools;
 
 import org.workcraft.ConversionTool;
 import org.workcraft.Framework;
+import org.workcraft.plugins.fst.task.StateSpaceConversionTask;
 import org.workcraft.plugins.fst.task.StgToFstConversionResultHandler;
 import org.workcraft.plugins.fst.task.WriteSgConversionTask;
 import org.workcraft.plugins.stg.Stg;
@@ -14,6 +15,10 @@ public class StgToFstConverterTool extends ConversionTool {
         return false;
     }
 
+    public boolean isNative() {
+        return false;
+    }
+
     @Override
     public boolean isApplicableTo(WorkspaceEntry we) {
         return WorkspaceUtils.isApplicable(we, Stg.class);
@@ -21,14 +26,20 @@ public class StgToFstConverterTool extends ConversionTool {
 
     @Override
     public String getDisplayName() {
-        return isBinary() ? "Finate State Transducer (binary-encoded) [Petrify]" : "Finate State Transducer (basic) [Petrify]";
+        String name = isBinary() ? "Finate State Transducer (binary-encoded)" : "Finate State Transducer (basic)";
+        return name + (isNative() ? " [built-in]" : " [Petrify]");
     }
 
     @Override
     public void run(WorkspaceEntry we) {
-        WriteSgConversionTask task = new WriteSgConversionTask(we, isBinary());
         final Framework framework = Framework.getInstance();
-        framework.getTaskManager().queue(task, "Building state graph", new StgToFstConversionResultHandler(task));
+        if (isNative()) {
+            StateSpaceConversionTask task = new StateSpaceConversionTask(we, isBinary());
+            framework.getTaskManager().queue(task, "Building state graph", new StgToFstConversionResultHandler(we));
+        } else {
+            WriteSgConversionTask task = new WriteSgConversionTask(we, isBinary());
+            framework.getTaskManager().queue(task, "Building state graph", new StgToFstConversionResultHandler(task));
+        }
     }
 
 }
@@ -77,15 +77,15 @@ public class Graph extends AbstractMathModel {
     }
 
     public final Collection<Symbol> getSymbols() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Symbol.class);
+        return getNodesOfType(Symbol.class);
     }
 
     public final Collection<Vertex> getVertices() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Vertex.class);
+        return getNodesOfType(Vertex.class);
     }
 
     public final Collection<Vertex> getVertices(final Symbol symbol) {
-        return Hierarchy.getDescendantsOfType(getRoot(), Vertex.class, new Func<Vertex, Boolean>() {
+        return getNodesOfType(Vertex.class, new Func<Vertex, Boolean>() {
             @Override
             public Boolean eval(Vertex arg) {
                 return arg.getSymbol() == symbol;
@@ -83,7 +83,7 @@ public class VisualGraph extends AbstractVisualModel {
     }
 
     public Collection<VisualVertex> getVisualVertex() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualVertex.class);
+        return getNodesOfType(VisualVertex.class);
     }
 
 }
@@ -53,8 +53,7 @@ public class MpsatCombinedChainResultHandler extends DummyProgressMonitor<MpsatC
         for (int index = 0; index < mpsatResultList.size(); ++index) {
             Result<? extends ExternalProcessResult> mpsatResult = mpsatResultList.get(index);
             MpsatSettings mpsatSettings = mpsatSettingsList.get(index);
-            MpsatResultParser mdp = new MpsatResultParser(mpsatResult.getReturnValue());
-            List<Solution> solutions = mdp.getSolutions();
+            List<Solution> solutions = MpsatResultParser.getSolutions(mpsatResult.getReturnValue());
             if (!Solution.hasTraces(solutions)) {
                 verifiedMessageDetailes += "\n * " + mpsatSettings.getName();
             } else {
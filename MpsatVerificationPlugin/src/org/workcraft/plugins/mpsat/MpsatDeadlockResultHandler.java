@@ -28,8 +28,7 @@ final class MpsatDeadlockResultHandler implements Runnable {
 
     @Override
     public void run() {
-        MpsatResultParser mdp = new MpsatResultParser(result.getReturnValue());
-        List<Solution> solutions = mdp.getSolutions();
+        List<Solution> solutions = MpsatResultParser.getSolutions(result.getReturnValue());
         MainWindow mainWindow = Framework.getInstance().getMainWindow();
         if (solutions.isEmpty()) {
             String message = "The system is deadlock-free.";
@@ -37,8 +37,7 @@ final class MpsatEncodingConflictResultHandler implements Runnable {
 
     @Override
     public void run() {
-        MpsatResultParser mdp = new MpsatResultParser(result.getReturnValue());
-        List<Solution> solutions = mdp.getSolutions();
+        List<Solution> solutions = MpsatResultParser.getSolutions(result.getReturnValue());
         if (!Solution.hasTraces(solutions)) {
             MainWindow mainWindow = Framework.getInstance().getMainWindow();
             JOptionPane.showMessageDialog(mainWindow, "No encoding conflicts.",
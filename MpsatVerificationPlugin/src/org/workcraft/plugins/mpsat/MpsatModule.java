@@ -18,6 +18,7 @@ import org.workcraft.plugins.mpsat.tools.MpsatInputPropernessChecker;
 import org.workcraft.plugins.mpsat.tools.MpsatNormalcyChecker;
 import org.workcraft.plugins.mpsat.tools.MpsatOutputPersistencyChecker;
 import org.workcraft.plugins.mpsat.tools.MpsatUscChecker;
+import org.workcraft.plugins.mpsat.tools.UnfoldingDeadlockChecker;
 
 public class MpsatModule implements Module {
 
@@ -29,6 +30,7 @@ public class MpsatModule implements Module {
         pm.registerClass(Tool.class, CscResolutionTool.class);
         pm.registerClass(Tool.class, MpsatConsistencyChecker.class);
         pm.registerClass(Tool.class, MpsatDeadlockChecker.class);
+        pm.registerClass(Tool.class, UnfoldingDeadlockChecker.class);
         pm.registerClass(Tool.class, MpsatInputPropernessChecker.class);
         pm.registerClass(Tool.class, MpsatOutputPersistencyChecker.class);
         pm.registerClass(Tool.class, MpsatDiInterfaceChecker.class);
@@ -40,8 +40,7 @@ final class MpsatReachabilityResultHandler implements Runnable {
 
     @Override
     public void run() {
-        MpsatResultParser mdp = new MpsatResultParser(result.getReturnValue());
-        List<Solution> solutions = mdp.getSolutions();
+        List<Solution> solutions = MpsatResultParser.getSolutions(result.getReturnValue());
         String title = "Verification results";
         String message = getMessage(!solutions.isEmpty());
         MainWindow mainWindow = Framework.getInstance().getMainWindow();
@@ -1,66 +1,149 @@
 package org.workcraft.plugins.mpsat;
 
-import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.workcraft.Trace;
 import org.workcraft.dom.hierarchy.NamespaceHelper;
+import org.workcraft.interop.LineOutputListener;
 import org.workcraft.plugins.mpsat.gui.Solution;
+import org.workcraft.plugins.mpsat.tasks.MpsatProcessResult;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 
-public class MpsatResultParser {
-    private final LinkedList<Solution> solutions;
+/**
+ * Parses the solutions reported by MPSat. The parser can be attached to a running
+ * {@link org.workcraft.plugins.shared.tasks.ExternalProcessTask}, in which case the solutions
+ * become available, and are passed to the listener, as soon as their lines are printed.
+ *
+ * A solution starts with a "SOLUTION ..." line and is followed by one of:
+ * - "total cost of all paths: ..." (reachability without a trace);
+ * - a trace and "path cost: ..." or "triggers: ..." (reachability and normalcy);
+ * - two traces, "total cost of all paths: ..." and optionally an empty line
+ *   and "Conflict for signal ..." (encoding conflicts).
+ */
+public class MpsatResultParser extends LineOutputListener {
 
-    private static final Pattern patternReachability0 =
-            Pattern.compile("SOLUTION .+\ntotal cost of all paths: .+\n", Pattern.UNIX_LINES);
+    public interface SolutionListener {
+        void solutionFound(Solution solution);
+    }
 
-    private static final Pattern patternReachability1 =
-            Pattern.compile("SOLUTION .+\n(.*)\npath cost: .+\n", Pattern.UNIX_LINES);
+    private static final String SOLUTION = "SOLUTION ";
+    private static final String TOTAL_COST = "total cost of all paths: ";
+    private static final String PATH_COST = "path cost: ";
+    private static final String TRIGGERS = "triggers: ";
+    private static final String CONFLICT = "Conflict for signal ";
 
-    private static final Pattern patternReachability2 =
-            Pattern.compile("SOLUTION .+\n(.*)\n(.*)\ntotal cost of all paths: .+\n(\nConflict for signal (.+)\n)?", Pattern.UNIX_LINES);
+    private final List<Solution> solutions = new ArrayList<>();
+    // Lines of the matched solutions, enough to parse them again.
+    private final StringBuilder solutionOutput = new StringBuilder();
+    // Lines from the start of the solution being matched.
+    private final List<String> window = new ArrayList<>();
+    private final SolutionListener listener;
 
-    private static final Pattern patternNormalcy1 =
-            Pattern.compile("SOLUTION .+\n(.*)\ntriggers: .+\n", Pattern.UNIX_LINES);
+    public MpsatResultParser() {
+        this((SolutionListener) null);
+    }
+
+    public MpsatResultParser(SolutionListener listener) {
+        this.listener = listener;
+    }
 
     public MpsatResultParser(ExternalProcessResult result) {
-        String mpsatOutput;
-        try {
-            mpsatOutput = new String(result.getOutput(), "ISO-8859-1"); // iso-latin-1
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        this((SolutionListener) null);
+        outputData(result.getOutput());
+        processFinished(result.getReturnCode());
+    }
+
+    @Override
+    public void outputLine(String line) {
+        window.add(line);
+        match(false);
+    }
+
+    @Override
+    public void outputFinished(int returnCode) {
+        match(true);
+    }
+
+    private void match(boolean complete) {
+        while (!window.isEmpty()) {
+            if (!isSolutionStart(window.get(0))) {
+                window.remove(0);
+                continue;
+            }
+            int count = matchSolution(complete);
+            if (count < 0) {
+                break;
+            }
+            List<String> lines = window.subList(0, Math.max(1, count));
+            if (count > 0) {
+                synchronized (solutions) {
+                    for (String line : lines) {
+                        solutionOutput.append(line).append('\n');
+                    }
+                }
+            }
+            lines.clear();
         }
+    }
 
-        solutions = new LinkedList<Solution>();
-        Matcher matcherReachability0 = patternReachability0.matcher(mpsatOutput);
-        while (matcherReachability0.find()) {
-            Solution solution = new Solution(null, null);
-            solutions.add(solution);
+    /**
+     * @return the number of lines of the solution at the start of the window, 0 if there is
+     * no solution there, or -1 if more lines are needed to tell.
+     */
+    private int matchSolution(boolean complete) {
+        int more = complete ? 0 : -1;
+        int size = window.size();
+        if (size < 2) {
+            return more;
         }
-        Matcher matcherReachability1 = patternReachability1.matcher(mpsatOutput);
-        while (matcherReachability1.find()) {
-            Trace trace = getTrace(matcherReachability1.group(1));
-            Solution solution = new Solution(trace, null);
-            solutions.add(solution);
+        if (hasValue(window.get(1), TOTAL_COST)) {
+            addSolution(new Solution(null, null));
+            return 2;
         }
-        Matcher matcherRreachability2 = patternReachability2.matcher(mpsatOutput);
-        while (matcherRreachability2.find()) {
-            Trace mainTrace = getTrace(matcherRreachability2.group(1));
-            Trace branchTrace = getTrace(matcherRreachability2.group(2));
-            String signalName = matcherRreachability2.group(4);
-            Solution solution = new Solution(mainTrace, branchTrace, signalName);
-            solutions.add(solution);
+        if (size < 3) {
+            return more;
+        }
+        if (hasValue(window.get(2), PATH_COST) || hasValue(window.get(2), TRIGGERS)) {
+            addSolution(new Solution(getTrace(window.get(1)), null));
+            return 3;
         }
-        Matcher matcherNormalcy = patternNormalcy1.matcher(mpsatOutput);
-        while (matcherNormalcy.find()) {
-            Trace trace = getTrace(matcherNormalcy.group(1));
-            Solution solution = new Solution(trace, null);
+        if (size < 4) {
+            return more;
+        }
+        if (!hasValue(window.get(3), TOTAL_COST)) {
+            return 0;
+        }
+        if (!complete && ((size == 4) || ((size == 5) && window.get(4).isEmpty()))) {
+            return -1;
+        }
+        Trace mainTrace = getTrace(window.get(1));
+        Trace branchTrace = getTrace(window.get(2));
+        if ((size >= 6) && window.get(4).isEmpty() && hasValue(window.get(5), CONFLICT)) {
+            addSolution(new Solution(mainTrace, branchTrace, window.get(5).substring(CONFLICT.length())));
+            return 6;
+        }
+        addSolution(new Solution(mainTrace, branchTrace, null));
+        return 4;
+    }
+
+    private static boolean isSolutionStart(String line) {
+        int index = line.indexOf(SOLUTION);
+        return (index >= 0) && (line.length() > index + SOLUTION.length());
+    }
+
+    private static boolean hasValue(String line, String prefix) {
+        return line.startsWith(prefix) && (line.length() > prefix.length());
+    }
+
+    private void addSolution(Solution solution) {
+        synchronized (solutions) {
             solutions.add(solution);
         }
+        if (listener != null) {
+            listener.solutionFound(solution);
+        }
     }
 
     private Trace getTrace(String mpsatTrace) {
@@ -79,8 +162,33 @@ public class MpsatResultParser {
         return trace;
     }
 
+    /**
+     * @return the solutions of an MPSat result, which are parsed while MPSat is running
+     * if the result comes from {@link org.workcraft.plugins.mpsat.tasks.MpsatTask}.
+     */
+    public static List<Solution> getSolutions(ExternalProcessResult result) {
+        if (result instanceof MpsatProcessResult) {
+            return ((MpsatProcessResult) result).getSolutions();
+        }
+        return new MpsatResultParser(result).getSolutions();
+    }
+
+    /**
+     * @return the lines of the solutions found so far, which give the same solutions when parsed.
+     */
+    public byte[] getSolutionOutput() {
+        synchronized (solutions) {
+            return solutionOutput.toString().getBytes();
+        }
+    }
+
+    /**
+     * @return the solutions found so far.
+     */
     public List<Solution> getSolutions() {
-        return Collections.unmodifiableList(solutions);
+        synchronized (solutions) {
+            return Collections.unmodifiableList(new ArrayList<>(solutions));
+        }
     }
 
 }
@@ -43,6 +43,8 @@ public class MpsatUtilitySettings implements Settings {
     private static final String keyPrintStderr = prefix + ".printStderr";
     private static final String keyDebugReach = prefix + ".debugReach";
     private static final String keyDebugCores = prefix + ".debugCores";
+    private static final String keyParallelism = prefix + ".parallelism";
+    private static final String keyCancelOnFailure = prefix + ".cancelOnFailure";
 
     private static final String defaultCommand = DesktopApi.getOs().isWindows() ? "tools\\UnfoldingTools\\mpsat.exe" : "tools/UnfoldingTools/mpsat";
     private static final SolutionMode defaultSolutionMode = SolutionMode.MINIMUM_COST;
@@ -52,6 +54,8 @@ public class MpsatUtilitySettings implements Settings {
     private static final Boolean defaultPrintStderr = true;
     private static final Boolean defaultDebugReach = false;
     private static final Boolean defaultDebugCores = false;
+    private static final int defaultParallelism = Math.min(64, Runtime.getRuntime().availableProcessors());
+    private static final Boolean defaultCancelOnFailure = true;
 
     private static String command = defaultCommand;
     private static SolutionMode solutionMode = defaultSolutionMode;
@@ -61,6 +65,8 @@ public class MpsatUtilitySettings implements Settings {
     private static Boolean printStderr = defaultPrintStderr;
     private static Boolean debugReach = defaultDebugReach;
     private static Boolean debugCores = defaultDebugCores;
+    private static int parallelism = defaultParallelism;
+    private static Boolean cancelOnFailure = defaultCancelOnFailure;
 
     public MpsatUtilitySettings() {
         properties.add(new PropertyDeclaration<MpsatUtilitySettings, String>(
@@ -142,6 +148,26 @@ public class MpsatUtilitySettings implements Settings {
                 return getDebugCores();
             }
         });
+
+        properties.add(new PropertyDeclaration<MpsatUtilitySettings, Integer>(
+                this, "Concurrent MPSat runs in combined checks (1-64)", Integer.class, true, false, false) {
+            protected void setter(MpsatUtilitySettings object, Integer value) {
+                setParallelism(value);
+            }
+            protected Integer getter(MpsatUtilitySettings object) {
+                return getParallelism();
+            }
+        });
+
+        properties.add(new PropertyDeclaration<MpsatUtilitySettings, Boolean>(
+                this, "Cancel the remaining combined checks if one fails", Boolean.class, true, false, false) {
+            protected void setter(MpsatUtilitySettings object, Boolean value) {
+                setCancelOnFailure(value);
+            }
+            protected Boolean getter(MpsatUtilitySettings object) {
+                return getCancelOnFailure();
+            }
+        });
     }
 
     @Override
@@ -159,6 +185,8 @@ public class MpsatUtilitySettings implements Settings {
         setPrintStderr(config.getBoolean(keyPrintStderr, defaultPrintStderr));
         setDebugReach(config.getBoolean(keyDebugReach, defaultDebugReach));
         setDebugCores(config.getBoolean(keyDebugCores, defaultDebugCores));
+        setParallelism(config.getInt(keyParallelism, defaultParallelism));
+        setCancelOnFailure(config.getBoolean(keyCancelOnFailure, defaultCancelOnFailure));
     }
 
     @Override
@@ -171,6 +199,8 @@ public class MpsatUtilitySettings implements Settings {
         config.setBoolean(keyPrintStderr, getPrintStderr());
         config.setBoolean(keyDebugReach, getDebugReach());
         config.setBoolean(keyDebugCores, getDebugCores());
+        config.setInt(keyParallelism, getParallelism());
+        config.setBoolean(keyCancelOnFailure, getCancelOnFailure());
     }
 
     @Override
@@ -251,4 +281,26 @@ public class MpsatUtilitySettings implements Settings {
         debugCores = value;
     }
 
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    public static void setParallelism(int value) {
+        if (value < 1) {
+            value = 1;
+        }
+        if (value > 64) {
+            value = 64;
+        }
+        parallelism = value;
+    }
+
+    public static Boolean getCancelOnFailure() {
+        return cancelOnFailure;
+    }
+
+    public static void setCancelOnFailure(Boolean value) {
+        cancelOnFailure = value;
+    }
+
 }
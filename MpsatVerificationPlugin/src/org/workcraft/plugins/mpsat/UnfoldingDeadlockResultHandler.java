@@ -0,0 +1,68 @@
+package org.workcraft.plugins.mpsat;
+
+import java.util.List;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.workcraft.Framework;
+import org.workcraft.gui.MainWindow;
+import org.workcraft.plugins.mpsat.gui.ReachibilityDialog;
+import org.workcraft.plugins.mpsat.gui.Solution;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.util.GUI;
+import org.workcraft.workspace.WorkspaceEntry;
+
+public class UnfoldingDeadlockResultHandler extends DummyProgressMonitor<List<Solution>> {
+    private static final String TITLE = "Verification results";
+    private final WorkspaceEntry we;
+
+    public UnfoldingDeadlockResultHandler(WorkspaceEntry we) {
+        this.we = we;
+    }
+
+    @Override
+    public void finished(final Result<? extends List<Solution>> result, String description) {
+        switch (result.getOutcome()) {
+        case FINISHED:
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    handleSuccess(result.getReturnValue());
+                }
+            });
+            break;
+        case FAILED:
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    Throwable cause = result.getCause();
+                    String message = (cause == null) ? "Unfolding failed." : cause.getMessage();
+                    JOptionPane.showMessageDialog(getMainWindow(), message, TITLE, JOptionPane.ERROR_MESSAGE);
+                }
+            });
+            break;
+        default:
+            break;
+        }
+    }
+
+    private MainWindow getMainWindow() {
+        return Framework.getInstance().getMainWindow();
+    }
+
+    private void handleSuccess(List<Solution> solutions) {
+        MainWindow mainWindow = getMainWindow();
+        if (solutions.isEmpty()) {
+            String message = "The system is deadlock-free.";
+            JOptionPane.showMessageDialog(mainWindow, message, TITLE, JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            String message = "<html><br>&#160;The system has a deadlock after the following trace(s):<br><br></html>";
+            final ReachibilityDialog solutionsDialog = new ReachibilityDialog(we, TITLE, message, solutions);
+            GUI.centerToParent(solutionsDialog, mainWindow);
+            solutionsDialog.setVisible(true);
+        }
+    }
+
+}
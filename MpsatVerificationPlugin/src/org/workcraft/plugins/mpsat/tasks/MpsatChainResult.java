@@ -1,5 +1,8 @@
 package org.workcraft.plugins.mpsat.tasks;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.workcraft.plugins.mpsat.MpsatSettings;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.tasks.Result;
@@ -11,6 +14,7 @@ public class MpsatChainResult {
     private Result<? extends ExternalProcessResult> mpsatResult;
     private MpsatSettings mpsatSettings;
     private String message;
+    private Map<String, Long> stepTimes = Collections.emptyMap();
 
     public MpsatChainResult(Result<? extends Object> exportResult,
             Result<? extends ExternalProcessResult> pcompResult,
@@ -59,4 +63,15 @@ public class MpsatChainResult {
         return message;
     }
 
+    /**
+     * @return the running time in milliseconds of each step of the chain, in the order of the steps.
+     */
+    public Map<String, Long> getStepTimes() {
+        return stepTimes;
+    }
+
+    public void setStepTimes(Map<String, Long> stepTimes) {
+        this.stepTimes = Collections.unmodifiableMap(stepTimes);
+    }
+
 }
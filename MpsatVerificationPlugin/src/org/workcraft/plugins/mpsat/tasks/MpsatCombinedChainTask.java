@@ -3,33 +3,54 @@ package org.workcraft.plugins.mpsat.tasks;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.workcraft.Framework;
 import org.workcraft.interop.Exporter;
 import org.workcraft.plugins.mpsat.MpsatSettings;
+import org.workcraft.plugins.mpsat.MpsatUtilitySettings;
 import org.workcraft.plugins.petri.PetriNetModel;
 import org.workcraft.plugins.punf.PunfUtilitySettings;
 import org.workcraft.plugins.punf.tasks.PunfTask;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.serialisation.Format;
+import org.workcraft.tasks.DummyProgressMonitor;
 import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Result.Outcome;
 import org.workcraft.tasks.SubtaskMonitor;
 import org.workcraft.tasks.Task;
+import org.workcraft.tasks.TaskManager;
 import org.workcraft.util.Export;
 import org.workcraft.util.Export.ExportTask;
 import org.workcraft.util.FileUtils;
 import org.workcraft.util.WorkspaceUtils;
 import org.workcraft.workspace.WorkspaceEntry;
 
+/**
+ * Builds the unfolding once and checks all the properties on it. The MPSat runs are independent,
+ * so up to the given number of them run at the same time on the workers of the task manager, each
+ * in its own directory; their results are kept in the order of the settings.
+ */
 public class MpsatCombinedChainTask implements Task<MpsatCombinedChainResult> {
     private final WorkspaceEntry we;
     private final List<MpsatSettings> settingsList;
+    private final int parallelism;
+    private final boolean cancelOnFailure;
 
     public MpsatCombinedChainTask(WorkspaceEntry we, List<MpsatSettings> settingsList) {
+        this(we, settingsList, MpsatUtilitySettings.getParallelism(), MpsatUtilitySettings.getCancelOnFailure());
+    }
+
+    /**
+     * @param cancelOnFailure whether the MPSat runs still in progress are cancelled when one of them fails.
+     */
+    public MpsatCombinedChainTask(WorkspaceEntry we, List<MpsatSettings> settingsList, int parallelism, boolean cancelOnFailure) {
         this.we = we;
         this.settingsList = settingsList;
+        this.parallelism = parallelism;
+        this.cancelOnFailure = cancelOnFailure;
     }
 
     @Override
@@ -79,21 +100,21 @@ public class MpsatCombinedChainTask implements Task<MpsatCombinedChainResult> {
             monitor.progressUpdate(0.66);
 
             // Run MPSat on the generated unfolding
-            ArrayList<Result<? extends ExternalProcessResult>> mpsatResultList = new ArrayList<>(settingsList.size());
-            for (MpsatSettings settings: settingsList) {
-                MpsatTask mpsatTask = new MpsatTask(settings.getMpsatArguments(directory),
-                        unfoldingFile.getAbsolutePath(), directory, tryPnml);
-                Result<? extends ExternalProcessResult> mpsatResult = framework.getTaskManager().execute(
-                        mpsatTask, "Running verification [MPSat]", subtaskMonitor);
-                mpsatResultList.add(mpsatResult);
-                if (mpsatResult.getOutcome() != Outcome.FINISHED) {
-                    if (mpsatResult.getOutcome() == Outcome.CANCELLED) {
-                        return new Result<MpsatCombinedChainResult>(Outcome.CANCELLED);
-                    }
+            List<Result<? extends ExternalProcessResult>> mpsatResultList = runMpsat(directory, unfoldingFile, tryPnml, monitor);
+            if (monitor.isCancelRequested()) {
+                return new Result<MpsatCombinedChainResult>(Outcome.CANCELLED);
+            }
+            for (Result<? extends ExternalProcessResult> mpsatResult: mpsatResultList) {
+                if (mpsatResult.getOutcome() == Outcome.FAILED) {
                     return new Result<MpsatCombinedChainResult>(Outcome.FAILED,
                             new MpsatCombinedChainResult(exportResult, null, punfResult, mpsatResultList, settingsList));
                 }
             }
+            for (Result<? extends ExternalProcessResult> mpsatResult: mpsatResultList) {
+                if (mpsatResult.getOutcome() == Outcome.CANCELLED) {
+                    return new Result<MpsatCombinedChainResult>(Outcome.CANCELLED);
+                }
+            }
             monitor.progressUpdate(1.0);
 
             return new Result<MpsatCombinedChainResult>(Outcome.FINISHED,
@@ -105,6 +126,62 @@ public class MpsatCombinedChainTask implements Task<MpsatCombinedChainResult> {
         }
     }
 
+    private List<Result<? extends ExternalProcessResult>> runMpsat(File directory, File unfoldingFile, boolean tryPnml,
+            ProgressMonitor<?> monitor) {
+        List<MpsatTask> mpsatTasks = new ArrayList<>();
+        int index = 0;
+        for (MpsatSettings settings: settingsList) {
+            File mpsatDirectory = new File(directory, "mpsat" + index++);
+            mpsatDirectory.mkdir();
+            mpsatTasks.add(new MpsatTask(settings.getMpsatArguments(mpsatDirectory),
+                    unfoldingFile.getAbsolutePath(), mpsatDirectory, tryPnml));
+        }
+        // The additional parameters are asked for before every run, one dialog at a time.
+        int runCount = MpsatUtilitySettings.getAdvancedMode() ? 1 : parallelism;
+        return runAll(Framework.getInstance().getTaskManager(), mpsatTasks, runCount, cancelOnFailure, monitor);
+    }
+
+    /**
+     * Runs the tasks through the task manager, up to the given number of them at a time, and reports
+     * the progress after each of them. If cancelOnFailure is set, a failed run cancels the runs in
+     * progress and the ones not started yet.
+     * @return the results in the order of the tasks.
+     */
+    public static List<Result<? extends ExternalProcessResult>> runAll(TaskManager taskManager,
+            List<? extends Task<ExternalProcessResult>> tasks, int parallelism, final boolean cancelOnFailure,
+            final ProgressMonitor<?> monitor) {
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final AtomicInteger finishedCount = new AtomicInteger();
+        final int count = tasks.size();
+        ProgressMonitor<ExternalProcessResult> mpsatMonitor = new DummyProgressMonitor<ExternalProcessResult>() {
+            @Override
+            public boolean isCancelRequested() {
+                return (cancelOnFailure && failed.get()) || monitor.isCancelRequested();
+            }
+
+            @Override
+            public void finished(Result<? extends ExternalProcessResult> result, String description) {
+                if (result.getOutcome() == Outcome.FAILED) {
+                    failed.set(true);
+                }
+                monitor.progressUpdate(0.66 + 0.34 * finishedCount.incrementAndGet() / count);
+            }
+        };
+        List<Task<ExternalProcessResult>> guardedTasks = new ArrayList<>();
+        for (final Task<ExternalProcessResult> task: tasks) {
+            guardedTasks.add(new Task<ExternalProcessResult>() {
+                @Override
+                public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+                    if (monitor.isCancelRequested()) {
+                        return Result.cancelled();
+                    }
+                    return task.run(monitor);
+                }
+            });
+        }
+        return taskManager.executeAll(guardedTasks, "Running verification [MPSat]", parallelism, mpsatMonitor);
+    }
+
     public List<MpsatSettings> getSettingsList() {
         return settingsList;
     }
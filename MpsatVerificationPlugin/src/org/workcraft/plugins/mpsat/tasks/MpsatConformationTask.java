@@ -159,8 +159,7 @@ public class MpsatConformationTask extends MpsatChainTask {
             }
             monitor.progressUpdate(0.80);
 
-            MpsatResultParser mpsatConformationParser = new MpsatResultParser(mpsatConformationResult.getReturnValue());
-            if (!mpsatConformationParser.getSolutions().isEmpty()) {
+            if (!MpsatResultParser.getSolutions(mpsatConformationResult.getReturnValue()).isEmpty()) {
                 return new Result<MpsatChainResult>(Outcome.FINISHED,
                         new MpsatChainResult(devExportResult, pcompResult, punfResult, mpsatConformationResult, conformationSettings,
                                 "This model does not conform to the environment."));
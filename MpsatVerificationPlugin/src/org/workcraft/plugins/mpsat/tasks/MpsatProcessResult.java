@@ -0,0 +1,27 @@
+package org.workcraft.plugins.mpsat.tasks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.workcraft.plugins.mpsat.gui.Solution;
+import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
+
+/**
+ * Result of {@link MpsatTask} with the solutions parsed from the output while MPSat was
+ * running. Only the lines of the solutions are kept as the output.
+ */
+public class MpsatProcessResult extends ExternalProcessResult {
+    private final List<Solution> solutions;
+
+    public MpsatProcessResult(int returnCode, byte[] output, byte[] errors, Map<String, byte[]> outputFiles,
+            List<Solution> solutions) {
+        super(returnCode, output, errors, outputFiles);
+        this.solutions = Collections.unmodifiableList(solutions);
+    }
+
+    public List<Solution> getSolutions() {
+        return solutions;
+    }
+
+}
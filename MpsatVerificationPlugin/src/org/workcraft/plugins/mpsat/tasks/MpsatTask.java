@@ -3,15 +3,23 @@ package org.workcraft.plugins.mpsat.tasks;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.JOptionPane;
 
 import org.workcraft.Framework;
+import org.workcraft.Trace;
 import org.workcraft.gui.MainWindow;
+import org.workcraft.interop.ExternalProcessListener;
+import org.workcraft.plugins.mpsat.MpsatResultParser;
+import org.workcraft.plugins.mpsat.MpsatResultParser.SolutionListener;
 import org.workcraft.plugins.mpsat.MpsatUtilitySettings;
+import org.workcraft.plugins.mpsat.gui.Solution;
 import org.workcraft.plugins.punf.PunfUtilitySettings;
+import org.workcraft.plugins.shared.tasks.ExternalProcessCache;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.plugins.shared.tasks.ExternalProcessTask;
 import org.workcraft.tasks.ProgressMonitor;
@@ -19,6 +27,7 @@ import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Result.Outcome;
 import org.workcraft.tasks.Task;
 import org.workcraft.util.FileUtils;
+import org.workcraft.util.LogUtils;
 import org.workcraft.util.ToolUtils;
 
 public class MpsatTask implements Task<ExternalProcessResult> {
@@ -28,6 +37,13 @@ public class MpsatTask implements Task<ExternalProcessResult> {
     private final String inputFileName;
     private final File directory;
     private final boolean tryPnml;
+    private final List<ExternalProcessListener> listeners = new ArrayList<>();
+    private SolutionListener solutionListener = new SolutionListener() {
+        @Override
+        public void solutionFound(Solution solution) {
+            LogUtils.logInfoLine("MPSat found a solution" + getTraceText(solution.getMainTrace()));
+        }
+    };
 
     public MpsatTask(String[] args, String inputFileName, File directory, boolean tryPnml) {
         this.args = args;
@@ -40,6 +56,26 @@ public class MpsatTask implements Task<ExternalProcessResult> {
         this.tryPnml = tryPnml;
     }
 
+    /**
+     * Adds a listener of the MPSat output, e.g. a {@link org.workcraft.plugins.mpsat.MpsatResultParser}
+     * to get the solutions while MPSat is still running.
+     */
+    public void addListener(ExternalProcessListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the listener that gets the solutions as soon as MPSat prints them. By default
+     * they are reported in the log.
+     */
+    public void setSolutionListener(SolutionListener value) {
+        solutionListener = value;
+    }
+
+    private static String getTraceText(Trace trace) {
+        return ((trace == null) || trace.isEmpty()) ? "." : " after the trace: " + trace;
+    }
+
     @Override
     public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
         ArrayList<String> command = new ArrayList<>();
@@ -74,14 +110,49 @@ public class MpsatTask implements Task<ExternalProcessResult> {
         // Input file
         command.add(inputFileName);
 
-        boolean printStdout = MpsatUtilitySettings.getPrintStdout();
-        boolean printStderr = MpsatUtilitySettings.getPrintStderr();
-        ExternalProcessTask task = new ExternalProcessTask(command, directory, printStdout, printStderr);
-        Result<? extends ExternalProcessResult> res = task.run(monitor);
+        File outFile = new File(directory, FILE_MPSAT_G);
+        Map<String, File> cachedFiles = Collections.singletonMap(FILE_MPSAT_G, outFile);
+        ExternalProcessCache.Key key = null;
+        Result<? extends ExternalProcessResult> res = null;
+        // The solutions are parsed while MPSat is running, so its output is not kept.
+        MpsatResultParser parser = new MpsatResultParser(solutionListener);
+        // The listeners expect to see the output as it is produced, so the cache is bypassed for them.
+        if (ExternalProcessCache.isEnabled() && listeners.isEmpty()) {
+            try {
+                key = createCacheKey(command);
+                ExternalProcessResult cachedResult = ExternalProcessCache.getInstance().get(key, cachedFiles);
+                if (cachedResult != null) {
+                    ExternalProcessTask.printCachedCommandLine(command);
+                    parser.outputData(cachedResult.getOutput());
+                    parser.processFinished(cachedResult.getReturnCode());
+                    res = Result.finished(cachedResult);
+                }
+            } catch (IOException e) {
+                LogUtils.logWarningLine("Cannot use the cache of MPSat results: " + e.getMessage());
+                key = null;
+            }
+        }
+
+        if (res == null) {
+            boolean printStdout = MpsatUtilitySettings.getPrintStdout();
+            boolean printStderr = MpsatUtilitySettings.getPrintStderr();
+            ExternalProcessTask task = new ExternalProcessTask(command, directory, printStdout, printStderr);
+            task.setOutputKept(false);
+            task.addListener(parser);
+            for (ExternalProcessListener listener : listeners) {
+                task.addListener(listener);
+            }
+            res = task.run(monitor);
+            if ((key != null) && (res.getOutcome() == Outcome.FINISHED) && (res.getReturnValue().getReturnCode() < 2)) {
+                ExternalProcessResult retVal = res.getReturnValue();
+                ExternalProcessResult cachedResult = new ExternalProcessResult(retVal.getReturnCode(),
+                        parser.getSolutionOutput(), retVal.getErrors());
+                ExternalProcessCache.getInstance().put(key, cachedResult, cachedFiles);
+            }
+        }
         if (res.getOutcome() == Outcome.FINISHED) {
             Map<String, byte[]> outputFiles = new HashMap<>();
             try {
-                File outFile = new File(directory, FILE_MPSAT_G);
                 if (outFile.exists()) {
                     outputFiles.put(FILE_MPSAT_G, FileUtils.readAllBytes(outFile));
                 }
@@ -90,7 +161,8 @@ public class MpsatTask implements Task<ExternalProcessResult> {
             }
 
             ExternalProcessResult retVal = res.getReturnValue();
-            ExternalProcessResult result = new ExternalProcessResult(retVal.getReturnCode(), retVal.getOutput(), retVal.getErrors(), outputFiles);
+            ExternalProcessResult result = new MpsatProcessResult(retVal.getReturnCode(), parser.getSolutionOutput(),
+                    retVal.getErrors(), outputFiles, parser.getSolutions());
             if (retVal.getReturnCode() < 2) {
                 return Result.finished(result);
             } else {
@@ -100,7 +172,31 @@ public class MpsatTask implements Task<ExternalProcessResult> {
         if (res.getOutcome() == Outcome.CANCELLED) {
             return Result.cancelled();
         }
+        if (res.getCause() != null) {
+            return Result.exception(res.getCause());
+        }
         return Result.failed(null);
     }
 
+    /**
+     * The files given as arguments, including the unfolding, are added by their content,
+     * as their paths are in a fresh temporary directory every time.
+     */
+    private ExternalProcessCache.Key createCacheKey(List<String> command) throws IOException {
+        ExternalProcessCache.Key key = ExternalProcessCache.createKey().add("mpsat").addTool(command.get(0));
+        for (String arg : command.subList(1, command.size())) {
+            File file = new File(arg.startsWith("@") ? arg.substring(1) : arg);
+            if (!file.isAbsolute()) {
+                file = new File(directory, file.getPath());
+            }
+            if (file.isFile()) {
+                key.add(arg.startsWith("@") ? "@" : "");
+                key.addFile(file);
+            } else {
+                key.add(arg);
+            }
+        }
+        return key;
+    }
+
 }
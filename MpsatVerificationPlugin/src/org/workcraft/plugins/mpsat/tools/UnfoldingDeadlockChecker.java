@@ -0,0 +1,83 @@
+package org.workcraft.plugins.mpsat.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.workcraft.Framework;
+import org.workcraft.Trace;
+import org.workcraft.VerificationTool;
+import org.workcraft.plugins.mpsat.UnfoldingDeadlockResultHandler;
+import org.workcraft.plugins.mpsat.gui.Solution;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.unfolding.Unfolder;
+import org.workcraft.plugins.petri.unfolding.Unfolding;
+import org.workcraft.plugins.petri.unfolding.UnfoldingException;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Task;
+import org.workcraft.util.LogUtils;
+import org.workcraft.util.WorkspaceUtils;
+import org.workcraft.workspace.WorkspaceEntry;
+
+/**
+ * Deadlock check on a prefix built by the unfolder of the Petri net plugin, for the machines
+ * where punf and MPSat are not available.
+ */
+public class UnfoldingDeadlockChecker extends VerificationTool {
+
+    @Override
+    public String getDisplayName() {
+        return "Deadlock freeness [built-in unfolding]";
+    }
+
+    @Override
+    public boolean isApplicableTo(WorkspaceEntry we) {
+        return WorkspaceUtils.isApplicable(we, PetriNetModel.class);
+    }
+
+    @Override
+    public int getPriority() {
+        return 4;
+    }
+
+    @Override
+    public Position getPosition() {
+        return null;
+    }
+
+    @Override
+    public void run(final WorkspaceEntry we) {
+        final PetriNetModel net = (PetriNetModel) we.getModelEntry().getMathModel();
+        final Unfolder unfolder = new Unfolder(net);
+        Task<List<Solution>> task = new Task<List<Solution>>() {
+            @Override
+            public Result<? extends List<Solution>> run(ProgressMonitor<? super List<Solution>> monitor) {
+                try {
+                    Unfolding unfolding = unfolder.unfold(monitor);
+                    if (unfolding == null) {
+                        return Result.cancelled();
+                    }
+                    LogUtils.logInfoLine("Prefix of " + unfolding.getEventCount() + " events ("
+                            + unfolding.getCutoffCount() + " cut-off) and "
+                            + unfolding.getConditionCount() + " conditions.");
+                    List<Solution> solutions = new ArrayList<>();
+                    Trace trace = unfolding.findDeadlock();
+                    if (trace != null) {
+                        solutions.add(new Solution(trace, null));
+                    }
+                    return Result.finished(solutions);
+                } catch (UnfoldingException e) {
+                    return Result.exception(e);
+                }
+            }
+        };
+        String description = "Deadlock check by unfolding";
+        String title = we.getTitle();
+        if (!title.isEmpty()) {
+            description += " (" + title + ")";
+        }
+        final Framework framework = Framework.getInstance();
+        framework.getTaskManager().queue(task, description, new UnfoldingDeadlockResultHandler(we));
+    }
+
+}
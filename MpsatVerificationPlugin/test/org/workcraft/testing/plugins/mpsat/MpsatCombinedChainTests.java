@@ -0,0 +1,105 @@
+package org.workcraft.testing.plugins.mpsat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.mpsat.tasks.MpsatCombinedChainTask;
+import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
+import org.workcraft.tasks.DefaultTaskManager;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Result.Outcome;
+import org.workcraft.tasks.Task;
+
+public class MpsatCombinedChainTests {
+
+    private static class LatchTask implements Task<ExternalProcessResult> {
+        private final CountDownLatch latch;
+
+        LatchTask(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+            latch.countDown();
+            try {
+                while (!latch.await(10, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCancelRequested()) {
+                        return Result.cancelled();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return Result.exception(e);
+            }
+            return Result.finished(null);
+        }
+    }
+
+    private static class FailingTask implements Task<ExternalProcessResult> {
+        @Override
+        public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+            return Result.exception(new RuntimeException("MPSat failed"));
+        }
+    }
+
+    private static class StartedTask implements Task<ExternalProcessResult> {
+        final AtomicBoolean started = new AtomicBoolean(false);
+
+        @Override
+        public Result<? extends ExternalProcessResult> run(ProgressMonitor<? super ExternalProcessResult> monitor) {
+            started.set(true);
+            return Result.finished(null);
+        }
+    }
+
+    @Test
+    public void testConcurrentRuns() {
+        // Each run waits for the other one, so both have to run at the same time.
+        CountDownLatch latch = new CountDownLatch(2);
+        DummyProgressMonitor<Object> monitor = new DummyProgressMonitor<>();
+        List<Result<? extends ExternalProcessResult>> results = MpsatCombinedChainTask.runAll(new DefaultTaskManager(),
+                Arrays.asList(new LatchTask(latch), new LatchTask(latch)), 2, false, monitor);
+        Assert.assertEquals(2, results.size());
+        for (Result<? extends ExternalProcessResult> result : results) {
+            Assert.assertEquals(Outcome.FINISHED, result.getOutcome());
+        }
+    }
+
+    @Test
+    public void testCancelOnFailure() {
+        List<Task<ExternalProcessResult>> tasks = new ArrayList<>();
+        // Never released, so it finishes only when cancelled.
+        tasks.add(new LatchTask(new CountDownLatch(2)));
+        tasks.add(new FailingTask());
+        StartedTask last = new StartedTask();
+        tasks.add(last);
+        List<Result<? extends ExternalProcessResult>> results = MpsatCombinedChainTask.runAll(new DefaultTaskManager(),
+                tasks, 2, true, new DummyProgressMonitor<Object>());
+        Assert.assertEquals(Outcome.CANCELLED, results.get(0).getOutcome());
+        Assert.assertEquals(Outcome.FAILED, results.get(1).getOutcome());
+        Assert.assertEquals(Outcome.CANCELLED, results.get(2).getOutcome());
+        Assert.assertFalse(last.started.get());
+    }
+
+    @Test
+    public void testNoCancelOnFailure() {
+        StartedTask last = new StartedTask();
+        List<Task<ExternalProcessResult>> tasks = new ArrayList<>();
+        tasks.add(new FailingTask());
+        tasks.add(last);
+        List<Result<? extends ExternalProcessResult>> results = MpsatCombinedChainTask.runAll(new DefaultTaskManager(),
+                tasks, 1, false, new DummyProgressMonitor<Object>());
+        Assert.assertEquals(Outcome.FAILED, results.get(0).getOutcome());
+        Assert.assertEquals(Outcome.FINISHED, results.get(1).getOutcome());
+        Assert.assertTrue(last.started.get());
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.workcraft.testing.plugins.mpsat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.mpsat.MpsatResultParser;
+import org.workcraft.plugins.mpsat.MpsatResultParser.SolutionListener;
+import org.workcraft.plugins.mpsat.gui.Solution;
+import org.workcraft.plugins.mpsat.tasks.MpsatProcessResult;
+import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
+
+public class MpsatResultParserTests {
+
+    private static final String OUTPUT = "MPSat version 1\n"
+            + "SOLUTION 1\n"
+            + "t.a, t.b\n"
+            + "path cost: 2\n"
+            + "some statistics\n"
+            + "SOLUTION 2\n"
+            + "t.a, t.c\n"
+            + "t.a, t.d\n"
+            + "total cost of all paths: 4\n"
+            + "\n"
+            + "Conflict for signal x\n"
+            + "done\n";
+
+    @Test
+    public void testStreaming() throws Exception {
+        final List<Solution> found = new ArrayList<>();
+        MpsatResultParser parser = new MpsatResultParser(new SolutionListener() {
+            @Override
+            public void solutionFound(Solution solution) {
+                found.add(solution);
+            }
+        });
+        byte[] data = OUTPUT.getBytes();
+        int firstSolutionEnd = OUTPUT.indexOf("some");
+        for (int i = 0; i < data.length; i += 5) {
+            parser.outputData(Arrays.copyOfRange(data, i, Math.min(data.length, i + 5)));
+            if (i > firstSolutionEnd) {
+                // The first solution is reported while the process is still running
+                Assert.assertFalse(found.isEmpty());
+            }
+        }
+        parser.processFinished(0);
+
+        List<Solution> solutions = parser.getSolutions();
+        Assert.assertEquals(found, solutions);
+        Assert.assertEquals(2, solutions.size());
+        Assert.assertEquals(Arrays.asList("a", "b"), solutions.get(0).getMainTrace());
+        Assert.assertNull(solutions.get(0).getBranchTrace());
+        Assert.assertEquals(Arrays.asList("a", "d"), solutions.get(1).getBranchTrace());
+        Assert.assertEquals("x", solutions.get(1).getComment());
+
+        // The kept lines are enough to get the same solutions again
+        byte[] solutionOutput = parser.getSolutionOutput();
+        Assert.assertFalse(new String(solutionOutput).contains("statistics"));
+        ExternalProcessResult result = new ExternalProcessResult(0, solutionOutput, new byte[0]);
+        List<Solution> reparsed = MpsatResultParser.getSolutions(result);
+        Assert.assertEquals(2, reparsed.size());
+        Assert.assertEquals(solutions.get(1).getMainTrace(), reparsed.get(1).getMainTrace());
+        Assert.assertEquals("x", reparsed.get(1).getComment());
+    }
+
+    @Test
+    public void testProcessResult() throws Exception {
+        List<Solution> solutions = Arrays.asList(new Solution(null, null));
+        ExternalProcessResult result = new MpsatProcessResult(0, new byte[0], new byte[0],
+                new HashMap<String, byte[]>(), solutions);
+        Assert.assertEquals(solutions, MpsatResultParser.getSolutions(result));
+    }
+
+}
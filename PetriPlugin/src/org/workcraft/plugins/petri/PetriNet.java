@@ -86,17 +86,17 @@ public class PetriNet extends AbstractMathModel implements PetriNetModel {
 
     @Override
     public final Collection<Place> getPlaces() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Place.class);
+        return getNodesOfType(Place.class);
     }
 
     @Override
     public final Collection<Transition> getTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Transition.class);
+        return getNodesOfType(Transition.class);
     }
 
     @Override
     public final Collection<Connection> getConnections() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Connection.class);
+        return getNodesOfType(Connection.class);
     }
 
     @Override
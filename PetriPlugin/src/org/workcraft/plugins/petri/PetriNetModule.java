@@ -15,6 +15,7 @@ import org.workcraft.plugins.petri.tools.MergePlaceTool;
 import org.workcraft.plugins.petri.tools.ProxyDirectedArcPlaceTool;
 import org.workcraft.plugins.petri.tools.ProxyReadArcPlaceTool;
 import org.workcraft.plugins.petri.tools.ReadArcToDualArcConverterTool;
+import org.workcraft.plugins.petri.tools.StructuralAnalysisTool;
 import org.workcraft.plugins.petri.tools.TransitionContractorTool;
 import org.workcraft.plugins.petri.tools.TransitionMergerTool;
 import org.workcraft.serialisation.xml.XMLDeserialiser;
@@ -50,6 +51,7 @@ public class PetriNetModule implements Module {
         pm.registerClass(Tool.class, ProxyReadArcPlaceTool.class);
         pm.registerClass(Tool.class, MergePlaceTool.class);
         pm.registerClass(Tool.class, TransitionMergerTool.class);
+        pm.registerClass(Tool.class, StructuralAnalysisTool.class);
     }
 
     private void initCompatibilityManager() {
@@ -0,0 +1,381 @@
+package org.workcraft.plugins.petri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.workcraft.dom.Connection;
+
+/**
+ * Token game of a Petri net compiled into index arrays. The marking is an int array, every
+ * transition has its pre and post places with the arc weights (a read arc is a pair of
+ * arcs of equal weight, so its place is tested but never changed), and the set of enabled
+ * transitions is kept up to date by counting the unsatisfied pre arcs of each transition.
+ *
+ * The places of the model are not touched by firing; the changed places are written back
+ * by {@link #writeMarking()}, which is when the observers of the model are notified.
+ */
+public class TokenGame {
+    private final PetriNetModel net;
+    private final Place[] places;
+    private final Transition[] transitions;
+    private final HashMap<Place, Integer> placeIndices = new HashMap<>();
+    private final HashMap<Transition, Integer> transitionIndices = new HashMap<>();
+
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+    // Places whose tokens change on firing, with the change
+    private final int[][] changePlaces;
+    private final int[][] changeDeltas;
+    // Transitions that have a place in their preset, with the arc weight
+    private final int[][] consumers;
+    private final int[][] consumerWeights;
+
+    private final int[] tokens;
+    private final int[] capacities;
+    private final boolean[] dirty;
+    private int[] dirtyPlaces;
+    private int dirtyCount = 0;
+
+    private final int[] deficits;
+    private final int[] enabled;
+    private final int[] enabledPositions;
+    private int enabledCount = 0;
+
+    public TokenGame(PetriNetModel net) {
+        this.net = net;
+        places = net.getPlaces().toArray(new Place[0]);
+        transitions = net.getTransitions().toArray(new Transition[0]);
+        for (int p = 0; p < places.length; p++) {
+            placeIndices.put(places[p], p);
+        }
+        for (int t = 0; t < transitions.length; t++) {
+            transitionIndices.put(transitions[t], t);
+        }
+        int transitionCount = transitions.length;
+        prePlaces = new int[transitionCount][];
+        preWeights = new int[transitionCount][];
+        postPlaces = new int[transitionCount][];
+        postWeights = new int[transitionCount][];
+        changePlaces = new int[transitionCount][];
+        changeDeltas = new int[transitionCount][];
+        List<List<Integer>> consumerLists = new ArrayList<>();
+        List<List<Integer>> consumerWeightLists = new ArrayList<>();
+        for (int p = 0; p < places.length; p++) {
+            consumerLists.add(new ArrayList<Integer>());
+            consumerWeightLists.add(new ArrayList<Integer>());
+        }
+        for (int t = 0; t < transitionCount; t++) {
+            Transition transition = transitions[t];
+            // Multiple connections between a place and a transition make a weighted arc
+            LinkedHashMap<Integer, Integer> pre = new LinkedHashMap<>();
+            LinkedHashMap<Integer, Integer> post = new LinkedHashMap<>();
+            for (Connection connection : net.getConnections(transition)) {
+                if (connection.getSecond() == transition) {
+                    addArc(pre, placeIndices.get(connection.getFirst()));
+                } else if (connection.getFirst() == transition) {
+                    addArc(post, placeIndices.get(connection.getSecond()));
+                }
+            }
+            prePlaces[t] = getKeys(pre);
+            preWeights[t] = getValues(pre);
+            postPlaces[t] = getKeys(post);
+            postWeights[t] = getValues(post);
+
+            LinkedHashMap<Integer, Integer> change = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Integer> arc : pre.entrySet()) {
+                change.put(arc.getKey(), -arc.getValue());
+            }
+            for (Map.Entry<Integer, Integer> arc : post.entrySet()) {
+                Integer delta = change.get(arc.getKey());
+                int value = (delta == null) ? arc.getValue() : delta + arc.getValue();
+                if (value == 0) {
+                    change.remove(arc.getKey());
+                } else {
+                    change.put(arc.getKey(), value);
+                }
+            }
+            changePlaces[t] = getKeys(change);
+            changeDeltas[t] = getValues(change);
+
+            for (Map.Entry<Integer, Integer> arc : pre.entrySet()) {
+                consumerLists.get(arc.getKey()).add(t);
+                consumerWeightLists.get(arc.getKey()).add(arc.getValue());
+            }
+        }
+        consumers = new int[places.length][];
+        consumerWeights = new int[places.length][];
+        for (int p = 0; p < places.length; p++) {
+            consumers[p] = toArray(consumerLists.get(p));
+            consumerWeights[p] = toArray(consumerWeightLists.get(p));
+        }
+
+        tokens = new int[places.length];
+        capacities = new int[places.length];
+        dirty = new boolean[places.length];
+        dirtyPlaces = new int[Math.max(16, places.length)];
+        deficits = new int[transitionCount];
+        enabled = new int[transitionCount];
+        enabledPositions = new int[transitionCount];
+        readMarking();
+    }
+
+    private static void addArc(Map<Integer, Integer> arcs, Integer place) {
+        if (place != null) {
+            Integer weight = arcs.get(place);
+            arcs.put(place, (weight == null) ? 1 : weight + 1);
+        }
+    }
+
+    private static int[] getKeys(Map<Integer, Integer> map) {
+        return toArray(map.keySet());
+    }
+
+    private static int[] getValues(Map<Integer, Integer> map) {
+        return toArray(map.values());
+    }
+
+    private static int[] toArray(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    public PetriNetModel getNet() {
+        return net;
+    }
+
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    public Place getPlace(int p) {
+        return places[p];
+    }
+
+    public Transition getTransition(int t) {
+        return transitions[t];
+    }
+
+    /**
+     * @return the index of the place, or -1 if it is not in the net.
+     */
+    public int getPlaceIndex(Place place) {
+        Integer result = placeIndices.get(place);
+        return (result == null) ? -1 : result;
+    }
+
+    /**
+     * @return the index of the transition, or -1 if it is not in the net.
+     */
+    public int getTransitionIndex(Transition transition) {
+        Integer result = transitionIndices.get(transition);
+        return (result == null) ? -1 : result;
+    }
+
+    public int[] getPostPlaces(int t) {
+        return postPlaces[t];
+    }
+
+    /**
+     * Takes the marking and the capacities from the places of the model.
+     */
+    public void readMarking() {
+        Arrays.fill(deficits, 0);
+        enabledCount = 0;
+        for (int p = 0; p < places.length; p++) {
+            tokens[p] = places[p].getTokens();
+            capacities[p] = places[p].getCapacity();
+            dirty[p] = false;
+        }
+        dirtyCount = 0;
+        for (int t = 0; t < transitions.length; t++) {
+            for (int i = 0; i < prePlaces[t].length; i++) {
+                if (tokens[prePlaces[t][i]] < preWeights[t][i]) {
+                    deficits[t]++;
+                }
+            }
+            if (deficits[t] == 0) {
+                addEnabled(t);
+            }
+        }
+    }
+
+    /**
+     * Writes the tokens of the places changed since the last synchronisation to the model.
+     * @return true if any place of the model was changed.
+     */
+    public boolean writeMarking() {
+        boolean result = false;
+        for (int i = 0; i < dirtyCount; i++) {
+            int p = dirtyPlaces[i];
+            dirty[p] = false;
+            if (places[p].getTokens() != tokens[p]) {
+                places[p].setTokens(tokens[p]);
+                result = true;
+            }
+        }
+        dirtyCount = 0;
+        return result;
+    }
+
+    public int getTokens(int p) {
+        return tokens[p];
+    }
+
+    /**
+     * @return the capacity of the place, raised when firing puts more tokens in it.
+     */
+    public int getCapacity(int p) {
+        return capacities[p];
+    }
+
+    public void setTokens(int p, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("The number of tokens cannot be negative.");
+        }
+        int old = tokens[p];
+        if (old == value) {
+            return;
+        }
+        tokens[p] = value;
+        if (value > capacities[p]) {
+            capacities[p] = value;
+        }
+        if (!dirty[p]) {
+            dirty[p] = true;
+            if (dirtyCount == dirtyPlaces.length) {
+                dirtyPlaces = Arrays.copyOf(dirtyPlaces, 2 * dirtyCount);
+            }
+            dirtyPlaces[dirtyCount++] = p;
+        }
+        int[] placeConsumers = consumers[p];
+        int[] weights = consumerWeights[p];
+        for (int i = 0; i < placeConsumers.length; i++) {
+            int t = placeConsumers[i];
+            boolean wasSatisfied = old >= weights[i];
+            boolean isSatisfied = value >= weights[i];
+            if (wasSatisfied && !isSatisfied) {
+                if (deficits[t]++ == 0) {
+                    removeEnabled(t);
+                }
+            } else if (!wasSatisfied && isSatisfied) {
+                if (--deficits[t] == 0) {
+                    addEnabled(t);
+                }
+            }
+        }
+    }
+
+    public int[] getMarking() {
+        return tokens.clone();
+    }
+
+    public void setMarking(int[] marking) {
+        for (int p = 0; p < marking.length; p++) {
+            setTokens(p, marking[p]);
+        }
+    }
+
+    private void addEnabled(int t) {
+        enabledPositions[t] = enabledCount;
+        enabled[enabledCount++] = t;
+    }
+
+    private void removeEnabled(int t) {
+        int position = enabledPositions[t];
+        int last = enabled[--enabledCount];
+        enabled[position] = last;
+        enabledPositions[last] = position;
+    }
+
+    public boolean isEnabled(int t) {
+        return deficits[t] == 0;
+    }
+
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    /**
+     * @return the transition at the position in the enabled set, which is in no particular
+     * order but depends only on the sequence of firings.
+     */
+    public int getEnabled(int position) {
+        return enabled[position];
+    }
+
+    /**
+     * @return the indices of the enabled transitions in the order of the net.
+     */
+    public int[] getEnabled() {
+        int[] result = Arrays.copyOf(enabled, enabledCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    public List<Transition> getEnabledTransitions() {
+        List<Transition> result = new ArrayList<>(enabledCount);
+        for (int t : getEnabled()) {
+            result.add(transitions[t]);
+        }
+        return result;
+    }
+
+    public boolean isUnfireEnabled(int t) {
+        for (int i = 0; i < postPlaces[t].length; i++) {
+            if (tokens[postPlaces[t][i]] < postWeights[t][i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fires the transition if it is enabled.
+     * @return true if the transition was fired.
+     */
+    public boolean fire(int t) {
+        if (!isEnabled(t)) {
+            return false;
+        }
+        int[] changes = changePlaces[t];
+        int[] deltas = changeDeltas[t];
+        for (int i = 0; i < changes.length; i++) {
+            setTokens(changes[i], tokens[changes[i]] + deltas[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Reverts the firing of the transition if its post places have the tokens for it.
+     * @return true if the firing was reverted.
+     */
+    public boolean unfire(int t) {
+        if (!isUnfireEnabled(t)) {
+            return false;
+        }
+        int[] changes = changePlaces[t];
+        int[] deltas = changeDeltas[t];
+        for (int i = 0; i < changes.length; i++) {
+            setTokens(changes[i], tokens[changes[i]] - deltas[i]);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.workcraft.plugins.petri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.workcraft.Trace;
+import org.workcraft.dom.Node;
+
+/**
+ * Replay of a trace on a {@link TokenGame} with the marking saved at every
+ * {@link #INTERVAL}-th step, so moving to any step of the trace restores the nearest
+ * checkpoint and fires fewer than {@link #INTERVAL} transitions. The checkpoints are made
+ * on demand, and are dropped when the trace or its initial marking changes.
+ */
+public class TraceReplay {
+    public static final int INTERVAL = 64;
+
+    private final TokenGame game;
+    private int[] symbolTransitions = new int[0];
+    private final List<int[]> checkpoints = new ArrayList<>();
+    private int[] initialMarking = null;
+    private Trace trace = null;
+    private int version = -1;
+    // First step of the trace that cannot be fired, or -1 if none is known
+    private int failedStep = -1;
+
+    public TraceReplay(TokenGame game) {
+        this.game = game;
+    }
+
+    public TokenGame getTokenGame() {
+        return game;
+    }
+
+    /**
+     * @return the index of the transition with the reference id of {@link Trace}, or -1.
+     */
+    public int getTransition(int symbol) {
+        if (symbol >= symbolTransitions.length) {
+            int length = symbolTransitions.length;
+            symbolTransitions = Arrays.copyOf(symbolTransitions, Math.max(symbol + 1, 2 * length));
+            Arrays.fill(symbolTransitions, length, symbolTransitions.length, -2);
+        }
+        if (symbolTransitions[symbol] == -2) {
+            Node node = game.getNet().getNodeByReference(Trace.getReference(symbol));
+            symbolTransitions[symbol] = (node instanceof Transition) ? game.getTransitionIndex((Transition) node) : -1;
+        }
+        return symbolTransitions[symbol];
+    }
+
+    private void validate(Trace trace, int[] initialMarking) {
+        if ((trace != this.trace) || (trace.getVersion() != version)
+                || !Arrays.equals(initialMarking, this.initialMarking)) {
+            this.trace = trace;
+            this.version = trace.getVersion();
+            this.initialMarking = initialMarking.clone();
+            checkpoints.clear();
+            checkpoints.add(this.initialMarking);
+            failedStep = -1;
+        }
+    }
+
+    private boolean fire(int step) {
+        int t = getTransition(trace.getId(step));
+        if ((t < 0) || !game.fire(t)) {
+            failedStep = step;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sets the marking of the token game to the one after the first steps of the trace,
+     * fired from the initial marking.
+     * @return the number of steps made, less than requested if a step was not enabled.
+     */
+    public int seek(Trace trace, int[] initialMarking, int position) {
+        validate(trace, initialMarking);
+        int target = Math.min(position, trace.size());
+        if (failedStep >= 0) {
+            target = Math.min(target, failedStep);
+        }
+        while ((failedStep < 0) && (checkpoints.size() * INTERVAL <= target)) {
+            int start = (checkpoints.size() - 1) * INTERVAL;
+            game.setMarking(checkpoints.get(checkpoints.size() - 1));
+            int step = start;
+            while ((step < start + INTERVAL) && fire(step)) {
+                step++;
+            }
+            if (failedStep < 0) {
+                checkpoints.add(game.getMarking());
+            } else {
+                target = Math.min(target, failedStep);
+            }
+        }
+        int index = Math.min(target / INTERVAL, checkpoints.size() - 1);
+        game.setMarking(checkpoints.get(index));
+        int step = index * INTERVAL;
+        while ((step < target) && fire(step)) {
+            step++;
+        }
+        return step;
+    }
+
+}
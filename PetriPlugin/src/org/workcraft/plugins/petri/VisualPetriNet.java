@@ -192,11 +192,11 @@ public class VisualPetriNet extends AbstractVisualModel {
     }
 
     public Collection<VisualPlace> getVisualPlaces() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualPlace.class);
+        return getNodesOfType(VisualPlace.class);
     }
 
     public Collection<VisualTransition> getVisualTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualTransition.class);
+        return getNodesOfType(VisualTransition.class);
     }
 
     public VisualTransition getVisualTransition(Transition transition) {
@@ -0,0 +1,176 @@
+package org.workcraft.plugins.petri.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.workcraft.Trace;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.TokenGame;
+import org.workcraft.plugins.petri.Transition;
+
+/**
+ * Statistics of random simulation runs: the firing counts of the transitions, the largest
+ * number of tokens seen in each place, and the traces that ended in a deadlock.
+ */
+public class RandomSimulationResult {
+    private final PetriNetModel net;
+    private final TokenGame game;
+    private final long[] firingCounts;
+    private final int[] bounds;
+    private final List<Trace> deadlockTraces = new ArrayList<>();
+    private long stepCount = 0;
+    private long runCount = 0;
+    private long deadlockCount = 0;
+    private boolean cancelled = false;
+
+    RandomSimulationResult(PetriNetModel net, TokenGame game) {
+        this.net = net;
+        this.game = game;
+        firingCounts = new long[game.getTransitionCount()];
+        bounds = new int[game.getPlaceCount()];
+        for (int p = 0; p < bounds.length; p++) {
+            bounds[p] = game.getTokens(p);
+        }
+    }
+
+    void fired(int t) {
+        firingCounts[t]++;
+        stepCount++;
+        for (int p : game.getPostPlaces(t)) {
+            if (game.getTokens(p) > bounds[p]) {
+                bounds[p] = game.getTokens(p);
+            }
+        }
+    }
+
+    void started() {
+        runCount++;
+    }
+
+    void deadlocked(int[] run, int length, int traceLimit) {
+        deadlockCount++;
+        boolean keep = deadlockTraces.size() < traceLimit;
+        if (!keep && !deadlockTraces.isEmpty()) {
+            keep = length < deadlockTraces.get(deadlockTraces.size() - 1).size();
+        }
+        if (keep) {
+            Trace trace = new Trace();
+            for (int i = 0; i < length; i++) {
+                trace.add(net.getNodeReference(game.getTransition(run[i])));
+            }
+            addTrace(trace, traceLimit);
+        }
+    }
+
+    /**
+     * Keeps the traces ordered by length, with at most the limit of the shortest ones.
+     */
+    private void addTrace(Trace trace, int traceLimit) {
+        int index = deadlockTraces.size();
+        while ((index > 0) && (deadlockTraces.get(index - 1).size() > trace.size())) {
+            index--;
+        }
+        if (index < traceLimit) {
+            deadlockTraces.add(index, trace);
+            if (deadlockTraces.size() > traceLimit) {
+                deadlockTraces.remove(deadlockTraces.size() - 1);
+            }
+        }
+    }
+
+    void cancelled() {
+        cancelled = true;
+    }
+
+    /**
+     * Adds the statistics of the other runs on the same net, the shortest deadlock traces are kept.
+     */
+    void merge(RandomSimulationResult other, int traceLimit) {
+        for (int t = 0; t < firingCounts.length; t++) {
+            firingCounts[t] += other.firingCounts[t];
+        }
+        for (int p = 0; p < bounds.length; p++) {
+            bounds[p] = Math.max(bounds[p], other.bounds[p]);
+        }
+        stepCount += other.stepCount;
+        runCount += other.runCount;
+        deadlockCount += other.deadlockCount;
+        cancelled |= other.cancelled;
+        for (Trace trace : other.deadlockTraces) {
+            addTrace(trace, traceLimit);
+        }
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public long getDeadlockCount() {
+        return deadlockCount;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getFiringCount(Transition transition) {
+        int t = game.getTransitionIndex(transition);
+        return (t < 0) ? 0 : firingCounts[t];
+    }
+
+    /**
+     * @return the largest number of tokens observed in the place.
+     */
+    public int getBound(Place place) {
+        int p = game.getPlaceIndex(place);
+        return (p < 0) ? 0 : bounds[p];
+    }
+
+    public List<Transition> getNeverFiredTransitions() {
+        List<Transition> result = new ArrayList<>();
+        for (int t = 0; t < firingCounts.length; t++) {
+            if (firingCounts[t] == 0) {
+                result.add(game.getTransition(t));
+            }
+        }
+        return result;
+    }
+
+    public List<Trace> getDeadlockTraces() {
+        return Collections.unmodifiableList(deadlockTraces);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("Steps: " + stepCount + ", runs: " + runCount + ", deadlocks: " + deadlockCount);
+        if (cancelled) {
+            result.append(" (cancelled)");
+        }
+        result.append('\n');
+        List<Transition> neverFired = getNeverFiredTransitions();
+        if (!neverFired.isEmpty()) {
+            result.append("Never fired:");
+            for (Transition transition : neverFired) {
+                result.append(' ').append(net.getNodeReference(transition));
+            }
+            result.append('\n');
+        }
+        result.append("Place bounds:");
+        for (int p = 0; p < bounds.length; p++) {
+            result.append(' ').append(net.getNodeReference(game.getPlace(p))).append('=').append(bounds[p]);
+        }
+        result.append('\n');
+        for (Trace trace : deadlockTraces) {
+            result.append("Deadlock trace: ").append(trace).append('\n');
+        }
+        return result.toString();
+    }
+
+}
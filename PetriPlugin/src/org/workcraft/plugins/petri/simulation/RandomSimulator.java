@@ -0,0 +1,224 @@
+package org.workcraft.plugins.petri.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.TokenGame;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Headless random simulation of a Petri net or an STG on the compiled {@link TokenGame}.
+ * Each run starts from the initial marking of the model and fires randomly chosen enabled
+ * transitions, with the probabilities proportional to their weights, until a deadlock or
+ * the run length is reached. The steps are shared by several threads, each with its own
+ * token game and a seed derived from the given one, so the result is reproducible for
+ * a fixed seed and thread count. The model itself is never changed.
+ */
+public class RandomSimulator {
+    public static final long DEFAULT_STEP_COUNT = 1000000;
+    public static final int DEFAULT_RUN_LENGTH = 1000;
+    public static final int DEFAULT_TRACE_LIMIT = 10;
+    private static final int PROGRESS_STEPS = 1 << 16;
+
+    private final PetriNetModel net;
+    private final double[] weights;
+    private long stepCount = DEFAULT_STEP_COUNT;
+    private int runLength = DEFAULT_RUN_LENGTH;
+    private int traceLimit = DEFAULT_TRACE_LIMIT;
+    private int threadCount = 1;
+    private long seed = System.nanoTime();
+    private boolean weighted = false;
+
+    public RandomSimulator(PetriNetModel net) {
+        this.net = net;
+        weights = new double[net.getTransitions().size()];
+        Arrays.fill(weights, 1.0);
+    }
+
+    public void setStepCount(long value) {
+        stepCount = Math.max(0, value);
+    }
+
+    /**
+     * Sets the number of steps after which a run is restarted from the initial marking.
+     */
+    public void setRunLength(int value) {
+        runLength = Math.max(1, value);
+    }
+
+    /**
+     * Sets the number of deadlock traces to keep, the shortest ones are kept.
+     */
+    public void setTraceLimit(int value) {
+        traceLimit = Math.max(0, value);
+    }
+
+    public void setThreadCount(int value) {
+        threadCount = Math.max(1, value);
+    }
+
+    public void setSeed(long value) {
+        seed = value;
+    }
+
+    /**
+     * Sets the relative probability of choosing the transition among the enabled ones.
+     */
+    public void setWeight(Transition transition, double weight) {
+        if (!(weight > 0.0)) {
+            throw new IllegalArgumentException("The weight of a transition must be positive.");
+        }
+        int t = new ArrayList<>(net.getTransitions()).indexOf(transition);
+        if (t < 0) {
+            throw new IllegalArgumentException("The transition is not in the model.");
+        }
+        weights[t] = weight;
+        weighted = true;
+    }
+
+    public RandomSimulationResult run() {
+        return run(new DummyProgressMonitor<Object>());
+    }
+
+    public RandomSimulationResult run(final ProgressMonitor<?> monitor) {
+        final AtomicLong progress = new AtomicLong();
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            long steps = stepCount / threadCount + ((i < stepCount % threadCount) ? 1 : 0);
+            workers.add(new Worker(steps, seed + 0x9E3779B97F4A7C15L * i, monitor, progress, i == 0));
+        }
+        ExecutorService executor = null;
+        List<Future<RandomSimulationResult>> futures = new ArrayList<>();
+        if (threadCount > 1) {
+            executor = Executors.newFixedThreadPool(threadCount - 1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Random simulation worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            for (Worker worker : workers.subList(1, threadCount)) {
+                futures.add(executor.submit(worker));
+            }
+        }
+        try {
+            // The first worker runs in the calling thread and reports the progress of all
+            RandomSimulationResult result = workers.get(0).call();
+            for (Future<RandomSimulationResult> future : futures) {
+                result.merge(future.get(), traceLimit);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private final class Worker implements Callable<RandomSimulationResult> {
+        private final long steps;
+        private final Random random;
+        private final ProgressMonitor<?> monitor;
+        private final AtomicLong progress;
+        private final boolean reporting;
+        private final TokenGame game;
+        private final int[] initialMarking;
+        private final int[] run = new int[runLength];
+        private int length = 0;
+
+        private Worker(long steps, long seed, ProgressMonitor<?> monitor, AtomicLong progress, boolean reporting) {
+            this.steps = steps;
+            this.random = new Random(seed);
+            this.monitor = monitor;
+            this.progress = progress;
+            this.reporting = reporting;
+            // The games are compiled and the initial marking is taken in the calling thread,
+            // so the model is never read concurrently
+            this.game = new TokenGame(net);
+            this.initialMarking = game.getMarking();
+        }
+
+        @Override
+        public RandomSimulationResult call() {
+            RandomSimulationResult result = new RandomSimulationResult(net, game);
+            result.started();
+            long step = 0;
+            while (step < steps) {
+                if (game.getEnabledCount() == 0) {
+                    result.deadlocked(run, length, traceLimit);
+                    if (length == 0) {
+                        // The initial marking is a deadlock
+                        break;
+                    }
+                    restart(result);
+                } else if (length == runLength) {
+                    restart(result);
+                } else {
+                    int t = choose();
+                    game.fire(t);
+                    result.fired(t);
+                    run[length++] = t;
+                    if (++step % PROGRESS_STEPS == 0) {
+                        if (monitor.isCancelRequested()) {
+                            result.cancelled();
+                            break;
+                        }
+                        long done = progress.addAndGet(PROGRESS_STEPS);
+                        if (reporting) {
+                            monitor.progressUpdate((double) done / stepCount);
+                        }
+                    }
+                }
+            }
+            if ((length > 0) && (game.getEnabledCount() == 0)) {
+                result.deadlocked(run, length, traceLimit);
+            }
+            return result;
+        }
+
+        private void restart(RandomSimulationResult result) {
+            game.setMarking(initialMarking);
+            length = 0;
+            result.started();
+        }
+
+        private int choose() {
+            int count = game.getEnabledCount();
+            if (!weighted) {
+                return game.getEnabled(random.nextInt(count));
+            }
+            double total = 0.0;
+            for (int i = 0; i < count; i++) {
+                total += weights[game.getEnabled(i)];
+            }
+            double value = random.nextDouble() * total;
+            for (int i = 0; i < count - 1; i++) {
+                int t = game.getEnabled(i);
+                value -= weights[t];
+                if (value < 0.0) {
+                    return t;
+                }
+            }
+            return game.getEnabled(count - 1);
+        }
+    }
+
+}
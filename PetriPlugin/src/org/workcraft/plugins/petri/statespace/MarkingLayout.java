@@ -0,0 +1,66 @@
+package org.workcraft.plugins.petri.statespace;
+
+/**
+ * Packing of a marking into int words. Every place takes a fixed number of bits
+ * (at most 31) and never straddles a word boundary, so a safe net needs one bit per place.
+ */
+final class MarkingLayout {
+    private final int[] bits;
+    private final int[] words;
+    private final int[] shifts;
+    private final int wordCount;
+
+    MarkingLayout(int[] bits) {
+        this.bits = bits.clone();
+        words = new int[bits.length];
+        shifts = new int[bits.length];
+        int word = 0;
+        int used = 0;
+        for (int p = 0; p < bits.length; p++) {
+            if (used + bits[p] > 32) {
+                word++;
+                used = 0;
+            }
+            words[p] = word;
+            shifts[p] = used;
+            used += bits[p];
+        }
+        wordCount = (used == 0) ? word : word + 1;
+    }
+
+    static int getBitsFor(int value) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(value));
+    }
+
+    int getWordCount() {
+        return wordCount;
+    }
+
+    int getBits(int place) {
+        return bits[place];
+    }
+
+    int getMaxTokens(int place) {
+        return (1 << bits[place]) - 1;
+    }
+
+    int getTokens(int[] data, int offset, int place) {
+        return (data[offset + words[place]] >>> shifts[place]) & getMaxTokens(place);
+    }
+
+    void decode(int[] data, int offset, int[] tokens) {
+        for (int p = 0; p < tokens.length; p++) {
+            tokens[p] = getTokens(data, offset, p);
+        }
+    }
+
+    void encode(int[] tokens, int[] data, int offset) {
+        for (int w = 0; w < wordCount; w++) {
+            data[offset + w] = 0;
+        }
+        for (int p = 0; p < tokens.length; p++) {
+            data[offset + words[p]] |= tokens[p] << shifts[p];
+        }
+    }
+
+}
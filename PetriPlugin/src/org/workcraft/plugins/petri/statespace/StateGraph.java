@@ -0,0 +1,77 @@
+package org.workcraft.plugins.petri.statespace;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+
+/**
+ * Reachability graph built by {@link StateSpaceGenerator}. States are numbered
+ * in breadth-first order from the initial marking, which is state 0, and edges
+ * are ordered by their source state.
+ */
+public class StateGraph {
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final HashMap<Place, Integer> placeIndices = new HashMap<>();
+    private final MarkingLayout layout;
+    private final int stateCount;
+    private final int[] markings;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeTransitions;
+
+    StateGraph(List<Place> places, List<Transition> transitions, MarkingLayout layout, int stateCount,
+            int[] markings, int[] edgeSources, int[] edgeTargets, int[] edgeTransitions) {
+        this.places = Collections.unmodifiableList(places);
+        this.transitions = Collections.unmodifiableList(transitions);
+        for (int i = 0; i < places.size(); i++) {
+            placeIndices.put(places.get(i), i);
+        }
+        this.layout = layout;
+        this.stateCount = stateCount;
+        this.markings = markings;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeTransitions = edgeTransitions;
+    }
+
+    public List<Place> getPlaces() {
+        return places;
+    }
+
+    public List<Transition> getTransitions() {
+        return transitions;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeSources.length;
+    }
+
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    public Transition getEdgeTransition(int edge) {
+        return transitions.get(edgeTransitions[edge]);
+    }
+
+    public int getTokens(int state, Place place) {
+        Integer index = placeIndices.get(place);
+        if (index == null) {
+            throw new IllegalArgumentException("The place does not belong to the net of the state graph.");
+        }
+        return layout.getTokens(markings, state * layout.getWordCount(), index);
+    }
+
+}
@@ -0,0 +1,427 @@
+package org.workcraft.plugins.petri.statespace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.workcraft.dom.Connection;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Explicit breadth-first construction of the reachability graph of a bounded Petri net.
+ *
+ * Markings are packed into int words (see {@link MarkingLayout}) and kept in one array,
+ * with an open-addressing hash table of state indices as the visited set. Every level of
+ * the search is expanded by several threads, and the successors are then merged in a
+ * fixed order, so the numbering of states does not depend on the thread count.
+ *
+ * A place starts with as many bits as its capacity needs; if it gets more tokens the
+ * generation is restarted with a wider place.
+ */
+public class StateSpaceGenerator {
+    public static final int DEFAULT_STATE_LIMIT = 10000000;
+    private static final int CHUNK_SIZE = 512;
+
+    private final PetriNetModel net;
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final int[] initialTokens;
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+
+    private int stateLimit = DEFAULT_STATE_LIMIT;
+    private long memoryLimit = Runtime.getRuntime().maxMemory() / 2;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    public StateSpaceGenerator(PetriNetModel net) {
+        this.net = net;
+        places = new ArrayList<>(net.getPlaces());
+        transitions = new ArrayList<>(net.getTransitions());
+        HashMap<Place, Integer> placeIndices = new HashMap<>();
+        initialTokens = new int[places.size()];
+        for (int p = 0; p < places.size(); p++) {
+            Place place = places.get(p);
+            placeIndices.put(place, p);
+            initialTokens[p] = place.getTokens();
+        }
+        int transitionCount = transitions.size();
+        prePlaces = new int[transitionCount][];
+        preWeights = new int[transitionCount][];
+        postPlaces = new int[transitionCount][];
+        postWeights = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; t++) {
+            Transition transition = transitions.get(t);
+            // Multiple connections between a place and a transition make a weighted arc
+            LinkedHashMap<Integer, Integer> pre = new LinkedHashMap<>();
+            LinkedHashMap<Integer, Integer> post = new LinkedHashMap<>();
+            for (Connection connection : net.getConnections(transition)) {
+                if (connection.getSecond() == transition) {
+                    addArc(pre, placeIndices.get(connection.getFirst()));
+                } else if (connection.getFirst() == transition) {
+                    addArc(post, placeIndices.get(connection.getSecond()));
+                }
+            }
+            prePlaces[t] = getKeys(pre);
+            preWeights[t] = getValues(pre);
+            postPlaces[t] = getKeys(post);
+            postWeights[t] = getValues(post);
+        }
+    }
+
+    private static void addArc(Map<Integer, Integer> arcs, Integer place) {
+        if (place != null) {
+            Integer weight = arcs.get(place);
+            arcs.put(place, (weight == null) ? 1 : weight + 1);
+        }
+    }
+
+    private static int[] getKeys(Map<Integer, Integer> map) {
+        int[] result = new int[map.size()];
+        int i = 0;
+        for (Integer key : map.keySet()) {
+            result[i++] = key;
+        }
+        return result;
+    }
+
+    private static int[] getValues(Map<Integer, Integer> map) {
+        int[] result = new int[map.size()];
+        int i = 0;
+        for (Integer value : map.values()) {
+            result[i++] = value;
+        }
+        return result;
+    }
+
+    public void setStateLimit(int value) {
+        stateLimit = value;
+    }
+
+    /**
+     * Sets the limit in bytes for the markings, the visited set and the edges.
+     */
+    public void setMemoryLimit(long value) {
+        memoryLimit = value;
+    }
+
+    public void setThreadCount(int value) {
+        threadCount = Math.max(1, value);
+    }
+
+    /**
+     * @return the reachability graph, or null if the generation was cancelled.
+     */
+    public StateGraph generate(ProgressMonitor<?> monitor) throws StateSpaceLimitException {
+        int[] bits = new int[places.size()];
+        for (int p = 0; p < places.size(); p++) {
+            Place place = places.get(p);
+            bits[p] = MarkingLayout.getBitsFor(Math.max(place.getCapacity(), initialTokens[p]));
+        }
+        ExecutorService executor = null;
+        if (threadCount > 1) {
+            executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "State space worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        try {
+            while (true) {
+                Exploration exploration = new Exploration(new MarkingLayout(bits));
+                StateGraph result = exploration.run(monitor, executor);
+                if (exploration.overflowPlace < 0) {
+                    return result;
+                }
+                int p = exploration.overflowPlace;
+                if (bits[p] >= 31) {
+                    throw new StateSpaceLimitException("The number of tokens in place '"
+                            + net.getNodeReference(places.get(p)) + "' is too large, the net is probably unbounded.");
+                }
+                bits[p] = Math.min(31, 2 * bits[p]);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] data = new int[1024];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, 2 * size);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return data.length;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * Successors of a range of states: for each one its source, transition and packed marking.
+     */
+    private static final class Successors {
+        private final IntList entries = new IntList();
+        private int overflowPlace = -1;
+    }
+
+    private final class Exploration {
+        private final MarkingLayout layout;
+        private final int wordCount;
+        private int[] markings;
+        private int[] hashes;
+        private int[] table;
+        private int stateCount = 0;
+        private final IntList edgeSources = new IntList();
+        private final IntList edgeTargets = new IntList();
+        private final IntList edgeTransitions = new IntList();
+        private int overflowPlace = -1;
+
+        Exploration(MarkingLayout layout) {
+            this.layout = layout;
+            wordCount = layout.getWordCount();
+            markings = new int[1024 * Math.max(1, wordCount)];
+            hashes = new int[1024];
+            table = new int[2048];
+        }
+
+        StateGraph run(ProgressMonitor<?> monitor, ExecutorService executor) throws StateSpaceLimitException {
+            int[] initialMarking = new int[wordCount];
+            layout.encode(initialTokens, initialMarking, 0);
+            addState(initialMarking, 0, hash(initialMarking, 0));
+            int levelStart = 0;
+            while (levelStart < stateCount) {
+                if (monitor.isCancelRequested()) {
+                    return null;
+                }
+                int levelEnd = stateCount;
+                List<Successors> expansions = expand(levelStart, levelEnd, executor);
+                if (expansions == null) {
+                    return null;
+                }
+                for (Successors successors : expansions) {
+                    if (successors.overflowPlace >= 0) {
+                        overflowPlace = successors.overflowPlace;
+                        return null;
+                    }
+                    merge(successors);
+                }
+                checkMemory();
+                levelStart = levelEnd;
+                monitor.progressUpdate((double) levelStart / stateCount);
+            }
+            return new StateGraph(places, transitions, layout, stateCount,
+                    Arrays.copyOf(markings, stateCount * wordCount), edgeSources.toArray(),
+                    edgeTargets.toArray(), edgeTransitions.toArray());
+        }
+
+        private List<Successors> expand(int from, int to, ExecutorService executor) {
+            final int[] levelMarkings = markings;
+            List<Successors> result = new ArrayList<>();
+            if ((executor == null) || (to - from <= CHUNK_SIZE)) {
+                result.add(expandRange(levelMarkings, from, to));
+                return result;
+            }
+            List<Callable<Successors>> chunks = new ArrayList<>();
+            for (int start = from; start < to; start += CHUNK_SIZE) {
+                final int chunkStart = start;
+                final int chunkEnd = Math.min(to, start + CHUNK_SIZE);
+                chunks.add(new Callable<Successors>() {
+                    @Override
+                    public Successors call() {
+                        return expandRange(levelMarkings, chunkStart, chunkEnd);
+                    }
+                });
+            }
+            try {
+                for (Future<Successors> future : executor.invokeAll(chunks)) {
+                    result.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            return result;
+        }
+
+        private Successors expandRange(int[] levelMarkings, int from, int to) {
+            Successors result = new Successors();
+            int[] tokens = new int[places.size()];
+            int[] nextTokens = new int[places.size()];
+            int[] nextMarking = new int[wordCount];
+            for (int s = from; s < to; s++) {
+                layout.decode(levelMarkings, s * wordCount, tokens);
+                for (int t = 0; t < transitions.size(); t++) {
+                    if (!isEnabled(t, tokens)) {
+                        continue;
+                    }
+                    System.arraycopy(tokens, 0, nextTokens, 0, tokens.length);
+                    for (int i = 0; i < prePlaces[t].length; i++) {
+                        nextTokens[prePlaces[t][i]] -= preWeights[t][i];
+                    }
+                    for (int i = 0; i < postPlaces[t].length; i++) {
+                        int p = postPlaces[t][i];
+                        nextTokens[p] += postWeights[t][i];
+                        if (nextTokens[p] > layout.getMaxTokens(p)) {
+                            result.overflowPlace = p;
+                            return result;
+                        }
+                    }
+                    layout.encode(nextTokens, nextMarking, 0);
+                    result.entries.add(s);
+                    result.entries.add(t);
+                    for (int w = 0; w < wordCount; w++) {
+                        result.entries.add(nextMarking[w]);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private boolean isEnabled(int t, int[] tokens) {
+            for (int i = 0; i < prePlaces[t].length; i++) {
+                if (tokens[prePlaces[t][i]] < preWeights[t][i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void merge(Successors successors) throws StateSpaceLimitException {
+            IntList entries = successors.entries;
+            int[] buffer = new int[wordCount];
+            int entrySize = 2 + wordCount;
+            for (int offset = 0; offset < entries.size(); offset += entrySize) {
+                for (int w = 0; w < wordCount; w++) {
+                    buffer[w] = entries.get(offset + 2 + w);
+                }
+                int hash = hash(buffer, 0);
+                int target = findState(buffer, hash);
+                if (target < 0) {
+                    if (stateCount >= stateLimit) {
+                        throw new StateSpaceLimitException("The state space exceeds the limit of " + stateLimit + " states.");
+                    }
+                    target = addState(buffer, 0, hash);
+                    if ((stateCount & 0xFFFF) == 0) {
+                        checkMemory();
+                    }
+                }
+                edgeSources.add(entries.get(offset));
+                edgeTransitions.add(entries.get(offset + 1));
+                edgeTargets.add(target);
+            }
+        }
+
+        private int hash(int[] data, int offset) {
+            int result = 0x9E3779B9;
+            for (int w = 0; w < wordCount; w++) {
+                result = (result ^ data[offset + w]) * 0x01000193;
+                result ^= result >>> 15;
+            }
+            return result;
+        }
+
+        private int findState(int[] marking, int hash) {
+            int mask = table.length - 1;
+            int index = hash & mask;
+            while (table[index] != 0) {
+                int state = table[index] - 1;
+                if ((hashes[state] == hash) && isEqual(state, marking)) {
+                    return state;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean isEqual(int state, int[] marking) {
+            int offset = state * wordCount;
+            for (int w = 0; w < wordCount; w++) {
+                if (markings[offset + w] != marking[w]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int addState(int[] marking, int offset, int hash) {
+            int state = stateCount++;
+            if (stateCount * wordCount > markings.length) {
+                markings = Arrays.copyOf(markings, 2 * markings.length);
+            }
+            System.arraycopy(marking, offset, markings, state * wordCount, wordCount);
+            if (stateCount > hashes.length) {
+                hashes = Arrays.copyOf(hashes, 2 * hashes.length);
+            }
+            hashes[state] = hash;
+            if (2 * stateCount > table.length) {
+                rehash(2 * table.length);
+            } else {
+                insert(state);
+            }
+            return state;
+        }
+
+        private void insert(int state) {
+            int mask = table.length - 1;
+            int index = hashes[state] & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = state + 1;
+        }
+
+        private void rehash(int capacity) {
+            table = new int[capacity];
+            for (int state = 0; state < stateCount; state++) {
+                insert(state);
+            }
+        }
+
+        private void checkMemory() throws StateSpaceLimitException {
+            long used = 4L * (markings.length + hashes.length + table.length
+                    + edgeSources.capacity() + edgeTargets.capacity() + edgeTransitions.capacity());
+            if (used > memoryLimit) {
+                throw new StateSpaceLimitException("The state space of " + stateCount + " states exceeds the memory limit of "
+                        + (memoryLimit >> 20) + " MB.");
+            }
+        }
+    }
+
+}
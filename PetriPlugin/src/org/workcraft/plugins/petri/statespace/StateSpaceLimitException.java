@@ -0,0 +1,10 @@
+package org.workcraft.plugins.petri.statespace;
+
+@SuppressWarnings("serial")
+public class StateSpaceLimitException extends Exception {
+
+    public StateSpaceLimitException(String message) {
+        super(message);
+    }
+
+}
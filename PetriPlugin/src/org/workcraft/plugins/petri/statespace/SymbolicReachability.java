@@ -0,0 +1,184 @@
+package org.workcraft.plugins.petri.statespace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.workcraft.dom.Connection;
+import org.workcraft.formula.bdd.Bdd;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Symbolic reachability of a safe Petri net. A set of markings is a BDD with one variable
+ * per place, and the image of a transition needs no next-state variables: the places the
+ * transition touches are quantified out of the markings that enable it, and then set to
+ * their values after the firing. The reachable set is built breadth-first, from the
+ * frontier of new markings only.
+ */
+public class SymbolicReachability {
+    private final PetriNetModel net;
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final HashMap<Place, Integer> placeIndices = new HashMap<>();
+    private final List<List<Integer>> presets = new ArrayList<>();
+    private final List<List<Integer>> postsets = new ArrayList<>();
+    private final Bdd bdd = new Bdd();
+    private int[] enablings;
+    private int reachable = -1;
+
+    public SymbolicReachability(PetriNetModel net) {
+        this.net = net;
+        places = new ArrayList<>(net.getPlaces());
+        transitions = new ArrayList<>(net.getTransitions());
+        for (Place place : places) {
+            placeIndices.put(place, bdd.newVariable());
+        }
+        for (Transition transition : transitions) {
+            List<Integer> preset = new ArrayList<>();
+            List<Integer> postset = new ArrayList<>();
+            for (Connection connection : net.getConnections(transition)) {
+                if (connection.getSecond() == transition) {
+                    preset.add(placeIndices.get(connection.getFirst()));
+                } else {
+                    postset.add(placeIndices.get(connection.getSecond()));
+                }
+            }
+            presets.add(preset);
+            postsets.add(postset);
+        }
+        bdd.setAutoReorder(true);
+    }
+
+    public Bdd getBdd() {
+        return bdd;
+    }
+
+    public int getVariable(Place place) {
+        return placeIndices.get(place);
+    }
+
+    private int assign(int old, int value) {
+        bdd.ref(value);
+        if (old >= 0) {
+            bdd.deref(old);
+        }
+        return value;
+    }
+
+    private int conjunction(List<Integer> vars, boolean value) {
+        int result = bdd.ref(Bdd.ONE);
+        for (int var : vars) {
+            result = assign(result, bdd.and(result, value ? bdd.var(var) : bdd.nvar(var)));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the reachable markings.
+     * @return the referenced BDD of the reachable markings, or -1 if cancelled.
+     */
+    public int compute(ProgressMonitor<?> monitor) throws StateSpaceLimitException {
+        int count = transitions.size();
+        int[] cubes = new int[count];
+        int[] effects = new int[count];
+        int[] hazards = new int[count];
+        enablings = new int[count];
+        for (int t = 0; t < count; t++) {
+            List<Integer> preset = presets.get(t);
+            List<Integer> postset = postsets.get(t);
+            if ((new LinkedHashSet<>(preset).size() < preset.size())
+                    || (new LinkedHashSet<>(postset).size() < postset.size())) {
+                throw new StateSpaceLimitException("Transition '" + net.getNodeReference(transitions.get(t))
+                        + "' has a weighted arc, the net is not safe.");
+            }
+            LinkedHashSet<Integer> touched = new LinkedHashSet<>(preset);
+            touched.addAll(postset);
+            List<Integer> consumed = new ArrayList<>(preset);
+            consumed.removeAll(postset);
+            List<Integer> produced = new ArrayList<>(postset);
+            produced.removeAll(preset);
+            enablings[t] = conjunction(preset, true);
+            cubes[t] = bdd.ref(bdd.cube(toArray(touched)));
+            int marked = conjunction(postset, true);
+            effects[t] = conjunction(consumed, false);
+            effects[t] = assign(effects[t], bdd.and(effects[t], marked));
+            bdd.deref(marked);
+            int unmarked = conjunction(produced, false);
+            hazards[t] = bdd.ref(bdd.and(enablings[t], bdd.not(unmarked)));
+            bdd.deref(unmarked);
+        }
+
+        int initial = bdd.ref(Bdd.ONE);
+        for (Place place : places) {
+            int tokens = place.getTokens();
+            if (tokens > 1) {
+                throw new StateSpaceLimitException("Place '" + net.getNodeReference(place)
+                        + "' has more than one token, the net is not safe.");
+            }
+            int var = placeIndices.get(place);
+            initial = assign(initial, bdd.and(initial, (tokens > 0) ? bdd.var(var) : bdd.nvar(var)));
+        }
+
+        reachable = initial;
+        int frontier = bdd.ref(initial);
+        while (frontier != Bdd.ZERO) {
+            if (monitor.isCancelRequested()) {
+                return -1;
+            }
+            int next = bdd.ref(Bdd.ZERO);
+            for (int t = 0; t < count; t++) {
+                if (bdd.and(frontier, hazards[t]) != Bdd.ZERO) {
+                    throw new StateSpaceLimitException("Transition '" + net.getNodeReference(transitions.get(t))
+                            + "' puts a second token in a place, the net is not safe.");
+                }
+                int image = bdd.ref(bdd.relProd(frontier, enablings[t], cubes[t]));
+                image = assign(image, bdd.and(image, effects[t]));
+                next = assign(next, bdd.or(next, image));
+                bdd.deref(image);
+            }
+            frontier = assign(frontier, bdd.and(next, bdd.not(reachable)));
+            reachable = assign(reachable, bdd.or(reachable, frontier));
+            bdd.deref(next);
+        }
+        bdd.deref(frontier);
+        for (int t = 0; t < count; t++) {
+            bdd.deref(cubes[t]);
+            bdd.deref(effects[t]);
+            bdd.deref(hazards[t]);
+        }
+        return reachable;
+    }
+
+    private static int[] toArray(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    public double getStateCount() {
+        return bdd.satCount(reachable);
+    }
+
+    /**
+     * @return the BDD of the reachable markings that enable no transition.
+     */
+    public int getDeadlocks() {
+        int result = bdd.ref(reachable);
+        for (int enabling : enablings) {
+            result = assign(result, bdd.and(result, bdd.not(enabling)));
+        }
+        bdd.deref(result);
+        return result;
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.workcraft.dom.Connection;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+
+/**
+ * Structure of a Petri net compiled into sparse index arrays: the pre and post sets of
+ * places and transitions with the arc weights, and the non-zero entries of the incidence
+ * matrix by place (rows) and by transition (columns). Multiple connections between a place
+ * and a transition make a weighted arc, and a read arc has no entry in the incidence matrix.
+ */
+public class IncidenceMatrix {
+    private final PetriNetModel net;
+    private final Place[] places;
+    private final Transition[] transitions;
+
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+    private final int[][] preTransitions;
+    private final int[][] postTransitions;
+
+    private final int[][] rowIndices;
+    private final int[][] rowValues;
+    private final int[][] columnIndices;
+    private final int[][] columnValues;
+
+    private final int[] initialMarking;
+
+    public IncidenceMatrix(PetriNetModel net) {
+        this.net = net;
+        places = net.getPlaces().toArray(new Place[0]);
+        transitions = net.getTransitions().toArray(new Transition[0]);
+        HashMap<Place, Integer> placeIndices = new HashMap<>();
+        for (int p = 0; p < places.length; p++) {
+            placeIndices.put(places[p], p);
+        }
+        int transitionCount = transitions.length;
+        prePlaces = new int[transitionCount][];
+        preWeights = new int[transitionCount][];
+        postPlaces = new int[transitionCount][];
+        postWeights = new int[transitionCount][];
+        columnIndices = new int[transitionCount][];
+        columnValues = new int[transitionCount][];
+        List<List<Integer>> preLists = createLists(places.length);
+        List<List<Integer>> postLists = createLists(places.length);
+        List<List<Integer>> rowIndexLists = createLists(places.length);
+        List<List<Integer>> rowValueLists = createLists(places.length);
+        for (int t = 0; t < transitionCount; t++) {
+            Transition transition = transitions[t];
+            LinkedHashMap<Integer, Integer> pre = new LinkedHashMap<>();
+            LinkedHashMap<Integer, Integer> post = new LinkedHashMap<>();
+            for (Connection connection : net.getConnections(transition)) {
+                if (connection.getSecond() == transition) {
+                    addArc(pre, placeIndices.get(connection.getFirst()));
+                } else if (connection.getFirst() == transition) {
+                    addArc(post, placeIndices.get(connection.getSecond()));
+                }
+            }
+            prePlaces[t] = toArray(pre.keySet());
+            preWeights[t] = toArray(pre.values());
+            postPlaces[t] = toArray(post.keySet());
+            postWeights[t] = toArray(post.values());
+
+            // The sorted map keeps the places of the column in ascending order
+            Map<Integer, Integer> column = new TreeMap<>();
+            for (Map.Entry<Integer, Integer> arc : pre.entrySet()) {
+                column.put(arc.getKey(), -arc.getValue());
+                postLists.get(arc.getKey()).add(t);
+            }
+            for (Map.Entry<Integer, Integer> arc : post.entrySet()) {
+                Integer value = column.get(arc.getKey());
+                column.put(arc.getKey(), (value == null) ? arc.getValue() : value + arc.getValue());
+                preLists.get(arc.getKey()).add(t);
+            }
+            List<Integer> indices = new ArrayList<>();
+            List<Integer> values = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> entry : column.entrySet()) {
+                if (entry.getValue() != 0) {
+                    indices.add(entry.getKey());
+                    values.add(entry.getValue());
+                    rowIndexLists.get(entry.getKey()).add(t);
+                    rowValueLists.get(entry.getKey()).add(entry.getValue());
+                }
+            }
+            columnIndices[t] = toArray(indices);
+            columnValues[t] = toArray(values);
+        }
+        preTransitions = new int[places.length][];
+        postTransitions = new int[places.length][];
+        rowIndices = new int[places.length][];
+        rowValues = new int[places.length][];
+        initialMarking = new int[places.length];
+        for (int p = 0; p < places.length; p++) {
+            preTransitions[p] = toArray(preLists.get(p));
+            postTransitions[p] = toArray(postLists.get(p));
+            rowIndices[p] = toArray(rowIndexLists.get(p));
+            rowValues[p] = toArray(rowValueLists.get(p));
+            initialMarking[p] = places[p].getTokens();
+        }
+    }
+
+    private static List<List<Integer>> createLists(int count) {
+        List<List<Integer>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ArrayList<Integer>());
+        }
+        return result;
+    }
+
+    private static void addArc(Map<Integer, Integer> arcs, Integer place) {
+        if (place != null) {
+            Integer weight = arcs.get(place);
+            arcs.put(place, (weight == null) ? 1 : weight + 1);
+        }
+    }
+
+    private static int[] toArray(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    public PetriNetModel getNet() {
+        return net;
+    }
+
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    public Place getPlace(int p) {
+        return places[p];
+    }
+
+    public Transition getTransition(int t) {
+        return transitions[t];
+    }
+
+    public String getPlaceName(int p) {
+        return net.getNodeReference(places[p]);
+    }
+
+    public String getTransitionName(int t) {
+        return net.getNodeReference(transitions[t]);
+    }
+
+    public int[] getPrePlaces(int t) {
+        return prePlaces[t];
+    }
+
+    public int[] getPreWeights(int t) {
+        return preWeights[t];
+    }
+
+    public int[] getPostPlaces(int t) {
+        return postPlaces[t];
+    }
+
+    public int[] getPostWeights(int t) {
+        return postWeights[t];
+    }
+
+    /**
+     * @return the transitions that put tokens in the place, in the order of the net.
+     */
+    public int[] getPreTransitions(int p) {
+        return preTransitions[p];
+    }
+
+    /**
+     * @return the transitions that take or read tokens from the place, in the order of the net.
+     */
+    public int[] getPostTransitions(int p) {
+        return postTransitions[p];
+    }
+
+    /**
+     * @return the transitions with a non-zero entry in the row of the place, in ascending order.
+     */
+    public int[] getRowIndices(int p) {
+        return rowIndices[p];
+    }
+
+    public int[] getRowValues(int p) {
+        return rowValues[p];
+    }
+
+    /**
+     * @return the places with a non-zero entry in the column of the transition, in ascending order.
+     */
+    public int[] getColumnIndices(int t) {
+        return columnIndices[t];
+    }
+
+    public int[] getColumnValues(int t) {
+        return columnValues[t];
+    }
+
+    public int getInitialTokens(int p) {
+        return initialMarking[p];
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.util.Arrays;
+
+/**
+ * Non-negative integer vector with a minimal support, stored as the indices of its support
+ * in ascending order and their weights. The greatest common divisor of the weights is 1.
+ */
+public final class Semiflow {
+    private final int[] indices;
+    private final long[] weights;
+
+    Semiflow(int[] indices, long[] weights) {
+        this.indices = indices;
+        this.weights = weights;
+    }
+
+    public int getSupportSize() {
+        return indices.length;
+    }
+
+    public int getIndex(int i) {
+        return indices[i];
+    }
+
+    public long getWeight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * @return the weight of the place or transition, 0 if it is not in the support.
+     */
+    public long getWeightOf(int index) {
+        int i = Arrays.binarySearch(indices, index);
+        return (i < 0) ? 0 : weights[i];
+    }
+
+    public int[] getSupport() {
+        return indices.clone();
+    }
+
+}
@@ -0,0 +1,478 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Minimal P- or T-semiflows of a Petri net by the Farkas algorithm. Every row is a
+ * non-negative vector with its residual, the product with the constraints not yet
+ * eliminated. At each step the constraint whose elimination adds the fewest rows is
+ * chosen, as proposed by Martinez and Silva, and the rows that are not zero on it are
+ * replaced by the combinations of its positive and negative rows that have a minimal
+ * support. The rows and their residuals are sparse, and the combination of rows and the
+ * check of their supports are shared by several threads.
+ */
+public class Semiflows {
+    public static final int DEFAULT_ROW_LIMIT = 100000;
+    // Number of parts of the work per thread, so the threads finish at about the same time
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int variableCount;
+    private final int[][] coefficientIndices;
+    private final int[][] coefficientValues;
+    private int rowLimit = DEFAULT_ROW_LIMIT;
+    private int threadCount = 1;
+    private ExecutorService executor = null;
+
+    // Kept rows by the first index of their support
+    private List<List<Row>> buckets;
+    // Rows by the constraints they are not zero on, including the removed ones
+    private List<List<Row>> constraintRows;
+    private int[] positives;
+    private int[] negatives;
+    private int rowCount;
+
+    private Semiflows(int variableCount, int[][] coefficientIndices, int[][] coefficientValues) {
+        this.variableCount = variableCount;
+        this.coefficientIndices = coefficientIndices;
+        this.coefficientValues = coefficientValues;
+    }
+
+    /**
+     * Semiflows over the places, the weighted sums of tokens that no firing changes.
+     */
+    public static Semiflows forPlaces(IncidenceMatrix matrix) {
+        int count = matrix.getPlaceCount();
+        int[][] indices = new int[count][];
+        int[][] values = new int[count][];
+        for (int p = 0; p < count; p++) {
+            indices[p] = matrix.getRowIndices(p);
+            values[p] = matrix.getRowValues(p);
+        }
+        return new Semiflows(count, indices, values);
+    }
+
+    /**
+     * Semiflows over the transitions, the numbers of firings that return to the same marking.
+     */
+    public static Semiflows forTransitions(IncidenceMatrix matrix) {
+        int count = matrix.getTransitionCount();
+        int[][] indices = new int[count][];
+        int[][] values = new int[count][];
+        for (int t = 0; t < count; t++) {
+            indices[t] = matrix.getColumnIndices(t);
+            values[t] = matrix.getColumnValues(t);
+        }
+        return new Semiflows(count, indices, values);
+    }
+
+    /**
+     * Sets the largest number of rows kept after the elimination of a constraint.
+     */
+    public void setRowLimit(int value) {
+        rowLimit = Math.max(1, value);
+    }
+
+    public void setThreadCount(int value) {
+        threadCount = Math.max(1, value);
+    }
+
+    public List<Semiflow> compute() throws StructuralLimitException {
+        return compute(new DummyProgressMonitor<Object>());
+    }
+
+    /**
+     * @return the minimal semiflows ordered by their supports, or null if cancelled.
+     */
+    public List<Semiflow> compute(ProgressMonitor<?> monitor) throws StructuralLimitException {
+        if (threadCount > 1) {
+            executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Semiflow worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        try {
+            return eliminate(monitor);
+        } catch (ArithmeticException e) {
+            throw new StructuralLimitException("The weights of the semiflows are too large.");
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+
+    private List<Semiflow> eliminate(ProgressMonitor<?> monitor) throws StructuralLimitException {
+        int constraintCount = 0;
+        for (int[] indices : coefficientIndices) {
+            for (int c : indices) {
+                constraintCount = Math.max(constraintCount, c + 1);
+            }
+        }
+        buckets = createLists(variableCount);
+        constraintRows = createLists(constraintCount);
+        positives = new int[constraintCount];
+        negatives = new int[constraintCount];
+        rowCount = 0;
+        for (int v = 0; v < variableCount; v++) {
+            int[] indices = coefficientIndices[v];
+            long[] values = new long[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                values[i] = coefficientValues[v][i];
+            }
+            add(new Row(new int[] {v}, new long[] {1}, indices, values));
+        }
+        int total = 0;
+        while (true) {
+            if (monitor.isCancelRequested()) {
+                return null;
+            }
+            int constraint = -1;
+            long bestCost = Long.MAX_VALUE;
+            int count = 0;
+            for (int c = 0; c < constraintCount; c++) {
+                long pos = positives[c];
+                long neg = negatives[c];
+                if (pos + neg > 0) {
+                    count++;
+                    long cost = pos * neg - pos - neg;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        constraint = c;
+                    }
+                }
+            }
+            total = Math.max(total, count);
+            if (total > 0) {
+                monitor.progressUpdate((double) (total - count) / total);
+            }
+            if (constraint < 0) {
+                break;
+            }
+            eliminate(constraint);
+        }
+        List<Row> rows = new ArrayList<>(rowCount);
+        for (List<Row> bucket : buckets) {
+            rows.addAll(bucket);
+        }
+        Collections.sort(rows, new Comparator<Row>() {
+            @Override
+            public int compare(Row a, Row b) {
+                for (int i = 0; (i < a.support.length) && (i < b.support.length); i++) {
+                    if (a.support[i] != b.support[i]) {
+                        return Integer.compare(a.support[i], b.support[i]);
+                    }
+                }
+                return Integer.compare(a.support.length, b.support.length);
+            }
+        });
+        List<Semiflow> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(new Semiflow(row.support, row.weights));
+        }
+        return result;
+    }
+
+    private static List<List<Row>> createLists(int count) {
+        List<List<Row>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ArrayList<Row>());
+        }
+        return result;
+    }
+
+    private void add(Row row) {
+        buckets.get(row.support[0]).add(row);
+        for (int i = 0; i < row.constraints.length; i++) {
+            constraintRows.get(row.constraints[i]).add(row);
+            if (row.values[i] > 0) {
+                positives[row.constraints[i]]++;
+            } else {
+                negatives[row.constraints[i]]++;
+            }
+        }
+        rowCount++;
+    }
+
+    private void remove(Row row) {
+        // The row stays in the lists of its other constraints until they are eliminated
+        row.alive = false;
+        buckets.get(row.support[0]).remove(row);
+        for (int i = 0; i < row.constraints.length; i++) {
+            if (row.values[i] > 0) {
+                positives[row.constraints[i]]--;
+            } else {
+                negatives[row.constraints[i]]--;
+            }
+        }
+        rowCount--;
+    }
+
+    private void eliminate(final int constraint) throws StructuralLimitException {
+        final List<Row> positiveRows = new ArrayList<>();
+        final List<Row> negativeRows = new ArrayList<>();
+        for (Row row : constraintRows.get(constraint)) {
+            if (row.alive) {
+                if (row.getValue(constraint) > 0) {
+                    positiveRows.add(row);
+                } else {
+                    negativeRows.add(row);
+                }
+            }
+        }
+        constraintRows.set(constraint, new ArrayList<Row>());
+        for (Row row : positiveRows) {
+            remove(row);
+        }
+        for (Row row : negativeRows) {
+            remove(row);
+        }
+        if (positiveRows.isEmpty() || negativeRows.isEmpty()) {
+            return;
+        }
+        final AtomicInteger count = new AtomicInteger(rowCount);
+        // The combinations whose support includes that of a kept row are dropped straight away
+        List<Row> combinedRows = execute(positiveRows.size(), new Job() {
+            @Override
+            public List<Row> run(int from, int to) throws StructuralLimitException {
+                List<Row> result = new ArrayList<>();
+                for (Row positive : positiveRows.subList(from, to)) {
+                    for (Row negative : negativeRows) {
+                        Row row = combine(positive, negative, constraint);
+                        if (!isCovered(row)) {
+                            result.add(row);
+                            if (count.incrementAndGet() > rowLimit) {
+                                throw new StructuralLimitException(
+                                        "The number of semiflow candidates exceeds " + rowLimit + ".");
+                            }
+                        }
+                    }
+                }
+                return result;
+            }
+        });
+        // A kept row cannot include a combination, as the combination includes a row kept before.
+        // The combinations are added from the smallest, so those including another are dropped.
+        Collections.sort(combinedRows, new Comparator<Row>() {
+            @Override
+            public int compare(Row a, Row b) {
+                return Integer.compare(a.support.length, b.support.length);
+            }
+        });
+        for (Row row : combinedRows) {
+            if (!isCovered(row)) {
+                add(row);
+            }
+        }
+    }
+
+    /**
+     * @return true if the support of the row includes that of a kept row.
+     */
+    private boolean isCovered(Row row) {
+        // A support included in that of the row starts with one of its indices
+        for (int index : row.support) {
+            for (Row other : buckets.get(index)) {
+                if ((other.support.length <= row.support.length)
+                        && ((other.signature & ~row.signature) == 0)
+                        && isSubset(other.support, row.support)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSubset(int[] a, int[] b) {
+        int j = 0;
+        for (int i = 0; i < a.length; i++) {
+            while ((j < b.length) && (b[j] < a[i])) {
+                j++;
+            }
+            if ((j == b.length) || (b[j] != a[i])) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+
+    private static Row combine(Row positive, Row negative, int constraint) {
+        long positiveFactor = -negative.getValue(constraint);
+        long negativeFactor = positive.getValue(constraint);
+        long gcd = gcd(positiveFactor, negativeFactor);
+        positiveFactor /= gcd;
+        negativeFactor /= gcd;
+        Sum weights = new Sum(positive.support, positive.weights, positiveFactor,
+                negative.support, negative.weights, negativeFactor);
+        Sum values = new Sum(positive.constraints, positive.values, positiveFactor,
+                negative.constraints, negative.values, negativeFactor);
+        long divisor = 0;
+        for (int i = 0; i < weights.size; i++) {
+            divisor = gcd(divisor, weights.values[i]);
+        }
+        return new Row(weights.getIndices(), weights.getValues(divisor),
+                values.getIndices(), values.getValues(divisor));
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    private static long multiply(long a, long b) {
+        long result = a * b;
+        if ((a != 0) && ((result / a != b) || ((a == -1) && (b == Long.MIN_VALUE)))) {
+            throw new ArithmeticException("Overflow of a semiflow weight.");
+        }
+        return result;
+    }
+
+    private List<Row> execute(int count, final Job job) throws StructuralLimitException {
+        if ((executor == null) || (count < 2)) {
+            return job.run(0, count);
+        }
+        int chunkCount = Math.min(count, threadCount * CHUNKS_PER_THREAD);
+        List<Future<List<Row>>> futures = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            final int from = (int) ((long) count * i / chunkCount);
+            final int to = (int) ((long) count * (i + 1) / chunkCount);
+            futures.add(executor.submit(new Callable<List<Row>>() {
+                @Override
+                public List<Row> call() throws StructuralLimitException {
+                    return job.run(from, to);
+                }
+            }));
+        }
+        List<Row> result = new ArrayList<>();
+        try {
+            for (Future<List<Row>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            for (Future<List<Row>> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof StructuralLimitException) {
+                throw (StructuralLimitException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        return result;
+    }
+
+    private interface Job {
+        List<Row> run(int from, int to) throws StructuralLimitException;
+    }
+
+    private static final class Row {
+        private final int[] support;
+        private final long[] weights;
+        private final int[] constraints;
+        private final long[] values;
+        // Bit i is set if the support has an index equal to i modulo 64
+        private final long signature;
+        private boolean alive = true;
+
+        private Row(int[] support, long[] weights, int[] constraints, long[] values) {
+            this.support = support;
+            this.weights = weights;
+            this.constraints = constraints;
+            this.values = values;
+            long bits = 0;
+            for (int index : support) {
+                bits |= 1L << index;
+            }
+            this.signature = bits;
+        }
+
+        private long getValue(int constraint) {
+            int i = Arrays.binarySearch(constraints, constraint);
+            return (i < 0) ? 0 : values[i];
+        }
+    }
+
+    /**
+     * Sum of two sparse vectors multiplied by factors, without the zero entries.
+     */
+    private static final class Sum {
+        private final int[] indices;
+        private final long[] values;
+        private int size = 0;
+
+        private Sum(int[] aIndices, long[] aValues, long aFactor, int[] bIndices, long[] bValues, long bFactor) {
+            indices = new int[aIndices.length + bIndices.length];
+            values = new long[indices.length];
+            int i = 0;
+            int j = 0;
+            while ((i < aIndices.length) || (j < bIndices.length)) {
+                int index;
+                long value;
+                if ((j == bIndices.length) || ((i < aIndices.length) && (aIndices[i] < bIndices[j]))) {
+                    index = aIndices[i];
+                    value = multiply(aValues[i++], aFactor);
+                } else if ((i == aIndices.length) || (bIndices[j] < aIndices[i])) {
+                    index = bIndices[j];
+                    value = multiply(bValues[j++], bFactor);
+                } else {
+                    index = aIndices[i];
+                    long a = multiply(aValues[i++], aFactor);
+                    long b = multiply(bValues[j++], bFactor);
+                    value = a + b;
+                    if (((a ^ value) & (b ^ value)) < 0) {
+                        throw new ArithmeticException("Overflow of a semiflow weight.");
+                    }
+                }
+                if (value != 0) {
+                    indices[size] = index;
+                    values[size] = value;
+                    size++;
+                }
+            }
+        }
+
+        private int[] getIndices() {
+            return Arrays.copyOf(indices, size);
+        }
+
+        private long[] getValues(long divisor) {
+            long[] result = new long[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = values[i] / divisor;
+            }
+            return result;
+        }
+    }
+
+}
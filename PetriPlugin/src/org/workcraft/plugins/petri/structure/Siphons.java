@@ -0,0 +1,283 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Minimal siphons or traps of a Petri net. A siphon is a set of places whose every input
+ * transition is also an output transition, so an empty siphon stays empty; a trap is a set
+ * of places whose every output transition is also an input transition, so a marked trap
+ * stays marked. Traps are found as the siphons of the reversed net.
+ *
+ * The minimal siphons are enumerated by splitting the search space: the siphons within a
+ * set of allowed places that include a set of required places. The largest siphon within
+ * the allowed places is found as a fixed point, a minimal siphon with the required places
+ * is grown and shrunk within it, and the rest of the space is split by the places of that
+ * siphon, so every minimal siphon is found once.
+ */
+public class Siphons {
+    public static final int DEFAULT_LIMIT = 1000;
+    // Largest number of subspaces searched per siphon of the limit
+    private static final int SEARCH_FACTOR = 100;
+
+    private final int placeCount;
+    // Transitions that put tokens in the place (take tokens from it for traps)
+    private final int[][] placeSources;
+    // Transitions that take tokens from the place (put tokens in it for traps)
+    private final int[][] placeTargets;
+    private final int[][] transitionSources;
+    private final int[][] transitionTargets;
+    private final int[] counts;
+    private int limit = DEFAULT_LIMIT;
+    private boolean limitReached = false;
+
+    private Siphons(int placeCount, int[][] placeSources, int[][] placeTargets,
+            int[][] transitionSources, int[][] transitionTargets) {
+        this.placeCount = placeCount;
+        this.placeSources = placeSources;
+        this.placeTargets = placeTargets;
+        this.transitionSources = transitionSources;
+        this.transitionTargets = transitionTargets;
+        this.counts = new int[transitionSources.length];
+    }
+
+    public static Siphons forSiphons(IncidenceMatrix matrix) {
+        int placeCount = matrix.getPlaceCount();
+        int transitionCount = matrix.getTransitionCount();
+        int[][] placeSources = new int[placeCount][];
+        int[][] placeTargets = new int[placeCount][];
+        for (int p = 0; p < placeCount; p++) {
+            placeSources[p] = matrix.getPreTransitions(p);
+            placeTargets[p] = matrix.getPostTransitions(p);
+        }
+        int[][] transitionSources = new int[transitionCount][];
+        int[][] transitionTargets = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; t++) {
+            transitionSources[t] = matrix.getPrePlaces(t);
+            transitionTargets[t] = matrix.getPostPlaces(t);
+        }
+        return new Siphons(placeCount, placeSources, placeTargets, transitionSources, transitionTargets);
+    }
+
+    public static Siphons forTraps(IncidenceMatrix matrix) {
+        int placeCount = matrix.getPlaceCount();
+        int transitionCount = matrix.getTransitionCount();
+        int[][] placeSources = new int[placeCount][];
+        int[][] placeTargets = new int[placeCount][];
+        for (int p = 0; p < placeCount; p++) {
+            placeSources[p] = matrix.getPostTransitions(p);
+            placeTargets[p] = matrix.getPreTransitions(p);
+        }
+        int[][] transitionSources = new int[transitionCount][];
+        int[][] transitionTargets = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; t++) {
+            transitionSources[t] = matrix.getPostPlaces(t);
+            transitionTargets[t] = matrix.getPrePlaces(t);
+        }
+        return new Siphons(placeCount, placeSources, placeTargets, transitionSources, transitionTargets);
+    }
+
+    /**
+     * Sets the largest number of minimal siphons to enumerate.
+     */
+    public void setLimit(int value) {
+        limit = Math.max(1, value);
+    }
+
+    /**
+     * @return true if the last enumeration was stopped by the limit, so it may be incomplete.
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * @return the largest siphon within the places, empty if there is none.
+     */
+    public BitSet getMaximal(BitSet places) {
+        BitSet result = (BitSet) places.clone();
+        for (int p = result.nextSetBit(0); p >= 0; p = result.nextSetBit(p + 1)) {
+            for (int t : placeTargets[p]) {
+                counts[t]++;
+            }
+        }
+        Deque<Integer> removed = new ArrayDeque<>();
+        for (int p = result.nextSetBit(0); p >= 0; p = result.nextSetBit(p + 1)) {
+            for (int t : placeSources[p]) {
+                if (counts[t] == 0) {
+                    result.clear(p);
+                    removed.push(p);
+                    break;
+                }
+            }
+        }
+        while (!removed.isEmpty()) {
+            int p = removed.pop();
+            for (int t : placeTargets[p]) {
+                if (--counts[t] == 0) {
+                    for (int q : transitionTargets[t]) {
+                        if (result.get(q)) {
+                            result.clear(q);
+                            removed.push(q);
+                        }
+                    }
+                }
+            }
+        }
+        for (int p = result.nextSetBit(0); p >= 0; p = result.nextSetBit(p + 1)) {
+            for (int t : placeTargets[p]) {
+                counts[t] = 0;
+            }
+        }
+        return result;
+    }
+
+    public List<int[]> getMinimal() {
+        return getMinimal(new DummyProgressMonitor<Object>());
+    }
+
+    /**
+     * @return the minimal siphons as sorted place indices, ordered by size, or null if cancelled.
+     */
+    public List<int[]> getMinimal(ProgressMonitor<?> monitor) {
+        limitReached = false;
+        List<int[]> result = new ArrayList<>();
+        BitSet all = new BitSet(placeCount);
+        all.set(0, placeCount);
+        Deque<BitSet[]> spaces = new ArrayDeque<>();
+        spaces.push(new BitSet[] {all, new BitSet(placeCount)});
+        long searchLimit = (long) SEARCH_FACTOR * limit;
+        long searchCount = 0;
+        while (!spaces.isEmpty()) {
+            if (monitor.isCancelRequested()) {
+                return null;
+            }
+            if ((result.size() >= limit) || (++searchCount > searchLimit)) {
+                limitReached = true;
+                break;
+            }
+            BitSet[] space = spaces.pop();
+            BitSet allowed = space[0];
+            BitSet required = space[1];
+            BitSet maximal = getMaximal(allowed);
+            if (maximal.isEmpty() || !includes(maximal, required)) {
+                continue;
+            }
+            BitSet siphon = getMinimal(maximal, required);
+            if (required.isEmpty() || isMinimal(siphon)) {
+                result.add(toArray(siphon));
+            }
+            BitSet nextRequired = (BitSet) required.clone();
+            for (int p = siphon.nextSetBit(0); p >= 0; p = siphon.nextSetBit(p + 1)) {
+                if (!required.get(p)) {
+                    BitSet nextAllowed = (BitSet) allowed.clone();
+                    nextAllowed.clear(p);
+                    spaces.push(new BitSet[] {nextAllowed, (BitSet) nextRequired.clone()});
+                    nextRequired.set(p);
+                }
+            }
+        }
+        Collections.sort(result, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                if (a.length != b.length) {
+                    return Integer.compare(a.length, b.length);
+                }
+                for (int i = 0; i < a.length; i++) {
+                    if (a[i] != b[i]) {
+                        return Integer.compare(a[i], b[i]);
+                    }
+                }
+                return 0;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return a siphon within the given siphon that includes the required places, or one of
+     * its places if none are required, and has no smaller siphon with the same property.
+     */
+    private BitSet getMinimal(BitSet siphon, BitSet required) {
+        // Grow a small siphon from the required places, a source transition of every place
+        // gets one of its own sources in the given siphon
+        BitSet result = new BitSet(placeCount);
+        Deque<Integer> added = new ArrayDeque<>();
+        if (required.isEmpty()) {
+            added.push(siphon.nextSetBit(0));
+        } else {
+            for (int p = required.nextSetBit(0); p >= 0; p = required.nextSetBit(p + 1)) {
+                added.push(p);
+            }
+        }
+        for (int p : added) {
+            result.set(p);
+        }
+        while (!added.isEmpty()) {
+            int p = added.pop();
+            for (int t : placeSources[p]) {
+                int source = -1;
+                for (int q : transitionSources[t]) {
+                    if (result.get(q)) {
+                        source = -1;
+                        break;
+                    }
+                    if ((source < 0) && siphon.get(q)) {
+                        source = q;
+                    }
+                }
+                if (source >= 0) {
+                    result.set(source);
+                    added.push(source);
+                }
+            }
+        }
+        // Shrink it by removing the places without which a siphon with the required places remains
+        for (int p = result.nextSetBit(0); p >= 0; p = result.nextSetBit(p + 1)) {
+            if (!required.get(p)) {
+                BitSet smaller = (BitSet) result.clone();
+                smaller.clear(p);
+                smaller = getMaximal(smaller);
+                if (!smaller.isEmpty() && includes(smaller, required)) {
+                    result = smaller;
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isMinimal(BitSet siphon) {
+        for (int p = siphon.nextSetBit(0); p >= 0; p = siphon.nextSetBit(p + 1)) {
+            BitSet smaller = (BitSet) siphon.clone();
+            smaller.clear(p);
+            if (!getMaximal(smaller).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean includes(BitSet set, BitSet subset) {
+        BitSet rest = (BitSet) subset.clone();
+        rest.andNot(set);
+        return rest.isEmpty();
+    }
+
+    private static int[] toArray(BitSet set) {
+        int[] result = new int[set.cardinality()];
+        int i = 0;
+        for (int p = set.nextSetBit(0); p >= 0; p = set.nextSetBit(p + 1)) {
+            result[i++] = p;
+        }
+        return result;
+    }
+
+}
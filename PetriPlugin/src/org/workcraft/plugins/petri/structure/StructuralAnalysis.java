@@ -0,0 +1,125 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.SubtaskMonitor;
+
+/**
+ * Structural analysis of a Petri net or an STG without external tools: minimal P- and
+ * T-semiflows, minimal siphons and traps, and the bounds and deadlock hints they give.
+ * The net is compiled in the calling thread, so the analysis can run in another one.
+ */
+public class StructuralAnalysis {
+    private final IncidenceMatrix matrix;
+    private int threadCount = 1;
+    private int rowLimit = Semiflows.DEFAULT_ROW_LIMIT;
+    private int siphonLimit = Siphons.DEFAULT_LIMIT;
+
+    public StructuralAnalysis(PetriNetModel net) {
+        matrix = new IncidenceMatrix(net);
+    }
+
+    public void setThreadCount(int value) {
+        threadCount = Math.max(1, value);
+    }
+
+    /**
+     * Sets the largest number of intermediate rows of the semiflow computation.
+     */
+    public void setRowLimit(int value) {
+        rowLimit = Math.max(1, value);
+    }
+
+    /**
+     * Sets the largest number of minimal siphons and of minimal traps to enumerate.
+     */
+    public void setSiphonLimit(int value) {
+        siphonLimit = Math.max(1, value);
+    }
+
+    public StructuralAnalysisResult run() {
+        return run(new DummyProgressMonitor<Object>());
+    }
+
+    /**
+     * @return the result of the analysis, or null if cancelled.
+     */
+    public StructuralAnalysisResult run(ProgressMonitor<?> monitor) {
+        StructuralAnalysisResult result = new StructuralAnalysisResult(matrix);
+        SubtaskMonitor<Object> subtaskMonitor = new SubtaskMonitor<>(monitor);
+
+        Semiflows placeSemiflows = Semiflows.forPlaces(matrix);
+        placeSemiflows.setThreadCount(threadCount);
+        placeSemiflows.setRowLimit(rowLimit);
+        try {
+            List<Semiflow> semiflows = placeSemiflows.compute(subtaskMonitor);
+            if (semiflows == null) {
+                return null;
+            }
+            result.setPlaceSemiflows(semiflows, null);
+        } catch (StructuralLimitException e) {
+            result.setPlaceSemiflows(null, e.getMessage());
+        }
+        monitor.progressUpdate(0.4);
+
+        Semiflows transitionSemiflows = Semiflows.forTransitions(matrix);
+        transitionSemiflows.setThreadCount(threadCount);
+        transitionSemiflows.setRowLimit(rowLimit);
+        try {
+            List<Semiflow> semiflows = transitionSemiflows.compute(subtaskMonitor);
+            if (semiflows == null) {
+                return null;
+            }
+            result.setTransitionSemiflows(semiflows, null);
+        } catch (StructuralLimitException e) {
+            result.setTransitionSemiflows(null, e.getMessage());
+        }
+        monitor.progressUpdate(0.8);
+
+        Siphons siphons = Siphons.forSiphons(matrix);
+        siphons.setLimit(siphonLimit);
+        List<int[]> minimalSiphons = siphons.getMinimal(subtaskMonitor);
+        if (minimalSiphons == null) {
+            return null;
+        }
+        result.setSiphons(minimalSiphons, siphons.isLimitReached());
+        monitor.progressUpdate(0.9);
+
+        Siphons traps = Siphons.forTraps(matrix);
+        traps.setLimit(siphonLimit);
+        List<int[]> minimalTraps = traps.getMinimal(subtaskMonitor);
+        if (minimalTraps == null) {
+            return null;
+        }
+        result.setTraps(minimalTraps, traps.isLimitReached());
+
+        // A siphon that includes a marked trap never gets empty
+        List<int[]> unprotectedSiphons = new ArrayList<>();
+        for (int[] siphon : minimalSiphons) {
+            BitSet places = new BitSet(matrix.getPlaceCount());
+            for (int p : siphon) {
+                places.set(p);
+            }
+            BitSet trap = traps.getMaximal(places);
+            boolean marked = false;
+            for (int p = trap.nextSetBit(0); p >= 0; p = trap.nextSetBit(p + 1)) {
+                if (matrix.getInitialTokens(p) > 0) {
+                    marked = true;
+                    break;
+                }
+            }
+            if (!marked) {
+                unprotectedSiphons.add(siphon);
+            }
+        }
+        result.setUnprotectedSiphons(unprotectedSiphons);
+        monitor.progressUpdate(1.0);
+        return result;
+    }
+
+}
@@ -0,0 +1,301 @@
+package org.workcraft.plugins.petri.structure;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.workcraft.util.FileUtils;
+
+/**
+ * Semiflows, siphons and traps of a Petri net with the properties that follow from them:
+ * the bounds of the places covered by P-semiflows, the transitions not covered by
+ * T-semiflows, and the siphons that may get empty as they have no marked trap.
+ */
+public class StructuralAnalysisResult {
+    private final IncidenceMatrix matrix;
+    private List<Semiflow> placeSemiflows = null;
+    private String placeSemiflowMessage = null;
+    private List<Semiflow> transitionSemiflows = null;
+    private String transitionSemiflowMessage = null;
+    private List<int[]> siphons = null;
+    private boolean siphonLimitReached = false;
+    private List<int[]> traps = null;
+    private boolean trapLimitReached = false;
+    private List<int[]> unprotectedSiphons = null;
+    private long[] placeBounds = null;
+
+    StructuralAnalysisResult(IncidenceMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    public IncidenceMatrix getMatrix() {
+        return matrix;
+    }
+
+    void setPlaceSemiflows(List<Semiflow> value, String message) {
+        placeSemiflows = value;
+        placeSemiflowMessage = message;
+    }
+
+    void setTransitionSemiflows(List<Semiflow> value, String message) {
+        transitionSemiflows = value;
+        transitionSemiflowMessage = message;
+    }
+
+    void setSiphons(List<int[]> value, boolean limitReached) {
+        siphons = value;
+        siphonLimitReached = limitReached;
+    }
+
+    void setTraps(List<int[]> value, boolean limitReached) {
+        traps = value;
+        trapLimitReached = limitReached;
+    }
+
+    void setUnprotectedSiphons(List<int[]> value) {
+        unprotectedSiphons = value;
+    }
+
+    /**
+     * @return the minimal P-semiflows, or null if they were not computed.
+     */
+    public List<Semiflow> getPlaceSemiflows() {
+        return placeSemiflows;
+    }
+
+    /**
+     * @return the minimal T-semiflows, or null if they were not computed.
+     */
+    public List<Semiflow> getTransitionSemiflows() {
+        return transitionSemiflows;
+    }
+
+    public List<int[]> getSiphons() {
+        return siphons;
+    }
+
+    public boolean isSiphonLimitReached() {
+        return siphonLimitReached;
+    }
+
+    public List<int[]> getTraps() {
+        return traps;
+    }
+
+    public boolean isTrapLimitReached() {
+        return trapLimitReached;
+    }
+
+    /**
+     * @return the minimal siphons without an initially marked trap, which may get empty and
+     * leave their output transitions dead.
+     */
+    public List<int[]> getUnprotectedSiphons() {
+        return unprotectedSiphons;
+    }
+
+    /**
+     * @return the token count of the P-semiflow in the initial marking.
+     */
+    public long getInitialValue(Semiflow semiflow) {
+        long result = 0;
+        for (int i = 0; i < semiflow.getSupportSize(); i++) {
+            result += semiflow.getWeight(i) * matrix.getInitialTokens(semiflow.getIndex(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return the largest number of tokens the place can have by its P-semiflows, or -1 if
+     * it is not covered by a P-semiflow and may be unbounded.
+     */
+    public long getPlaceBound(int p) {
+        if (placeSemiflows == null) {
+            return -1;
+        }
+        if (placeBounds == null) {
+            placeBounds = new long[matrix.getPlaceCount()];
+            Arrays.fill(placeBounds, -1);
+            for (Semiflow semiflow : placeSemiflows) {
+                long value = getInitialValue(semiflow);
+                for (int i = 0; i < semiflow.getSupportSize(); i++) {
+                    int place = semiflow.getIndex(i);
+                    long bound = value / semiflow.getWeight(i);
+                    if ((placeBounds[place] < 0) || (bound < placeBounds[place])) {
+                        placeBounds[place] = bound;
+                    }
+                }
+            }
+        }
+        return placeBounds[p];
+    }
+
+    /**
+     * @return true if every place is covered by a P-semiflow, so the net is bounded for any
+     * initial marking.
+     */
+    public boolean isConservative() {
+        return (placeSemiflows != null) && getUncovered(placeSemiflows, matrix.getPlaceCount()).isEmpty();
+    }
+
+    /**
+     * @return true if every transition is covered by a T-semiflow, which is necessary for
+     * a bounded net to be live.
+     */
+    public boolean isConsistent() {
+        return (transitionSemiflows != null)
+                && getUncovered(transitionSemiflows, matrix.getTransitionCount()).isEmpty();
+    }
+
+    private static List<Integer> getUncovered(List<Semiflow> semiflows, int count) {
+        boolean[] covered = new boolean[count];
+        for (Semiflow semiflow : semiflows) {
+            for (int i = 0; i < semiflow.getSupportSize(); i++) {
+                covered[semiflow.getIndex(i)] = true;
+            }
+        }
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (!covered[i]) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    public String getSummary() {
+        StringBuilder result = new StringBuilder();
+        result.append("Places: " + matrix.getPlaceCount() + ", transitions: " + matrix.getTransitionCount() + "\n");
+        if (placeSemiflows == null) {
+            result.append("P-semiflows: not computed\n");
+        } else {
+            result.append("P-semiflows: " + placeSemiflows.size()
+                    + (isConservative() ? " (structurally bounded)" : "") + "\n");
+        }
+        if (transitionSemiflows == null) {
+            result.append("T-semiflows: not computed\n");
+        } else {
+            result.append("T-semiflows: " + transitionSemiflows.size()
+                    + (isConsistent() ? " (consistent)" : "") + "\n");
+        }
+        if (siphons != null) {
+            result.append("Minimal siphons: " + siphons.size() + (siphonLimitReached ? "+" : "")
+                    + ", without a marked trap: " + unprotectedSiphons.size() + "\n");
+        }
+        if (traps != null) {
+            result.append("Minimal traps: " + traps.size() + (trapLimitReached ? "+" : "") + "\n");
+        }
+        return result.toString();
+    }
+
+    public String getReport() {
+        StringBuilder result = new StringBuilder();
+        result.append(getSummary());
+
+        result.append("\nP-semiflows");
+        if (placeSemiflows == null) {
+            result.append(": " + placeSemiflowMessage + "\n");
+        } else {
+            result.append(" (weighted sum of tokens = initial value):\n");
+            for (Semiflow semiflow : placeSemiflows) {
+                result.append("  " + toString(semiflow, true) + " = " + getInitialValue(semiflow) + "\n");
+            }
+            List<Integer> uncovered = getUncovered(placeSemiflows, matrix.getPlaceCount());
+            if (!uncovered.isEmpty()) {
+                result.append("Places not covered by P-semiflows, which may be unbounded:\n");
+                result.append("  " + toString(toArray(uncovered), true) + "\n");
+            }
+            result.append("Place bounds by P-semiflows:\n");
+            for (int p = 0; p < matrix.getPlaceCount(); p++) {
+                long bound = getPlaceBound(p);
+                if (bound >= 0) {
+                    result.append("  " + matrix.getPlaceName(p) + " <= " + bound + "\n");
+                }
+            }
+        }
+
+        result.append("\nT-semiflows");
+        if (transitionSemiflows == null) {
+            result.append(": " + transitionSemiflowMessage + "\n");
+        } else {
+            result.append(" (firing counts that reproduce a marking):\n");
+            for (Semiflow semiflow : transitionSemiflows) {
+                result.append("  " + toString(semiflow, false) + "\n");
+            }
+            List<Integer> uncovered = getUncovered(transitionSemiflows, matrix.getTransitionCount());
+            if (!uncovered.isEmpty()) {
+                result.append("Transitions not covered by T-semiflows, which are not live if the net is bounded:\n");
+                result.append("  " + toString(toArray(uncovered), false) + "\n");
+            }
+        }
+
+        if (siphons != null) {
+            result.append("\nMinimal siphons" + (siphonLimitReached ? " (limit reached)" : "") + ":\n");
+            for (int[] siphon : siphons) {
+                result.append("  {" + toString(siphon, true) + "}\n");
+            }
+            if (!unprotectedSiphons.isEmpty()) {
+                result.append("Siphons without an initially marked trap, which may get empty:\n");
+                for (int[] siphon : unprotectedSiphons) {
+                    result.append("  {" + toString(siphon, true) + "}\n");
+                }
+            }
+        }
+        if (traps != null) {
+            result.append("\nMinimal traps" + (trapLimitReached ? " (limit reached)" : "") + ":\n");
+            for (int[] trap : traps) {
+                result.append("  {" + toString(trap, true) + "}\n");
+            }
+        }
+        return result.toString();
+    }
+
+    public void save(File file) throws IOException {
+        FileUtils.dumpString(file, getReport());
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    private String getName(int index, boolean isPlace) {
+        return isPlace ? matrix.getPlaceName(index) : matrix.getTransitionName(index);
+    }
+
+    private String toString(Semiflow semiflow, boolean isPlace) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < semiflow.getSupportSize(); i++) {
+            if (i > 0) {
+                result.append(" + ");
+            }
+            if (semiflow.getWeight(i) != 1) {
+                result.append(semiflow.getWeight(i) + "*");
+            }
+            result.append(getName(semiflow.getIndex(i), isPlace));
+        }
+        return result.toString();
+    }
+
+    private String toString(int[] indices, boolean isPlace) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(getName(indices[i], isPlace));
+        }
+        return result.toString();
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,10 @@
+package org.workcraft.plugins.petri.structure;
+
+@SuppressWarnings("serial")
+public class StructuralLimitException extends Exception {
+
+    public StructuralLimitException(String message) {
+        super(message);
+    }
+
+}
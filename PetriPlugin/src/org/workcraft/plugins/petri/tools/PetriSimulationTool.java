@@ -23,9 +23,9 @@ package org.workcraft.plugins.petri.tools;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 
+import org.workcraft.Trace;
 import org.workcraft.dom.Node;
 import org.workcraft.dom.math.MathModel;
 import org.workcraft.dom.visual.VisualNode;
@@ -35,12 +35,16 @@ import org.workcraft.gui.graph.tools.GraphEditor;
 import org.workcraft.gui.graph.tools.SimulationTool;
 import org.workcraft.plugins.petri.PetriNetModel;
 import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.TokenGame;
+import org.workcraft.plugins.petri.TraceReplay;
 import org.workcraft.plugins.petri.Transition;
 import org.workcraft.plugins.petri.VisualPlace;
 import org.workcraft.plugins.petri.VisualReplicaPlace;
 import org.workcraft.util.LogUtils;
 
 public class PetriSimulationTool extends SimulationTool {
+    private TokenGame tokenGame = null;
+    private TraceReplay traceReplay = null;
 
     public PetriSimulationTool() {
         this(false);
@@ -54,6 +58,41 @@ public class PetriSimulationTool extends SimulationTool {
         return (PetriNetModel) getUnderlyingModel().getMathModel();
     }
 
+    /**
+     * @return the token game of the underlying net, which is compiled on the first use.
+     */
+    public TokenGame getTokenGame() {
+        PetriNetModel petri = getUnderlyingPetri();
+        if ((tokenGame == null) || (tokenGame.getNet() != petri)) {
+            tokenGame = new TokenGame(petri);
+            traceReplay = new TraceReplay(tokenGame);
+        }
+        return tokenGame;
+    }
+
+    private TraceReplay getTraceReplay() {
+        getTokenGame();
+        return traceReplay;
+    }
+
+    @Override
+    public void updateState(final GraphEditor editor) {
+        if (isActivated()) {
+            getTokenGame().writeMarking();
+        }
+        super.updateState(editor);
+    }
+
+    @Override
+    public void deactivated(final GraphEditor editor) {
+        if (isActivated()) {
+            getTokenGame().writeMarking();
+        }
+        super.deactivated(editor);
+        tokenGame = null;
+        traceReplay = null;
+    }
+
     @Override
     public boolean isConnectionExcited(VisualConnection connection) {
         VisualNode first = connection.getFirst();
@@ -69,20 +108,22 @@ public class PetriSimulationTool extends SimulationTool {
     @Override
     public HashMap<Node, Integer> readModelState() {
         HashMap<Node, Integer>  result = new HashMap<>();
-        for (Place place: getUnderlyingPetri().getPlaces()) {
-            result.put(place, place.getTokens());
+        TokenGame game = getTokenGame();
+        for (int p = 0; p < game.getPlaceCount(); p++) {
+            result.put(game.getPlace(p), game.getTokens(p));
         }
         return result;
     }
 
     @Override
     public void writeModelState(Map<Node, Integer> state) {
-        HashSet<Place> places = new HashSet<>(getUnderlyingPetri().getPlaces());
+        TokenGame game = getTokenGame();
         for (Node node: state.keySet()) {
             if (node instanceof Place) {
                 Place place = (Place) node;
-                if (places.contains(place)) {
-                    place.setTokens(state.get(place));
+                int p = game.getPlaceIndex(place);
+                if (p >= 0) {
+                    game.setTokens(p, state.get(place));
                 } else {
                     ExceptionDialog.show(null, new RuntimeException("Place " + place.toString() + " is not in the model"));
                 }
@@ -114,49 +155,87 @@ public class PetriSimulationTool extends SimulationTool {
     public boolean isEnabledNode(Node node) {
         boolean result = false;
         if (node instanceof Transition) {
-            Transition transition = (Transition) node;
-            result = getUnderlyingPetri().isEnabled(transition);
+            int t = getTokenGame().getTransitionIndex((Transition) node);
+            result = (t >= 0) && getTokenGame().isEnabled(t);
         }
         return result;
     }
 
     @Override
     public ArrayList<Node> getEnabledNodes() {
-        ArrayList<Node> result = new ArrayList<>();
-        for (Transition transition: getUnderlyingPetri().getTransitions()) {
-            if (isEnabledNode(transition)) {
-                result.add(transition);
+        return new ArrayList<Node>(getTokenGame().getEnabledTransitions());
+    }
+
+    private int getTransitionIndex(String ref) {
+        return (ref == null) ? -1 : getTraceReplay().getTransition(Trace.intern(ref));
+    }
+
+    /**
+     * Restores the marking at the main trace position from the checkpoints of the trace
+     * replay, and then fires the steps of the branch.
+     */
+    @Override
+    protected boolean quietSeek(int mainPosition, int branchPosition) {
+        boolean leaveBranch = (branchTrace.getPosition() > 0)
+                && ((branchTrace.getPosition() > branchPosition) || (mainTrace.getPosition() != mainPosition));
+        if (!leaveBranch && (mainTrace.getPosition() == mainPosition)) {
+            return super.quietSeek(mainPosition, branchPosition);
+        }
+        excitedContainers.clear();
+        TokenGame game = getTokenGame();
+        int[] initialMarking = new int[game.getPlaceCount()];
+        for (Map.Entry<Node, Integer> entry : initialState.entrySet()) {
+            if (entry.getKey() instanceof Place) {
+                int p = game.getPlaceIndex((Place) entry.getKey());
+                if (p >= 0) {
+                    initialMarking[p] = entry.getValue();
+                }
             }
         }
-        return result;
+        int[] capacities = new int[game.getPlaceCount()];
+        for (int p = 0; p < capacities.length; p++) {
+            capacities[p] = game.getCapacity(p);
+        }
+        // Leaving the branch completely clears it, as stepping back does
+        if (leaveBranch && ((mainTrace.getPosition() != mainPosition) || (branchPosition == 0)) && !mainTrace.isEmpty()) {
+            branchTrace.clear();
+        }
+        int mainReached = getTraceReplay().seek(mainTrace, initialMarking, mainPosition);
+        mainTrace.setPosition(mainReached);
+        int branchTarget = (mainReached == mainPosition) ? Math.min(branchPosition, branchTrace.size()) : 0;
+        int branchReached = 0;
+        while (branchReached < branchTarget) {
+            int t = getTraceReplay().getTransition(branchTrace.getId(branchReached));
+            if ((t < 0) || !game.fire(t)) {
+                break;
+            }
+            branchReached++;
+        }
+        branchTrace.setPosition(branchReached);
+        // The replay does not go through fire(), so the capacities it raised are reported here
+        for (int p = 0; p < capacities.length; p++) {
+            if (game.getCapacity(p) > capacities[p]) {
+                logCapacityIncrease(p);
+            }
+        }
+        return (mainReached == mainPosition) && (branchReached == branchPosition);
     }
 
     @Override
     public boolean fire(String ref) {
         boolean result = false;
-        Transition transition = null;
-        if (ref != null) {
-            final Node node = getUnderlyingPetri().getNodeByReference(ref);
-            if (node instanceof Transition) {
-                transition = (Transition) node;
+        TokenGame game = getTokenGame();
+        int t = getTransitionIndex(ref);
+        if ((t >= 0) && game.isEnabled(t)) {
+            int[] postPlaces = game.getPostPlaces(t);
+            int[] capacities = new int[postPlaces.length];
+            for (int i = 0; i < postPlaces.length; i++) {
+                capacities[i] = game.getCapacity(postPlaces[i]);
             }
-        }
-        if (isEnabledNode(transition)) {
-            HashMap<Place, Integer> capacity = new HashMap<>();
-            for (Node node: getUnderlyingPetri().getPostset(transition)) {
-                if (node instanceof Place) {
-                    Place place = (Place) node;
-                    capacity.put(place, place.getCapacity());
-                }
-            }
-            getUnderlyingPetri().fire(transition);
-            for (Node node: getUnderlyingPetri().getPostset(transition)) {
-                if (node instanceof Place) {
-                    Place place = (Place) node;
-                    if (place.getCapacity() > capacity.get(place)) {
-                        String placeRef = getUnderlyingPetri().getNodeReference(place);
-                        LogUtils.logWarningLine("Capacity of place '" + placeRef + "' is incresed to " + place.getCapacity() + ".");
-                    }
+            game.fire(t);
+            for (int i = 0; i < postPlaces.length; i++) {
+                if (game.getCapacity(postPlaces[i]) > capacities[i]) {
+                    logCapacityIncrease(postPlaces[i]);
                 }
             }
             result = true;
@@ -164,23 +243,16 @@ public class PetriSimulationTool extends SimulationTool {
         return result;
     }
 
+    private void logCapacityIncrease(int p) {
+        TokenGame game = getTokenGame();
+        String placeRef = getUnderlyingPetri().getNodeReference(game.getPlace(p));
+        LogUtils.logWarningLine("Capacity of place '" + placeRef + "' is incresed to " + game.getCapacity(p) + ".");
+    }
+
     @Override
     public boolean unfire(String ref) {
-        boolean result = false;
-        Transition transition = null;
-        if (ref != null) {
-            final Node node = getUnderlyingPetri().getNodeByReference(ref);
-            if (node instanceof Transition) {
-                transition = (Transition) node;
-            }
-        }
-        if (transition != null) {
-            if (getUnderlyingPetri().isUnfireEnabled(transition)) {
-                getUnderlyingPetri().unFire(transition);
-                result = true;
-            }
-        }
-        return result;
+        int t = getTransitionIndex(ref);
+        return (t >= 0) && getTokenGame().unfire(t);
     }
 
     @Override
@@ -0,0 +1,73 @@
+package org.workcraft.plugins.petri.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.workcraft.Framework;
+import org.workcraft.gui.MainWindow;
+import org.workcraft.plugins.petri.structure.StructuralAnalysisResult;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.util.LogUtils;
+
+/**
+ * Prints the report of the structural analysis to the output window and offers to save it.
+ */
+public class StructuralAnalysisResultHandler extends DummyProgressMonitor<StructuralAnalysisResult> {
+    private static final String TITLE = "Structural analysis";
+
+    @Override
+    public void finished(final Result<? extends StructuralAnalysisResult> result, String description) {
+        switch (result.getOutcome()) {
+        case FINISHED:
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    handleSuccess(result.getReturnValue());
+                }
+            });
+            break;
+        case FAILED:
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    Throwable cause = result.getCause();
+                    String message = (cause == null) ? "Structural analysis failed." : cause.toString();
+                    JOptionPane.showMessageDialog(getMainWindow(), message, TITLE, JOptionPane.ERROR_MESSAGE);
+                }
+            });
+            break;
+        default:
+            break;
+        }
+    }
+
+    private MainWindow getMainWindow() {
+        return Framework.getInstance().getMainWindow();
+    }
+
+    private void handleSuccess(StructuralAnalysisResult result) {
+        LogUtils.logInfoLine(result.getReport());
+        String message = result.getSummary() + "\nThe full report is in the output window.";
+        Object[] options = {"Save report...", "Close"};
+        int answer = JOptionPane.showOptionDialog(getMainWindow(), message, TITLE,
+                JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[1]);
+        if (answer == 0) {
+            JFileChooser fc = new JFileChooser();
+            fc.setDialogTitle("Save structural analysis report");
+            fc.setSelectedFile(new File("structure.txt"));
+            if (fc.showSaveDialog(getMainWindow()) == JFileChooser.APPROVE_OPTION) {
+                try {
+                    result.save(fc.getSelectedFile());
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(getMainWindow(), e.getMessage(), TITLE, JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }
+    }
+
+}
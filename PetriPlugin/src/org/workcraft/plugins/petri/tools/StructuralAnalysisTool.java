@@ -0,0 +1,60 @@
+package org.workcraft.plugins.petri.tools;
+
+import org.workcraft.Framework;
+import org.workcraft.VerificationTool;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.structure.StructuralAnalysis;
+import org.workcraft.plugins.petri.structure.StructuralAnalysisResult;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Task;
+import org.workcraft.util.WorkspaceUtils;
+import org.workcraft.workspace.WorkspaceEntry;
+
+public class StructuralAnalysisTool extends VerificationTool {
+
+    @Override
+    public String getDisplayName() {
+        return "Structural analysis (semiflows, siphons, traps)";
+    }
+
+    @Override
+    public boolean isApplicableTo(WorkspaceEntry we) {
+        return WorkspaceUtils.isApplicable(we, PetriNetModel.class);
+    }
+
+    @Override
+    public int getPriority() {
+        return 1;
+    }
+
+    @Override
+    public Position getPosition() {
+        return null;
+    }
+
+    @Override
+    public void run(WorkspaceEntry we) {
+        final PetriNetModel net = (PetriNetModel) we.getModelEntry().getMathModel();
+        final StructuralAnalysis analysis = new StructuralAnalysis(net);
+        analysis.setThreadCount(Runtime.getRuntime().availableProcessors());
+        Task<StructuralAnalysisResult> task = new Task<StructuralAnalysisResult>() {
+            @Override
+            public Result<? extends StructuralAnalysisResult> run(ProgressMonitor<? super StructuralAnalysisResult> monitor) {
+                StructuralAnalysisResult result = analysis.run(monitor);
+                if (result == null) {
+                    return Result.cancelled();
+                }
+                return Result.finished(result);
+            }
+        };
+        String description = "Structural analysis";
+        String title = we.getTitle();
+        if (!title.isEmpty()) {
+            description += " (" + title + ")";
+        }
+        final Framework framework = Framework.getInstance();
+        framework.getTaskManager().queue(task, description, new StructuralAnalysisResultHandler());
+    }
+
+}
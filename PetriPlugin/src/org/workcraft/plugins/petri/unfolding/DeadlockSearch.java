@@ -0,0 +1,151 @@
+package org.workcraft.plugins.petri.unfolding;
+
+import java.util.Arrays;
+
+/**
+ * Search for a configuration of a complete prefix whose marking enables no transition, by
+ * the branching of McMillan: an enabled event is either added to the configuration or
+ * excluded from it, and an excluded event has to be disabled by a conflicting event later.
+ * The cut-off events are never added, so every marking is visited by the configurations
+ * of the prefix at most once per branch, and an enabled cut-off event also has to be
+ * disabled for a deadlock.
+ */
+final class DeadlockSearch {
+    private final Unfolding unfolding;
+    private final boolean[] excluded;
+    // Number of conditions of the preset of the event that are not in the cut
+    private final int[] missing;
+    private final int[] enabled;
+    private final int[] enabledPositions;
+    private int enabledCount = 0;
+
+    DeadlockSearch(Unfolding unfolding) {
+        this.unfolding = unfolding;
+        int eventCount = unfolding.getEventCount();
+        excluded = new boolean[eventCount];
+        missing = new int[eventCount];
+        enabled = new int[eventCount];
+        enabledPositions = new int[eventCount];
+        for (int e = 0; e < eventCount; e++) {
+            missing[e] = unfolding.getEventPreset(e).length;
+        }
+        for (int c : unfolding.getInitialConditions()) {
+            produce(c);
+        }
+    }
+
+    /**
+     * @return the events of a deadlocked configuration in a firing order, or null if none.
+     */
+    int[] run() {
+        int eventCount = unfolding.getEventCount();
+        int[] stack = new int[eventCount];
+        boolean[] added = new boolean[eventCount];
+        int depth = 0;
+        while (true) {
+            if (enabledCount == 0) {
+                int[] result = new int[depth];
+                int count = 0;
+                for (int i = 0; i < depth; i++) {
+                    if (added[i]) {
+                        result[count++] = stack[i];
+                    }
+                }
+                return Arrays.copyOf(result, count);
+            }
+            int choice = choose();
+            if (choice >= 0) {
+                stack[depth] = choice;
+                added[depth] = true;
+                depth++;
+                fire(choice);
+                continue;
+            }
+            // Take the other branch of the last event that was added
+            while (true) {
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+                int e = stack[depth];
+                if (added[depth]) {
+                    unfire(e);
+                    excluded[e] = true;
+                    added[depth] = false;
+                    depth++;
+                    break;
+                }
+                excluded[e] = false;
+            }
+        }
+    }
+
+    /**
+     * @return the first enabled event that can be added, or -1 if an enabled event that
+     * cannot be added can also never be disabled.
+     */
+    private int choose() {
+        int result = -1;
+        for (int i = 0; i < enabledCount; i++) {
+            int e = enabled[i];
+            if (excluded[e] || unfolding.isCutoff(e)) {
+                if (!canBeDisabled(e)) {
+                    return -1;
+                }
+            } else if ((result < 0) || (e < result)) {
+                result = e;
+            }
+        }
+        return result;
+    }
+
+    private boolean canBeDisabled(int e) {
+        for (int c : unfolding.getEventPreset(e)) {
+            for (int f : unfolding.getPostEvents(c)) {
+                if ((f != e) && !excluded[f] && !unfolding.isCutoff(f)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void fire(int e) {
+        for (int c : unfolding.getEventPreset(e)) {
+            consume(c);
+        }
+        for (int c : unfolding.getEventPostset(e)) {
+            produce(c);
+        }
+    }
+
+    private void unfire(int e) {
+        for (int c : unfolding.getEventPostset(e)) {
+            consume(c);
+        }
+        for (int c : unfolding.getEventPreset(e)) {
+            produce(c);
+        }
+    }
+
+    private void produce(int c) {
+        for (int e : unfolding.getPostEvents(c)) {
+            if (--missing[e] == 0) {
+                enabledPositions[e] = enabledCount;
+                enabled[enabledCount++] = e;
+            }
+        }
+    }
+
+    private void consume(int c) {
+        for (int e : unfolding.getPostEvents(c)) {
+            if (missing[e]++ == 0) {
+                int position = enabledPositions[e];
+                int last = enabled[--enabledCount];
+                enabled[position] = last;
+                enabledPositions[last] = position;
+            }
+        }
+    }
+
+}
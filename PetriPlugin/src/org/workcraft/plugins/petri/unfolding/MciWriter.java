@@ -0,0 +1,81 @@
+package org.workcraft.plugins.petri.unfolding;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.workcraft.plugins.petri.structure.IncidenceMatrix;
+
+/**
+ * Writer of a prefix in the binary MCI format of PEP and punf, so that it can be given to
+ * the tools that read the output of punf. The numbers are 4-byte little-endian integers,
+ * and the events, conditions, places and transitions are numbered from 1.
+ */
+public class MciWriter {
+
+    public static void write(Unfolding unfolding, OutputStream stream) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(stream);
+        int conditionCount = unfolding.getConditionCount();
+        int eventCount = unfolding.getEventCount();
+        writeInt(out, conditionCount);
+        writeInt(out, eventCount);
+        for (int e = 0; e < eventCount; e++) {
+            writeInt(out, unfolding.getEventTransition(e) + 1);
+        }
+        for (int c = 0; c < conditionCount; c++) {
+            writeInt(out, unfolding.getConditionPlace(c) + 1);
+            writeInt(out, unfolding.getPreEvent(c) + 1);
+            for (int e : unfolding.getPostEvents(c)) {
+                writeInt(out, e + 1);
+            }
+            writeInt(out, 0);
+        }
+        for (int e = 0; e < eventCount; e++) {
+            if (unfolding.isCutoff(e)) {
+                writeInt(out, e + 1);
+                writeInt(out, unfolding.getCorrespondingEvent(e) + 1);
+            }
+        }
+        writeInt(out, 0);
+        // No configurations follow
+        writeInt(out, 0);
+
+        IncidenceMatrix matrix = unfolding.getMatrix();
+        int placeCount = matrix.getPlaceCount();
+        int transitionCount = matrix.getTransitionCount();
+        int maxLength = 0;
+        byte[][] placeNames = new byte[placeCount][];
+        for (int p = 0; p < placeCount; p++) {
+            placeNames[p] = matrix.getPlaceName(p).getBytes(StandardCharsets.UTF_8);
+            maxLength = Math.max(maxLength, placeNames[p].length);
+        }
+        byte[][] transitionNames = new byte[transitionCount][];
+        for (int t = 0; t < transitionCount; t++) {
+            transitionNames[t] = matrix.getTransitionName(t).getBytes(StandardCharsets.UTF_8);
+            maxLength = Math.max(maxLength, transitionNames[t].length);
+        }
+        writeInt(out, placeCount);
+        writeInt(out, transitionCount);
+        writeInt(out, maxLength);
+        writeNames(out, placeNames);
+        writeNames(out, transitionNames);
+        out.flush();
+    }
+
+    private static void writeNames(OutputStream out, byte[][] names) throws IOException {
+        for (byte[] name : names) {
+            out.write(name);
+            out.write(0);
+        }
+        out.write(0);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+        out.write((value >>> 16) & 0xFF);
+        out.write((value >>> 24) & 0xFF);
+    }
+
+}
@@ -0,0 +1,438 @@
+package org.workcraft.plugins.petri.unfolding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.structure.IncidenceMatrix;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+
+/**
+ * Construction of a complete finite prefix of the unfolding of a safe Petri net or STG, as
+ * proposed by McMillan with the total adequate order of Esparza, Roemer and Vogler. The
+ * possible extensions wait in a priority queue ordered by the size, the Parikh vector and
+ * the Foata normal form of their local configurations, and an event is a cut-off if a
+ * smaller local configuration reaches the same marking. The concurrency relation of the
+ * conditions is kept as bit sets, and a new event only adds the possible extensions that
+ * use its postset. The net is found not safe when two concurrent conditions of a place
+ * appear, also in the postsets of cut-off events, as they mean a reachable marking with
+ * two tokens in the place.
+ *
+ * A read arc, which the model keeps as a pair of arcs, is unfolded as consuming and
+ * producing its place. The net is compiled in the calling thread, so the unfolding can be
+ * built in another one.
+ */
+public class Unfolder {
+    public static final int DEFAULT_EVENT_LIMIT = 100000;
+
+    private final IncidenceMatrix matrix;
+    private int eventLimit = DEFAULT_EVENT_LIMIT;
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    // Conditions of every place that can be used by possible extensions
+    private BitSet[] placeConditions;
+    // Conditions of every place, including the postsets of cut-off events
+    private BitSet[] allPlaceConditions;
+    private final BitSet initialCut = new BitSet();
+    private final PriorityQueue<Extension> extensions = new PriorityQueue<>();
+    private final HashMap<BitSet, Integer> markings = new HashMap<>();
+
+    public Unfolder(PetriNetModel net) {
+        matrix = new IncidenceMatrix(net);
+    }
+
+    /**
+     * Sets the largest number of events of the prefix.
+     */
+    public void setEventLimit(int value) {
+        eventLimit = Math.max(1, value);
+    }
+
+    public Unfolding unfold() throws UnfoldingException {
+        return unfold(new DummyProgressMonitor<Object>());
+    }
+
+    /**
+     * @return the complete prefix, or null if cancelled.
+     */
+    public Unfolding unfold(ProgressMonitor<?> monitor) throws UnfoldingException {
+        conditions.clear();
+        events.clear();
+        extensions.clear();
+        markings.clear();
+        initialCut.clear();
+        checkNet();
+        int placeCount = matrix.getPlaceCount();
+        placeConditions = new BitSet[placeCount];
+        allPlaceConditions = new BitSet[placeCount];
+        BitSet initialMarking = new BitSet(placeCount);
+        int[] initialConditions = new int[placeCount];
+        int initialCount = 0;
+        for (int p = 0; p < placeCount; p++) {
+            placeConditions[p] = new BitSet();
+            allPlaceConditions[p] = new BitSet();
+            if (matrix.getInitialTokens(p) > 0) {
+                initialMarking.set(p);
+                initialConditions[initialCount++] = addCondition(p, -1);
+            }
+        }
+        initialConditions = Arrays.copyOf(initialConditions, initialCount);
+        for (int c : initialConditions) {
+            initialCut.set(c);
+            Condition condition = conditions.get(c);
+            for (int d : initialConditions) {
+                if (d != c) {
+                    condition.co.set(d);
+                }
+            }
+            placeConditions[condition.place].set(c);
+            allPlaceConditions[condition.place].set(c);
+        }
+        markings.put(initialMarking, -1);
+        addExtensions(initialConditions);
+
+        while (!extensions.isEmpty()) {
+            if (monitor.isCancelRequested()) {
+                return null;
+            }
+            if (events.size() == eventLimit) {
+                throw new UnfoldingException("The prefix has more than " + eventLimit + " events.");
+            }
+            addEvent(extensions.poll());
+        }
+        return createUnfolding(initialConditions);
+    }
+
+    private void checkNet() throws UnfoldingException {
+        for (int p = 0; p < matrix.getPlaceCount(); p++) {
+            if (matrix.getInitialTokens(p) > 1) {
+                throw new UnfoldingException("The initial marking of place '"
+                        + matrix.getPlaceName(p) + "' is not safe.");
+            }
+        }
+        for (int t = 0; t < matrix.getTransitionCount(); t++) {
+            if (matrix.getPrePlaces(t).length == 0) {
+                throw new UnfoldingException("Transition '" + matrix.getTransitionName(t)
+                        + "' has an empty preset, so the net is not safe.");
+            }
+            for (int weight : matrix.getPreWeights(t)) {
+                if (weight > 1) {
+                    throw new UnfoldingException("Transition '" + matrix.getTransitionName(t)
+                            + "' has a weighted arc, which is not supported.");
+                }
+            }
+            for (int weight : matrix.getPostWeights(t)) {
+                if (weight > 1) {
+                    throw new UnfoldingException("Transition '" + matrix.getTransitionName(t)
+                            + "' has a weighted arc, so the net is not safe.");
+                }
+            }
+        }
+    }
+
+    private int addCondition(int place, int preEvent) {
+        conditions.add(new Condition(place, preEvent));
+        return conditions.size() - 1;
+    }
+
+    /**
+     * Adds the possible extensions whose presets include some of the new conditions, which
+     * are pairwise concurrent. An extension is added with the first of the new conditions
+     * in its preset.
+     */
+    private void addExtensions(int[] newConditions) {
+        BitSet isNew = new BitSet();
+        for (int c : newConditions) {
+            isNew.set(c);
+        }
+        for (int c : newConditions) {
+            Condition condition = conditions.get(c);
+            for (int t : matrix.getPostTransitions(condition.place)) {
+                int[] places = matrix.getPrePlaces(t);
+                int[] preset = new int[places.length];
+                for (int i = 0; i < places.length; i++) {
+                    if (places[i] == condition.place) {
+                        preset[i] = c;
+                    }
+                }
+                addExtensions(t, places, preset, 0, condition.place, c, condition.co, isNew);
+            }
+        }
+    }
+
+    private void addExtensions(int t, int[] places, int[] preset, int i, int place, int first,
+            BitSet allowed, BitSet isNew) {
+        if (i == places.length) {
+            extensions.add(new Extension(t, preset.clone()));
+        } else if (places[i] == place) {
+            addExtensions(t, places, preset, i + 1, place, first, allowed, isNew);
+        } else {
+            BitSet candidates = (BitSet) placeConditions[places[i]].clone();
+            candidates.and(allowed);
+            for (int c = candidates.nextSetBit(0); c >= 0; c = candidates.nextSetBit(c + 1)) {
+                if ((c < first) && isNew.get(c)) {
+                    continue;
+                }
+                preset[i] = c;
+                BitSet next = (BitSet) allowed.clone();
+                next.and(conditions.get(c).co);
+                addExtensions(t, places, preset, i + 1, place, first, next, isNew);
+            }
+        }
+    }
+
+    private void addEvent(Extension extension) throws UnfoldingException {
+        int e = events.size();
+        Event event = new Event(extension.transition, extension.preset, extension.config, extension.depth);
+        event.config.set(e);
+        events.add(event);
+        for (int c : event.preset) {
+            conditions.get(c).postEvents.add(e);
+        }
+        BitSet marking = getMarking(event);
+        int[] postPlaces = matrix.getPostPlaces(event.transition);
+        event.postset = new int[postPlaces.length];
+        for (int i = 0; i < postPlaces.length; i++) {
+            event.postset[i] = addCondition(postPlaces[i], e);
+        }
+        // The new conditions are concurrent to each other and to those concurrent to the whole preset
+        BitSet co = (BitSet) conditions.get(event.preset[0]).co.clone();
+        for (int c : event.preset) {
+            co.and(conditions.get(c).co);
+        }
+        for (int c : event.postset) {
+            Condition condition = conditions.get(c);
+            condition.co.or(co);
+            for (int d : event.postset) {
+                if (d != c) {
+                    condition.co.set(d);
+                }
+            }
+            for (int d = co.nextSetBit(0); d >= 0; d = co.nextSetBit(d + 1)) {
+                conditions.get(d).co.set(c);
+            }
+            // Two concurrent conditions of a place mean a reachable marking with two tokens in it
+            if (co.intersects(allPlaceConditions[condition.place])) {
+                throw new UnfoldingException("Place '" + matrix.getPlaceName(condition.place)
+                        + "' gets a second token, so the net is not safe.");
+            }
+            allPlaceConditions[condition.place].set(c);
+        }
+        Integer corresponding = markings.get(marking);
+        if (corresponding != null) {
+            event.cutoff = true;
+            event.corresponding = corresponding;
+            return;
+        }
+        markings.put(marking, e);
+        for (int c : event.postset) {
+            placeConditions[conditions.get(c).place].set(c);
+        }
+        addExtensions(event.postset);
+    }
+
+    /**
+     * @return the marking of the local configuration of the event.
+     */
+    private BitSet getMarking(Event event) throws UnfoldingException {
+        BitSet cut = (BitSet) initialCut.clone();
+        BitSet consumed = new BitSet(conditions.size());
+        int[] places = matrix.getPostPlaces(event.transition);
+        BitSet marking = new BitSet(matrix.getPlaceCount());
+        for (int f = event.config.nextSetBit(0); f >= 0; f = event.config.nextSetBit(f + 1)) {
+            Event other = events.get(f);
+            for (int c : other.preset) {
+                consumed.set(c);
+            }
+            if (other != event) {
+                for (int c : other.postset) {
+                    cut.set(c);
+                }
+            }
+        }
+        cut.andNot(consumed);
+        for (int c = cut.nextSetBit(0); c >= 0; c = cut.nextSetBit(c + 1)) {
+            mark(marking, conditions.get(c).place);
+        }
+        for (int p : places) {
+            mark(marking, p);
+        }
+        return marking;
+    }
+
+    private void mark(BitSet marking, int p) throws UnfoldingException {
+        if (marking.get(p)) {
+            throw new UnfoldingException("Place '" + matrix.getPlaceName(p)
+                    + "' gets a second token, so the net is not safe.");
+        }
+        marking.set(p);
+    }
+
+    private Unfolding createUnfolding(int[] initialConditions) {
+        int eventCount = events.size();
+        int[] eventTransitions = new int[eventCount];
+        int[][] eventPresets = new int[eventCount][];
+        int[][] eventPostsets = new int[eventCount][];
+        int[] correspondingEvents = new int[eventCount];
+        boolean[] cutoffs = new boolean[eventCount];
+        for (int e = 0; e < eventCount; e++) {
+            Event event = events.get(e);
+            eventTransitions[e] = event.transition;
+            eventPresets[e] = event.preset;
+            eventPostsets[e] = event.postset;
+            cutoffs[e] = event.cutoff;
+            correspondingEvents[e] = event.corresponding;
+        }
+        int conditionCount = conditions.size();
+        int[] conditionPlaces = new int[conditionCount];
+        int[] preEvents = new int[conditionCount];
+        int[][] postEvents = new int[conditionCount][];
+        for (int c = 0; c < conditionCount; c++) {
+            Condition condition = conditions.get(c);
+            conditionPlaces[c] = condition.place;
+            preEvents[c] = condition.preEvent;
+            postEvents[c] = new int[condition.postEvents.size()];
+            for (int i = 0; i < postEvents[c].length; i++) {
+                postEvents[c][i] = condition.postEvents.get(i);
+            }
+        }
+        return new Unfolding(matrix, eventTransitions, eventPresets, eventPostsets, cutoffs,
+                correspondingEvents, conditionPlaces, preEvents, postEvents, initialConditions);
+    }
+
+    private static final class Condition {
+        private final int place;
+        private final int preEvent;
+        private final BitSet co = new BitSet();
+        private final List<Integer> postEvents = new ArrayList<>();
+
+        private Condition(int place, int preEvent) {
+            this.place = place;
+            this.preEvent = preEvent;
+        }
+    }
+
+    private static final class Event {
+        private final int transition;
+        private final int[] preset;
+        private final BitSet config;
+        private final int depth;
+        private int[] postset;
+        private boolean cutoff = false;
+        private int corresponding = -1;
+
+        private Event(int transition, int[] preset, BitSet config, int depth) {
+            this.transition = transition;
+            this.preset = preset;
+            this.config = config;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Possible extension with the local configuration of its event, without the event itself.
+     */
+    private final class Extension implements Comparable<Extension> {
+        private final int transition;
+        private final int[] preset;
+        private final BitSet config = new BitSet();
+        private final int size;
+        private final int depth;
+        private final int[] parikh;
+        private int[][] foata = null;
+
+        private Extension(int transition, int[] preset) {
+            this.transition = transition;
+            this.preset = preset;
+            int maxDepth = 0;
+            for (int c : preset) {
+                int preEvent = conditions.get(c).preEvent;
+                if (preEvent >= 0) {
+                    Event event = events.get(preEvent);
+                    config.or(event.config);
+                    maxDepth = Math.max(maxDepth, event.depth);
+                }
+            }
+            depth = maxDepth + 1;
+            size = config.cardinality() + 1;
+            parikh = new int[size];
+            int i = 0;
+            for (int e = config.nextSetBit(0); e >= 0; e = config.nextSetBit(e + 1)) {
+                parikh[i++] = events.get(e).transition;
+            }
+            parikh[i] = transition;
+            Arrays.sort(parikh);
+        }
+
+        private int[][] getFoata() {
+            if (foata == null) {
+                int[] levelSizes = new int[depth];
+                for (int e = config.nextSetBit(0); e >= 0; e = config.nextSetBit(e + 1)) {
+                    levelSizes[events.get(e).depth - 1]++;
+                }
+                levelSizes[depth - 1]++;
+                foata = new int[depth][];
+                for (int level = 0; level < depth; level++) {
+                    foata[level] = new int[levelSizes[level]];
+                    levelSizes[level] = 0;
+                }
+                for (int e = config.nextSetBit(0); e >= 0; e = config.nextSetBit(e + 1)) {
+                    Event event = events.get(e);
+                    foata[event.depth - 1][levelSizes[event.depth - 1]++] = event.transition;
+                }
+                foata[depth - 1][levelSizes[depth - 1]++] = transition;
+                for (int[] level : foata) {
+                    Arrays.sort(level);
+                }
+            }
+            return foata;
+        }
+
+        @Override
+        public int compareTo(Extension other) {
+            if (size != other.size) {
+                return Integer.compare(size, other.size);
+            }
+            int result = compareParikh(parikh, other.parikh);
+            if (result != 0) {
+                return result;
+            }
+            int[][] levels = getFoata();
+            int[][] otherLevels = other.getFoata();
+            for (int level = 0; (level < levels.length) && (level < otherLevels.length); level++) {
+                result = compareParikh(levels[level], otherLevels[level]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(levels.length, otherLevels.length);
+        }
+    }
+
+    /**
+     * Compares the Parikh vectors of the sorted multisets of transitions lexicographically:
+     * the smaller one has fewer occurrences of the first transition where they differ.
+     */
+    private static int compareParikh(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while ((i < a.length) || (j < b.length)) {
+            if ((j == b.length) || ((i < a.length) && (a[i] < b[j]))) {
+                return 1;
+            }
+            if ((i == a.length) || (b[j] < a[i])) {
+                return -1;
+            }
+            i++;
+            j++;
+        }
+        return 0;
+    }
+
+}
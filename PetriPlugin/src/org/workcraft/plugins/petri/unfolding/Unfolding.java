@@ -0,0 +1,141 @@
+package org.workcraft.plugins.petri.unfolding;
+
+import org.workcraft.Trace;
+import org.workcraft.plugins.petri.PetriNetModel;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.structure.IncidenceMatrix;
+
+/**
+ * Complete finite prefix of the unfolding of a safe net, built by {@link Unfolder}. The
+ * events are numbered in the order they were added, so the causal predecessors of an event
+ * come before it, and the conditions of the initial marking come first. The prefix can be
+ * kept and queried many times, and written in the MCI format by {@link MciWriter}.
+ */
+public class Unfolding {
+    private final IncidenceMatrix matrix;
+    private final int[] eventTransitions;
+    private final int[][] eventPresets;
+    private final int[][] eventPostsets;
+    private final boolean[] cutoffs;
+    private final int[] correspondingEvents;
+    private final int[] conditionPlaces;
+    private final int[] preEvents;
+    private final int[][] postEvents;
+    private final int[] initialConditions;
+
+    Unfolding(IncidenceMatrix matrix, int[] eventTransitions, int[][] eventPresets, int[][] eventPostsets,
+            boolean[] cutoffs, int[] correspondingEvents, int[] conditionPlaces, int[] preEvents,
+            int[][] postEvents, int[] initialConditions) {
+        this.matrix = matrix;
+        this.eventTransitions = eventTransitions;
+        this.eventPresets = eventPresets;
+        this.eventPostsets = eventPostsets;
+        this.cutoffs = cutoffs;
+        this.correspondingEvents = correspondingEvents;
+        this.conditionPlaces = conditionPlaces;
+        this.preEvents = preEvents;
+        this.postEvents = postEvents;
+        this.initialConditions = initialConditions;
+    }
+
+    public PetriNetModel getNet() {
+        return matrix.getNet();
+    }
+
+    public IncidenceMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int getEventCount() {
+        return eventTransitions.length;
+    }
+
+    public int getConditionCount() {
+        return conditionPlaces.length;
+    }
+
+    public int getCutoffCount() {
+        int result = 0;
+        for (boolean cutoff : cutoffs) {
+            if (cutoff) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the transition of the event in the {@link IncidenceMatrix}.
+     */
+    public int getEventTransition(int e) {
+        return eventTransitions[e];
+    }
+
+    public Transition getTransition(int e) {
+        return matrix.getTransition(eventTransitions[e]);
+    }
+
+    public int[] getEventPreset(int e) {
+        return eventPresets[e];
+    }
+
+    public int[] getEventPostset(int e) {
+        return eventPostsets[e];
+    }
+
+    public boolean isCutoff(int e) {
+        return cutoffs[e];
+    }
+
+    /**
+     * @return the event whose local configuration has the marking of the cut-off event, or
+     * -1 if it is the initial marking.
+     */
+    public int getCorrespondingEvent(int e) {
+        return correspondingEvents[e];
+    }
+
+    /**
+     * @return the index of the place of the condition in the {@link IncidenceMatrix}.
+     */
+    public int getConditionPlace(int c) {
+        return conditionPlaces[c];
+    }
+
+    public Place getPlace(int c) {
+        return matrix.getPlace(conditionPlaces[c]);
+    }
+
+    /**
+     * @return the event that produces the condition, or -1 if it is in the initial marking.
+     */
+    public int getPreEvent(int c) {
+        return preEvents[c];
+    }
+
+    public int[] getPostEvents(int c) {
+        return postEvents[c];
+    }
+
+    public int[] getInitialConditions() {
+        return initialConditions;
+    }
+
+    /**
+     * @return a trace to a deadlock, or null if the net is deadlock-free.
+     */
+    public Trace findDeadlock() {
+        int[] configuration = new DeadlockSearch(this).run();
+        if (configuration == null) {
+            return null;
+        }
+        Trace result = new Trace();
+        PetriNetModel net = getNet();
+        for (int e : configuration) {
+            result.add(net.getNodeReference(getTransition(e)));
+        }
+        return result;
+    }
+
+}
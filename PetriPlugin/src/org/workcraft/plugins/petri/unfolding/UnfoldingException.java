@@ -0,0 +1,10 @@
+package org.workcraft.plugins.petri.unfolding;
+
+@SuppressWarnings("serial")
+public class UnfoldingException extends Exception {
+
+    public UnfoldingException(String message) {
+        super(message);
+    }
+
+}
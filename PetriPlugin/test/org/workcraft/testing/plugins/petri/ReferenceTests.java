@@ -0,0 +1,35 @@
+package org.workcraft.testing.plugins.petri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.workcraft.dom.math.PageNode;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+
+public class ReferenceTests {
+
+    @Test
+    public void testReferencesFollowRenaming() {
+        PetriNet net = new PetriNet();
+        PageNode page = net.createNode("page", null, PageNode.class);
+        Place place = net.createPlace("p", page);
+        assertEquals("page/p", net.getNodeReference(place));
+        assertSame(place, net.getNodeByReference("page/p"));
+
+        net.setName(page, "sheet");
+        assertEquals("sheet/p", net.getNodeReference(place));
+        assertSame(place, net.getNodeByReference("sheet/p"));
+        assertNull(net.getNodeByReference("page/p"));
+
+        net.setName(place, "q");
+        assertEquals("sheet/q", net.getNodeReference(place));
+        assertNull(net.getNodeByReference("sheet/p"));
+
+        net.remove(place);
+        assertNull(net.getNodeByReference("sheet/q"));
+    }
+
+}
@@ -23,6 +23,7 @@ package org.workcraft.testing.plugins.petri;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -33,7 +34,12 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -51,6 +57,7 @@ import org.workcraft.plugins.petri.PetriNetDescriptor;
 import org.workcraft.plugins.petri.Place;
 import org.workcraft.plugins.petri.Transition;
 import org.workcraft.plugins.petri.VisualPetriNet;
+import org.workcraft.util.DataAccumulator;
 import org.workcraft.util.Hierarchy;
 import org.workcraft.workspace.ModelEntry;
 
@@ -112,6 +119,64 @@ public class SaveLoadTests {
         ensureSampleUpToDate("testDataVisualModel", buildSampleVisualPetri(), testDataVisualModel);
     }
 
+    @Test
+    public void testSaveLoadRoundTrip() throws Exception {
+        Framework framework = Framework.getInstance();
+        framework.getPluginManager().reconfigure(false);
+
+        VisualPetriNet sample = buildSampleVisualPetri();
+        ByteArrayOutputStream work = new ByteArrayOutputStream();
+        framework.save(new ModelEntry(new PetriNetDescriptor(), sample), work);
+        ModelEntry modelEntry = framework.load(new ByteArrayInputStream(work.toByteArray()));
+        Assert.assertTrue(modelEntry.getModel() instanceof VisualPetriNet);
+        assertPetriEquals((PetriNet) sample.getMathModel(), (PetriNet) modelEntry.getMathModel());
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        framework.saveBinary(modelEntry, binary);
+        ModelEntry binaryEntry = framework.load(new ByteArrayInputStream(binary.toByteArray()));
+        assertPetriEquals((PetriNet) sample.getMathModel(), (PetriNet) binaryEntry.getMathModel());
+        Assert.assertFalse(binaryEntry.isVisualModelLoaded());
+        Assert.assertTrue(binaryEntry.getModel() instanceof VisualPetriNet);
+        Assert.assertSame(binaryEntry.getMathModel(), binaryEntry.getVisualModel().getMathModel());
+    }
+
+    @Test
+    public void testLoadEntriesInAnyOrder() throws Exception {
+        Framework framework = Framework.getInstance();
+        framework.getPluginManager().reconfigure(false);
+
+        VisualPetriNet sample = buildSampleVisualPetri();
+        ByteArrayOutputStream work = new ByteArrayOutputStream();
+        framework.save(new ModelEntry(new PetriNetDescriptor(), sample), work);
+
+        // Meta data first and the visual model before the math model it refers to
+        Map<String, byte[]> entries = new HashMap<>();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(work.toByteArray()));
+        ZipEntry ze;
+        while ((ze = zis.getNextEntry()) != null) {
+            entries.put(ze.getName(), DataAccumulator.loadStream(zis));
+        }
+        ByteArrayOutputStream reordered = new ByteArrayOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(reordered);
+        for (String name : new String[] {"meta", "visualModel.xml", "state.xml", "model.xml"}) {
+            zos.putNextEntry(new ZipEntry(name));
+            zos.write(entries.get(name));
+            zos.closeEntry();
+        }
+        zos.close();
+
+        ModelEntry modelEntry = framework.load(new ByteArrayInputStream(reordered.toByteArray()));
+        Assert.assertTrue(modelEntry.getModel() instanceof VisualPetriNet);
+        assertPetriEquals((PetriNet) sample.getMathModel(), (PetriNet) modelEntry.getMathModel());
+
+        File file = File.createTempFile("workcraft", ".work");
+        file.deleteOnExit();
+        framework.save(new ModelEntry(new PetriNetDescriptor(), sample), file);
+        ModelEntry fileEntry = framework.load(file);
+        Assert.assertTrue(fileEntry.getModel() instanceof VisualPetriNet);
+        assertPetriEquals((PetriNet) sample.getMathModel(), (PetriNet) fileEntry.getMathModel());
+    }
+
     private void ensureSampleUpToDate(String sampleVarName, Model model, String currentValue) throws SerialisationException, Exception {
         Framework framework = Framework.getInstance();
         framework.getPluginManager().reconfigure(false);
@@ -0,0 +1,129 @@
+package org.workcraft.testing.plugins.petri;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.structure.Semiflow;
+import org.workcraft.plugins.petri.structure.StructuralAnalysis;
+import org.workcraft.plugins.petri.structure.StructuralAnalysisResult;
+
+public class StructuralAnalysisTests {
+
+    private static void addCycle(PetriNet net, String prefix, Place resource) throws Exception {
+        Place p0 = net.createPlace(prefix + "0", null);
+        Place p1 = net.createPlace(prefix + "1", null);
+        Transition t0 = net.createTransition("t" + prefix + "0", null);
+        Transition t1 = net.createTransition("t" + prefix + "1", null);
+        p0.setTokens(1);
+        net.connect(p0, t0);
+        net.connect(t0, p1);
+        net.connect(p1, t1);
+        net.connect(t1, p0);
+        net.connect(resource, t0);
+        net.connect(t1, resource);
+    }
+
+    private static String toString(List<int[]> sets) {
+        StringBuilder result = new StringBuilder();
+        for (int[] set : sets) {
+            result.append(Arrays.toString(set));
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testMutex() throws Exception {
+        PetriNet net = new PetriNet();
+        Place m = net.createPlace("m", null);
+        m.setTokens(1);
+        addCycle(net, "a", m);
+        addCycle(net, "b", m);
+
+        for (int threadCount = 1; threadCount <= 2; threadCount++) {
+            StructuralAnalysis analysis = new StructuralAnalysis(net);
+            analysis.setThreadCount(threadCount);
+            StructuralAnalysisResult result = analysis.run();
+            // Places are m, a0, a1, b0, b1
+            List<Semiflow> placeSemiflows = result.getPlaceSemiflows();
+            Assert.assertEquals(3, placeSemiflows.size());
+            Assert.assertArrayEquals(new int[] {0, 2, 4}, placeSemiflows.get(0).getSupport());
+            Assert.assertArrayEquals(new int[] {1, 2}, placeSemiflows.get(1).getSupport());
+            Assert.assertArrayEquals(new int[] {3, 4}, placeSemiflows.get(2).getSupport());
+            Assert.assertEquals(1, result.getInitialValue(placeSemiflows.get(0)));
+            Assert.assertTrue(result.isConservative());
+            Assert.assertEquals(1, result.getPlaceBound(0));
+            Assert.assertEquals(2, result.getTransitionSemiflows().size());
+            Assert.assertTrue(result.isConsistent());
+            Assert.assertEquals("[1, 2][3, 4][0, 2, 4]", toString(result.getSiphons()));
+            Assert.assertEquals("[1, 2][3, 4][0, 2, 4]", toString(result.getTraps()));
+            Assert.assertTrue(result.getUnprotectedSiphons().isEmpty());
+        }
+    }
+
+    @Test
+    public void testWeightsAndDeadlock() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Place q = net.createPlace("q", null);
+        Place r = net.createPlace("r", null);
+        Transition t = net.createTransition("t", null);
+        Transition u = net.createTransition("u", null);
+        Transition v = net.createTransition("v", null);
+        p.setTokens(2);
+        net.connect(p, t);
+        net.connect(p, t);
+        net.connect(t, q);
+        net.connect(q, u);
+        net.connect(u, p);
+        net.connect(u, p);
+        // The unmarked place r is a siphon, so v is dead
+        net.connect(r, v);
+        net.connect(v, r);
+        net.connect(q, v);
+        net.connect(v, q);
+
+        StructuralAnalysisResult result = new StructuralAnalysis(net).run();
+        List<Semiflow> placeSemiflows = result.getPlaceSemiflows();
+        Assert.assertEquals(2, placeSemiflows.size());
+        Semiflow semiflow = placeSemiflows.get(0);
+        Assert.assertArrayEquals(new int[] {0, 1}, semiflow.getSupport());
+        Assert.assertEquals(1, semiflow.getWeight(0));
+        Assert.assertEquals(2, semiflow.getWeight(1));
+        Assert.assertEquals(1, result.getPlaceBound(1));
+        Assert.assertArrayEquals(new int[] {2}, placeSemiflows.get(1).getSupport());
+        Assert.assertEquals(2, result.getTransitionSemiflows().size());
+        Assert.assertEquals("[2][0, 1]", toString(result.getSiphons()));
+        Assert.assertEquals("[2]", toString(result.getUnprotectedSiphons()));
+        Assert.assertTrue(result.getReport().contains("p + 2*q = 2"));
+    }
+
+    @Test
+    public void testLargeRing() throws Exception {
+        PetriNet net = new PetriNet();
+        int count = 2000;
+        Place first = net.createPlace("p0", null);
+        first.setTokens(1);
+        Place place = first;
+        for (int i = 0; i < count; i++) {
+            Transition transition = net.createTransition("t" + i, null);
+            net.connect(place, transition);
+            place = (i == count - 1) ? first : net.createPlace("p" + (i + 1), null);
+            net.connect(transition, place);
+        }
+        StructuralAnalysis analysis = new StructuralAnalysis(net);
+        analysis.setThreadCount(2);
+        StructuralAnalysisResult result = analysis.run();
+        Assert.assertEquals(1, result.getPlaceSemiflows().size());
+        Assert.assertEquals(count, result.getPlaceSemiflows().get(0).getSupportSize());
+        Assert.assertEquals(1, result.getTransitionSemiflows().size());
+        Assert.assertEquals(1, result.getSiphons().size());
+        Assert.assertEquals(1, result.getTraps().size());
+        Assert.assertEquals(1, result.getPlaceBound(count - 1));
+    }
+
+}
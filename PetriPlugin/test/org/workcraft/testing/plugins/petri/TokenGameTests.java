@@ -0,0 +1,124 @@
+package org.workcraft.testing.plugins.petri;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.Trace;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.TokenGame;
+import org.workcraft.plugins.petri.TraceReplay;
+import org.workcraft.plugins.petri.Transition;
+
+public class TokenGameTests {
+
+    @Test
+    public void testFireAndUnfire() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p0 = net.createPlace("p0", null);
+        Place p1 = net.createPlace("p1", null);
+        Place r = net.createPlace("r", null);
+        Transition t0 = net.createTransition("t0", null);
+        Transition t1 = net.createTransition("t1", null);
+        p0.setTokens(2);
+        r.setTokens(1);
+        // Weighted arc from p0 and read arc from r
+        net.connect(p0, t0);
+        net.connect(p0, t0);
+        net.connect(r, t0);
+        net.connect(t0, r);
+        net.connect(t0, p1);
+        net.connect(p1, t1);
+        net.connect(t1, p0);
+
+        TokenGame game = new TokenGame(net);
+        int t0Index = game.getTransitionIndex(t0);
+        int t1Index = game.getTransitionIndex(t1);
+        Assert.assertTrue(game.isEnabled(t0Index));
+        Assert.assertFalse(game.isEnabled(t1Index));
+        Assert.assertEquals(1, game.getEnabledCount());
+
+        Assert.assertTrue(game.fire(t0Index));
+        Assert.assertFalse(game.isEnabled(t0Index));
+        Assert.assertTrue(game.isEnabled(t1Index));
+        Assert.assertEquals(0, game.getTokens(game.getPlaceIndex(p0)));
+        Assert.assertEquals(1, game.getTokens(game.getPlaceIndex(r)));
+        Assert.assertEquals(2, p0.getTokens());
+
+        Assert.assertTrue(game.writeMarking());
+        Assert.assertEquals(0, p0.getTokens());
+        Assert.assertEquals(1, p1.getTokens());
+        Assert.assertFalse(game.writeMarking());
+
+        Assert.assertTrue(game.unfire(t0Index));
+        Assert.assertFalse(game.unfire(t0Index));
+        Assert.assertEquals(2, game.getTokens(game.getPlaceIndex(p0)));
+        Assert.assertTrue(game.isEnabled(t0Index));
+        Assert.assertEquals(1, game.getEnabled().length);
+    }
+
+    @Test
+    public void testEnabledSet() throws Exception {
+        PetriNet net = new PetriNet();
+        Place shared = net.createPlace("shared", null);
+        shared.setTokens(1);
+        int count = 10;
+        for (int i = 0; i < count; i++) {
+            Transition t = net.createTransition("t" + i, null);
+            net.connect(shared, t);
+            net.connect(t, shared);
+        }
+        Transition take = net.createTransition("take", null);
+        net.connect(shared, take);
+
+        TokenGame game = new TokenGame(net);
+        Assert.assertEquals(count + 1, game.getEnabledCount());
+        game.fire(game.getTransitionIndex(take));
+        Assert.assertEquals(0, game.getEnabledCount());
+        game.setTokens(game.getPlaceIndex(shared), 1);
+        Assert.assertEquals(count + 1, game.getEnabledTransitions().size());
+        int[] enabled = game.getEnabled();
+        for (int i = 1; i < enabled.length; i++) {
+            Assert.assertTrue(enabled[i - 1] < enabled[i]);
+        }
+    }
+
+    @Test
+    public void testTraceReplay() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p0 = net.createPlace("p0", null);
+        Place p1 = net.createPlace("p1", null);
+        Place count = net.createPlace("count", null);
+        Transition t0 = net.createTransition("t0", null);
+        Transition t1 = net.createTransition("t1", null);
+        p0.setTokens(1);
+        net.connect(p0, t0);
+        net.connect(t0, p1);
+        net.connect(t0, count);
+        net.connect(p1, t1);
+        net.connect(t1, p0);
+
+        Trace trace = new Trace();
+        for (int i = 0; i < 500; i++) {
+            trace.add("t0");
+            trace.add("t1");
+        }
+        trace.add("t1");
+        TokenGame game = new TokenGame(net);
+        TraceReplay replay = new TraceReplay(game);
+        int[] initial = game.getMarking();
+        int countIndex = game.getPlaceIndex(count);
+        Assert.assertEquals(701, replay.seek(trace, initial, 701));
+        Assert.assertEquals(351, game.getTokens(countIndex));
+        Assert.assertEquals(130, replay.seek(trace, initial, 130));
+        Assert.assertEquals(65, game.getTokens(countIndex));
+        Assert.assertEquals(1000, replay.seek(trace, initial, 2000));
+        Assert.assertEquals(500, game.getTokens(countIndex));
+        Assert.assertEquals(0, replay.seek(trace, initial, 0));
+        Assert.assertEquals(0, game.getTokens(countIndex));
+
+        trace.set(10, "t1");
+        Assert.assertEquals(10, replay.seek(trace, initial, 100));
+        Assert.assertEquals(5, game.getTokens(countIndex));
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.workcraft.testing.plugins.petri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+
+import org.junit.Test;
+import org.workcraft.dom.visual.connections.VisualConnection;
+import org.workcraft.exceptions.InvalidConnectionException;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.PetriNetDescriptor;
+import org.workcraft.plugins.petri.VisualPetriNet;
+import org.workcraft.plugins.petri.VisualPlace;
+import org.workcraft.plugins.petri.VisualTransition;
+import org.workcraft.workspace.ModelEntry;
+import org.workcraft.workspace.WorkspaceEntry;
+
+public class UndoTests {
+
+    @Test
+    public void testUndoRedoModifications() throws InvalidConnectionException {
+        PetriNet net = new PetriNet();
+        VisualPetriNet model = new VisualPetriNet(net);
+        VisualPlace place = model.createPlace("p", null);
+        VisualTransition transition = model.createTransition("t", null);
+        VisualConnection connection = model.connect(place, transition);
+
+        WorkspaceEntry we = new WorkspaceEntry(null);
+        we.setModelEntry(new ModelEntry(new PetriNetDescriptor(), model));
+
+        we.saveMemento();
+        place.setPosition(new Point2D.Double(3.0, 4.0));
+        place.getReferencedPlace().setTokens(2);
+
+        we.saveMemento();
+        model.remove(place);
+        assertNull(place.getParent());
+        assertNull(connection.getParent());
+        assertNull(net.getNodeByReference("p"));
+
+        we.undo();
+        assertSame(model.getRoot(), place.getParent());
+        assertSame(model.getRoot(), connection.getParent());
+        assertSame(place.getReferencedPlace(), net.getNodeByReference("p"));
+        assertTrue(model.getConnections(transition).contains(connection));
+        assertEquals(2, place.getReferencedPlace().getTokens());
+        assertEquals(new Point2D.Double(3.0, 4.0), place.getPosition());
+
+        we.undo();
+        assertEquals(0, place.getReferencedPlace().getTokens());
+        assertEquals(new Point2D.Double(0.0, 0.0), place.getPosition());
+
+        we.redo();
+        assertEquals(2, place.getReferencedPlace().getTokens());
+        assertEquals(new Point2D.Double(3.0, 4.0), place.getPosition());
+
+        we.redo();
+        assertNull(place.getParent());
+        assertNull(connection.getParent());
+        assertFalse(model.getConnections(transition).contains(connection));
+    }
+
+    @Test
+    public void testCancelCapturedModifications() {
+        VisualPetriNet model = new VisualPetriNet(new PetriNet());
+        WorkspaceEntry we = new WorkspaceEntry(null);
+        we.setModelEntry(new ModelEntry(new PetriNetDescriptor(), model));
+
+        we.captureMemento();
+        VisualPlace place = model.createPlace("p", null);
+        place.setPosition(new Point2D.Double(1.0, 1.0));
+        we.cancelMemento();
+
+        assertNull(place.getParent());
+        assertNull(place.getReferencedPlace().getParent());
+        assertTrue(model.getVisualPlaces().isEmpty());
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.workcraft.testing.plugins.petri;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.Trace;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.unfolding.MciWriter;
+import org.workcraft.plugins.petri.unfolding.Unfolder;
+import org.workcraft.plugins.petri.unfolding.Unfolding;
+import org.workcraft.plugins.petri.unfolding.UnfoldingException;
+
+public class UnfoldingTests {
+
+    // A cycle that takes the first resource and then the second one, and releases both
+    private static void addCycle(PetriNet net, String prefix, Place first, Place second) throws Exception {
+        Place p0 = net.createPlace(prefix + "0", null);
+        Place p1 = net.createPlace(prefix + "1", null);
+        Place p2 = net.createPlace(prefix + "2", null);
+        Transition t0 = net.createTransition("t" + prefix + "0", null);
+        Transition t1 = net.createTransition("t" + prefix + "1", null);
+        Transition t2 = net.createTransition("t" + prefix + "2", null);
+        p0.setTokens(1);
+        net.connect(p0, t0);
+        net.connect(first, t0);
+        net.connect(t0, p1);
+        net.connect(p1, t1);
+        net.connect(second, t1);
+        net.connect(t1, p2);
+        net.connect(p2, t2);
+        net.connect(t2, p0);
+        net.connect(t2, first);
+        net.connect(t2, second);
+    }
+
+    @Test
+    public void testDeadlockFree() throws Exception {
+        PetriNet net = new PetriNet();
+        Place a = net.createPlace("a", null);
+        Place b = net.createPlace("b", null);
+        a.setTokens(1);
+        b.setTokens(1);
+        addCycle(net, "x", a, b);
+        addCycle(net, "y", a, b);
+
+        Unfolding unfolding = new Unfolder(net).unfold();
+        Assert.assertEquals(6, unfolding.getEventCount());
+        Assert.assertEquals(2, unfolding.getCutoffCount());
+        Assert.assertNull(unfolding.findDeadlock());
+    }
+
+    @Test
+    public void testDeadlock() throws Exception {
+        PetriNet net = new PetriNet();
+        Place a = net.createPlace("a", null);
+        Place b = net.createPlace("b", null);
+        a.setTokens(1);
+        b.setTokens(1);
+        addCycle(net, "x", a, b);
+        addCycle(net, "y", b, a);
+
+        Unfolding unfolding = new Unfolder(net).unfold();
+        Trace trace = unfolding.findDeadlock();
+        Assert.assertNotNull(trace);
+        Assert.assertEquals(2, trace.size());
+        Assert.assertTrue(trace.contains("tx0"));
+        Assert.assertTrue(trace.contains("ty0"));
+    }
+
+    @Test
+    public void testTermination() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Place q = net.createPlace("q", null);
+        Transition t = net.createTransition("t", null);
+        p.setTokens(1);
+        net.connect(p, t);
+        net.connect(t, q);
+
+        Unfolding unfolding = new Unfolder(net).unfold();
+        Assert.assertEquals(1, unfolding.getEventCount());
+        Assert.assertEquals(2, unfolding.getConditionCount());
+        Trace trace = unfolding.findDeadlock();
+        Assert.assertEquals(1, trace.size());
+        Assert.assertEquals("t", trace.get(0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MciWriter.write(unfolding, out);
+        byte[] bytes = out.toByteArray();
+        Assert.assertEquals(2, bytes[0]);
+        Assert.assertEquals(1, bytes[4]);
+        // Counts, events, conditions, cut-offs, names
+        Assert.assertEquals(4 * (2 + 1 + 7 + 2 + 3) + 8, bytes.length);
+    }
+
+    @Test(expected = UnfoldingException.class)
+    public void testUnsafe() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Place q = net.createPlace("q", null);
+        Transition t = net.createTransition("t", null);
+        p.setTokens(1);
+        net.connect(p, t);
+        net.connect(t, p);
+        net.connect(t, q);
+        new Unfolder(net).unfold();
+    }
+
+    @Test(expected = UnfoldingException.class)
+    public void testConcurrentUnsafe() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Place q = net.createPlace("q", null);
+        Place r = net.createPlace("r", null);
+        Transition t = net.createTransition("t", null);
+        Transition u = net.createTransition("u", null);
+        p.setTokens(1);
+        q.setTokens(1);
+        net.connect(p, t);
+        net.connect(t, r);
+        net.connect(q, u);
+        net.connect(u, r);
+        new Unfolder(net).unfold();
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.workcraft.testing.plugins.petri.simulation;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.Trace;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.simulation.RandomSimulationResult;
+import org.workcraft.plugins.petri.simulation.RandomSimulator;
+
+public class RandomSimulatorTests {
+
+    @Test
+    public void testDeadlockTraces() throws Exception {
+        // A choice between a cycle and a sink, and a transition that is never enabled
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Place q = net.createPlace("q", null);
+        Place dead = net.createPlace("dead", null);
+        Transition loop = net.createTransition("loop", null);
+        Transition stop = net.createTransition("stop", null);
+        Transition never = net.createTransition("never", null);
+        p.setTokens(1);
+        net.connect(p, loop);
+        net.connect(loop, p);
+        net.connect(p, stop);
+        net.connect(stop, q);
+        net.connect(dead, never);
+
+        RandomSimulator simulator = new RandomSimulator(net);
+        simulator.setStepCount(10000);
+        simulator.setSeed(1);
+        simulator.setTraceLimit(3);
+        simulator.setWeight(loop, 3.0);
+        RandomSimulationResult result = simulator.run();
+        Assert.assertEquals(10000, result.getStepCount());
+        Assert.assertEquals(Arrays.asList(never), result.getNeverFiredTransitions());
+        Assert.assertEquals(result.getFiringCount(stop), result.getDeadlockCount());
+        Assert.assertEquals(1, result.getBound(q));
+        Assert.assertEquals(1, p.getTokens());
+        Assert.assertEquals(3, result.getDeadlockTraces().size());
+        Trace shortest = result.getDeadlockTraces().get(0);
+        Assert.assertEquals(Arrays.asList("stop"), shortest);
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        PetriNet net = new PetriNet();
+        Place p = net.createPlace("p", null);
+        Transition produce = net.createTransition("produce", null);
+        Transition consume = net.createTransition("consume", null);
+        net.connect(produce, p);
+        net.connect(p, consume);
+
+        RandomSimulator simulator = new RandomSimulator(net);
+        simulator.setStepCount(100001);
+        simulator.setRunLength(100);
+        simulator.setThreadCount(4);
+        simulator.setSeed(7);
+        RandomSimulationResult result = simulator.run();
+        Assert.assertEquals(100001, result.getStepCount());
+        Assert.assertEquals(0, result.getDeadlockCount());
+        Assert.assertTrue(result.getBound(p) > 1);
+        Assert.assertTrue(result.getBound(p) <= 100);
+        Assert.assertEquals(result.getStepCount(), result.getFiringCount(produce) + result.getFiringCount(consume));
+
+        RandomSimulationResult repeated = simulator.run();
+        Assert.assertEquals(result.getFiringCount(produce), repeated.getFiringCount(produce));
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.workcraft.testing.plugins.petri.statespace;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.exceptions.InvalidConnectionException;
+import org.workcraft.plugins.petri.PetriNet;
+import org.workcraft.plugins.petri.Place;
+import org.workcraft.plugins.petri.Transition;
+import org.workcraft.plugins.petri.statespace.StateGraph;
+import org.workcraft.plugins.petri.statespace.StateSpaceGenerator;
+import org.workcraft.plugins.petri.statespace.StateSpaceLimitException;
+import org.workcraft.plugins.petri.statespace.SymbolicReachability;
+import org.workcraft.tasks.DummyProgressMonitor;
+
+public class StateSpaceGeneratorTests {
+
+    private static PetriNet createCycles(int count) throws InvalidConnectionException {
+        PetriNet net = new PetriNet();
+        for (int i = 0; i < count; i++) {
+            Place p0 = net.createPlace("p" + i + "_0", null);
+            Place p1 = net.createPlace("p" + i + "_1", null);
+            Transition t0 = net.createTransition("t" + i + "_0", null);
+            Transition t1 = net.createTransition("t" + i + "_1", null);
+            p0.setTokens(1);
+            net.connect(p0, t0);
+            net.connect(t0, p1);
+            net.connect(p1, t1);
+            net.connect(t1, p0);
+        }
+        return net;
+    }
+
+    private static StateGraph generate(PetriNet net, int threadCount) throws StateSpaceLimitException {
+        StateSpaceGenerator generator = new StateSpaceGenerator(net);
+        generator.setThreadCount(threadCount);
+        return generator.generate(new DummyProgressMonitor<Object>());
+    }
+
+    @Test
+    public void testConcurrentCycles() throws Exception {
+        PetriNet net = createCycles(12);
+        StateGraph graph = generate(net, 1);
+        Assert.assertEquals(4096, graph.getStateCount());
+        Assert.assertEquals(4096 * 12, graph.getEdgeCount());
+        for (Place place : net.getPlaces()) {
+            Assert.assertEquals(place.getTokens(), graph.getTokens(0, place));
+        }
+
+        StateGraph parallelGraph = generate(net, 4);
+        Assert.assertEquals(graph.getStateCount(), parallelGraph.getStateCount());
+        Assert.assertEquals(graph.getEdgeCount(), parallelGraph.getEdgeCount());
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            Assert.assertEquals(graph.getEdgeSource(e), parallelGraph.getEdgeSource(e));
+            Assert.assertEquals(graph.getEdgeTarget(e), parallelGraph.getEdgeTarget(e));
+            Assert.assertSame(graph.getEdgeTransition(e), parallelGraph.getEdgeTransition(e));
+        }
+    }
+
+    @Test
+    public void testSymbolicCycles() throws Exception {
+        PetriNet net = createCycles(12);
+        SymbolicReachability reachability = new SymbolicReachability(net);
+        reachability.compute(new DummyProgressMonitor<Object>());
+        Assert.assertEquals(4096.0, reachability.getStateCount(), 0.0);
+        Assert.assertEquals(0, reachability.getDeadlocks());
+    }
+
+    @Test(expected = StateSpaceLimitException.class)
+    public void testSymbolicUnsafe() throws Exception {
+        PetriNet net = new PetriNet();
+        Place source = net.createPlace("source", null);
+        Place sink = net.createPlace("sink", null);
+        Transition t = net.createTransition("t", null);
+        source.setTokens(1);
+        sink.setTokens(1);
+        net.connect(source, t);
+        net.connect(t, sink);
+        new SymbolicReachability(net).compute(new DummyProgressMonitor<Object>());
+    }
+
+    @Test
+    public void testPlaceOverCapacity() throws Exception {
+        PetriNet net = new PetriNet();
+        Place source = net.createPlace("source", null);
+        Place sink = net.createPlace("sink", null);
+        Transition t = net.createTransition("t", null);
+        source.setTokens(3);
+        net.connect(source, t);
+        net.connect(t, sink);
+        net.connect(t, sink);
+
+        StateGraph graph = generate(net, 1);
+        Assert.assertEquals(4, graph.getStateCount());
+        Assert.assertEquals(0, graph.getTokens(3, source));
+        Assert.assertEquals(6, graph.getTokens(3, sink));
+    }
+
+    @Test(expected = StateSpaceLimitException.class)
+    public void testStateLimit() throws Exception {
+        PetriNet net = new PetriNet();
+        Place place = net.createPlace("p", null);
+        Transition t = net.createTransition("t", null);
+        net.connect(t, place);
+
+        StateSpaceGenerator generator = new StateSpaceGenerator(net);
+        generator.setStateLimit(100);
+        generator.generate(new DummyProgressMonitor<Object>());
+    }
+
+}
@@ -78,7 +78,7 @@ public class PolicyNet extends PetriNet implements PolicyNetModel {
 
     @Override
     public Collection<Bundle> getBundles() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Bundle.class);
+        return getNodesOfType(Bundle.class);
     }
 
     public Bundle createBundle() {
@@ -148,15 +148,15 @@ public class VisualPolicyNet extends VisualPetriNet {
     }
 
     public Collection<VisualBundledTransition> getVisualBundledTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualBundledTransition.class);
+        return getNodesOfType(VisualBundledTransition.class);
     }
 
     public Collection<VisualBundle> getVisualBundles() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualBundle.class);
+        return getNodesOfType(VisualBundle.class);
     }
 
     public Collection<VisualLocality> getVisualLocalities() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualLocality.class);
+        return getNodesOfType(VisualLocality.class);
     }
 
     public VisualBundle createVisualBundle() {
@@ -96,8 +96,7 @@ public class CheckDeadlockTask extends MpsatChainTask {
             }
             monitor.progressUpdate(0.90);
 
-            MpsatResultParser mdp = new MpsatResultParser(mpsatResult.getReturnValue());
-            if (!mdp.getSolutions().isEmpty()) {
+            if (!MpsatResultParser.getSolutions(mpsatResult.getReturnValue()).isEmpty()) {
                 return new Result<MpsatChainResult>(Outcome.FINISHED,
                         new MpsatChainResult(exportResult, null, punfResult, mpsatResult, settings, "Policy net has a deadlock"));
             }
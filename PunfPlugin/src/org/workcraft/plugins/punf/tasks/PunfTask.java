@@ -1,17 +1,25 @@
 package org.workcraft.plugins.punf.tasks;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
 
 import org.workcraft.plugins.punf.PunfUtilitySettings;
+import org.workcraft.plugins.shared.tasks.ExternalProcessCache;
 import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
 import org.workcraft.plugins.shared.tasks.ExternalProcessTask;
 import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Result.Outcome;
 import org.workcraft.tasks.Task;
+import org.workcraft.util.LogUtils;
 import org.workcraft.util.ToolUtils;
 
 public class PunfTask implements Task<ExternalProcessResult> {
+    private static final String UNFOLDING_CACHE_ENTRY = "unfolding";
+
     private final String inputPath;
     private final String outputPath;
 
@@ -39,6 +47,28 @@ public class PunfTask implements Task<ExternalProcessResult> {
         command.add("-m=" + outputPath);
         command.add(inputPath);
 
+        // The unfolding only depends on the tool, its options, the output format and the net
+        Map<String, File> outputFiles = Collections.singletonMap(UNFOLDING_CACHE_ENTRY, new File(outputPath));
+        ExternalProcessCache.Key key = null;
+        if (ExternalProcessCache.isEnabled()) {
+            try {
+                key = ExternalProcessCache.createKey().add("punf").addTool(toolName);
+                for (String arg : command.subList(1, command.size() - 2)) {
+                    key.add(arg);
+                }
+                key.add(outputPath.substring(outputPath.lastIndexOf('.') + 1));
+                key.addFile(new File(inputPath));
+                ExternalProcessResult cachedResult = ExternalProcessCache.getInstance().get(key, outputFiles);
+                if ((cachedResult != null) && new File(outputPath).exists()) {
+                    ExternalProcessTask.printCachedCommandLine(command);
+                    return Result.finished(cachedResult);
+                }
+            } catch (IOException e) {
+                LogUtils.logWarningLine("Cannot use the cache of unfoldings: " + e.getMessage());
+                key = null;
+            }
+        }
+
         boolean printStdout = PunfUtilitySettings.getPrintStdout();
         boolean printStderr = PunfUtilitySettings.getPrintStderr();
         ExternalProcessTask task = new ExternalProcessTask(command, null, printStdout, printStderr);
@@ -50,6 +80,9 @@ public class PunfTask implements Task<ExternalProcessResult> {
 
         ExternalProcessResult retVal = res.getReturnValue();
         if (retVal.getReturnCode() < 2) {
+            if (key != null) {
+                ExternalProcessCache.getInstance().put(key, retVal, outputFiles);
+            }
             return Result.finished(retVal);
         } else {
             return Result.failed(retVal);
@@ -98,7 +98,7 @@ public class SON extends AbstractMathModel {
     public Collection<Node> getComponents() {
         ArrayList<Node> result = new ArrayList<>();
 
-        for (Node node : Hierarchy.getDescendantsOfType(getRoot(), MathNode.class)) {
+        for (Node node : getNodesOfType(MathNode.class)) {
             if (node instanceof PlaceNode || node instanceof Event) {
                 result.add(node);
             }
@@ -148,7 +148,7 @@ public class SON extends AbstractMathModel {
     }
 
     public Collection<ChannelPlace> getChannelPlaces() {
-        return Hierarchy.getDescendantsOfType(getRoot(), ChannelPlace.class);
+        return getNodesOfType(ChannelPlace.class);
     }
 
     public Collection<Event> getEvents() {
@@ -328,7 +328,7 @@ public class SON extends AbstractMathModel {
     }
 
     public Collection<Scenario> getScenarios() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Scenario.class);
+        return getNodesOfType(Scenario.class);
     }
 
     public ScenarioSaveList importScenarios(Window window) {
@@ -363,7 +363,7 @@ public class SON extends AbstractMathModel {
 
     //Connection
     public Collection<SONConnection> getSONConnections() {
-        return Hierarchy.getDescendantsOfType(getRoot(), SONConnection.class);
+        return getNodesOfType(SONConnection.class);
     }
 
     public Collection<SONConnection> getSONConnections(Node node) {
@@ -528,12 +528,12 @@ public class SON extends AbstractMathModel {
 
     //Group based methods
     public Collection<Block> getBlocks() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Block.class);
+        return getNodesOfType(Block.class);
     }
 
     public Collection<TransitionNode> getTransitionNodes() {
         ArrayList<TransitionNode> result = new ArrayList<>();
-        for (TransitionNode node :  Hierarchy.getDescendantsOfType(getRoot(), TransitionNode.class)) {
+        for (TransitionNode node :  getNodesOfType(TransitionNode.class)) {
             if (node instanceof Block) {
                 if (((Block) node).getIsCollapsed()) {
                     result.add(node);
@@ -547,11 +547,11 @@ public class SON extends AbstractMathModel {
     }
 
     public Collection<PageNode> getPageNodes() {
-        return Hierarchy.getDescendantsOfType(getRoot(), PageNode.class);
+        return getNodesOfType(PageNode.class);
     }
 
     public Collection<ONGroup> getGroups() {
-        return Hierarchy.getDescendantsOfType(getRoot(), ONGroup.class);
+        return getNodesOfType(ONGroup.class);
     }
 
     public ONGroup getGroup(Node node) {
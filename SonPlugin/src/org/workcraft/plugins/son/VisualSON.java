@@ -534,7 +534,7 @@ public class VisualSON extends AbstractVisualModel {
     }
 
     public Collection<VisualONGroup> getVisualONGroups() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualONGroup.class);
+        return getNodesOfType(VisualONGroup.class);
     }
 
     public Collection<VisualSuperGroup> getVisualSuperGroups() {
@@ -542,31 +542,31 @@ public class VisualSON extends AbstractVisualModel {
     }
 
     public Collection<VisualComponent> getVisualComponent() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualComponent.class);
+        return getNodesOfType(VisualComponent.class);
     }
 
     public Collection<VisualCondition> getVisualCondition() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualCondition.class);
+        return getNodesOfType(VisualCondition.class);
     }
 
     public Collection<VisualPlaceNode> getVisualPlaceNode() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualPlaceNode.class);
+        return getNodesOfType(VisualPlaceNode.class);
     }
 
     public Collection<VisualEvent> getVisualEvent() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualEvent.class);
+        return getNodesOfType(VisualEvent.class);
     }
 
     public Collection<VisualSONConnection> getVisualSONConnections() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualSONConnection.class);
+        return getNodesOfType(VisualSONConnection.class);
     }
 
     public Collection<VisualBlock> getVisualBlocks() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualBlock.class);
+        return getNodesOfType(VisualBlock.class);
     }
 
     public Collection<VisualPage> getVisualPages() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualPage.class);
+        return getNodesOfType(VisualPage.class);
     }
 
     public Collection<VisualSONConnection> getVisualConnections(VisualComponent node) {
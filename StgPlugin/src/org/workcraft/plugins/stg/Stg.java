@@ -124,33 +124,32 @@ public class Stg extends AbstractMathModel implements StgModel {
 
     @Override
     public final Collection<SignalTransition> getSignalTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), SignalTransition.class);
+        return getNodesOfType(SignalTransition.class);
     }
 
     @Override
     public final Collection<Place> getPlaces() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Place.class);
+        return getNodesOfType(Place.class);
     }
 
     @Override
     public final Collection<Connection> getConnections() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Connection.class);
+        return getNodesOfType(Connection.class);
     }
 
     @Override
     public final Collection<Transition> getTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), Transition.class);
+        return getNodesOfType(Transition.class);
     }
 
     @Override
     public Collection<DummyTransition> getDummyTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), DummyTransition.class);
+        return getNodesOfType(DummyTransition.class);
     }
 
     @Override
     public Collection<SignalTransition> getSignalTransitions(final Type type) {
-        return Hierarchy.getDescendantsOfType(getRoot(),
-                SignalTransition.class, new Func<SignalTransition, Boolean>() {
+        return getNodesOfType(SignalTransition.class, new Func<SignalTransition, Boolean>() {
                     @Override
                     public Boolean eval(SignalTransition arg) {
                         return arg.getSignalType() == type;
@@ -24,15 +24,19 @@ public class StgNameManager extends UniqueNameManager {
     }
 
     private void renameSignalTransition(SignalTransition t, String signalName) {
-        signalTransitions.remove(t.getSignalName(), t);
+        String oldSignalName = t.getSignalName();
+        signalTransitions.remove(oldSignalName, t);
         t.setSignalName(signalName);
         signalTransitions.put(t.getSignalName(), t);
+        nameReleased(oldSignalName);
     }
 
     private void renameDummyTransition(DummyTransition t, String name) {
-        dummyTransitions.remove(t.getName(), t);
+        String oldName = t.getName();
+        dummyTransitions.remove(oldName, t);
         t.setName(name);
         dummyTransitions.put(t.getName(), t);
+        nameReleased(oldName);
     }
 
     private void setSignalTransitionName(SignalTransition st, String name, boolean forceInstance) {
@@ -153,6 +157,11 @@ public class StgNameManager extends UniqueNameManager {
         super.remove(node);
         if (instancedNameManager.getInstance(node) != null) {
             instancedNameManager.remove(node);
+            if (node instanceof SignalTransition) {
+                nameReleased(((SignalTransition) node).getSignalName());
+            } else if (node instanceof DummyTransition) {
+                nameReleased(((DummyTransition) node).getName());
+            }
         }
     }
 
@@ -52,20 +52,30 @@ public class StgReferenceManager extends HierarchicalUniqueNameReferenceManager
     }
 
     public void setInstanceNumber(Node node, int number) {
+        invalidateReference(node);
         StgNameManager mgr = getNameManager(node);
         mgr.setInstanceNumber(node, number);
     }
 
     public void setDefaultNameIfUnnamed(Node node) {
+        invalidateReference(node);
         StgNameManager mgr = getNameManager(node);
         mgr.setDefaultNameIfUnnamed(node);
     }
 
     public void setName(Node node, String s, boolean forceInstance) {
+        invalidateReference(node);
         StgNameManager mgr = getNameManager(node);
         mgr.setName(node, s, forceInstance);
     }
 
+    @Override
+    public String getNodeReference(NamespaceProvider provider, Node node) {
+        // Places become implicit without being renamed, so their cached references cannot be trusted.
+        if ((node instanceof StgPlace) && ((StgPlace) node).isImplicit()) return null;
+        return super.getNodeReference(provider, node);
+    }
+
     @Override
     public String getPrefix(Node node) {
         if (node instanceof StgPlace) return "p";
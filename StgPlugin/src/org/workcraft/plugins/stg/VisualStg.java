@@ -342,28 +342,28 @@ public class VisualStg extends AbstractVisualModel {
     }
 
     public Collection<VisualPlace> getVisualPlaces() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualPlace.class);
+        return getNodesOfType(VisualPlace.class);
     }
 
     public Collection<VisualTransition> getVisualTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualTransition.class);
+        return getNodesOfType(VisualTransition.class);
     }
 
     public Collection<VisualSignalTransition> getVisualSignalTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualSignalTransition.class);
+        return getNodesOfType(VisualSignalTransition.class);
     }
 
     public Collection<VisualDummyTransition> getVisualDummyTransitions() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualDummyTransition.class);
+        return getNodesOfType(VisualDummyTransition.class);
     }
 
     public Collection<VisualConnection> getVisualConnections() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualConnection.class);
+        return getNodesOfType(VisualConnection.class);
     }
 
     public HashSet<VisualConnection> getVisualConsumingArcs() {
         HashSet<VisualConnection> connections = new HashSet<>();
-        for (VisualConnection connection: Hierarchy.getDescendantsOfType(getRoot(), VisualConnection.class)) {
+        for (VisualConnection connection: getNodesOfType(VisualConnection.class)) {
             if (connection instanceof VisualReadArc) continue;
             if (connection.getSecond() instanceof VisualTransition) {
                 connections.add(connection);
@@ -374,7 +374,7 @@ public class VisualStg extends AbstractVisualModel {
 
     public HashSet<VisualConnection> getVisualProducerArcs() {
         HashSet<VisualConnection> connections = new HashSet<>();
-        for (VisualConnection connection: Hierarchy.getDescendantsOfType(getRoot(), VisualConnection.class)) {
+        for (VisualConnection connection: getNodesOfType(VisualConnection.class)) {
             if (connection instanceof VisualReadArc) continue;
             if (connection.getFirst() instanceof VisualTransition) {
                 connections.add(connection);
@@ -384,11 +384,11 @@ public class VisualStg extends AbstractVisualModel {
     }
 
     public Collection<VisualReadArc> getVisualReadArcs() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualReadArc.class);
+        return getNodesOfType(VisualReadArc.class);
     }
 
     public Collection<VisualImplicitPlaceArc> getVisualImplicitPlaceArcs() {
-        return Hierarchy.getDescendantsOfType(getRoot(), VisualImplicitPlaceArc.class);
+        return getNodesOfType(VisualImplicitPlaceArc.class);
     }
 
     public VisualPlace getVisualPlace(Place place) {
@@ -0,0 +1,138 @@
+package org.workcraft.testing.plugins.stg.serialisation.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.workcraft.PluginProvider;
+import org.workcraft.dom.visual.VisualComponent;
+import org.workcraft.plugins.layout.RandomLayoutTool;
+import org.workcraft.plugins.serialisation.XMLModelDeserialiser;
+import org.workcraft.plugins.serialisation.XMLModelSerialiser;
+import org.workcraft.plugins.stg.StgDescriptor;
+import org.workcraft.plugins.stg.VisualStg;
+import org.workcraft.serialisation.DeserialisationResult;
+import org.workcraft.serialisation.ReferenceProducer;
+import org.workcraft.serialisation.binary.BinaryContainer;
+import org.workcraft.serialisation.binary.BinaryConverter;
+import org.workcraft.util.DataAccumulator;
+import org.workcraft.util.Hierarchy;
+import org.workcraft.workspace.ModelEntry;
+import org.workcraft.workspace.WorkspaceEntry;
+
+public class BinarySerialisationTests {
+
+    private static final String COMMENT_ENTRY = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>"
+            + "<comment lang=\"en\" count=\"-12\" flag=\"true\" code=\"007\"> <line>  </line>x &amp; y</comment>";
+
+    private static VisualStg createModel() throws Exception {
+        VisualStg stg = XMLSerialisationTestingUtils.createTestSTG3();
+        WorkspaceEntry we = new WorkspaceEntry(null);
+        we.setModelEntry(new ModelEntry(new StgDescriptor(), stg));
+        new RandomLayoutTool().run(we);
+        for (VisualComponent component : Hierarchy.getDescendantsOfType(stg.getRoot(), VisualComponent.class)) {
+            component.setLabel("a < b & \"c\"\n\td");
+        }
+        return stg;
+    }
+
+    private static Map<String, byte[]> unzip(byte[] data) throws Exception {
+        LinkedHashMap<String, byte[]> result = new LinkedHashMap<>();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(data));
+        ZipEntry ze;
+        while ((ze = zis.getNextEntry()) != null) {
+            result.put(ze.getName(), DataAccumulator.loadStream(zis));
+        }
+        zis.close();
+        return result;
+    }
+
+    @Test
+    public void testConversionIsLossless() throws Exception {
+        VisualStg stg = createModel();
+        PluginProvider plugins = XMLSerialisationTestingUtils.createMockPluginManager();
+        XMLModelSerialiser serialiser = new XMLModelSerialiser(plugins);
+
+        ByteArrayOutputStream work = new ByteArrayOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(work);
+        zos.putNextEntry(new ZipEntry("model.xml"));
+        ReferenceProducer mathRefs = serialiser.serialise(stg.getMathModel(), zos, null);
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("visualModel.xml"));
+        serialiser.serialise(stg, zos, mathRefs);
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("comment.xml"));
+        zos.write(COMMENT_ENTRY.getBytes("UTF-8"));
+        zos.closeEntry();
+        zos.close();
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryConverter.toBinary(new ByteArrayInputStream(work.toByteArray()), binary);
+        Assert.assertTrue(BinaryContainer.isBinary(binary.toByteArray()));
+
+        BinaryContainer container = new BinaryContainer(ByteBuffer.wrap(binary.toByteArray()));
+        ByteArrayOutputStream work2 = new ByteArrayOutputStream();
+        BinaryConverter.toWork(container, work2);
+
+        Map<String, byte[]> entries = unzip(work.toByteArray());
+        Map<String, byte[]> entries2 = unzip(work2.toByteArray());
+        Assert.assertEquals(entries.keySet(), entries2.keySet());
+        Assert.assertArrayEquals(entries.get("model.xml"), entries2.get("model.xml"));
+        Assert.assertArrayEquals(entries.get("visualModel.xml"), entries2.get("visualModel.xml"));
+
+        Document comment = container.getDocument("comment.xml");
+        Assert.assertEquals("-12", comment.getDocumentElement().getAttribute("count"));
+        Assert.assertEquals("true", comment.getDocumentElement().getAttribute("flag"));
+        Assert.assertEquals("007", comment.getDocumentElement().getAttribute("code"));
+        Assert.assertEquals("  x & y", comment.getDocumentElement().getTextContent());
+    }
+
+    @Test
+    public void testBinaryDocumentsRoundTrip() throws Exception {
+        VisualStg stg = createModel();
+        PluginProvider plugins = XMLSerialisationTestingUtils.createMockPluginManager();
+        XMLModelSerialiser serialiser = new XMLModelSerialiser(plugins);
+        XMLModelDeserialiser deserialiser = new XMLModelDeserialiser(plugins);
+
+        DataAccumulator mathData = new DataAccumulator();
+        ReferenceProducer mathRefs = serialiser.serialise(stg.getMathModel(), mathData, null);
+        DataAccumulator visualData = new DataAccumulator();
+        serialiser.serialise(stg, visualData, mathRefs);
+
+        ByteArrayOutputStream work = new ByteArrayOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(work);
+        zos.putNextEntry(new ZipEntry("model.xml"));
+        zos.write(mathData.getData());
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("visualModel.xml"));
+        zos.write(visualData.getData());
+        zos.closeEntry();
+        zos.close();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryConverter.toBinary(new ByteArrayInputStream(work.toByteArray()), binary);
+        BinaryContainer container = new BinaryContainer(ByteBuffer.wrap(binary.toByteArray()));
+
+        Document mathDoc = container.getDocument("model.xml");
+        DeserialisationResult mathResult = deserialiser.deserialise(mathDoc.getDocumentElement(), null, null);
+        Document visualDoc = container.getDocument("visualModel.xml");
+        DeserialisationResult visualResult = deserialiser.deserialise(visualDoc.getDocumentElement(),
+                mathResult.references, mathResult.model);
+
+        DataAccumulator mathData2 = new DataAccumulator();
+        ReferenceProducer mathRefs2 = serialiser.serialise(mathResult.model, mathData2, null);
+        Assert.assertArrayEquals(mathData.getData(), mathData2.getData());
+
+        DataAccumulator visualData2 = new DataAccumulator();
+        serialiser.serialise(visualResult.model, visualData2, mathRefs2);
+        Assert.assertArrayEquals(visualData.getData(), visualData2.getData());
+    }
+
+}
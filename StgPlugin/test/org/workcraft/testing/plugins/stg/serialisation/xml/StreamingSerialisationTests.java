@@ -0,0 +1,104 @@
+package org.workcraft.testing.plugins.stg.serialisation.xml;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.workcraft.PluginProvider;
+import org.workcraft.dom.Model;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.visual.VisualComponent;
+import org.workcraft.plugins.layout.RandomLayoutTool;
+import org.workcraft.plugins.serialisation.XMLModelDeserialiser;
+import org.workcraft.plugins.serialisation.XMLModelSerialiser;
+import org.workcraft.plugins.stg.StgDescriptor;
+import org.workcraft.plugins.stg.VisualStg;
+import org.workcraft.serialisation.DeserialisationResult;
+import org.workcraft.serialisation.ReferenceProducer;
+import org.workcraft.serialisation.xml.XMLSerialisationManager;
+import org.workcraft.util.DataAccumulator;
+import org.workcraft.util.Hierarchy;
+import org.workcraft.util.XmlUtil;
+import org.workcraft.workspace.ModelEntry;
+import org.workcraft.workspace.WorkspaceEntry;
+
+public class StreamingSerialisationTests {
+
+    // Builds the whole document in memory, as the serialiser did before streaming.
+    private static byte[] serialiseDocument(PluginProvider plugins, final Model model, ReferenceProducer refs) throws Exception {
+        ReferenceProducer internalRefs = new ReferenceProducer() {
+            @Override
+            public String getReference(Object obj) {
+                return (obj instanceof Node) ? model.getNodeReference((Node) obj) : null;
+            }
+        };
+        XMLSerialisationManager serialisation = new XMLSerialisationManager();
+        serialisation.processPlugins(plugins);
+        Document doc = XmlUtil.createDocument();
+        Element modelElement = doc.createElement("model");
+        Element rootElement = doc.createElement("root");
+        serialisation.begin(internalRefs, refs);
+        serialisation.serialise(modelElement, model);
+        serialisation.serialise(rootElement, model.getRoot());
+        serialisation.end();
+        doc.appendChild(modelElement);
+        modelElement.appendChild(rootElement);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlUtil.writeDocument(doc, out);
+        return out.toByteArray();
+    }
+
+    private static VisualStg createModel() throws Exception {
+        VisualStg stg = XMLSerialisationTestingUtils.createTestSTG3();
+        WorkspaceEntry we = new WorkspaceEntry(null);
+        we.setModelEntry(new ModelEntry(new StgDescriptor(), stg));
+        new RandomLayoutTool().run(we);
+        // Attribute values that need escaping.
+        for (VisualComponent component : Hierarchy.getDescendantsOfType(stg.getRoot(), VisualComponent.class)) {
+            component.setLabel("a < b & \"c\"\n\td");
+        }
+        return stg;
+    }
+
+    @Test
+    public void testStreamedDocumentsAreIdentical() throws Exception {
+        VisualStg stg = createModel();
+        PluginProvider plugins = XMLSerialisationTestingUtils.createMockPluginManager();
+        XMLModelSerialiser serialiser = new XMLModelSerialiser(plugins);
+
+        DataAccumulator mathData = new DataAccumulator();
+        ReferenceProducer mathRefs = serialiser.serialise(stg.getMathModel(), mathData, null);
+        Assert.assertArrayEquals(serialiseDocument(plugins, stg.getMathModel(), null), mathData.getData());
+
+        DataAccumulator visualData = new DataAccumulator();
+        serialiser.serialise(stg, visualData, mathRefs);
+        Assert.assertArrayEquals(serialiseDocument(plugins, stg, mathRefs), visualData.getData());
+    }
+
+    @Test
+    public void testStreamedDocumentsRoundTrip() throws Exception {
+        VisualStg stg = createModel();
+        PluginProvider plugins = XMLSerialisationTestingUtils.createMockPluginManager();
+        XMLModelSerialiser serialiser = new XMLModelSerialiser(plugins);
+        XMLModelDeserialiser deserialiser = new XMLModelDeserialiser(plugins);
+
+        DataAccumulator mathData = new DataAccumulator();
+        ReferenceProducer mathRefs = serialiser.serialise(stg.getMathModel(), mathData, null);
+        DataAccumulator visualData = new DataAccumulator();
+        serialiser.serialise(stg, visualData, mathRefs);
+
+        DeserialisationResult mathResult = deserialiser.deserialise(mathData.getInputStream(), null, null);
+        DeserialisationResult visualResult = deserialiser.deserialise(visualData.getInputStream(), mathResult.references, mathResult.model);
+
+        DataAccumulator mathData2 = new DataAccumulator();
+        ReferenceProducer mathRefs2 = serialiser.serialise(mathResult.model, mathData2, null);
+        Assert.assertArrayEquals(mathData.getData(), mathData2.getData());
+
+        DataAccumulator visualData2 = new DataAccumulator();
+        serialiser.serialise(visualResult.model, visualData2, mathRefs2);
+        Assert.assertArrayEquals(visualData.getData(), visualData2.getData());
+    }
+
+}
@@ -28,6 +28,10 @@ function save(model, path) {
 	framework.save(model, path);
 }
 
+function saveBinary(model, path) {
+	framework.saveBinary(model, path);
+}
+
 function import(path) {
 	return framework.importFile(path);
 }
@@ -64,6 +68,30 @@ function loadConfig() {
 	framework.loadConfig();
 }
 
+// Simulation
+
+function simulate(work, steps, threads) {
+	var model = work.getMathModel ? work.getMathModel() : work;
+	var simulator = new Packages.org.workcraft.plugins.petri.simulation.RandomSimulator(model);
+	if (steps) {
+		simulator.setStepCount(steps);
+	}
+	if (threads) {
+		simulator.setThreadCount(threads);
+	}
+	return simulator.run();
+}
+
+function analyseStructure(work, path) {
+	var model = work.getMathModel ? work.getMathModel() : work;
+	var analysis = new Packages.org.workcraft.plugins.petri.structure.StructuralAnalysis(model);
+	var result = analysis.run();
+	if (path) {
+		result.save(framework.getFileByAbsoluteOrRelativePath(path));
+	}
+	return result;
+}
+
 // GUI
 
 function startGUI() {
@@ -136,37 +136,36 @@ public class CompatibilityManager {
         return result;
     }
 
+    private String processLine(EntryState state, String line) {
+        if (state.isMetaEntry) {
+            return replaceMetaData(line);
+        }
+        if (state.modelName == null) {
+            String processedLine = replaceModelName(line);
+            state.modelName = extractModelName(processedLine);
+            return processedLine;
+        }
+        String s = extractClassName(line);
+        if (s != null) {
+            state.className = s;
+        }
+        return replaceEntry(state.modelName, state.className, line);
+    }
+
     public ByteArrayInputStream process(InputStream is) {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         ZipInputStream zis = new ZipInputStream(is);
         ZipOutputStream zos = new ZipOutputStream(out);
         ZipEntry zei;
-        BufferedReader br = new BufferedReader(new InputStreamReader(zis));
+        byte[] buffer = new byte[65536];
         try {
             while ((zei = zis.getNextEntry()) != null) {
                 ZipEntry zeo = new ZipEntry(zei.getName());
-                boolean isMetaEntry = "meta".equals(zei.getName());
                 zos.putNextEntry(zeo);
-                String modelName = null;
-                String className = null;
-                String line = null;
-                while ((line = br.readLine()) != null) {
-                    if (isMetaEntry) {
-                        byte[] data = replaceMetaData(line).getBytes();
-                        zos.write(data, 0, data.length);
-                    } else if (modelName == null) {
-                        String processedLine = replaceModelName(line);
-                        byte[] data = processedLine.getBytes();
-                        zos.write(data, 0, data.length);
-                        modelName = extractModelName(processedLine);
-                    } else {
-                        String s = extractClassName(line);
-                        if (s != null) {
-                            className = s;
-                        }
-                        byte[] data = replaceEntry(modelName, className, line).getBytes();
-                        zos.write(data, 0, data.length);
-                    }
+                InputStream entry = process(zei.getName(), zis);
+                int count;
+                while ((count = entry.read(buffer)) > 0) {
+                    zos.write(buffer, 0, count);
                 }
                 zis.closeEntry();
                 zos.closeEntry();
@@ -178,4 +177,74 @@ public class CompatibilityManager {
         return new ByteArrayInputStream(out.toByteArray());
     }
 
+    /**
+     * @return the content of a ZIP entry with the replacements applied line by line while
+     * it is read, so the entry is never held in memory. Closing the result does not close
+     * the given stream.
+     */
+    public InputStream process(String entryName, InputStream is) {
+        return new EntryInputStream("meta".equals(entryName), is);
+    }
+
+    private static final class EntryState {
+        private final boolean isMetaEntry;
+        private String modelName = null;
+        private String className = null;
+
+        private EntryState(boolean isMetaEntry) {
+            this.isMetaEntry = isMetaEntry;
+        }
+    }
+
+    private final class EntryInputStream extends InputStream {
+        private final EntryState state;
+        private final BufferedReader reader;
+        private byte[] data = new byte[0];
+        private int position = 0;
+
+        private EntryInputStream(boolean isMetaEntry, InputStream is) {
+            state = new EntryState(isMetaEntry);
+            reader = new BufferedReader(new InputStreamReader(is));
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= data.length) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                data = processLine(state, line).getBytes();
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return data[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, data.length - position);
+            System.arraycopy(data, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // The ZIP stream stays open for the next entry
+        }
+    }
+
 }
@@ -20,6 +20,7 @@
  */
 
 package org.workcraft;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -31,11 +32,15 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.zip.ZipEntry;
@@ -60,6 +65,7 @@ import org.workcraft.dom.Container;
 import org.workcraft.dom.Model;
 import org.workcraft.dom.ModelDescriptor;
 import org.workcraft.dom.Node;
+import org.workcraft.dom.math.MathModel;
 import org.workcraft.dom.visual.VisualModel;
 import org.workcraft.exceptions.DeserialisationException;
 import org.workcraft.exceptions.FormatException;
@@ -79,7 +85,10 @@ import org.workcraft.serialisation.DeserialisationResult;
 import org.workcraft.serialisation.Format;
 import org.workcraft.serialisation.ModelSerialiser;
 import org.workcraft.serialisation.ReferenceProducer;
+import org.workcraft.serialisation.ReferenceResolver;
 import org.workcraft.serialisation.References;
+import org.workcraft.serialisation.binary.BinaryContainer;
+import org.workcraft.serialisation.binary.BinaryConverter;
 import org.workcraft.tasks.DefaultTaskManager;
 import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.ProgressMonitorArray;
@@ -89,6 +98,7 @@ import org.workcraft.tasks.TaskManager;
 import org.workcraft.util.DataAccumulator;
 import org.workcraft.util.Export;
 import org.workcraft.util.FileUtils;
+import org.workcraft.util.Func;
 import org.workcraft.util.Import;
 import org.workcraft.util.LogUtils;
 import org.workcraft.util.XmlUtil;
@@ -535,37 +545,99 @@ public final class Framework {
         contextFactory.call(setargs);
     }
 
-    private InputStream getUncompressedEntry(String name, InputStream zippedData) throws IOException {
+    private static byte[] readEntry(InputStream is) throws IOException {
+        // ZipInputStream.available() does not tell the entry size, so read in fixed chunks.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[65536];
+        int count;
+        while ((count = is.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static Document loadEntryDocument(InputStream is) throws IOException, DeserialisationException {
+        try {
+            return XmlUtil.loadDocument(new ByteArrayInputStream(readEntry(is)));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new DeserialisationException(e);
+        }
+    }
+
+    /**
+     * Models read from the entries of a ZIP file so far, with the entries that could not
+     * be deserialised when they were read.
+     */
+    private static final class ZipContent {
+        private Document metaDoc = null;
+        private Document stateDoc = null;
+        private String mathEntryName = null;
+        private DeserialisationResult mathResult = null;
+        private String visualEntryName = null;
+        private DeserialisationResult visualResult = null;
+        private final Map<String, byte[]> pendingEntries = new HashMap<>();
+    }
+
+    /**
+     * Reads the ZIP file once, streaming the math and visual entries into the deserialiser
+     * as they are decompressed. The meta entry is written last, so until it is read the
+     * entries are recognised by the names the serialiser gives them. An entry that cannot
+     * be deserialised yet, e.g. a visual model before its math model, is kept until the
+     * end of the file.
+     */
+    private ZipContent readZip(InputStream zippedData, boolean processCompatibility)
+            throws IOException, DeserialisationException {
+        String extension = new XMLModelSerialiser(getPluginManager()).getExtension();
+        ZipContent result = new ZipContent();
         ZipInputStream zis = new ZipInputStream(zippedData);
         ZipEntry ze;
         while ((ze = zis.getNextEntry()) != null) {
-            if (ze.getName().equals(name)) {
-                return zis;
+            String name = ze.getName();
+            InputStream entry = processCompatibility ? compatibilityManager.process(name, zis) : zis;
+            if ("meta".equals(name)) {
+                result.metaDoc = loadEntryDocument(entry);
+            } else if ("state.xml".equals(name)) {
+                result.stateDoc = loadEntryDocument(entry);
+            } else if ((result.mathResult == null)
+                    && name.equals(getEntryName(result.metaDoc, "math", "model" + extension))) {
+                XMLModelDeserialiser mathDeserialiser = new XMLModelDeserialiser(getPluginManager());
+                result.mathResult = mathDeserialiser.deserialise(entry, null, null);
+                result.mathEntryName = name;
+            } else if ((result.mathResult != null) && (result.visualResult == null)
+                    && name.equals(getEntryName(result.metaDoc, "visual", "visualModel" + extension))) {
+                XMLModelDeserialiser visualDeserialiser = new XMLModelDeserialiser(getPluginManager());
+                result.visualResult = visualDeserialiser.deserialise(entry,
+                        result.mathResult.references, result.mathResult.model);
+                result.visualEntryName = name;
+            } else {
+                result.pendingEntries.put(name, readEntry(entry));
             }
             zis.closeEntry();
         }
         zis.close();
-        return null;
+        return result;
     }
 
-    private InputStream getMathData(byte[] bufferedInput, Document metaDoc) throws IOException {
-        Element mathElement = XmlUtil.getChildElement("math", metaDoc.getDocumentElement());
-        InputStream mathData = null;
-        if (mathElement != null) {
-            InputStream is = new ByteArrayInputStream(bufferedInput);
-            mathData = getUncompressedEntry(mathElement.getAttribute("entry-name"), is);
+    /**
+     * @return the model of an entry that was kept in memory, or null if there is no such entry.
+     */
+    private DeserialisationResult deserialisePendingEntry(ZipContent content, String name,
+            ReferenceResolver extRef, Model underlyingModel) throws DeserialisationException {
+        byte[] data = (name == null) ? null : content.pendingEntries.remove(name);
+        if (data == null) {
+            return null;
         }
-        return mathData;
+        XMLModelDeserialiser deserialiser = new XMLModelDeserialiser(getPluginManager());
+        return deserialiser.deserialise(new ByteArrayInputStream(data), extRef, underlyingModel);
     }
 
-    private InputStream getVisualData(byte[] bufferedInput, Document metaDoc)    throws IOException {
-        Element visualElement = XmlUtil.getChildElement("visual", metaDoc.getDocumentElement());
-        InputStream visualData = null;
-        if (visualElement  != null) {
-            InputStream is = new ByteArrayInputStream(bufferedInput);
-            visualData = getUncompressedEntry(visualElement.getAttribute("entry-name"), is);
-        }
-        return visualData;
+    private static String getEntryName(Document metaDoc, String tagName, String defaultName) {
+        return (metaDoc == null) ? defaultName : getEntryName(metaDoc, tagName);
+    }
+
+    private static String getEntryName(Document metaDoc, String tagName) {
+        Element element = XmlUtil.getChildElement(tagName, metaDoc.getDocumentElement());
+        return (element == null) ? null : element.getAttribute("entry-name");
     }
 
     private ModelDescriptor loadMetaDescriptor(Document metaDoc)
@@ -575,40 +647,24 @@ public final class Framework {
         return (ModelDescriptor) Class.forName(descriptorClass).newInstance();
     }
 
-    private Document loadMetaDoc(byte[] bufferedInput)
-            throws IOException, DeserialisationException, ParserConfigurationException, SAXException {
-        InputStream metaData = getUncompressedEntry("meta", new ByteArrayInputStream(bufferedInput));
-        if (metaData == null) {
-            throw new DeserialisationException("meta entry is missing in the ZIP file");
-        }
-        Document metaDoc = XmlUtil.loadDocument(metaData);
-        metaData.close();
-        return metaDoc;
-    }
-
-    private void loadVisualModelState(byte[] bi, VisualModel model, References references)
-            throws IOException, ParserConfigurationException, SAXException {
-        InputStream stateData = getUncompressedEntry("state.xml", new ByteArrayInputStream(bi));
-        if (stateData != null) {
-            Document stateDoc = XmlUtil.loadDocument(stateData);
-            Element stateElement = stateDoc.getDocumentElement();
-            // level
-            Element levelElement = XmlUtil.getChildElement("level", stateElement);
-            Object currentLevel = references.getObject(levelElement.getAttribute("ref"));
-            if (currentLevel instanceof Container) {
-                model.setCurrentLevel((Container) currentLevel);
-            }
-            // selection
-            Element selectionElement = XmlUtil.getChildElement("selection", stateElement);
-            Set<Node> nodes = new HashSet<>();
-            for (Element nodeElement: XmlUtil.getChildElements("node", selectionElement)) {
-                Object node = references.getObject(nodeElement.getAttribute("ref"));
-                if (node instanceof Node) {
-                    nodes.add((Node) node);
-                }
+    private void loadVisualModelState(Document stateDoc, VisualModel model, References references) {
+        Element stateElement = stateDoc.getDocumentElement();
+        // level
+        Element levelElement = XmlUtil.getChildElement("level", stateElement);
+        Object currentLevel = references.getObject(levelElement.getAttribute("ref"));
+        if (currentLevel instanceof Container) {
+            model.setCurrentLevel((Container) currentLevel);
+        }
+        // selection
+        Element selectionElement = XmlUtil.getChildElement("selection", stateElement);
+        Set<Node> nodes = new HashSet<>();
+        for (Element nodeElement: XmlUtil.getChildElements("node", selectionElement)) {
+            Object node = references.getObject(nodeElement.getAttribute("ref"));
+            if (node instanceof Node) {
+                nodes.add((Node) node);
             }
-            model.addToSelection(nodes);
         }
+        model.addToSelection(nodes);
     }
 
     public ModelEntry load(String path) throws DeserialisationException {
@@ -621,47 +677,135 @@ public final class Framework {
 
     public ModelEntry load(File file) throws DeserialisationException {
         try {
-            FileInputStream fis = new FileInputStream(file);
-            ByteArrayInputStream bis = compatibilityManager.process(fis);
-            return load(bis);
-        } catch (FileNotFoundException e) {
+            if (BinaryContainer.isBinary(file)) {
+                return load(BinaryContainer.map(file));
+            }
+            InputStream is = new BufferedInputStream(new FileInputStream(file));
+            try {
+                return load(is, true);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
             throw new DeserialisationException(e);
         }
     }
 
     public ModelEntry load(InputStream is) throws DeserialisationException {
+        return load(is, false);
+    }
+
+    private ModelEntry load(InputStream is, boolean processCompatibility) throws DeserialisationException {
+        ZipContent content;
+        try {
+            PushbackInputStream pis = new PushbackInputStream(is, BinaryContainer.MAGIC_LENGTH);
+            if (BinaryContainer.isBinary(pis)) {
+                return load(new BinaryContainer(ByteBuffer.wrap(DataAccumulator.loadStream(pis))));
+            }
+            content = readZip(pis, processCompatibility);
+        } catch (IOException e) {
+            throw new DeserialisationException(e);
+        }
         try {
             // load meta data
-            byte[] bi = DataAccumulator.loadStream(is);
-            Document metaDoc = loadMetaDoc(bi);
-            ModelDescriptor descriptor = loadMetaDescriptor(metaDoc);
-
-            // load math model
-            InputStream mathData = getMathData(bi, metaDoc);
-            XMLModelDeserialiser mathDeserialiser = new XMLModelDeserialiser(getPluginManager());
-            DeserialisationResult mathResult = mathDeserialiser.deserialise(mathData, null, null);
-            mathData.close();
+            if (content.metaDoc == null) {
+                throw new DeserialisationException("meta entry is missing in the ZIP file");
+            }
+            ModelDescriptor descriptor = loadMetaDescriptor(content.metaDoc);
+
+            // load math model, unless it was streamed from the entry named in the meta data
+            DeserialisationResult mathResult = content.mathResult;
+            DeserialisationResult visualResult = content.visualResult;
+            String mathEntryName = getEntryName(content.metaDoc, "math");
+            if ((mathEntryName == null) || !mathEntryName.equals(content.mathEntryName)) {
+                mathResult = deserialisePendingEntry(content, mathEntryName, null, null);
+                visualResult = null;
+            }
+            if (mathResult == null) {
+                throw new DeserialisationException("math entry is missing in the ZIP file");
+            }
 
-            // load visual model (if present)
-            InputStream visualData = getVisualData(bi, metaDoc);
-            if (visualData == null) {
+            // load visual model (if present) and resolve its references to the math model
+            String visualEntryName = getEntryName(content.metaDoc, "visual");
+            if ((visualEntryName == null) || !visualEntryName.equals(content.visualEntryName)) {
+                visualResult = deserialisePendingEntry(content, visualEntryName,
+                        mathResult.references, mathResult.model);
+            }
+            if (visualResult == null) {
                 return new ModelEntry(descriptor, mathResult.model);
             }
-            XMLModelDeserialiser visualDeserialiser = new XMLModelDeserialiser(getPluginManager());
-            DeserialisationResult visualResult = visualDeserialiser.deserialise(visualData,
-                    mathResult.references, mathResult.model);
 
             // load current level and selection
-            if (visualResult.model instanceof VisualModel) {
-                loadVisualModelState(bi, (VisualModel) visualResult.model, visualResult.references);
+            if ((content.stateDoc != null) && (visualResult.model instanceof VisualModel)) {
+                loadVisualModelState(content.stateDoc, (VisualModel) visualResult.model, visualResult.references);
             }
             return new ModelEntry(descriptor, visualResult.model);
-        } catch (IOException | ParserConfigurationException | SAXException |
-                InstantiationException | IllegalAccessException | ClassNotFoundException e) {
+        } catch (InstantiationException | IllegalAccessException | ClassNotFoundException e) {
             throw new DeserialisationException(e);
         }
     }
 
+    /**
+     * Loads a model from the binary container. The visual model is only deserialised
+     * when it is first requested from the model entry, e.g. when an editor is opened.
+     */
+    public ModelEntry load(final BinaryContainer container) throws DeserialisationException {
+        try {
+            Document metaDoc = container.getDocument("meta");
+            if (metaDoc == null) {
+                throw new DeserialisationException("meta section is missing in the binary file");
+            }
+            ModelDescriptor descriptor = loadMetaDescriptor(metaDoc);
+
+            // load math model
+            Element mathElement = XmlUtil.getChildElement("math", metaDoc.getDocumentElement());
+            Document mathDoc = (mathElement == null) ? null : container.getDocument(mathElement.getAttribute("entry-name"));
+            if (mathDoc == null) {
+                throw new DeserialisationException("math section is missing in the binary file");
+            }
+            XMLModelDeserialiser mathDeserialiser = new XMLModelDeserialiser(getPluginManager());
+            final DeserialisationResult mathResult = mathDeserialiser.deserialise(mathDoc.getDocumentElement(), null, null);
+
+            // defer visual model (if present)
+            Element visualElement = XmlUtil.getChildElement("visual", metaDoc.getDocumentElement());
+            final String visualEntryName = (visualElement == null) ? null : visualElement.getAttribute("entry-name");
+            if ((visualEntryName == null) || !container.hasSection(visualEntryName)) {
+                return new ModelEntry(descriptor, mathResult.model);
+            }
+            Func<MathModel, VisualModel> visualModelLoader = new Func<MathModel, VisualModel>() {
+                @Override
+                public VisualModel eval(MathModel mathModel) {
+                    try {
+                        return loadVisualModel(container, visualEntryName, mathResult);
+                    } catch (DeserialisationException | IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+            return new ModelEntry(descriptor, (MathModel) mathResult.model, visualModelLoader);
+        } catch (IOException | InstantiationException | IllegalAccessException | ClassNotFoundException e) {
+            throw new DeserialisationException(e);
+        }
+    }
+
+    private VisualModel loadVisualModel(BinaryContainer container, String visualEntryName,
+            DeserialisationResult mathResult) throws DeserialisationException, IOException {
+        Document visualDoc = container.getDocument(visualEntryName);
+        XMLModelDeserialiser visualDeserialiser = new XMLModelDeserialiser(getPluginManager());
+        DeserialisationResult visualResult = visualDeserialiser.deserialise(visualDoc.getDocumentElement(),
+                mathResult.references, mathResult.model);
+        if (!(visualResult.model instanceof VisualModel)) {
+            throw new DeserialisationException("Visual section does not contain a visual model");
+        }
+        // load current level and selection
+        VisualModel visualModel = (VisualModel) visualResult.model;
+        Document stateDoc = container.getDocument("state.xml");
+        if (stateDoc != null) {
+            loadVisualModelState(stateDoc, visualModel, visualResult.references);
+        }
+        return visualModel;
+    }
+
     public ModelEntry load(Memento memento) {
         try {
             return load(memento.getStream());
@@ -796,6 +940,29 @@ public final class Framework {
         return new Memento(os.toByteArray());
     }
 
+    public void saveBinary(ModelEntry modelEntry, String path) throws SerialisationException {
+        if (modelEntry == null) return;
+        File file = getFileByAbsoluteOrRelativePath(path);
+        try {
+            FileOutputStream stream = new FileOutputStream(file);
+            saveBinary(modelEntry, stream);
+            stream.close();
+        } catch (IOException e) {
+            throw new SerialisationException(e);
+        }
+    }
+
+    /**
+     * Saves the model in the binary container instead of the ZIP file of XML documents.
+     */
+    public void saveBinary(ModelEntry modelEntry, OutputStream out) throws SerialisationException {
+        try {
+            BinaryConverter.toBinary(save(modelEntry).getStream(), out);
+        } catch (IOException e) {
+            throw new SerialisationException(e);
+        }
+    }
+
     public ModelEntry importFile(String path) throws DeserialisationException {
         File file = getFileByAbsoluteOrRelativePath(path);
         return importFile(file);
@@ -21,13 +21,21 @@
 
 package org.workcraft;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -46,7 +54,13 @@ import org.workcraft.util.XmlUtil;
 public class PluginManager implements PluginProvider {
     public static final String VERSION_STAMP = "d971444cbd86148695f3427118632aca";
 
+    public static final String INDEX_RESOURCE = "META-INF/services/" + Plugin.class.getName();
+
     private final ListMap<Class<?>, PluginInfo<?>> plugins = new ListMap<>();
+    // Plugin classes of the index, which are only loaded when an interface is first looked up.
+    private List<String> indexedClassNames = null;
+    private List<Class<?>> indexedClasses = null;
+    private final Set<Class<?>> resolvedInterfaces = new HashSet<>();
 
     public static class PluginInstanceHolder<T> implements PluginInfo<T> {
         private final Initialiser<? extends T> initialiser;
@@ -72,9 +86,85 @@ public class PluginManager implements PluginProvider {
     }
 
     public void loadManifest() throws IOException, FormatException, PluginInstantiationException {
-        File file = new File(Framework.PLUGINS_FILE_PATH);
-        LogUtils.logMessageLine("Loading plugins configuration from " + file.getAbsolutePath());
-        loadManifest(file);
+        long start = System.currentTimeMillis();
+        if (loadIndex()) {
+            initModules();
+        } else {
+            File file = new File(Framework.PLUGINS_FILE_PATH);
+            LogUtils.logMessageLine("Loading plugins configuration from " + file.getAbsolutePath());
+            loadManifest(file);
+        }
+        LogUtils.logMessageLine("Plugins initialised in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Reads the plugin classes listed in the index resources of all modules on the class path.
+     * Nothing is loaded or instantiated until the plugins of an interface are requested.
+     *
+     * @return false if there is no index on the class path.
+     */
+    public boolean loadIndex() throws IOException {
+        LinkedHashSet<String> classNames = new LinkedHashSet<>();
+        Enumeration<URL> urls = PluginManager.class.getClassLoader().getResources(INDEX_RESOURCE);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int commentIndex = line.indexOf('#');
+                    if (commentIndex >= 0) {
+                        line = line.substring(0, commentIndex);
+                    }
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        classNames.add(line);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        if (classNames.isEmpty()) {
+            return false;
+        }
+        plugins.clear();
+        resolvedInterfaces.clear();
+        indexedClasses = null;
+        indexedClassNames = new ArrayList<>(classNames);
+        LogUtils.logMessageLine("Plugin index lists " + indexedClassNames.size() + " plugin(s).");
+        return true;
+    }
+
+    private List<Class<?>> getIndexedClasses() {
+        if (indexedClasses == null) {
+            indexedClasses = new ArrayList<>();
+            ClassLoader loader = PluginManager.class.getClassLoader();
+            for (String className : indexedClassNames) {
+                try {
+                    // Static initialisers only run when the plugin is instantiated.
+                    Class<?> cls = Class.forName(className, false, loader);
+                    if (!Plugin.class.isAssignableFrom(cls) || Modifier.isAbstract(cls.getModifiers())) {
+                        LogUtils.logErrorLine("Indexed class '" + className + "' is not a plugin. Skipping class.");
+                    } else {
+                        indexedClasses.add(cls);
+                    }
+                } catch (ClassNotFoundException | LinkageError e) {
+                    LogUtils.logErrorLine("Indexed class '" + className + "' cannot be loaded. Skipping class.");
+                }
+            }
+        }
+        return indexedClasses;
+    }
+
+    private synchronized void resolveIndexedPlugins(Class<?> interf) {
+        if ((indexedClassNames != null) && resolvedInterfaces.add(interf)) {
+            for (Class<?> cls : getIndexedClasses()) {
+                if (interf.isAssignableFrom(cls)) {
+                    plugins.put(interf, new PluginInstanceHolder<Object>(new LegacyPluginInfo(cls)));
+                }
+            }
+        }
     }
 
     public boolean tryLoadManifest(File file) {
@@ -109,6 +199,7 @@ public class PluginManager implements PluginProvider {
         }
 
         plugins.clear();
+        indexedClassNames = null;
 
         for (Element pluginElement : XmlUtil.getChildElements("plugin", xmlroot)) {
             LegacyPluginInfo info = new LegacyPluginInfo(pluginElement);
@@ -190,8 +281,17 @@ public class PluginManager implements PluginProvider {
     }
 
     public void reconfigure(boolean save) throws PluginInstantiationException {
+        try {
+            if (loadIndex()) {
+                initModules();
+                return;
+            }
+        } catch (IOException e) {
+            LogUtils.logErrorLine("Cannot read plugin index: " + e.getMessage());
+        }
         LogUtils.logMessageLine("Reconfiguring plugins...");
         plugins.clear();
+        indexedClassNames = null;
 
         String[] classPathLocations = System.getProperty("java.class.path").split(System.getProperty("path.separator"));
 
@@ -224,6 +324,7 @@ public class PluginManager implements PluginProvider {
 
     @SuppressWarnings("unchecked")
     public <T> Collection<PluginInfo<? extends T>> getPlugins(Class<T> interf) {
+        resolveIndexedPlugins(interf);
         return (Collection<PluginInfo<? extends T>>) (Collection<?>) Collections.unmodifiableCollection(plugins.get(interf));
     }
 
@@ -1,11 +1,149 @@
 package org.workcraft;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
-@SuppressWarnings("serial")
-public class Trace extends ArrayList<String> {
+/**
+ * Sequence of node references with a current position. The references are interned in
+ * a symbol table shared by all traces and the trace keeps only their int ids, so long
+ * traces are compact and the same reference is always the same String object.
+ * The table keeps every distinct reference once, like {@link String#intern()}, and is
+ * read without locking; only the addition of a new reference is synchronised.
+ */
+public class Trace extends AbstractList<String> implements RandomAccess, Cloneable, Serializable {
+    private static final long serialVersionUID = 3172945032717104186L;
 
-    private int position = 0;
+    private static final ConcurrentHashMap<String, Integer> symbolIds = new ConcurrentHashMap<>();
+    // Replaced by a longer copy when full, the ids already handed out stay valid in both
+    private static volatile String[] symbols = new String[256];
+    private static volatile int symbolCount = 0;
+
+    // The ids are only meaningful in this process, so the trace is serialised by its references.
+    private transient int[] ids = new int[16];
+    private transient int size = 0;
+    private transient int position = 0;
+
+    /**
+     * @return the id of the reference in the symbol table, it is added if new.
+     */
+    public static int intern(String ref) {
+        Integer result = symbolIds.get(ref);
+        if (result == null) {
+            synchronized (symbolIds) {
+                result = symbolIds.get(ref);
+                if (result == null) {
+                    result = symbolCount;
+                    String[] table = symbols;
+                    if (result == table.length) {
+                        table = Arrays.copyOf(table, 2 * table.length);
+                    }
+                    table[result] = ref;
+                    symbols = table;
+                    symbolCount = result + 1;
+                    symbolIds.put(ref, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static String getReference(int id) {
+        checkIndex(id, symbolCount);
+        return symbols[id];
+    }
+
+    public static int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public int getId(int index) {
+        checkIndex(index, size);
+        return ids[index];
+    }
+
+    /**
+     * @return the number of changes to the steps, the moves of the position are not counted.
+     */
+    public int getVersion() {
+        return modCount;
+    }
+
+    private static void checkIndex(int index, int limit) {
+        if ((index < 0) || (index >= limit)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + limit);
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        return getReference(getId(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String set(int index, String ref) {
+        String result = get(index);
+        ids[index] = intern(ref);
+        modCount++;
+        return result;
+    }
+
+    @Override
+    public void add(int index, String ref) {
+        checkIndex(index, size + 1);
+        int id = intern(ref);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, 2 * size);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> refs) {
+        if (!(refs instanceof Trace)) {
+            return super.addAll(refs);
+        }
+        Trace trace = (Trace) refs;
+        if (size + trace.size > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(size + trace.size, 2 * ids.length));
+        }
+        System.arraycopy(trace.ids, 0, ids, size, trace.size);
+        size += trace.size;
+        modCount++;
+        return trace.size > 0;
+    }
+
+    @Override
+    public Trace clone() {
+        try {
+            Trace result = (Trace) super.clone();
+            result.ids = Arrays.copyOf(ids, Math.max(16, size));
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     public int getPosition() {
         return position;
@@ -37,16 +175,21 @@ public class Trace extends ArrayList<String> {
 
     @Override
     public void clear() {
-        super.clear();
+        size = 0;
+        modCount++;
         setPosition(0);
     }
 
     @Override
     public String remove(int index) {
+        String result = get(index);
         if (index < getPosition()) {
             decPosition(1);
         }
-        return super.remove(index);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        modCount++;
+        return result;
     }
 
     @Override
@@ -90,4 +233,85 @@ public class Trace extends ArrayList<String> {
         setPosition(tmpPosition);
     }
 
+    /**
+     * Writes the trace in a compact binary form: the distinct references, then the position
+     * and the steps as variable-length indices into those references.
+     */
+    public void write(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        HashMap<Integer, Integer> localIds = new HashMap<>();
+        List<Integer> localSymbols = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (!localIds.containsKey(ids[i])) {
+                localIds.put(ids[i], localSymbols.size());
+                localSymbols.add(ids[i]);
+            }
+        }
+        writeVarInt(out, localSymbols.size());
+        for (int id : localSymbols) {
+            out.writeUTF(getReference(id));
+        }
+        writeVarInt(out, position);
+        writeVarInt(out, size);
+        for (int i = 0; i < size; i++) {
+            writeVarInt(out, localIds.get(ids[i]));
+        }
+        out.flush();
+    }
+
+    public static Trace read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        int[] globalIds = new int[readVarInt(in)];
+        for (int i = 0; i < globalIds.length; i++) {
+            globalIds[i] = intern(in.readUTF());
+        }
+        int position = readVarInt(in);
+        Trace result = new Trace();
+        int size = readVarInt(in);
+        result.ids = new int[Math.max(16, size)];
+        for (int i = 0; i < size; i++) {
+            int localId = readVarInt(in);
+            if (localId >= globalIds.length) {
+                throw new IOException("Invalid reference index " + localId + " in the trace.");
+            }
+            result.ids[i] = globalIds[localId];
+        }
+        result.size = size;
+        result.setPosition(position);
+        return result;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        write(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Trace trace = read(in);
+        ids = trace.ids;
+        size = trace.size;
+        position = trace.position;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed number in the trace.");
+    }
+
 }
@@ -34,6 +34,8 @@ import org.workcraft.dom.references.HierarchicalUniqueNameReferenceManager;
 import org.workcraft.dom.references.ReferenceManager;
 import org.workcraft.gui.propertyeditor.ModelProperties;
 import org.workcraft.gui.propertyeditor.NamePropertyDescriptor;
+import org.workcraft.observation.HierarchyBatch;
+import org.workcraft.util.Func;
 
 /**
  * A base class for all interpreted graph models.
@@ -43,6 +45,8 @@ public abstract class AbstractModel implements Model {
     private ReferenceManager mgr;
     private String title = "";
     private final NodeContextTracker nodeContextTracker = new NodeContextTracker();
+    private final NodeTypeIndex nodeTypeIndex = new NodeTypeIndex();
+    private final GraphSnapshotTracker graphSnapshotTracker = new GraphSnapshotTracker();
 
     public AbstractModel(Container root) {
         this(root, null);
@@ -60,6 +64,8 @@ public abstract class AbstractModel implements Model {
             }
         }
         this.nodeContextTracker.attach(root);
+        this.nodeTypeIndex.attach(root);
+        this.graphSnapshotTracker.attach(root);
         this.mgr.attach(root);
     }
 
@@ -80,15 +86,27 @@ public abstract class AbstractModel implements Model {
     @Override
     public void remove(Collection<Node> nodes) {
         LinkedList<Node> toRemove = new LinkedList<>(nodes);
-        for (Node node : toRemove) {
-            // some nodes may be removed as a result of removing other nodes in the list,
-            // e.g. hanging connections so need to check
-            if (node.getParent() != null) {
-                remove(node);
+        try (HierarchyBatch batch = beginBatch()) {
+            for (Node node : toRemove) {
+                // some nodes may be removed as a result of removing other nodes in the list,
+                // e.g. hanging connections so need to check
+                if (node.getParent() != null) {
+                    remove(node);
+                }
             }
         }
     }
 
+    @Override
+    public HierarchyBatch beginBatch() {
+        return HierarchyBatch.begin(root);
+    }
+
+    @Override
+    public void endBatch() {
+        HierarchyBatch.end(root);
+    }
+
     @Override
     public String getDisplayName() {
         DisplayName name = this.getClass().getAnnotation(DisplayName.class);
@@ -183,6 +201,26 @@ public abstract class AbstractModel implements Model {
         return result;
     }
 
+    @Override
+    public <T> Collection<T> getNodesOfType(Class<T> type) {
+        return nodeTypeIndex.getNodes(type);
+    }
+
+    @Override
+    public <T> Collection<T> getNodesOfType(Class<T> type, Func<T, Boolean> filter) {
+        return nodeTypeIndex.getNodes(type, filter);
+    }
+
+    @Override
+    public <T> Collection<T> getNodesOfTypeView(Class<T> type) {
+        return nodeTypeIndex.getNodesView(type);
+    }
+
+    @Override
+    public GraphSnapshot getGraphSnapshot() {
+        return graphSnapshotTracker.getSnapshot(this);
+    }
+
     @Override
     public Node getNodeByReference(String reference) {
         return getNodeByReference(null, reference);
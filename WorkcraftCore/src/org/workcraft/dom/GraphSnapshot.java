@@ -0,0 +1,145 @@
+package org.workcraft.dom;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * An immutable integer-indexed view of the node context (presets, postsets
+ * and connections) of a set of nodes. Every node is given a dense id in the
+ * range [0, getNodeCount()) and the adjacency is stored in compressed sparse
+ * row form: the neighbours of node i are the entries of the ids array in the
+ * range [offsets[i], offsets[i + 1]).
+ *
+ * Arrays returned by the get*Offsets() and get*Ids() methods are shared with
+ * the snapshot for the sake of performance and must not be modified.
+ */
+public final class GraphSnapshot {
+    private final Node[] nodes;
+    private final HashMap<Node, Integer> nodeToId;
+    private final int[] presetOffsets;
+    private final int[] presetIds;
+    private final int[] postsetOffsets;
+    private final int[] postsetIds;
+    private final int[] connectionOffsets;
+    private final int[] connectionIds;
+
+    private GraphSnapshot(Node[] nodes, NodeContext context) {
+        this.nodes = nodes;
+        this.nodeToId = new HashMap<>(nodes.length * 2);
+        for (int id = 0; id < nodes.length; id++) {
+            nodeToId.put(nodes[id], id);
+        }
+        presetOffsets = new int[nodes.length + 1];
+        postsetOffsets = new int[nodes.length + 1];
+        connectionOffsets = new int[nodes.length + 1];
+        for (int id = 0; id < nodes.length; id++) {
+            presetOffsets[id + 1] = presetOffsets[id] + context.getPreset(nodes[id]).size();
+            postsetOffsets[id + 1] = postsetOffsets[id] + context.getPostset(nodes[id]).size();
+            connectionOffsets[id + 1] = connectionOffsets[id] + context.getConnections(nodes[id]).size();
+        }
+        presetIds = new int[presetOffsets[nodes.length]];
+        postsetIds = new int[postsetOffsets[nodes.length]];
+        connectionIds = new int[connectionOffsets[nodes.length]];
+        for (int id = 0; id < nodes.length; id++) {
+            fill(context.getPreset(nodes[id]), presetIds, presetOffsets[id]);
+            fill(context.getPostset(nodes[id]), postsetIds, postsetOffsets[id]);
+            fill(context.getConnections(nodes[id]), connectionIds, connectionOffsets[id]);
+        }
+    }
+
+    private void fill(Set<? extends Node> neighbours, int[] ids, int offset) {
+        int pos = offset;
+        for (Node neighbour : neighbours) {
+            // Neighbours outside of the snapshot are marked with -1.
+            ids[pos++] = getId(neighbour);
+        }
+    }
+
+    /**
+     * Builds a snapshot of the given nodes in the given node context in
+     * time linear in the number of nodes and connections. The ids of the
+     * nodes follow the iteration order of the collection.
+     */
+    public static GraphSnapshot build(Collection<? extends Node> nodes, NodeContext context) {
+        return new GraphSnapshot(nodes.toArray(new Node[nodes.size()]), context);
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    public Node getNode(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @return the id of the node, or -1 if the node is not in the snapshot.
+     */
+    public int getId(Node node) {
+        Integer id = nodeToId.get(node);
+        return (id == null) ? -1 : id;
+    }
+
+    public int getPresetSize(int id) {
+        return presetOffsets[id + 1] - presetOffsets[id];
+    }
+
+    public int getPresetId(int id, int index) {
+        return presetIds[presetOffsets[id] + index];
+    }
+
+    public int[] getPreset(int id) {
+        return Arrays.copyOfRange(presetIds, presetOffsets[id], presetOffsets[id + 1]);
+    }
+
+    public int getPostsetSize(int id) {
+        return postsetOffsets[id + 1] - postsetOffsets[id];
+    }
+
+    public int getPostsetId(int id, int index) {
+        return postsetIds[postsetOffsets[id] + index];
+    }
+
+    public int[] getPostset(int id) {
+        return Arrays.copyOfRange(postsetIds, postsetOffsets[id], postsetOffsets[id + 1]);
+    }
+
+    public int getConnectionCount(int id) {
+        return connectionOffsets[id + 1] - connectionOffsets[id];
+    }
+
+    public int getConnectionId(int id, int index) {
+        return connectionIds[connectionOffsets[id] + index];
+    }
+
+    public int[] getConnections(int id) {
+        return Arrays.copyOfRange(connectionIds, connectionOffsets[id], connectionOffsets[id + 1]);
+    }
+
+    public int[] getPresetOffsets() {
+        return presetOffsets;
+    }
+
+    public int[] getPresetIds() {
+        return presetIds;
+    }
+
+    public int[] getPostsetOffsets() {
+        return postsetOffsets;
+    }
+
+    public int[] getPostsetIds() {
+        return postsetIds;
+    }
+
+    public int[] getConnectionOffsets() {
+        return connectionOffsets;
+    }
+
+    public int[] getConnectionIds() {
+        return connectionIds;
+    }
+
+}
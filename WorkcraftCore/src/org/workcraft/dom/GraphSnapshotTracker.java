@@ -0,0 +1,25 @@
+package org.workcraft.dom;
+
+import org.workcraft.observation.HierarchyEvent;
+import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
+
+/**
+ * Caches the graph snapshot of a model until the next hierarchy event.
+ */
+public class GraphSnapshotTracker extends HierarchySupervisor implements ImmediateHierarchyObserver {
+    private GraphSnapshot snapshot = null;
+
+    public GraphSnapshot getSnapshot(Model model) {
+        if (snapshot == null) {
+            snapshot = GraphSnapshot.build(model.getNodesOfTypeView(Node.class), model);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void handleEvent(HierarchyEvent e) {
+        snapshot = null;
+    }
+
+}
@@ -27,6 +27,8 @@ import java.util.Set;
 import org.workcraft.dom.hierarchy.NamespaceProvider;
 import org.workcraft.dom.references.ReferenceManager;
 import org.workcraft.gui.propertyeditor.ModelProperties;
+import org.workcraft.observation.HierarchyBatch;
+import org.workcraft.util.Func;
 
 public interface Model extends NodeContext {
     void setTitle(String title);
@@ -61,9 +63,36 @@ public interface Model extends NodeContext {
     <R> Set<R> getPreset(Node node, Class<R> type);
     <R> Set<R> getPostset(Node node, Class<R> type);
 
+    /**
+     * @return a detached copy of all the descendants of the root node of the given type,
+     * computed in O(result) from an incrementally maintained type index.
+     */
+    <T> Collection<T> getNodesOfType(Class<T> type);
+    <T> Collection<T> getNodesOfType(Class<T> type, Func<T, Boolean> filter);
+
+    /**
+     * @return a read-only live view of all the descendants of the root node of the given type.
+     * The view must not be iterated while the model is being modified.
+     */
+    <T> Collection<T> getNodesOfTypeView(Class<T> type);
+
+    /**
+     * @return an immutable integer-indexed snapshot of the node context of all the
+     * descendants of the root node. The snapshot is cached until the next hierarchy event.
+     */
+    GraphSnapshot getGraphSnapshot();
+
     void add(Node node);
     void remove(Node node);
     void remove(Collection<Node> nodes);
 
+    /**
+     * Starts deferring and coalescing the hierarchy events of this model until the
+     * matching endBatch() call, or until the returned batch is closed, which allows
+     * using it in a try-with-resources statement. Nested batches are joined.
+     */
+    HierarchyBatch beginBatch();
+    void endBatch();
+
     ModelProperties getProperties(Node node);
 }
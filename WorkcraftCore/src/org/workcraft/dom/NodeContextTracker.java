@@ -30,11 +30,12 @@ import java.util.Set;
 
 import org.workcraft.observation.HierarchyEvent;
 import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
 import org.workcraft.observation.NodesAddedEvent;
 import org.workcraft.observation.NodesDeletedEvent;
 import org.workcraft.observation.NodesReparentingEvent;
 
-public class NodeContextTracker extends HierarchySupervisor implements NodeContext {
+public class NodeContextTracker extends HierarchySupervisor implements NodeContext, ImmediateHierarchyObserver {
     private final HashMap<Node, LinkedHashSet<Node>> presets = new HashMap<>();
     private final HashMap<Node, LinkedHashSet<Node>> postsets = new HashMap<>();
     private final HashMap<Node, LinkedHashSet<Connection>> connections = new HashMap<>();
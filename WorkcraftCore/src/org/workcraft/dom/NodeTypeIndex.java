@@ -0,0 +1,192 @@
+package org.workcraft.dom;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.workcraft.observation.HierarchyEvent;
+import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
+import org.workcraft.observation.NodesAddedEvent;
+import org.workcraft.observation.NodesDeletedEvent;
+import org.workcraft.observation.NodesReparentedEvent;
+import org.workcraft.util.Func;
+import org.workcraft.util.Hierarchy;
+
+/**
+ * Keeps the descendants of the root node grouped by their exact class, so that
+ * type queries cost O(result) instead of a full traversal of the hierarchy.
+ * The root node itself is not indexed, which matches the semantics of
+ * Hierarchy.getDescendantsOfType(root, type).
+ */
+public class NodeTypeIndex extends HierarchySupervisor implements ImmediateHierarchyObserver {
+    private final LinkedHashMap<Class<?>, LinkedHashSet<Node>> classToNodes = new LinkedHashMap<>();
+    private final HashMap<Class<?>, List<LinkedHashSet<Node>>> typeToBuckets = new HashMap<>();
+
+    private void nodeAdded(Node node) {
+        if (node != getRoot()) {
+            Class<?> cls = node.getClass();
+            LinkedHashSet<Node> bucket = classToNodes.get(cls);
+            if (bucket == null) {
+                bucket = new LinkedHashSet<>();
+                classToNodes.put(cls, bucket);
+                // A new concrete class may match any of the cached type queries.
+                typeToBuckets.clear();
+            }
+            bucket.add(node);
+        }
+        for (Node child : node.getChildren()) {
+            nodeAdded(child);
+        }
+    }
+
+    private void nodeRemoved(Node node) {
+        LinkedHashSet<Node> bucket = classToNodes.get(node.getClass());
+        if (bucket != null) {
+            bucket.remove(node);
+        }
+        Collection<Node> children = node.getChildren();
+        if (children != null) {
+            for (Node child : children) {
+                nodeRemoved(child);
+            }
+        }
+    }
+
+    private List<LinkedHashSet<Node>> getBuckets(Class<?> type) {
+        List<LinkedHashSet<Node>> result = typeToBuckets.get(type);
+        if (result == null) {
+            result = new ArrayList<>();
+            for (Map.Entry<Class<?>, LinkedHashSet<Node>> entry : classToNodes.entrySet()) {
+                if (type.isAssignableFrom(entry.getKey())) {
+                    result.add(entry.getValue());
+                }
+            }
+            typeToBuckets.put(type, result);
+        }
+        return result;
+    }
+
+    public boolean contains(Node node) {
+        LinkedHashSet<Node> bucket = classToNodes.get(node.getClass());
+        return (bucket != null) && bucket.contains(node);
+    }
+
+    public int count(Class<?> type) {
+        int result = 0;
+        for (LinkedHashSet<Node> bucket : getBuckets(type)) {
+            result += bucket.size();
+        }
+        return result;
+    }
+
+    /**
+     * @return a read-only live view of the indexed nodes of the given type.
+     * The view must not be iterated while the hierarchy is being modified;
+     * use getNodes() to obtain a detached copy in such cases.
+     */
+    public <T> Collection<T> getNodesView(final Class<T> type) {
+        return Collections.unmodifiableCollection(new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new BucketIterator<>(type, getBuckets(type));
+            }
+
+            @Override
+            public int size() {
+                return count(type);
+            }
+        });
+    }
+
+    /**
+     * @return a detached copy of the indexed nodes of the given type.
+     */
+    public <T> Collection<T> getNodes(Class<T> type) {
+        ArrayList<T> result = new ArrayList<>(count(type));
+        for (LinkedHashSet<Node> bucket : getBuckets(type)) {
+            for (Node node : bucket) {
+                result.add(type.cast(node));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a detached copy of the indexed nodes of the given type that satisfy the filter.
+     */
+    public <T> Collection<T> getNodes(Class<T> type, Func<T, Boolean> filter) {
+        ArrayList<T> result = new ArrayList<>();
+        for (LinkedHashSet<Node> bucket : getBuckets(type)) {
+            for (Node node : bucket) {
+                T item = type.cast(node);
+                if (filter.eval(item)) {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void handleEvent(HierarchyEvent e) {
+        if (e instanceof NodesAddedEvent) {
+            for (Node node : e.getAffectedNodes()) {
+                nodeAdded(node);
+            }
+        } else if (e instanceof NodesDeletedEvent) {
+            for (Node node : e.getAffectedNodes()) {
+                nodeRemoved(node);
+            }
+        } else if (e instanceof NodesReparentedEvent) {
+            // Nodes moved into another model are announced to that model only,
+            // so they have to be forgotten here explicitly.
+            for (Node node : e.getAffectedNodes()) {
+                if (Hierarchy.getTopParent(node) != Hierarchy.getTopParent(getRoot())) {
+                    nodeRemoved(node);
+                }
+            }
+        }
+    }
+
+    private static final class BucketIterator<T> implements Iterator<T> {
+        private final Class<T> type;
+        private final Iterator<LinkedHashSet<Node>> bucketIterator;
+        private Iterator<Node> nodeIterator = Collections.<Node>emptyList().iterator();
+
+        BucketIterator(Class<T> type, List<LinkedHashSet<Node>> buckets) {
+            this.type = type;
+            this.bucketIterator = buckets.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!nodeIterator.hasNext() && bucketIterator.hasNext()) {
+                nodeIterator = bucketIterator.next().iterator();
+            }
+            return nodeIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return type.cast(nodeIterator.next());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -25,11 +25,12 @@ import org.workcraft.dom.Node;
 import org.workcraft.dom.hierarchy.NamespaceProvider;
 import org.workcraft.observation.HierarchyEvent;
 import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
 import org.workcraft.observation.NodesAddedEvent;
 import org.workcraft.observation.NodesDeletedEvent;
 import org.workcraft.util.TwoWayMap;
 
-public class DefaultReferenceManager extends HierarchySupervisor implements ReferenceManager {
+public class DefaultReferenceManager extends HierarchySupervisor implements ReferenceManager, ImmediateHierarchyObserver {
     private final IDGenerator idGenerator = new IDGenerator();
     private final TwoWayMap<String, Node> nodes = new TwoWayMap<>();
 
@@ -1,26 +1,33 @@
 package org.workcraft.dom.references;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import org.workcraft.dom.Node;
 import org.workcraft.dom.hierarchy.NamespaceHelper;
 import org.workcraft.dom.hierarchy.NamespaceProvider;
 import org.workcraft.observation.HierarchyEvent;
 import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
 import org.workcraft.observation.NodesAddedEvent;
 import org.workcraft.observation.NodesDeletedEvent;
+import org.workcraft.observation.NodesReparentedEvent;
 import org.workcraft.serialisation.References;
 import org.workcraft.util.Hierarchy;
 import org.workcraft.util.Identifier;
 
-public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor implements ReferenceManager {
+public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor implements ReferenceManager, ImmediateHierarchyObserver {
 
     private final HashMap<NamespaceProvider, NameManager> managers = new HashMap<>();
 
     // every node belongs to some name space provider (except the main root node of the model)
     private final HashMap<Node, NamespaceProvider> node2namespace = new HashMap<>();
     private NamespaceProvider topProvider; // namespace provided by root
+    // references relative to the top provider, invalidated when the node or any of its ancestors is renamed or moved
+    private final HashMap<Node, String> node2reference = new HashMap<>();
+    private final ReferenceTrie<Node> reference2node = new ReferenceTrie<>();
     private References refs;
 
     public HierarchicalUniqueNameReferenceManager() {
@@ -54,6 +61,8 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
         if (dstProvider == null) {
             dstProvider = topProvider;
         }
+        // Membership is checked for every clashing name, which must not be a linear search.
+        HashSet<Node> nodeSet = new HashSet<>(nodes);
         for (Node node : nodes) {
             NamespaceProvider srcProvider = srcRefManager.getNamespaceProvider(node);
             if (srcProvider != null) {
@@ -62,6 +71,8 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
                 // Clear cached data in the local and the source reference manager
                 node2namespace.remove(node);
                 srcRefManager.node2namespace.remove(node);
+                invalidateReference(node);
+                srcRefManager.invalidateReference(node);
 
                 // Do not assign name if it wasn't assigned in the first place (eg. the implicit place)
                 if ((name != null) && ((dstProvider != srcProvider) || (node2namespace != srcRefManager.node2namespace))) {
@@ -69,7 +80,8 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
                     NameManager dstNameManager = this.getNameManager(dstProvider);
                     srcNameManager.remove(node);
                     Node clashingNode = dstNameManager.getNode(name);
-                    if (nodes.contains(clashingNode)) {
+                    if (nodeSet.contains(clashingNode)) {
+                        invalidateReference(clashingNode);
                         String newName = dstNameManager.getDerivedName(clashingNode, name);
                         dstNameManager.setName(clashingNode, newName);
                     }
@@ -85,6 +97,8 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
     public void attach(Node root) {
         // root must be a namespace provider
         topProvider = (NamespaceProvider) root;
+        node2reference.clear();
+        reference2node.clear();
         if (refs != null) {
             for (Node n : Hierarchy.getDescendantsOfType(root, Node.class)) {
                 setExistingReference(n);
@@ -136,6 +150,24 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
         if (provider == null) {
             provider = topProvider;
         }
+        if (reference.isEmpty() || reference.equals(NamespaceHelper.getHierarchySeparator())) {
+            return provider;
+        }
+        if (provider == topProvider) {
+            Node node = reference2node.get(reference);
+            if (node == null) {
+                node = resolveNodeReference(provider, reference);
+                if ((node != null) && !node2reference.containsKey(node)) {
+                    // Cache the canonical reference, so the next lookup of it is a trie walk.
+                    getNodeReference(provider, node);
+                }
+            }
+            return node;
+        }
+        return resolveNodeReference(provider, reference);
+    }
+
+    private Node resolveNodeReference(NamespaceProvider provider, String reference) {
         if (reference.isEmpty() || reference.equals(NamespaceHelper.getHierarchySeparator())) {
             return provider;
         }
@@ -145,7 +177,7 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
         Node node;
         node = man.getNode(head);
         if ((node != null) && (node instanceof NamespaceProvider)) {
-            return getNodeByReference((NamespaceProvider) node, tail);
+            return resolveNodeReference((NamespaceProvider) node, tail);
         }
         return node;
     }
@@ -158,26 +190,68 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
         if (provider == null) {
             provider = topProvider;
         }
+        if (provider != topProvider) {
+            return buildNodeReference(provider, node);
+        }
+        String result = node2reference.get(node);
+        if (result == null) {
+            result = buildNodeReference(provider, node);
+            if ((result != null) && !result.isEmpty()) {
+                node2reference.put(node, result);
+                reference2node.put(result, node);
+            }
+        }
+        return result;
+    }
+
+    private String buildNodeReference(NamespaceProvider provider, Node node) {
+        ArrayList<String> names = new ArrayList<>();
         NamespaceProvider component = null;
-        String result = "";
         do {
             component = getNamespaceProvider(node);
             if (component != null) {
-                if (!result.isEmpty()) {
-                    result = NamespaceHelper.getHierarchySeparator() + result;
-                }
                 String name = getNameManager(component).getName(node);
                 // The unnamed component just returns null
                 if (name == null) return null;
-                result = name + result;
+                names.add(name);
                 node = node.getParent();
             }
         } while ((node != null) && (component != null) && (component != provider));
-        return result;
+        StringBuilder result = new StringBuilder();
+        for (int i = names.size() - 1; i >= 0; i--) {
+            result.append(names.get(i));
+            if (i > 0) {
+                result.append(NamespaceHelper.getHierarchySeparator());
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Forgets the cached references of the node and its descendants, as they
+     * are all built from the name of the node. Must be called before any name
+     * or namespace of the node is changed.
+     */
+    protected void invalidateReference(Node node) {
+        if (!node2reference.isEmpty()) {
+            String reference = node2reference.remove(node);
+            if (reference != null) {
+                reference2node.remove(reference);
+            }
+            for (Node child : node.getChildren()) {
+                invalidateReference(child);
+            }
+        }
     }
 
     @Override
     public void handleEvent(HierarchyEvent e) {
+        if (e instanceof NodesReparentedEvent) {
+            for (Node node : e.getAffectedNodes()) {
+                invalidateReference(node);
+            }
+        }
+
         if (e instanceof NodesAddedEvent) {
             for (Node node : e.getAffectedNodes()) {
                 if (node.getParent() != null) {
@@ -201,6 +275,7 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
 
         if (e instanceof NodesDeletedEvent) {
             for (Node node : e.getAffectedNodes()) {
+                invalidateReference(node);
                 getNameManager(getNamespaceProvider(node)).remove(node);
                 node2namespace.remove(node);
                 for (Node node2 : Hierarchy.getDescendantsOfType(node, Node.class)) {
@@ -212,6 +287,7 @@ public class HierarchicalUniqueNameReferenceManager extends HierarchySupervisor
     }
 
     public void setName(Node node, String name) {
+        invalidateReference(node);
         NamespaceProvider provider = getNamespaceProvider(node);
         NameManager mgr = getNameManager(provider);
         mgr.setName(node, name);
@@ -0,0 +1,149 @@
+package org.workcraft.dom.references;
+
+import java.util.Arrays;
+
+/**
+ * Map from reference strings to values, in which the references sharing a prefix
+ * share its storage. A lookup walks the characters of the key one by one, so it
+ * takes time linear in the key length and does not allocate any substrings.
+ * Null values are not permitted.
+ */
+public class ReferenceTrie<T> {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Entry[] NO_CHILDREN = new Entry[0];
+
+    private static final class Entry {
+        // Children are kept sorted by their key character for a binary search.
+        private char[] keys = NO_KEYS;
+        private Entry[] children = NO_CHILDREN;
+        private int count = 0;
+        private Object value = null;
+
+        private int indexOf(char c) {
+            return Arrays.binarySearch(keys, 0, count, c);
+        }
+
+        private Entry getChild(char c) {
+            int index = indexOf(c);
+            return (index < 0) ? null : children[index];
+        }
+
+        private Entry getOrCreateChild(char c) {
+            int index = indexOf(c);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            if (count == keys.length) {
+                int capacity = Math.max(2, 2 * count);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(children, index, children, index + 1, count - index);
+            Entry child = new Entry();
+            keys[index] = c;
+            children[index] = child;
+            count++;
+            return child;
+        }
+
+        private void removeChild(char c) {
+            int index = indexOf(c);
+            if (index >= 0) {
+                count--;
+                System.arraycopy(keys, index + 1, keys, index, count - index);
+                System.arraycopy(children, index + 1, children, index, count - index);
+                children[count] = null;
+            }
+        }
+
+        private boolean isEmpty() {
+            return (value == null) && (count == 0);
+        }
+    }
+
+    private final Entry root = new Entry();
+    private int size = 0;
+
+    private Entry find(CharSequence key) {
+        Entry entry = root;
+        for (int i = 0; (entry != null) && (i < key.length()); i++) {
+            entry = entry.getChild(key.charAt(i));
+        }
+        return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(CharSequence key) {
+        Entry entry = find(key);
+        return (entry == null) ? null : (T) entry.value;
+    }
+
+    public boolean containsKey(CharSequence key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the value previously associated with the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public T put(CharSequence key, T value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not permitted.");
+        }
+        Entry entry = root;
+        for (int i = 0; i < key.length(); i++) {
+            entry = entry.getOrCreateChild(key.charAt(i));
+        }
+        T result = (T) entry.value;
+        if (result == null) {
+            size++;
+        }
+        entry.value = value;
+        return result;
+    }
+
+    /**
+     * @return the value that was associated with the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(CharSequence key) {
+        Entry[] path = new Entry[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].getChild(key.charAt(i));
+            if (path[i + 1] == null) {
+                return null;
+            }
+        }
+        Entry entry = path[key.length()];
+        T result = (T) entry.value;
+        if (result != null) {
+            entry.value = null;
+            size--;
+            // Prune the branch that no longer leads to any value.
+            for (int i = key.length(); (i > 0) && path[i].isEmpty(); i--) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root.keys = NO_KEYS;
+        root.children = NO_CHILDREN;
+        root.count = 0;
+        root.value = null;
+        size = 0;
+    }
+
+}
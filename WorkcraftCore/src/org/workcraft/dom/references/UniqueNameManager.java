@@ -9,8 +9,13 @@ import org.workcraft.util.Identifier;
 import org.workcraft.util.TwoWayMap;
 
 public class UniqueNameManager implements NameManager {
+    // Longest suffix of a derived name that is worth decoding (26^6 candidates are never probed).
+    private static final int MAX_CODE_LENGTH = 6;
+
     private final Map<String, Integer> prefixCount = new HashMap<>();
     private final TwoWayMap<String, Node> nodes = new TwoWayMap<>();
+    // For each candidate of the derived names, all the codes below the bound are known to be taken.
+    private final Map<String, Integer> derivedCodeBounds = new HashMap<>();
 
     @Override
     public String getPrefix(Node node) {
@@ -37,8 +42,10 @@ public class UniqueNameManager implements NameManager {
         if (node != occupant) {
             if (isUnusedName(name)) {
                 if (Identifier.isValid(name)) {
+                    String oldName = nodes.getKey(node);
                     nodes.removeValue(node);
                     nodes.put(name, node);
+                    nameReleased(oldName);
                 } else {
                     throw new ArgumentException("'" + name + "' is not a valid C-style identifier.\n"
                             + "The first character must be alphabetic or an underscore and the following characters must be alphanumeric or an underscore.");
@@ -71,8 +78,30 @@ public class UniqueNameManager implements NameManager {
 
     @Override
     public void remove(Node node) {
-        if (nodes.getKey(node) != null) {
+        String name = nodes.getKey(node);
+        if (name != null) {
             nodes.removeValue(node);
+            nameReleased(name);
+        }
+    }
+
+    /**
+     * Must be called whenever a name may have become unused, so that it can be
+     * derived again. Calling it for a name that is still in use is harmless.
+     */
+    protected void nameReleased(String name) {
+        if ((name != null) && !derivedCodeBounds.isEmpty()) {
+            // The name can be derived from any of its prefixes followed by a code.
+            for (int i = Math.max(0, name.length() - MAX_CODE_LENGTH); i < name.length(); i++) {
+                int code = stringToCode(name, i);
+                if (code >= 0) {
+                    String candidate = name.substring(0, i);
+                    Integer bound = derivedCodeBounds.get(candidate);
+                    if ((bound != null) && (code < bound)) {
+                        derivedCodeBounds.put(candidate, code);
+                    }
+                }
+            }
         }
     }
 
@@ -99,14 +128,42 @@ public class UniqueNameManager implements NameManager {
         return result;
     }
 
+    /**
+     * @return the code encoded in the suffix of the string starting at the given
+     * index, or -1 if the suffix is not a code produced by codeToString.
+     */
+    private static int stringToCode(String s, int index) {
+        int result = 0;
+        int weight = 1;
+        for (int i = index; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < 'a') || (c > 'z')) {
+                return -1;
+            }
+            result += (c - 'a') * weight;
+            weight *= 26;
+        }
+        // The most significant digit is never zero, unless it is the only one.
+        if ((s.length() - index > 1) && (s.charAt(s.length() - 1) == 'a')) {
+            return -1;
+        }
+        return result;
+    }
+
     @Override
     public String getDerivedName(Node node, String candidate) {
-        String result = candidate;
-        int code = 0;
+        if (isUnusedName(candidate)) {
+            return candidate;
+        }
+        // Resume the search where the previous one for the same candidate stopped.
+        Integer bound = derivedCodeBounds.get(candidate);
+        int code = (bound == null) ? 0 : bound;
+        String result = candidate + codeToString(code);
         while (!isUnusedName(result)) {
-            result = candidate + codeToString(code);
             code++;
+            result = candidate + codeToString(code);
         }
+        derivedCodeBounds.put(candidate, code);
         return result;
     }
 
@@ -4,12 +4,13 @@ import org.workcraft.dom.Node;
 import org.workcraft.dom.hierarchy.NamespaceProvider;
 import org.workcraft.observation.HierarchyEvent;
 import org.workcraft.observation.HierarchySupervisor;
+import org.workcraft.observation.ImmediateHierarchyObserver;
 import org.workcraft.observation.NodesAddedEvent;
 import org.workcraft.observation.NodesDeletedEvent;
 import org.workcraft.serialisation.References;
 import org.workcraft.util.Hierarchy;
 
-public class UniqueNameReferenceManager extends HierarchySupervisor implements ReferenceManager {
+public class UniqueNameReferenceManager extends HierarchySupervisor implements ReferenceManager, ImmediateHierarchyObserver {
     private References refs;
     private final UniqueNameManager mgr;
 
@@ -204,7 +204,7 @@ public abstract class AbstractVisualModel extends AbstractModel implements Visua
     public <T extends VisualComponent> T getVisualComponent(MathNode mathNode, Class<T> type) {
         T result = null;
         if (mathNode != null) {
-            Collection<T> visualComponents = Hierarchy.getDescendantsOfType(getRoot(), type);
+            Collection<T> visualComponents = getNodesOfTypeView(type);
             for (T visualComponent: visualComponents) {
                 if (visualComponent.getReferencedComponent() == mathNode) {
                     result = visualComponent;
@@ -21,7 +21,7 @@
 
 package org.workcraft.dom.visual;
 
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 
 import org.workcraft.dom.Node;
 import org.workcraft.dom.visual.connections.SelectionObserver;
@@ -35,7 +35,7 @@ import org.workcraft.observation.StateEvent;
 import org.workcraft.observation.StateObserver;
 
 public class SelectionEventPropagator extends HierarchySupervisor implements StateObserver {
-    private final LinkedList<SelectionObserver> selectionObservers = new LinkedList<>();
+    private final LinkedHashSet<SelectionObserver> selectionObservers = new LinkedHashSet<>();
 
     public SelectionEventPropagator(VisualModel model) {
         model.addObserver(this);
@@ -54,9 +54,11 @@ public class TransformEventPropagator extends HierarchySupervisor implements Sta
 
     private void removeObserver(Node node, TransformObserver to) {
         LinkedList<TransformObserver> list = nodeToObservers.get(node);
-        list.remove(to);
-        if (list.isEmpty()) {
-            nodeToObservers.remove(node);
+        if (list != null) {
+            list.remove(to);
+            if (list.isEmpty()) {
+                nodeToObservers.remove(node);
+            }
         }
     }
 
@@ -113,6 +115,8 @@ public class TransformEventPropagator extends HierarchySupervisor implements Sta
                 for (Node n : nodes) {
                     removeObserver(n, to);
                 }
+                // The observer may be added back later, e.g. on undo, and resubscribe.
+                observerToNodes.remove(to);
             }
         }
 
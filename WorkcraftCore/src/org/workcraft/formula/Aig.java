@@ -0,0 +1,427 @@
+package org.workcraft.formula;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.workcraft.formula.cnf.IntCnf;
+
+/**
+ * And-Inverter Graph over primitive arrays. A literal is twice the node index, plus one
+ * if the edge is complemented. Node 0 is the constant, so {@link #FALSE} is 0 and
+ * {@link #TRUE} is 1. AND nodes are structurally hashed and their operands are ordered,
+ * so an AND of the same literals is built once. Every node is created after its fanins,
+ * which lets the cones be processed in the order of node indices without recursion.
+ */
+public class Aig {
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+
+    private static final int NO_FANIN = -1;
+
+    private int[] fanins0 = new int[1024];
+    private int[] fanins1 = new int[1024];
+    private BooleanVariable[] variables = new BooleanVariable[1024];
+    private int nodeCount = 1;
+
+    private final HashMap<BooleanVariable, Integer> variableLiterals = new HashMap<>();
+    // Open addressing table of AND nodes, 0 is a free slot as the constant node is never hashed
+    private int[] table = new int[2048];
+    private int andCount = 0;
+
+    public Aig() {
+        fanins0[0] = NO_FANIN;
+        fanins1[0] = NO_FANIN;
+    }
+
+    public static int not(int literal) {
+        return literal ^ 1;
+    }
+
+    public static boolean isComplemented(int literal) {
+        return (literal & 1) != 0;
+    }
+
+    public static int getNode(int literal) {
+        return literal >> 1;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public boolean isConstant(int literal) {
+        return getNode(literal) == 0;
+    }
+
+    public boolean isVariable(int literal) {
+        return variables[getNode(literal)] != null;
+    }
+
+    public boolean isAnd(int literal) {
+        return getNode(literal) > 0 && variables[getNode(literal)] == null;
+    }
+
+    public BooleanVariable getVariable(int literal) {
+        return variables[getNode(literal)];
+    }
+
+    public int getFanin0(int literal) {
+        return fanins0[getNode(literal)];
+    }
+
+    public int getFanin1(int literal) {
+        return fanins1[getNode(literal)];
+    }
+
+    public int variable(BooleanVariable variable) {
+        Integer literal = variableLiterals.get(variable);
+        if (literal == null) {
+            int node = newNode(NO_FANIN, NO_FANIN);
+            variables[node] = variable;
+            literal = 2 * node;
+            variableLiterals.put(variable, literal);
+        }
+        return literal;
+    }
+
+    public int and(int x, int y) {
+        if (x > y) {
+            int tmp = x;
+            x = y;
+            y = tmp;
+        }
+        if ((x == FALSE) || (x == not(y))) {
+            return FALSE;
+        }
+        if ((x == TRUE) || (x == y)) {
+            return y;
+        }
+        int simplified = simplify(x, y);
+        if (simplified < 0) {
+            simplified = simplify(y, x);
+        }
+        if (simplified >= 0) {
+            return simplified;
+        }
+        int mask = table.length - 1;
+        int slot = hash(x, y) & mask;
+        while (table[slot] != 0) {
+            int node = table[slot];
+            if ((fanins0[node] == x) && (fanins1[node] == y)) {
+                return 2 * node;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int node = newNode(x, y);
+        table[slot] = node;
+        if (++andCount * 2 > table.length) {
+            rehash();
+        }
+        return 2 * node;
+    }
+
+    /**
+     * Looks one level into the AND node of y: x contradicts it or is already a part of it,
+     * or x is the negation of a part of a negated y, which makes y redundant.
+     * @return the simplified AND, or -1 if there is no simplification.
+     */
+    private int simplify(int x, int y) {
+        if (!isAnd(y)) {
+            return -1;
+        }
+        int y0 = getFanin0(y);
+        int y1 = getFanin1(y);
+        if (!isComplemented(y)) {
+            if ((x == not(y0)) || (x == not(y1))) {
+                return FALSE;
+            }
+            if ((x == y0) || (x == y1)) {
+                return y;
+            }
+            if (isAnd(x) && !isComplemented(x)) {
+                int x0 = getFanin0(x);
+                int x1 = getFanin1(x);
+                if ((x0 == not(y0)) || (x0 == not(y1)) || (x1 == not(y0)) || (x1 == not(y1))) {
+                    return FALSE;
+                }
+            }
+        } else if ((x == not(y0)) || (x == not(y1))) {
+            return x;
+        }
+        return -1;
+    }
+
+    public int or(int x, int y) {
+        return not(and(not(x), not(y)));
+    }
+
+    public int imply(int x, int y) {
+        return not(and(x, not(y)));
+    }
+
+    public int xor(int x, int y) {
+        return or(and(x, not(y)), and(not(x), y));
+    }
+
+    public int iff(int x, int y) {
+        return not(xor(x, y));
+    }
+
+    private static int hash(int x, int y) {
+        int h = x * 0x9E3779B1 + y * 0x85EBCA6B;
+        return h ^ (h >>> 15);
+    }
+
+    private int newNode(int fanin0, int fanin1) {
+        if (nodeCount == fanins0.length) {
+            int capacity = 2 * nodeCount;
+            fanins0 = Arrays.copyOf(fanins0, capacity);
+            fanins1 = Arrays.copyOf(fanins1, capacity);
+            variables = Arrays.copyOf(variables, capacity);
+        }
+        int node = nodeCount++;
+        fanins0[node] = fanin0;
+        fanins1[node] = fanin1;
+        return node;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int node = 1; node < nodeCount; node++) {
+            if (variables[node] == null) {
+                int slot = hash(fanins0[node], fanins1[node]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = node;
+            }
+        }
+    }
+
+    /**
+     * @return the flags of the nodes in the cones of the literals.
+     */
+    private boolean[] getCone(List<Integer> literals) {
+        boolean[] cone = new boolean[nodeCount];
+        int[] stack = new int[Math.max(16, literals.size())];
+        int top = 0;
+        for (int literal : literals) {
+            stack[top++] = getNode(literal);
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            if (cone[node]) {
+                continue;
+            }
+            cone[node] = true;
+            if (fanins0[node] != NO_FANIN) {
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = getNode(fanins0[node]);
+                stack[top++] = getNode(fanins1[node]);
+            }
+        }
+        return cone;
+    }
+
+    private static int apply(int[] map, int literal) {
+        return map[getNode(literal)] ^ (literal & 1);
+    }
+
+    /**
+     * Substitutes the variables in the cone of the literal, the variables missing in the
+     * substitution stay as they are.
+     */
+    public int compose(int literal, Map<? extends BooleanVariable, Integer> substitution) {
+        int count = nodeCount;
+        boolean[] cone = getCone(Arrays.asList(literal));
+        int[] map = new int[count];
+        for (int node = 1; node < count; node++) {
+            if (!cone[node]) {
+                continue;
+            }
+            if (variables[node] == null) {
+                map[node] = and(apply(map, fanins0[node]), apply(map, fanins1[node]));
+            } else {
+                Integer value = substitution.get(variables[node]);
+                map[node] = (value == null) ? 2 * node : value;
+            }
+        }
+        return apply(map, literal);
+    }
+
+    /**
+     * @return the literal of the formula, built with structural hashing.
+     */
+    public int literal(BooleanFormula formula) {
+        return formula.accept(new LiteralBuilder());
+    }
+
+    /**
+     * Formula that already stands for a literal of an AIG.
+     */
+    interface Node extends BooleanFormula {
+        Aig getAig();
+        int getLiteral();
+    }
+
+    /**
+     * Converts formulas to literals, every shared subformula is converted once.
+     */
+    class LiteralBuilder implements BooleanVisitor<Integer> {
+        private final HashMap<BooleanFormula, Integer> cache = new HashMap<>();
+
+        private Integer getKnown(BooleanFormula node) {
+            if ((node instanceof Node) && (((Node) node).getAig() == Aig.this)) {
+                return ((Node) node).getLiteral();
+            }
+            return cache.get(node);
+        }
+
+        private Integer visitBinary(BinaryBooleanFormula node) {
+            Integer result = getKnown(node);
+            if (result == null) {
+                int x = node.getX().accept(this);
+                int y = node.getY().accept(this);
+                if (node instanceof And) {
+                    result = and(x, y);
+                } else if (node instanceof Or) {
+                    result = or(x, y);
+                } else if (node instanceof Iff) {
+                    result = iff(x, y);
+                } else if (node instanceof Xor) {
+                    result = xor(x, y);
+                } else {
+                    result = imply(x, y);
+                }
+                cache.put(node, result);
+            }
+            return result;
+        }
+
+        @Override
+        public Integer visit(And node) {
+            return visitBinary(node);
+        }
+
+        @Override
+        public Integer visit(Iff node) {
+            return visitBinary(node);
+        }
+
+        @Override
+        public Integer visit(Xor node) {
+            return visitBinary(node);
+        }
+
+        @Override
+        public Integer visit(Zero node) {
+            return FALSE;
+        }
+
+        @Override
+        public Integer visit(One node) {
+            return TRUE;
+        }
+
+        @Override
+        public Integer visit(Not node) {
+            Integer result = getKnown(node);
+            return (result == null) ? not(node.getX().accept(this)) : result;
+        }
+
+        @Override
+        public Integer visit(Imply node) {
+            return visitBinary(node);
+        }
+
+        @Override
+        public Integer visit(BooleanVariable variable) {
+            return variable(variable);
+        }
+
+        @Override
+        public Integer visit(Or node) {
+            return visitBinary(node);
+        }
+    }
+
+    /**
+     * Adds the clauses that assert the literal. The top conjunctions are split into
+     * separate assertions and the top disjunctions become clauses, the other AND nodes
+     * get a variable with its Tseitin clauses. The constants are encoded by the
+     * {@link Literal#ONE} variable.
+     */
+    public void assertLiteral(int literal, IntCnf cnf) {
+        int one = cnf.getNumber(Literal.ONE.getVariable());
+        int[] numbers = new int[nodeCount];
+        numbers[0] = -one;
+        List<Integer> assertions = new ArrayList<>();
+        assertions.add(literal);
+        List<int[]> clauses = new ArrayList<>();
+        while (!assertions.isEmpty()) {
+            int assertion = assertions.remove(assertions.size() - 1);
+            if (isAnd(assertion) && !isComplemented(assertion)) {
+                assertions.add(getFanin0(assertion));
+                assertions.add(getFanin1(assertion));
+            } else {
+                List<Integer> disjuncts = new ArrayList<>();
+                List<Integer> clause = new ArrayList<>();
+                disjuncts.add(assertion);
+                while (!disjuncts.isEmpty()) {
+                    int disjunct = disjuncts.remove(disjuncts.size() - 1);
+                    if (isAnd(disjunct) && isComplemented(disjunct)) {
+                        disjuncts.add(not(getFanin0(disjunct)));
+                        disjuncts.add(not(getFanin1(disjunct)));
+                    } else {
+                        clause.add(disjunct);
+                    }
+                }
+                int[] literals = new int[clause.size()];
+                for (int i = 0; i < literals.length; i++) {
+                    literals[i] = clause.get(i);
+                }
+                clauses.add(literals);
+            }
+        }
+        List<Integer> roots = new ArrayList<>();
+        for (int[] clause : clauses) {
+            for (int clauseLiteral : clause) {
+                roots.add(clauseLiteral);
+            }
+        }
+        boolean[] cone = getCone(roots);
+        for (int node = 1; node < cone.length; node++) {
+            if (!cone[node]) {
+                continue;
+            }
+            if (variables[node] != null) {
+                numbers[node] = cnf.getNumber(variables[node]);
+            } else {
+                numbers[node] = cnf.getNumber(new FreeVariable(""));
+                int x = number(numbers, fanins0[node]);
+                int y = number(numbers, fanins1[node]);
+                cnf.add(-numbers[node], x);
+                cnf.add(-numbers[node], y);
+                cnf.add(numbers[node], -x, -y);
+            }
+        }
+        for (int[] clause : clauses) {
+            for (int i = 0; i < clause.length; i++) {
+                clause[i] = number(numbers, clause[i]);
+            }
+            cnf.add(clause);
+        }
+    }
+
+    private static int number(int[] numbers, int literal) {
+        int number = numbers[getNode(literal)];
+        return isComplemented(literal) ? -number : number;
+    }
+
+}
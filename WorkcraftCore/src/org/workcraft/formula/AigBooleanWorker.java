@@ -0,0 +1,162 @@
+package org.workcraft.formula;
+
+import java.util.Arrays;
+
+/**
+ * Boolean worker that builds every formula in an {@link Aig}, so equal operations share
+ * one node and the constants are propagated. The formulas it returns are And and Not
+ * nodes carrying their literal, one object per literal, and a negated AND of negations
+ * is shown as Or. Formulas from elsewhere are converted on their first use.
+ */
+public class AigBooleanWorker implements BooleanWorker {
+    private final Aig aig;
+    private BooleanFormula[] formulas = new BooleanFormula[1024];
+
+    private final class AndNode extends And implements Aig.Node {
+        private final int literal;
+
+        private AndNode(BooleanFormula x, BooleanFormula y, int literal) {
+            super(x, y);
+            this.literal = literal;
+        }
+
+        @Override
+        public Aig getAig() {
+            return aig;
+        }
+
+        @Override
+        public int getLiteral() {
+            return literal;
+        }
+    }
+
+    private final class OrNode extends Or implements Aig.Node {
+        private final int literal;
+
+        private OrNode(BooleanFormula x, BooleanFormula y, int literal) {
+            super(x, y);
+            this.literal = literal;
+        }
+
+        @Override
+        public Aig getAig() {
+            return aig;
+        }
+
+        @Override
+        public int getLiteral() {
+            return literal;
+        }
+    }
+
+    private final class NotNode extends Not implements Aig.Node {
+        private final int literal;
+
+        private NotNode(BooleanFormula x, int literal) {
+            super(x);
+            this.literal = literal;
+        }
+
+        @Override
+        public Aig getAig() {
+            return aig;
+        }
+
+        @Override
+        public int getLiteral() {
+            return literal;
+        }
+    }
+
+    public AigBooleanWorker() {
+        this(new Aig());
+    }
+
+    public AigBooleanWorker(Aig aig) {
+        this.aig = aig;
+    }
+
+    public Aig getAig() {
+        return aig;
+    }
+
+    public int getLiteral(BooleanFormula formula) {
+        if ((formula instanceof Aig.Node) && (((Aig.Node) formula).getAig() == aig)) {
+            return ((Aig.Node) formula).getLiteral();
+        }
+        return aig.literal(formula);
+    }
+
+    public BooleanFormula getFormula(int literal) {
+        if (literal == Aig.FALSE) {
+            return Zero.instance();
+        }
+        if (literal == Aig.TRUE) {
+            return One.instance();
+        }
+        if (literal >= formulas.length) {
+            formulas = Arrays.copyOf(formulas, Math.max(literal + 1, 2 * formulas.length));
+        }
+        BooleanFormula result = formulas[literal];
+        if (result == null) {
+            if (aig.isVariable(literal)) {
+                BooleanVariable variable = aig.getVariable(literal);
+                result = Aig.isComplemented(literal) ? new NotNode(variable, literal) : variable;
+            } else if (!Aig.isComplemented(literal)) {
+                result = new AndNode(getFormula(aig.getFanin0(literal)), getFormula(aig.getFanin1(literal)), literal);
+            } else {
+                int x = aig.getFanin0(literal);
+                int y = aig.getFanin1(literal);
+                if (Aig.isComplemented(x) && Aig.isComplemented(y)) {
+                    result = new OrNode(getFormula(Aig.not(x)), getFormula(Aig.not(y)), literal);
+                } else {
+                    result = new NotNode(getFormula(Aig.not(literal)), literal);
+                }
+            }
+            formulas[literal] = result;
+        }
+        return result;
+    }
+
+    @Override
+    public BooleanFormula one() {
+        return One.instance();
+    }
+
+    @Override
+    public BooleanFormula zero() {
+        return Zero.instance();
+    }
+
+    @Override
+    public BooleanFormula not(BooleanFormula x) {
+        return getFormula(Aig.not(getLiteral(x)));
+    }
+
+    @Override
+    public BooleanFormula and(BooleanFormula x, BooleanFormula y) {
+        return getFormula(aig.and(getLiteral(x), getLiteral(y)));
+    }
+
+    @Override
+    public BooleanFormula or(BooleanFormula x, BooleanFormula y) {
+        return getFormula(aig.or(getLiteral(x), getLiteral(y)));
+    }
+
+    @Override
+    public BooleanFormula imply(BooleanFormula x, BooleanFormula y) {
+        return getFormula(aig.imply(getLiteral(x), getLiteral(y)));
+    }
+
+    @Override
+    public BooleanFormula iff(BooleanFormula x, BooleanFormula y) {
+        return getFormula(aig.iff(getLiteral(x), getLiteral(y)));
+    }
+
+    @Override
+    public BooleanFormula xor(BooleanFormula x, BooleanFormula y) {
+        return getFormula(aig.xor(getLiteral(x), getLiteral(y)));
+    }
+
+}
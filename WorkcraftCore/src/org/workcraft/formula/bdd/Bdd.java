@@ -0,0 +1,1005 @@
+package org.workcraft.formula.bdd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.workcraft.formula.And;
+import org.workcraft.formula.BinaryBooleanFormula;
+import org.workcraft.formula.BooleanFormula;
+import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.BooleanVisitor;
+import org.workcraft.formula.Iff;
+import org.workcraft.formula.Imply;
+import org.workcraft.formula.Not;
+import org.workcraft.formula.One;
+import org.workcraft.formula.Or;
+import org.workcraft.formula.Xor;
+import org.workcraft.formula.Zero;
+
+/**
+ * Reduced ordered binary decision diagrams. A BDD is the int index of its root node,
+ * {@link #ZERO} and {@link #ONE} are the terminals. Nodes are kept in primitive arrays
+ * with a unique table per variable, and the results of operations are remembered in a
+ * direct-mapped computed table.
+ *
+ * Nodes that are not reachable from a referenced BDD are reclaimed by the garbage
+ * collection, which runs only on entry to the public operations, so results kept
+ * between operations must be protected with {@link #ref(int)} and released with
+ * {@link #deref(int)}. The arguments of an operation are always protected.
+ *
+ * The variable order can be changed by {@link #reorder()}, which sifts every variable
+ * to its best level. With the automatic reordering enabled it runs whenever the number
+ * of live nodes doubles. Reordering keeps the indices of all nodes and their functions.
+ */
+public class Bdd {
+    public static final int ZERO = 0;
+    public static final int ONE = 1;
+
+    private static final int TERMINAL = -1;
+    private static final int FREE = -2;
+
+    private static final int OP_AND = 0;
+    private static final int OP_OR = 1;
+    private static final int OP_XOR = 2;
+    private static final int OP_NOT = 3;
+    private static final int OP_ITE = 4;
+    private static final int OP_EXISTS = 5;
+    private static final int OP_RELPROD = 6;
+    private static final int OP_REPLACE = 7;
+
+    private static final int MIN_GC_NODES = 1 << 16;
+    private static final double MAX_SIFT_GROWTH = 1.2;
+
+    private int[] vars;
+    private int[] lows;
+    private int[] highs;
+    private int[] nexts;
+    private int[] refs;
+    // Number of parents and external references of every node while reordering, null otherwise
+    private int[] counts = null;
+    private int nodeCount = 2;
+    private int freeList = -1;
+    private int freeCount = 0;
+    private int allocatedSinceGc = 0;
+
+    private int varCount = 0;
+    private int[] var2level = new int[0];
+    private int[] level2var = new int[0];
+    private int[][] uniqueTables = new int[0][];
+    private int[] uniqueCounts = new int[0];
+
+    private int[] cacheKeys;
+    private int[] cacheResults;
+    private int replaceId = 0;
+    private int[] replaceMap;
+
+    private boolean autoReorder = false;
+    private int reorderThreshold = MIN_GC_NODES;
+
+    public Bdd() {
+        this(1 << 12, 1 << 14);
+    }
+
+    public Bdd(int nodeCapacity, int cacheSize) {
+        int capacity = Math.max(nodeCapacity, 4);
+        vars = new int[capacity];
+        lows = new int[capacity];
+        highs = new int[capacity];
+        nexts = new int[capacity];
+        refs = new int[capacity];
+        vars[ZERO] = TERMINAL;
+        vars[ONE] = TERMINAL;
+        int size = Integer.highestOneBit(Math.max(cacheSize, 16));
+        cacheKeys = new int[4 * size];
+        cacheResults = new int[size];
+        clearCache();
+    }
+
+    public void setAutoReorder(boolean value) {
+        autoReorder = value;
+    }
+
+    /**
+     * Adds a variable below all the others.
+     * @return the index of the variable.
+     */
+    public int newVariable() {
+        int var = varCount++;
+        var2level = Arrays.copyOf(var2level, varCount);
+        level2var = Arrays.copyOf(level2var, varCount);
+        var2level[var] = var;
+        level2var[var] = var;
+        uniqueTables = Arrays.copyOf(uniqueTables, varCount);
+        uniqueTables[var] = new int[16];
+        Arrays.fill(uniqueTables[var], -1);
+        uniqueCounts = Arrays.copyOf(uniqueCounts, varCount);
+        return var;
+    }
+
+    public int getVariableCount() {
+        return varCount;
+    }
+
+    public int getLevel(int var) {
+        return var2level[var];
+    }
+
+    public int getVariableAtLevel(int level) {
+        return level2var[level];
+    }
+
+    public int ref(int f) {
+        refs[f]++;
+        return f;
+    }
+
+    public void deref(int f) {
+        if (refs[f] <= 0) {
+            throw new IllegalStateException("Node " + f + " is not referenced");
+        }
+        refs[f]--;
+    }
+
+    public boolean isTerminal(int f) {
+        return f < 2;
+    }
+
+    public int getVariable(int f) {
+        return vars[f];
+    }
+
+    public int getLow(int f) {
+        return lows[f];
+    }
+
+    public int getHigh(int f) {
+        return highs[f];
+    }
+
+    private int level(int f) {
+        return (f < 2) ? Integer.MAX_VALUE : var2level[vars[f]];
+    }
+
+    /**
+     * Checks the argument and lets the garbage collection and the reordering run before
+     * an operation.
+     */
+    private void prepare(int... args) {
+        for (int f : args) {
+            if ((f < 0) || (f >= nodeCount) || (vars[f] == FREE)) {
+                throw new IllegalArgumentException("Invalid BDD node " + f);
+            }
+        }
+        if (allocatedSinceGc > Math.max(MIN_GC_NODES, getLiveNodeCount())) {
+            gc(args);
+        }
+        if (autoReorder && (getLiveNodeCount() > reorderThreshold)) {
+            reorder(args);
+            reorderThreshold = Math.max(MIN_GC_NODES, 2 * getLiveNodeCount());
+        }
+    }
+
+    public int getLiveNodeCount() {
+        return nodeCount - freeCount;
+    }
+
+    // Unique table
+
+    private static int hash(int a, int b) {
+        int h = a * 0x9E3779B1 + b * 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int node = find(var, low, high);
+        if (node >= 0) {
+            return node;
+        }
+        node = allocate();
+        vars[node] = var;
+        lows[node] = low;
+        highs[node] = high;
+        insert(node);
+        return node;
+    }
+
+    private int find(int var, int low, int high) {
+        int[] table = uniqueTables[var];
+        int bucket = hash(low, high) & (table.length - 1);
+        for (int node = table[bucket]; node >= 0; node = nexts[node]) {
+            if ((lows[node] == low) && (highs[node] == high)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int node) {
+        int var = vars[node];
+        int[] table = uniqueTables[var];
+        if (uniqueCounts[var] >= 2 * table.length) {
+            resizeTable(var, 2 * table.length);
+            table = uniqueTables[var];
+        }
+        int bucket = hash(lows[node], highs[node]) & (table.length - 1);
+        nexts[node] = table[bucket];
+        table[bucket] = node;
+        uniqueCounts[var]++;
+    }
+
+    private void resizeTable(int var, int size) {
+        int[] old = uniqueTables[var];
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        for (int bucket = 0; bucket < old.length; bucket++) {
+            int node = old[bucket];
+            while (node >= 0) {
+                int next = nexts[node];
+                int b = hash(lows[node], highs[node]) & (size - 1);
+                nexts[node] = table[b];
+                table[b] = node;
+                node = next;
+            }
+        }
+        uniqueTables[var] = table;
+    }
+
+    private List<Integer> getNodes(int var) {
+        List<Integer> result = new ArrayList<>(uniqueCounts[var]);
+        for (int head : uniqueTables[var]) {
+            for (int node = head; node >= 0; node = nexts[node]) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private void remove(int node) {
+        int var = vars[node];
+        int[] table = uniqueTables[var];
+        int bucket = hash(lows[node], highs[node]) & (table.length - 1);
+        if (table[bucket] == node) {
+            table[bucket] = nexts[node];
+        } else {
+            int prev = table[bucket];
+            while (nexts[prev] != node) {
+                prev = nexts[prev];
+            }
+            nexts[prev] = nexts[node];
+        }
+        uniqueCounts[var]--;
+    }
+
+    private void clearTable(int var) {
+        Arrays.fill(uniqueTables[var], -1);
+        uniqueCounts[var] = 0;
+    }
+
+    private int allocate() {
+        allocatedSinceGc++;
+        if (freeList >= 0) {
+            int node = freeList;
+            freeList = nexts[node];
+            freeCount--;
+            return node;
+        }
+        if (nodeCount == vars.length) {
+            int capacity = 2 * vars.length;
+            vars = Arrays.copyOf(vars, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            nexts = Arrays.copyOf(nexts, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+            if (counts != null) {
+                counts = Arrays.copyOf(counts, capacity);
+            }
+        }
+        return nodeCount++;
+    }
+
+    // Garbage collection
+
+    private boolean[] mark(int... args) {
+        boolean[] marks = new boolean[nodeCount];
+        marks[ZERO] = true;
+        marks[ONE] = true;
+        int[] stack = new int[64];
+        int top = 0;
+        for (int node = 2; node < nodeCount + args.length; node++) {
+            int root = (node < nodeCount) ? node : args[node - nodeCount];
+            if (((node < nodeCount) && (refs[root] == 0)) || marks[root]) {
+                continue;
+            }
+            stack[top++] = root;
+            while (top > 0) {
+                int f = stack[--top];
+                if (marks[f]) {
+                    continue;
+                }
+                marks[f] = true;
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                stack[top++] = lows[f];
+                stack[top++] = highs[f];
+            }
+        }
+        return marks;
+    }
+
+    /**
+     * Reclaims the nodes that are not reachable from the referenced BDDs and the given ones.
+     */
+    public void gc(int... args) {
+        boolean[] marks = mark(args);
+        for (int var = 0; var < varCount; var++) {
+            List<Integer> nodes = getNodes(var);
+            clearTable(var);
+            for (int node : nodes) {
+                if (marks[node]) {
+                    insert(node);
+                }
+            }
+        }
+        freeList = -1;
+        freeCount = 0;
+        for (int node = nodeCount - 1; node >= 2; node--) {
+            if (!marks[node]) {
+                vars[node] = FREE;
+                nexts[node] = freeList;
+                freeList = node;
+                freeCount++;
+            }
+        }
+        allocatedSinceGc = 0;
+        clearCache();
+    }
+
+    // Computed table
+
+    private void clearCache() {
+        Arrays.fill(cacheKeys, -1);
+    }
+
+    private int cacheSlot(int op, int a, int b, int c) {
+        int h = hash(hash(op, a), hash(b, c));
+        return h & (cacheResults.length - 1);
+    }
+
+    private int cacheLookup(int op, int a, int b, int c) {
+        int slot = cacheSlot(op, a, b, c);
+        int k = 4 * slot;
+        if ((cacheKeys[k] == op) && (cacheKeys[k + 1] == a) && (cacheKeys[k + 2] == b) && (cacheKeys[k + 3] == c)) {
+            return cacheResults[slot];
+        }
+        return -1;
+    }
+
+    private int cacheStore(int op, int a, int b, int c, int result) {
+        int slot = cacheSlot(op, a, b, c);
+        int k = 4 * slot;
+        cacheKeys[k] = op;
+        cacheKeys[k + 1] = a;
+        cacheKeys[k + 2] = b;
+        cacheKeys[k + 3] = c;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    // Operations
+
+    public int var(int var) {
+        return mk(var, ZERO, ONE);
+    }
+
+    public int nvar(int var) {
+        return mk(var, ONE, ZERO);
+    }
+
+    public int and(int f, int g) {
+        prepare(f, g);
+        return andRec(f, g);
+    }
+
+    public int or(int f, int g) {
+        prepare(f, g);
+        return orRec(f, g);
+    }
+
+    public int xor(int f, int g) {
+        prepare(f, g);
+        return xorRec(f, g);
+    }
+
+    public int not(int f) {
+        prepare(f);
+        return notRec(f);
+    }
+
+    public int imply(int f, int g) {
+        prepare(f, g);
+        return orRec(notRec(f), g);
+    }
+
+    public int iff(int f, int g) {
+        prepare(f, g);
+        return notRec(xorRec(f, g));
+    }
+
+    public int ite(int f, int g, int h) {
+        prepare(f, g, h);
+        return iteRec(f, g, h);
+    }
+
+    private int andRec(int f, int g) {
+        if ((f == ZERO) || (g == ZERO)) {
+            return ZERO;
+        }
+        if ((f == ONE) || (f == g)) {
+            return g;
+        }
+        if (g == ONE) {
+            return f;
+        }
+        if (f > g) {
+            int tmp = f;
+            f = g;
+            g = tmp;
+        }
+        int result = cacheLookup(OP_AND, f, g, 0);
+        if (result < 0) {
+            int lf = level(f);
+            int lg = level(g);
+            int var = (lf <= lg) ? vars[f] : vars[g];
+            int low = andRec((lf <= lg) ? lows[f] : f, (lg <= lf) ? lows[g] : g);
+            int high = andRec((lf <= lg) ? highs[f] : f, (lg <= lf) ? highs[g] : g);
+            result = cacheStore(OP_AND, f, g, 0, mk(var, low, high));
+        }
+        return result;
+    }
+
+    private int orRec(int f, int g) {
+        if ((f == ONE) || (g == ONE)) {
+            return ONE;
+        }
+        if ((f == ZERO) || (f == g)) {
+            return g;
+        }
+        if (g == ZERO) {
+            return f;
+        }
+        if (f > g) {
+            int tmp = f;
+            f = g;
+            g = tmp;
+        }
+        int result = cacheLookup(OP_OR, f, g, 0);
+        if (result < 0) {
+            int lf = level(f);
+            int lg = level(g);
+            int var = (lf <= lg) ? vars[f] : vars[g];
+            int low = orRec((lf <= lg) ? lows[f] : f, (lg <= lf) ? lows[g] : g);
+            int high = orRec((lf <= lg) ? highs[f] : f, (lg <= lf) ? highs[g] : g);
+            result = cacheStore(OP_OR, f, g, 0, mk(var, low, high));
+        }
+        return result;
+    }
+
+    private int xorRec(int f, int g) {
+        if (f == g) {
+            return ZERO;
+        }
+        if (f == ZERO) {
+            return g;
+        }
+        if (g == ZERO) {
+            return f;
+        }
+        if (f == ONE) {
+            return notRec(g);
+        }
+        if (g == ONE) {
+            return notRec(f);
+        }
+        if (f > g) {
+            int tmp = f;
+            f = g;
+            g = tmp;
+        }
+        int result = cacheLookup(OP_XOR, f, g, 0);
+        if (result < 0) {
+            int lf = level(f);
+            int lg = level(g);
+            int var = (lf <= lg) ? vars[f] : vars[g];
+            int low = xorRec((lf <= lg) ? lows[f] : f, (lg <= lf) ? lows[g] : g);
+            int high = xorRec((lf <= lg) ? highs[f] : f, (lg <= lf) ? highs[g] : g);
+            result = cacheStore(OP_XOR, f, g, 0, mk(var, low, high));
+        }
+        return result;
+    }
+
+    private int notRec(int f) {
+        if (f < 2) {
+            return 1 - f;
+        }
+        int result = cacheLookup(OP_NOT, f, 0, 0);
+        if (result < 0) {
+            result = cacheStore(OP_NOT, f, 0, 0, mk(vars[f], notRec(lows[f]), notRec(highs[f])));
+        }
+        return result;
+    }
+
+    private int iteRec(int f, int g, int h) {
+        if (f == ONE) {
+            return g;
+        }
+        if (f == ZERO) {
+            return h;
+        }
+        if (g == h) {
+            return g;
+        }
+        if ((g == ONE) && (h == ZERO)) {
+            return f;
+        }
+        int result = cacheLookup(OP_ITE, f, g, h);
+        if (result < 0) {
+            int top = Math.min(level(f), Math.min(level(g), level(h)));
+            int var = level2var[top];
+            int low = iteRec(cofactor(f, top, false), cofactor(g, top, false), cofactor(h, top, false));
+            int high = iteRec(cofactor(f, top, true), cofactor(g, top, true), cofactor(h, top, true));
+            result = cacheStore(OP_ITE, f, g, h, mk(var, low, high));
+        }
+        return result;
+    }
+
+    private int cofactor(int f, int level, boolean value) {
+        if (level(f) != level) {
+            return f;
+        }
+        return value ? highs[f] : lows[f];
+    }
+
+    /**
+     * @return the conjunction of the given variables, to be used as a quantification cube.
+     */
+    public int cube(int... variables) {
+        int result = ONE;
+        for (int var : variables) {
+            result = andRec(result, var(var));
+        }
+        return result;
+    }
+
+    /**
+     * Existential quantification of the variables of the cube.
+     */
+    public int exists(int f, int cube) {
+        prepare(f, cube);
+        return existsRec(f, cube);
+    }
+
+    private int existsRec(int f, int cube) {
+        while ((cube >= 2) && (level(cube) < level(f))) {
+            cube = highs[cube];
+        }
+        if ((f < 2) || (cube == ONE)) {
+            return f;
+        }
+        int result = cacheLookup(OP_EXISTS, f, cube, 0);
+        if (result < 0) {
+            if (level(cube) == level(f)) {
+                int next = highs[cube];
+                result = orRec(existsRec(lows[f], next), existsRec(highs[f], next));
+            } else {
+                result = mk(vars[f], existsRec(lows[f], cube), existsRec(highs[f], cube));
+            }
+            cacheStore(OP_EXISTS, f, cube, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * Relational product: the existential quantification of the conjunction of f and g,
+     * computed without building the conjunction.
+     */
+    public int relProd(int f, int g, int cube) {
+        prepare(f, g, cube);
+        return relProdRec(f, g, cube);
+    }
+
+    private int relProdRec(int f, int g, int cube) {
+        if ((f == ZERO) || (g == ZERO)) {
+            return ZERO;
+        }
+        if ((f == ONE) && (g == ONE)) {
+            return ONE;
+        }
+        int top = Math.min(level(f), level(g));
+        while ((cube >= 2) && (level(cube) < top)) {
+            cube = highs[cube];
+        }
+        if (cube == ONE) {
+            return andRec(f, g);
+        }
+        if (f == ONE) {
+            return existsRec(g, cube);
+        }
+        if (g == ONE) {
+            return existsRec(f, cube);
+        }
+        if (f > g) {
+            int tmp = f;
+            f = g;
+            g = tmp;
+        }
+        int result = cacheLookup(OP_RELPROD, f, g, cube);
+        if (result < 0) {
+            int var = level2var[top];
+            if (level(cube) == top) {
+                int next = highs[cube];
+                int low = relProdRec(cofactor(f, top, false), cofactor(g, top, false), next);
+                if (low == ONE) {
+                    result = ONE;
+                } else {
+                    result = orRec(low, relProdRec(cofactor(f, top, true), cofactor(g, top, true), next));
+                }
+            } else {
+                int low = relProdRec(cofactor(f, top, false), cofactor(g, top, false), cube);
+                int high = relProdRec(cofactor(f, top, true), cofactor(g, top, true), cube);
+                result = mk(var, low, high);
+            }
+            cacheStore(OP_RELPROD, f, g, cube, result);
+        }
+        return result;
+    }
+
+    /**
+     * Renames the variables, the variable v becomes map[v]. The renaming need not keep the order.
+     */
+    public int replace(int f, int[] map) {
+        prepare(f);
+        replaceMap = map;
+        replaceId++;
+        return replaceRec(f);
+    }
+
+    private int replaceRec(int f) {
+        if (f < 2) {
+            return f;
+        }
+        int result = cacheLookup(OP_REPLACE, f, replaceId, 0);
+        if (result < 0) {
+            int low = replaceRec(lows[f]);
+            int high = replaceRec(highs[f]);
+            int var = (vars[f] < replaceMap.length) ? replaceMap[vars[f]] : vars[f];
+            result = cacheStore(OP_REPLACE, f, replaceId, 0, iteRec(var(var), high, low));
+        }
+        return result;
+    }
+
+    /**
+     * @return the value of f for the values of variables, indexed by variable.
+     */
+    public boolean evaluate(int f, boolean[] values) {
+        while (f >= 2) {
+            f = values[vars[f]] ? highs[f] : lows[f];
+        }
+        return f == ONE;
+    }
+
+    /**
+     * @return the number of satisfying assignments of all the variables.
+     */
+    public double satCount(int f) {
+        return satFraction(f, new HashMap<Integer, Double>()) * Math.pow(2.0, varCount);
+    }
+
+    private double satFraction(int f, Map<Integer, Double> memo) {
+        if (f < 2) {
+            return f;
+        }
+        Double result = memo.get(f);
+        if (result == null) {
+            result = (satFraction(lows[f], memo) + satFraction(highs[f], memo)) / 2.0;
+            memo.put(f, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of nodes of f, terminals included.
+     */
+    public int getNodeCount(int f) {
+        boolean[] marks = new boolean[nodeCount];
+        int count = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = f;
+        while (top > 0) {
+            int node = stack[--top];
+            if (marks[node]) {
+                continue;
+            }
+            marks[node] = true;
+            count++;
+            if (node >= 2) {
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                stack[top++] = lows[node];
+                stack[top++] = highs[node];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the disjoint cubes of the paths to {@link #ONE}, every cube maps the
+     * variables on the path to their values: 1 for positive, 0 for negative, -1 for absent.
+     */
+    public List<int[]> getCubes(int f) {
+        List<int[]> result = new ArrayList<>();
+        int[] cube = new int[varCount];
+        Arrays.fill(cube, -1);
+        collectCubes(f, cube, result);
+        return result;
+    }
+
+    private void collectCubes(int f, int[] cube, List<int[]> result) {
+        if (f == ONE) {
+            result.add(cube.clone());
+        } else if (f != ZERO) {
+            int var = vars[f];
+            cube[var] = 0;
+            collectCubes(lows[f], cube, result);
+            cube[var] = 1;
+            collectCubes(highs[f], cube, result);
+            cube[var] = -1;
+        }
+    }
+
+    // Conversion
+
+    /**
+     * Builds the BDD of the formula. The variables missing in the map are added to the
+     * manager and to the map.
+     */
+    public int build(BooleanFormula formula, final Map<BooleanVariable, Integer> variables) {
+        prepare();
+        return formula.accept(new BooleanVisitor<Integer>() {
+            private final HashMap<BooleanFormula, Integer> cache = new HashMap<>();
+
+            private Integer visitBinary(BinaryBooleanFormula node) {
+                Integer result = cache.get(node);
+                if (result == null) {
+                    int x = node.getX().accept(this);
+                    int y = node.getY().accept(this);
+                    if (node instanceof And) {
+                        result = andRec(x, y);
+                    } else if (node instanceof Or) {
+                        result = orRec(x, y);
+                    } else if (node instanceof Xor) {
+                        result = xorRec(x, y);
+                    } else if (node instanceof Iff) {
+                        result = notRec(xorRec(x, y));
+                    } else {
+                        result = orRec(notRec(x), y);
+                    }
+                    cache.put(node, result);
+                }
+                return result;
+            }
+
+            @Override
+            public Integer visit(And node) {
+                return visitBinary(node);
+            }
+
+            @Override
+            public Integer visit(Iff node) {
+                return visitBinary(node);
+            }
+
+            @Override
+            public Integer visit(Xor node) {
+                return visitBinary(node);
+            }
+
+            @Override
+            public Integer visit(Zero node) {
+                return ZERO;
+            }
+
+            @Override
+            public Integer visit(One node) {
+                return ONE;
+            }
+
+            @Override
+            public Integer visit(Not node) {
+                return notRec(node.getX().accept(this));
+            }
+
+            @Override
+            public Integer visit(Imply node) {
+                return visitBinary(node);
+            }
+
+            @Override
+            public Integer visit(BooleanVariable variable) {
+                Integer var = variables.get(variable);
+                if (var == null) {
+                    var = newVariable();
+                    variables.put(variable, var);
+                }
+                return var(var);
+            }
+
+            @Override
+            public Integer visit(Or node) {
+                return visitBinary(node);
+            }
+        });
+    }
+
+    // Reordering
+
+    /**
+     * Counts the parents and the external references of the live nodes, so that the swaps
+     * can free the nodes that become dead without a garbage collection.
+     */
+    private void countReferences(int... args) {
+        counts = new int[vars.length];
+        for (int node = 2; node < nodeCount; node++) {
+            if (vars[node] != FREE) {
+                counts[node] += refs[node];
+                counts[lows[node]]++;
+                counts[highs[node]]++;
+            }
+        }
+        for (int f : args) {
+            counts[f]++;
+        }
+    }
+
+    /**
+     * @return the node of the function with the given cofactors, counted as one more parent.
+     */
+    private int mkCounted(int var, int low, int high) {
+        int node = (low == high) ? low : find(var, low, high);
+        if (node < 0) {
+            node = allocate();
+            vars[node] = var;
+            lows[node] = low;
+            highs[node] = high;
+            counts[node] = 0;
+            counts[low]++;
+            counts[high]++;
+            insert(node);
+        }
+        counts[node]++;
+        return node;
+    }
+
+    /**
+     * Removes a parent of the node and frees the node, and then its children, once it has none.
+     */
+    private void release(int node) {
+        if ((node >= 2) && (--counts[node] == 0)) {
+            remove(node);
+            release(lows[node]);
+            release(highs[node]);
+            vars[node] = FREE;
+            nexts[node] = freeList;
+            freeList = node;
+            freeCount++;
+        }
+    }
+
+    /**
+     * Exchanges the variables at the level and the level below. The nodes of the upper
+     * variable that depend on the lower one are relabelled in place, so every node keeps
+     * its function. The nodes of the lower variable that lose their last parent are freed,
+     * so the number of live nodes stays exact.
+     */
+    private void swap(int level) {
+        int x = level2var[level];
+        int y = level2var[level + 1];
+        List<Integer> moved = new ArrayList<>();
+        List<Integer> nodes = getNodes(x);
+        clearTable(x);
+        for (int node : nodes) {
+            if ((vars[lows[node]] == y) || (vars[highs[node]] == y)) {
+                moved.add(node);
+            } else {
+                insert(node);
+            }
+        }
+        level2var[level] = y;
+        level2var[level + 1] = x;
+        var2level[x] = level + 1;
+        var2level[y] = level;
+        for (int node : moved) {
+            int f0 = lows[node];
+            int f1 = highs[node];
+            int f00 = (vars[f0] == y) ? lows[f0] : f0;
+            int f01 = (vars[f0] == y) ? highs[f0] : f0;
+            int f10 = (vars[f1] == y) ? lows[f1] : f1;
+            int f11 = (vars[f1] == y) ? highs[f1] : f1;
+            // The new children are counted before the old ones are released, as they may share nodes.
+            int low = mkCounted(x, f00, f10);
+            int high = mkCounted(x, f01, f11);
+            vars[node] = y;
+            lows[node] = low;
+            highs[node] = high;
+            insert(node);
+            release(f0);
+            release(f1);
+        }
+    }
+
+    /**
+     * Sifts every variable, from the ones with most nodes, to the level where the
+     * number of live nodes is the smallest.
+     */
+    public void reorder(int... args) {
+        gc(args);
+        countReferences(args);
+        List<Integer> order = new ArrayList<>();
+        for (int var = 0; var < varCount; var++) {
+            order.add(var);
+        }
+        final int[] sizes = uniqueCounts.clone();
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer v1, Integer v2) {
+                return Integer.compare(sizes[v2], sizes[v1]);
+            }
+        });
+        for (int var : order) {
+            sift(var);
+        }
+        counts = null;
+        gc(args);
+    }
+
+    private void sift(int var) {
+        int best = getLiveNodeCount();
+        int startLevel = var2level[var];
+        int bestLevel = startLevel;
+        int level = startLevel;
+        while (level < varCount - 1) {
+            swap(level++);
+            int size = getLiveNodeCount();
+            if (size < best) {
+                best = size;
+                bestLevel = level;
+            } else if (size > MAX_SIFT_GROWTH * best) {
+                break;
+            }
+        }
+        while (level > 0) {
+            swap(--level);
+            int size = getLiveNodeCount();
+            if (size < best) {
+                best = size;
+                bestLevel = level;
+            } else if ((level < startLevel) && (size > MAX_SIFT_GROWTH * best)) {
+                break;
+            }
+        }
+        while (level < bestLevel) {
+            swap(level++);
+        }
+    }
+
+}
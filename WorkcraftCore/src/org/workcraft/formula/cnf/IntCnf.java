@@ -0,0 +1,108 @@
+package org.workcraft.formula.cnf;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.Literal;
+
+/**
+ * CNF stored as DIMACS literals in one int array, every clause terminated by 0. The
+ * variables are numbered from 1 in the order of their first occurrence, and the table
+ * of variables by number is kept alongside the clauses.
+ */
+public class IntCnf {
+    private int[] literals = new int[1024];
+    private int size = 0;
+    private int clauseCount = 0;
+
+    private final HashMap<BooleanVariable, Integer> numbers = new HashMap<>();
+    private BooleanVariable[] variables = new BooleanVariable[64];
+    private int variableCount = 0;
+
+    public int getNumber(BooleanVariable variable) {
+        Integer number = numbers.get(variable);
+        if (number == null) {
+            number = ++variableCount;
+            numbers.put(variable, number);
+            if (variableCount == variables.length) {
+                variables = Arrays.copyOf(variables, variables.length * 2);
+            }
+            variables[variableCount] = variable;
+        }
+        return number;
+    }
+
+    public int getLiteral(Literal literal) {
+        int number = getNumber(literal.getVariable());
+        return literal.getNegation() ? -number : number;
+    }
+
+    public void add(CnfClause clause) {
+        List<Literal> clauseLiterals = clause.getLiterals();
+        ensureCapacity(size + clauseLiterals.size() + 1);
+        for (Literal literal : clauseLiterals) {
+            literals[size++] = getLiteral(literal);
+        }
+        literals[size++] = 0;
+        clauseCount++;
+    }
+
+    public void add(Cnf cnf) {
+        for (CnfClause clause : cnf.getClauses()) {
+            add(clause);
+        }
+    }
+
+    /**
+     * Adds a clause of DIMACS literals over the variables already numbered.
+     */
+    public void add(int... clause) {
+        ensureCapacity(size + clause.length + 1);
+        for (int literal : clause) {
+            if ((literal == 0) || (Math.abs(literal) > variableCount)) {
+                throw new IllegalArgumentException("Unknown variable in literal " + literal);
+            }
+            literals[size++] = literal;
+        }
+        literals[size++] = 0;
+        clauseCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > literals.length) {
+            literals = Arrays.copyOf(literals, Math.max(capacity, literals.length * 2));
+        }
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return the variable numbered by the given number, starting from 1.
+     */
+    public BooleanVariable getVariable(int number) {
+        if ((number < 1) || (number > variableCount)) {
+            throw new IndexOutOfBoundsException("No variable numbered " + number);
+        }
+        return variables[number];
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * @return the backing array of the clauses, valid up to {@link #getSize()}. It must not be modified.
+     */
+    public int[] getLiterals() {
+        return literals;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.workcraft.formula.sat;
+
+import org.workcraft.formula.Aig;
+import org.workcraft.formula.BooleanFormula;
+import org.workcraft.formula.cnf.IntCnf;
+import org.workcraft.formula.cnf.RawCnfGenerator;
+
+/**
+ * Builds the CNF of a formula from its And-Inverter Graph, so the shared and the
+ * constant subformulas are reduced before any clause is generated.
+ */
+public class AigCnfGenerator implements RawCnfGenerator<BooleanFormula> {
+
+    @Override
+    public CnfTask getCnf(BooleanFormula formula) {
+        Aig aig = new Aig();
+        IntCnf cnf = new IntCnf();
+        aig.assertLiteral(aig.literal(formula), cnf);
+        return new SimpleCnfTaskProvider().getCnf(cnf);
+    }
+
+}
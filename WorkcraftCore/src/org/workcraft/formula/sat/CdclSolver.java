@@ -0,0 +1,613 @@
+package org.workcraft.formula.sat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incremental CDCL SAT solver working on DIMACS literals: the variable v (v > 0) is
+ * the literal v and its negation is -v.
+ *
+ * The solver uses two watched literals, first-UIP clause learning with minimisation,
+ * VSIDS decisions with phase saving and Luby restarts. Clauses can be added between
+ * calls of {@link #solve(int...)}, and the learnt clauses are kept for the next calls.
+ * Assumptions are decided first, so an unsatisfiable answer under assumptions leaves
+ * the solver usable.
+ */
+public class CdclSolver {
+    private static final int RESTART_FIRST = 100;
+    private static final int MIN_LEARNTS = 1000;
+    private static final double VAR_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+
+    private static final byte UNDEF = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+
+    private static final class Clause {
+        private final int[] lits;
+        private final boolean learnt;
+        private double activity = 0.0;
+        private boolean deleted = false;
+
+        private Clause(int[] lits, boolean learnt) {
+            this.lits = lits;
+            this.learnt = learnt;
+        }
+    }
+
+    private static final class ClauseList {
+        private Clause[] data = new Clause[4];
+        private int size = 0;
+
+        void add(Clause clause) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, 2 * size);
+            }
+            data[size++] = clause;
+        }
+    }
+
+    private int varCount = 0;
+    private boolean ok = true;
+    private final List<Clause> clauses = new ArrayList<>();
+    private final List<Clause> learnts = new ArrayList<>();
+    private double maxLearnts = 0;
+    private double learntAdjustConflicts = 100;
+    private int learntAdjustCount = 100;
+
+    // Per literal (2 * var + sign)
+    private ClauseList[] watches = new ClauseList[2];
+    // Per variable
+    private byte[] assigns = new byte[1];
+    private int[] levels = new int[1];
+    private Clause[] reasons = new Clause[1];
+    private double[] activities = new double[1];
+    private boolean[] polarities = new boolean[1];
+    private boolean[] seen = new boolean[1];
+    private boolean[] model = new boolean[1];
+
+    private int[] trail = new int[1];
+    private int trailSize = 0;
+    private int qhead = 0;
+    private int[] trailLimits = new int[1];
+    private int decisionLevel = 0;
+
+    private double varIncrement = 1.0;
+    private double clauseIncrement = 1.0;
+    private long conflicts = 0;
+
+    // Binary max-heap of variables ordered by activity
+    private int[] heap = new int[1];
+    private int heapSize = 0;
+    private int[] heapIndices = new int[1];
+
+    public CdclSolver() {
+        watches[0] = new ClauseList();
+        watches[1] = new ClauseList();
+        heapIndices[0] = -1;
+    }
+
+    public int newVariable() {
+        ensureVariables(varCount + 1);
+        return varCount;
+    }
+
+    public int getVariableCount() {
+        return varCount;
+    }
+
+    public long getConflictCount() {
+        return conflicts;
+    }
+
+    public int getLearntCount() {
+        return learnts.size();
+    }
+
+    private void ensureVariables(int count) {
+        if (count <= varCount) {
+            return;
+        }
+        int capacity = count + 1;
+        if (capacity > assigns.length) {
+            int newCapacity = Math.max(capacity, 2 * assigns.length);
+            int oldLitCapacity = watches.length;
+            watches = Arrays.copyOf(watches, 2 * newCapacity);
+            for (int lit = oldLitCapacity; lit < watches.length; lit++) {
+                watches[lit] = new ClauseList();
+            }
+            assigns = Arrays.copyOf(assigns, newCapacity);
+            levels = Arrays.copyOf(levels, newCapacity);
+            reasons = Arrays.copyOf(reasons, newCapacity);
+            activities = Arrays.copyOf(activities, newCapacity);
+            polarities = Arrays.copyOf(polarities, newCapacity);
+            seen = Arrays.copyOf(seen, newCapacity);
+            model = Arrays.copyOf(model, newCapacity);
+            trail = Arrays.copyOf(trail, newCapacity);
+            trailLimits = Arrays.copyOf(trailLimits, newCapacity);
+            heap = Arrays.copyOf(heap, newCapacity);
+            int oldHeapCapacity = heapIndices.length;
+            heapIndices = Arrays.copyOf(heapIndices, newCapacity);
+            Arrays.fill(heapIndices, oldHeapCapacity, newCapacity, -1);
+        }
+        for (int v = varCount + 1; v <= count; v++) {
+            polarities[v] = true;
+            heapInsert(v);
+        }
+        varCount = count;
+    }
+
+    private static int toInternal(int literal) {
+        if (literal == 0) {
+            throw new IllegalArgumentException("Zero is not a literal.");
+        }
+        return (literal > 0) ? 2 * literal : -2 * literal + 1;
+    }
+
+    private static int var(int lit) {
+        return lit >> 1;
+    }
+
+    private byte value(int lit) {
+        byte result = assigns[lit >> 1];
+        return ((lit & 1) == 0) ? result : (byte) -result;
+    }
+
+    /**
+     * Adds a clause. Must not be called during {@link #solve(int...)}.
+     * @return false if the clauses are now known to be unsatisfiable.
+     */
+    public boolean addClause(int... literals) {
+        if (!ok) {
+            return false;
+        }
+        cancelUntil(0);
+        int maxVar = 0;
+        for (int literal : literals) {
+            maxVar = Math.max(maxVar, Math.abs(literal));
+        }
+        ensureVariables(maxVar);
+        int[] lits = new int[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            lits[i] = toInternal(literals[i]);
+        }
+        Arrays.sort(lits);
+        int size = 0;
+        int previous = -1;
+        for (int lit : lits) {
+            byte value = value(lit);
+            if ((value == TRUE) || (lit == (previous ^ 1))) {
+                // Satisfied at the top level or a tautology
+                return true;
+            }
+            if ((value != FALSE) && (lit != previous)) {
+                lits[size++] = lit;
+                previous = lit;
+            }
+        }
+        if (size == 0) {
+            ok = false;
+        } else if (size == 1) {
+            enqueue(lits[0], null);
+            ok = propagate() == null;
+        } else {
+            Clause clause = new Clause(Arrays.copyOf(lits, size), false);
+            clauses.add(clause);
+            attach(clause);
+        }
+        return ok;
+    }
+
+    private void attach(Clause clause) {
+        watches[clause.lits[0]].add(clause);
+        watches[clause.lits[1]].add(clause);
+    }
+
+    private void enqueue(int lit, Clause reason) {
+        int v = var(lit);
+        assigns[v] = ((lit & 1) == 0) ? TRUE : FALSE;
+        levels[v] = decisionLevel;
+        reasons[v] = reason;
+        trail[trailSize++] = lit;
+    }
+
+    private void newDecisionLevel() {
+        trailLimits[decisionLevel++] = trailSize;
+    }
+
+    private void cancelUntil(int level) {
+        if (decisionLevel > level) {
+            for (int i = trailSize - 1; i >= trailLimits[level]; i--) {
+                int v = var(trail[i]);
+                assigns[v] = UNDEF;
+                reasons[v] = null;
+                polarities[v] = (trail[i] & 1) != 0;
+                if (heapIndices[v] < 0) {
+                    heapInsert(v);
+                }
+            }
+            trailSize = trailLimits[level];
+            qhead = trailSize;
+            decisionLevel = level;
+        }
+    }
+
+    /**
+     * @return the conflicting clause, or null if there is no conflict.
+     */
+    private Clause propagate() {
+        while (qhead < trailSize) {
+            int falseLit = trail[qhead++] ^ 1;
+            ClauseList list = watches[falseLit];
+            Clause[] data = list.data;
+            int size = list.size;
+            int i = 0;
+            int j = 0;
+            while (i < size) {
+                Clause clause = data[i++];
+                if (clause.deleted) {
+                    continue;
+                }
+                int[] lits = clause.lits;
+                if (lits[0] == falseLit) {
+                    lits[0] = lits[1];
+                    lits[1] = falseLit;
+                }
+                if (value(lits[0]) == TRUE) {
+                    data[j++] = clause;
+                    continue;
+                }
+                boolean found = false;
+                for (int k = 2; k < lits.length; k++) {
+                    if (value(lits[k]) != FALSE) {
+                        lits[1] = lits[k];
+                        lits[k] = falseLit;
+                        watches[lits[1]].add(clause);
+                        found = true;
+                        break;
+                    }
+                }
+                if (found) {
+                    continue;
+                }
+                data[j++] = clause;
+                if (value(lits[0]) == FALSE) {
+                    while (i < size) {
+                        data[j++] = data[i++];
+                    }
+                    list.size = j;
+                    qhead = trailSize;
+                    return clause;
+                }
+                enqueue(lits[0], clause);
+            }
+            Arrays.fill(data, j, size, null);
+            list.size = j;
+        }
+        return null;
+    }
+
+    /**
+     * First-UIP conflict analysis. The asserting literal goes first in the learnt clause
+     * and a literal of the backtrack level second.
+     */
+    private int[] analyze(Clause conflict) {
+        List<Integer> learnt = new ArrayList<>();
+        learnt.add(0);
+        int pathCount = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        Clause clause = conflict;
+        do {
+            if (clause.learnt) {
+                bumpClause(clause);
+            }
+            for (int j = (p < 0) ? 0 : 1; j < clause.lits.length; j++) {
+                int q = clause.lits[j];
+                int v = var(q);
+                if (!seen[v] && (levels[v] > 0)) {
+                    bumpVariable(v);
+                    seen[v] = true;
+                    if (levels[v] >= decisionLevel) {
+                        pathCount++;
+                    } else {
+                        learnt.add(q);
+                    }
+                }
+            }
+            while (!seen[var(trail[index])]) {
+                index--;
+            }
+            p = trail[index--];
+            clause = reasons[var(p)];
+            seen[var(p)] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.set(0, p ^ 1);
+
+        // Drop literals implied by the other literals of the clause
+        int[] result = new int[learnt.size()];
+        int size = 0;
+        result[size++] = learnt.get(0);
+        for (int i = 1; i < learnt.size(); i++) {
+            int q = learnt.get(i);
+            if (!isRedundant(q)) {
+                result[size++] = q;
+            }
+        }
+        for (int i = 1; i < learnt.size(); i++) {
+            seen[var(learnt.get(i))] = false;
+        }
+        result = Arrays.copyOf(result, size);
+
+        if (result.length > 1) {
+            int maxIndex = 1;
+            for (int i = 2; i < result.length; i++) {
+                if (levels[var(result[i])] > levels[var(result[maxIndex])]) {
+                    maxIndex = i;
+                }
+            }
+            int tmp = result[1];
+            result[1] = result[maxIndex];
+            result[maxIndex] = tmp;
+        }
+        return result;
+    }
+
+    private boolean isRedundant(int lit) {
+        Clause reason = reasons[var(lit)];
+        if (reason == null) {
+            return false;
+        }
+        for (int k = 1; k < reason.lits.length; k++) {
+            int v = var(reason.lits[k]);
+            if (!seen[v] && (levels[v] > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void bumpVariable(int v) {
+        activities[v] += varIncrement;
+        if (activities[v] > 1e100) {
+            for (int u = 1; u <= varCount; u++) {
+                activities[u] *= 1e-100;
+            }
+            varIncrement *= 1e-100;
+        }
+        if (heapIndices[v] >= 0) {
+            heapUp(heapIndices[v]);
+        }
+    }
+
+    private void bumpClause(Clause clause) {
+        clause.activity += clauseIncrement;
+        if (clause.activity > 1e20) {
+            for (Clause learnt : learnts) {
+                learnt.activity *= 1e-20;
+            }
+            clauseIncrement *= 1e-20;
+        }
+    }
+
+    private boolean isLocked(Clause clause) {
+        int v = var(clause.lits[0]);
+        return (reasons[v] == clause) && (value(clause.lits[0]) == TRUE);
+    }
+
+    /**
+     * Removes the less active half of the learnt clauses, except binary and reason clauses.
+     * The watches of removed clauses are dropped lazily during propagation.
+     */
+    private void reduceLearnts() {
+        Collections.sort(learnts, new Comparator<Clause>() {
+            @Override
+            public int compare(Clause c1, Clause c2) {
+                return Double.compare(c1.activity, c2.activity);
+            }
+        });
+        int half = learnts.size() / 2;
+        List<Clause> kept = new ArrayList<>();
+        for (int i = 0; i < learnts.size(); i++) {
+            Clause clause = learnts.get(i);
+            if ((i < half) && (clause.lits.length > 2) && !isLocked(clause)) {
+                clause.deleted = true;
+            } else {
+                kept.add(clause);
+            }
+        }
+        learnts.clear();
+        learnts.addAll(kept);
+    }
+
+    private int pickBranchLiteral() {
+        while (heapSize > 0) {
+            int v = heapRemoveMax();
+            if (assigns[v] == UNDEF) {
+                return polarities[v] ? 2 * v + 1 : 2 * v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return TRUE, FALSE, or UNDEF if the conflict limit of the restart is reached.
+     */
+    private byte search(int conflictLimit, int[] assumptions) {
+        int conflictCount = 0;
+        while (true) {
+            Clause conflict = propagate();
+            if (conflict != null) {
+                conflicts++;
+                conflictCount++;
+                if (decisionLevel == 0) {
+                    ok = false;
+                    return FALSE;
+                }
+                int[] learnt = analyze(conflict);
+                int backtrackLevel = (learnt.length == 1) ? 0 : levels[var(learnt[1])];
+                cancelUntil(backtrackLevel);
+                if (learnt.length == 1) {
+                    enqueue(learnt[0], null);
+                } else {
+                    Clause clause = new Clause(learnt, true);
+                    learnts.add(clause);
+                    attach(clause);
+                    bumpClause(clause);
+                    enqueue(learnt[0], clause);
+                }
+                varIncrement /= VAR_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+                // The learnt clause limit grows geometrically with the number of conflicts
+                if (--learntAdjustCount == 0) {
+                    learntAdjustConflicts *= 1.5;
+                    learntAdjustCount = (int) learntAdjustConflicts;
+                    maxLearnts *= 1.1;
+                }
+            } else {
+                if (conflictCount >= conflictLimit) {
+                    cancelUntil(0);
+                    return UNDEF;
+                }
+                if (learnts.size() - trailSize >= maxLearnts) {
+                    reduceLearnts();
+                }
+                int next = -1;
+                while (decisionLevel < assumptions.length) {
+                    int p = assumptions[decisionLevel];
+                    if (value(p) == TRUE) {
+                        newDecisionLevel();
+                    } else if (value(p) == FALSE) {
+                        return FALSE;
+                    } else {
+                        next = p;
+                        break;
+                    }
+                }
+                if (next < 0) {
+                    next = pickBranchLiteral();
+                    if (next < 0) {
+                        return TRUE;
+                    }
+                }
+                newDecisionLevel();
+                enqueue(next, null);
+            }
+        }
+    }
+
+    private static double luby(double y, int x) {
+        int size = 1;
+        int seq = 0;
+        while (size < x + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            seq--;
+            x = x % size;
+        }
+        return Math.pow(y, seq);
+    }
+
+    /**
+     * @return true if the clauses are satisfiable with all the assumed literals true.
+     * The model is then available from {@link #getValue(int)}.
+     */
+    public boolean solve(int... assumptions) {
+        if (!ok) {
+            return false;
+        }
+        int maxVar = 0;
+        int[] assumed = new int[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) {
+            maxVar = Math.max(maxVar, Math.abs(assumptions[i]));
+            assumed[i] = toInternal(assumptions[i]);
+        }
+        ensureVariables(maxVar);
+        cancelUntil(0);
+        // Every assumption takes a decision level, even if it is already implied
+        if (trailLimits.length < varCount + assumed.length + 1) {
+            trailLimits = Arrays.copyOf(trailLimits, varCount + assumed.length + 1);
+        }
+        maxLearnts = Math.max(maxLearnts, Math.max(MIN_LEARNTS, clauses.size() / 3.0));
+        byte status = UNDEF;
+        for (int restart = 0; status == UNDEF; restart++) {
+            status = search((int) (luby(2, restart) * RESTART_FIRST), assumed);
+        }
+        if (status == TRUE) {
+            for (int v = 1; v <= varCount; v++) {
+                model[v] = assigns[v] == TRUE;
+            }
+        }
+        cancelUntil(0);
+        return status == TRUE;
+    }
+
+    /**
+     * @return the value of the variable in the model found by the last successful {@link #solve(int...)}.
+     */
+    public boolean getValue(int variable) {
+        return model[variable];
+    }
+
+    private void heapInsert(int v) {
+        heapIndices[v] = heapSize;
+        heap[heapSize++] = v;
+        heapUp(heapSize - 1);
+    }
+
+    private int heapRemoveMax() {
+        int result = heap[0];
+        heapIndices[result] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapIndices[heap[0]] = 0;
+            heapDown(0);
+        }
+        return result;
+    }
+
+    private void heapUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (activities[heap[parent]] >= activities[v]) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heapIndices[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        heapIndices[v] = i;
+    }
+
+    private void heapDown(int i) {
+        int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if ((child + 1 < heapSize) && (activities[heap[child + 1]] > activities[heap[child]])) {
+                child++;
+            }
+            if (activities[heap[child]] <= activities[v]) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapIndices[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        heapIndices[v] = i;
+    }
+
+}
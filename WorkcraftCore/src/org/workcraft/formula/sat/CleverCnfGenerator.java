@@ -44,14 +44,14 @@ import org.workcraft.formula.Or;
 import org.workcraft.formula.RecursiveBooleanVisitor;
 import org.workcraft.formula.Xor;
 import org.workcraft.formula.Zero;
-import org.workcraft.formula.cnf.Cnf;
 import org.workcraft.formula.cnf.CnfClause;
+import org.workcraft.formula.cnf.IntCnf;
 import org.workcraft.formula.cnf.RawCnfGenerator;
 //import org.workcraft.formula.sat.CnfTask;
 import org.workcraft.formula.utils.FormulaToString;
 
 public class CleverCnfGenerator implements RawCnfGenerator<BooleanFormula>, BooleanVisitor<Literal> {
-    Cnf result = new Cnf();
+    IntCnf result = new IntCnf();
 
     private static final class Void {
         private Void() { }
@@ -61,9 +61,9 @@ public class CleverCnfGenerator implements RawCnfGenerator<BooleanFormula>, Bool
         private static boolean cleverOptimiseAnd = true;
 
         private final BooleanVisitor<Literal> dumbGenerator;
-        private final Cnf result;
+        private final IntCnf result;
 
-        ConstantExpectingCnfGenerator(Cnf result, BooleanVisitor<Literal> dumbGenerator) {
+        ConstantExpectingCnfGenerator(IntCnf result, BooleanVisitor<Literal> dumbGenerator) {
             this.result = result;
             this.dumbGenerator = dumbGenerator;
         }
@@ -221,8 +221,7 @@ public class CleverCnfGenerator implements RawCnfGenerator<BooleanFormula>, Bool
 
     public CnfTask getCnf(BooleanFormula formula) {
 
-        Cnf cnf = generateCnf(formula);
-        return new SimpleCnfTaskProvider().getCnf(cnf);
+        return new SimpleCnfTaskProvider().getCnf(generateCnf(formula));
     }
 
     class FormulaCounter extends RecursiveBooleanVisitor<Object> {
@@ -263,7 +262,7 @@ public class CleverCnfGenerator implements RawCnfGenerator<BooleanFormula>, Bool
         }
     }
 
-    public Cnf generateCnf(BooleanFormula formula) {
+    public IntCnf generateCnf(BooleanFormula formula) {
         //FormulaCounter counter = new FormulaCounter();
         //formula.accept(counter);
         //System.out.println("total visits: " + counter.getCount());
@@ -20,22 +20,31 @@
 */
 package org.workcraft.formula.sat;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.cnf.IntCnf;
 
 public class CnfTask {
-    private final String body;
-    private final Map<String, BooleanVariable> vars;
+    private final IntCnf cnf;
+    private final Map<String, BooleanVariable> vars = new HashMap<>();
 
-    public CnfTask(String body, Map<String, BooleanVariable> vars) {
-        this.body = body;
-        this.vars = vars;
+    public CnfTask(IntCnf cnf) {
+        this.cnf = cnf;
+        for (int number = 1; number <= cnf.getVariableCount(); number++) {
+            BooleanVariable variable = cnf.getVariable(number);
+            String label = variable.getLabel();
+            if (!label.isEmpty()) {
+                vars.put(label, variable);
+            }
+        }
     }
 
-    public String getBody() {
-        return body;
+    public IntCnf getCnf() {
+        return cnf;
     }
+
     public Map<String, BooleanVariable> getVars() {
         return vars;
     }
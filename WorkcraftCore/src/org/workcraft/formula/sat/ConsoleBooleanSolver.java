@@ -21,25 +21,41 @@
 package org.workcraft.formula.sat;
 
 import org.workcraft.formula.BooleanSolution;
+import org.workcraft.formula.cnf.IntCnf;
 import org.workcraft.plugins.shared.CommonSatSettings;
 
 public class ConsoleBooleanSolver {
 
     public BooleanSolution solve(CnfTask task) {
-        String cnf = task.getBody();
-        String solution = solve(cnf);
-
-        return SolutionReader.readSolution(task, solution);
-    }
-
-    private String solve(String cnf) {
         switch (CommonSatSettings.getSatSolver()) {
         case CLASP:
-            return ProcessIO.runViaStreams(cnf, new String[]{CommonSatSettings.getClaspCommand()});
+            return ProcessIO.runViaStreams(task, new String[]{CommonSatSettings.getClaspCommand()});
         case MINISAT:
-            return ProcessIO.minisat(CommonSatSettings.getMinisatCommand(), cnf);
+            return ProcessIO.minisat(CommonSatSettings.getMinisatCommand(), task);
+        case BUILTIN:
+            return solveBuiltin(task);
         default :
             throw new RuntimeException("Unknown SAT Solver: " + CommonSatSettings.getSatSolver());
         }
     }
+
+    private BooleanSolution solveBuiltin(CnfTask task) {
+        IntCnf cnf = task.getCnf();
+        CdclSolver solver = new CdclSolver();
+        int[] literals = cnf.getLiterals();
+        boolean sat = true;
+        int start = 0;
+        for (int i = 0; i < cnf.getSize(); i++) {
+            if (literals[i] == 0) {
+                int[] clause = new int[i - start];
+                System.arraycopy(literals, start, clause, 0, clause.length);
+                sat &= solver.addClause(clause);
+                start = i + 1;
+            }
+        }
+        if (!sat || !solver.solve()) {
+            return null;
+        }
+        return SolutionReader.readSolution(task, solver);
+    }
 }
@@ -0,0 +1,105 @@
+package org.workcraft.formula.sat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.workcraft.formula.cnf.IntCnf;
+
+/**
+ * Streams the clauses of a CNF in the DIMACS format, preceded by the "c <number> <label>"
+ * comments for the labelled variables. The numbers are formatted straight into a byte
+ * buffer, so no text of the whole CNF is ever built.
+ */
+public class DimacsWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+
+    public DimacsWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public static void write(IntCnf cnf, OutputStream out) throws IOException {
+        DimacsWriter writer = new DimacsWriter(out);
+        writer.write(cnf);
+        writer.flush();
+    }
+
+    public void write(IntCnf cnf) throws IOException {
+        for (int number = 1; number <= cnf.getVariableCount(); number++) {
+            String label = cnf.getVariable(number).getLabel();
+            if (!label.isEmpty()) {
+                writeBytes("c ".getBytes(UTF8));
+                writeInt(number);
+                writeByte(' ');
+                writeBytes(label.getBytes(UTF8));
+                writeByte('\n');
+            }
+        }
+        writeBytes("p cnf ".getBytes(UTF8));
+        writeInt(cnf.getVariableCount());
+        writeByte(' ');
+        writeInt(cnf.getClauseCount());
+        writeByte('\n');
+
+        int[] literals = cnf.getLiterals();
+        for (int i = 0; i < cnf.getSize(); i++) {
+            writeInt(literals[i]);
+            writeByte((literals[i] == 0) ? '\n' : ' ');
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (position + 12 > buffer.length) {
+            drain();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    private void writeByte(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (position + bytes.length > buffer.length) {
+            drain();
+        }
+        if (bytes.length > buffer.length) {
+            out.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+}
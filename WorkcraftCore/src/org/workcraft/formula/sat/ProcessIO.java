@@ -20,49 +20,61 @@
 */
 package org.workcraft.formula.sat;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.workcraft.formula.BooleanSolution;
 
 public class ProcessIO {
-    public static String runViaStreams(String input, String[] process) {
-        Process limboole;
+    /**
+     * Pipes the task to the solver and reads its answer from the standard output.
+     */
+    public static BooleanSolution runViaStreams(final CnfTask task, String[] process) {
         try {
-            writeFile(input, File.createTempFile("stream", "in"));
-
-            limboole = Runtime.getRuntime().exec(process);
-
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(limboole.getOutputStream()));
-            writer.write(input);
-            writer.close();
-            BufferedReader reader = new BufferedReader(new InputStreamReader(limboole.getInputStream()));
-            String line;
-            StringBuilder result = new StringBuilder();
-            while ((line = reader.readLine()) != null) {
-                result.append(line + "\n");
+            final Process solver = Runtime.getRuntime().exec(process);
+            // The input is written by another thread, so a solver that answers early cannot block on its output
+            Thread writer = new Thread("SAT solver input") {
+                @Override
+                public void run() {
+                    OutputStream os = solver.getOutputStream();
+                    try {
+                        DimacsWriter.write(task.getCnf(), os);
+                        os.close();
+                    } catch (IOException e) {
+                        // The solver has stopped reading, its output tells why
+                    }
+                }
+            };
+            writer.start();
+            InputStream is = solver.getInputStream();
+            try {
+                return SolutionReader.readSolution(task, is);
+            } finally {
+                is.close();
+                writer.join();
             }
-
-            String output = result.toString();
-            writeFile(output, File.createTempFile("stream", "out"));
-            return output;
-        } catch (IOException e) {
+        } catch (IOException | InterruptedException e) {
             throw new RuntimeException(e);
         }
     }
 
-    static String minisat(String minisatPath, String input) {
-        String result;
+    static BooleanSolution minisat(String minisatPath, CnfTask task) {
+        File inputFile = null;
+        File outputFile = null;
         try {
-            File inputFile = File.createTempFile("minisat", ".in");
-            File outputFile = File.createTempFile("minisat", ".out");
+            inputFile = File.createTempFile("minisat", ".in");
+            outputFile = File.createTempFile("minisat", ".out");
 
-            writeFile(input, inputFile);
+            OutputStream os = new FileOutputStream(inputFile);
+            try {
+                DimacsWriter.write(task.getCnf(), os);
+            } finally {
+                os.close();
+            }
 
             Process minisat = Runtime.getRuntime().exec(new String[]{minisatPath, inputFile.getAbsolutePath(), outputFile.getAbsolutePath()});
             minisat.getOutputStream().close();
@@ -73,40 +85,24 @@ public class ProcessIO {
                 }
             }
             minisat.getInputStream().close();
+            minisat.waitFor();
+
+            InputStream is = new FileInputStream(outputFile);
             try {
-                minisat.waitFor();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+                return SolutionReader.readSolution(task, is);
+            } finally {
+                is.close();
             }
-
-            result = readFile(outputFile);
-        } catch (IOException e) {
+        } catch (IOException | InterruptedException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (inputFile != null) {
+                inputFile.delete();
+            }
+            if (outputFile != null) {
+                outputFile.delete();
+            }
         }
-        return result.toString();
-    }
-
-    public static String readFile(File file)
-            throws FileNotFoundException, IOException {
-        String result;
-        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
-
-        StringBuilder sb = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            sb.append(line + "\n");
-        }
-
-        reader.close();
-        result = sb.toString();
-        return result;
-    }
-
-    private static void writeFile(String text, File file)
-            throws FileNotFoundException, IOException {
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file)));
-        writer.write(text);
-        writer.close();
     }
 
 }
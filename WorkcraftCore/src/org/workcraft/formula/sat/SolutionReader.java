@@ -20,42 +20,21 @@
 */
 package org.workcraft.formula.sat;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.util.ArrayList;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.workcraft.formula.BooleanSolution;
 import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.cnf.IntCnf;
 
 public class SolutionReader {
-    private static Map<Integer, String> extractCnfMapping(String cnf) {
-        HashMap<Integer, String> map = new HashMap<>();
-
-        BufferedReader reader = new BufferedReader(new StringReader(cnf));
-        while (true) {
-            String line;
-            try {
-                line = reader.readLine();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            if (line == null) {
-                break;
-            }
-
-            if (line.charAt(0) == 'c') {
-                String[] split = line.split(" ");
-                map.put(Integer.parseInt(split[1]), split[2]);
-            }
-        }
-
-        return map;
-    }
+    private static final byte UNKNOWN = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
 
     private static final class BooleanSolutionImplementation implements BooleanSolution {
         private final Map<BooleanVariable, Boolean> results;
@@ -79,95 +58,132 @@ public class SolutionReader {
         }
     }
 
-    public static BooleanSolution readSolution(CnfTask task, String solution) {
-        Map<String, BooleanVariable> vars = task.getVars();
-
-        Map<Integer, String> cnfToOriginal = extractCnfMapping(task.getBody());
-
-        List<Integer> numbers = extractNumbers(solution);
-        if (numbers == null) {
-            return null;
+    /**
+     * Splits the solver output into whitespace separated tokens and tells which of them start a line.
+     */
+    private static final class TokenReader {
+        private final InputStream in;
+        private final StringBuilder token = new StringBuilder();
+        private boolean firstOnLine = true;
+        private int next;
+
+        private TokenReader(InputStream in) throws IOException {
+            this.in = new BufferedInputStream(in);
+            next = this.in.read();
         }
 
-        final Map<BooleanVariable, Boolean> results = new HashMap<>();
-        for (int i = 0; i < numbers.size(); i++) {
-            int cnfIndex = numbers.get(i);
-            boolean value = cnfIndex >= 0;
-            if (!value) {
-                cnfIndex = -cnfIndex;
+        private String next() throws IOException {
+            boolean newLine = false;
+            while (next >= 0 && Character.isWhitespace(next)) {
+                newLine |= next == '\n';
+                next = in.read();
             }
-            String varName = cnfToOriginal.get(cnfIndex);
-            if (varName != null) {
-                if (varName.equals("0")) {
-                    if (value) {
-                        throw new RuntimeException("0");
-                    }
-                } else if (varName.equals("1")) {
-                    if (!value) {
-                        throw new RuntimeException("!1");
-                    }
-                } else {
-                    BooleanVariable var = vars.get(varName);
-                    if (var == null) {
-                        throw new RuntimeException("No variable for solution:" + varName);
-                    }
-                    results.put(var, value);
-                }
+            if (next < 0) {
+                return null;
+            }
+            if (newLine) {
+                firstOnLine = true;
             }
+            token.setLength(0);
+            while (next >= 0 && !Character.isWhitespace(next)) {
+                token.append((char) next);
+                next = in.read();
+            }
+            return token.toString();
         }
 
-        return new BooleanSolutionImplementation(results);
+        private boolean isFirstOnLine() {
+            boolean result = firstOnLine;
+            firstOnLine = false;
+            return result;
+        }
     }
 
-    private static List<Integer> extractNumbers(String solution) {
-        String[] split = solution.split("\n");
-
-        if (split[0].equals("UNSAT")) {
-            return null;
-        }
-        if (split[0].equals("SAT")) { //MPSAT file
-            if (split.length != 2) {
-                throw new RuntimeException("Minisat output is more than 2 lines.");
-            }
-            return parseIntArray(split[1].split(" "));
-        } else { //clasp file
-            boolean sat = false;
-            for (int i = 0; i < split.length; i++) {
-                if (split[i].equals("s UNSATISFIABLE")) {
+    /**
+     * Reads the output of MiniSat or Clasp as it is produced.
+     * @return the solution, or null if the task is unsatisfiable.
+     */
+    public static BooleanSolution readSolution(CnfTask task, InputStream in) throws IOException {
+        byte[] values = new byte[task.getCnf().getVariableCount() + 1];
+        TokenReader reader = new TokenReader(in);
+        boolean satisfiable = false;
+        boolean minisat = false;
+        boolean model = false;
+        String token;
+        while ((token = reader.next()) != null) {
+            if (reader.isFirstOnLine()) {
+                model = minisat;
+                if (token.equals("UNSAT")) {
                     return null;
+                } else if (token.equals("SAT")) {
+                    // MiniSat output file: the model follows on the next line
+                    satisfiable = true;
+                    minisat = true;
+                    continue;
+                } else if (token.equals("s")) {
+                    String status = reader.next();
+                    if ("UNSATISFIABLE".equals(status)) {
+                        return null;
+                    }
+                    satisfiable |= "SATISFIABLE".equals(status);
+                    continue;
+                } else if (token.equals("v")) {
+                    model = true;
+                    continue;
                 }
-                if (split[i].equals("s SATISFIABLE")) {
-                    sat = true;
-                    break;
-                }
-            }
-
-            if (!sat) {
-                throw new RuntimeException("no information on satisfiability found");
             }
-
-            List<Integer> result = new ArrayList<>();
-            for (int i = 1; i < split.length; i++) {
-                if (split[i].length() > 0 && split[i].charAt(0) == 'v') {
-                    String[] nums = split[i].split(" ");
-
-                    for (int j = 1; j < nums.length; j++) {
-                        result.add(Integer.parseInt(nums[j]));
-                    }
+            if (model) {
+                int literal = Integer.parseInt(token);
+                int number = Math.abs(literal);
+                if ((number > 0) && (number < values.length)) {
+                    values[number] = (literal > 0) ? TRUE : FALSE;
                 }
             }
-            return result;
         }
+        if (!satisfiable) {
+            throw new RuntimeException("no information on satisfiability found");
+        }
+        return createSolution(task, values);
     }
 
-    private static List<Integer> parseIntArray(String[] nums) {
-        List<Integer> result = new ArrayList<>();
-
-        for (int i = 0; i < nums.length; i++) {
-            result.add(Integer.parseInt(nums[i]));
+    /**
+     * Reads the model found by the built-in solver.
+     */
+    public static BooleanSolution readSolution(CnfTask task, CdclSolver solver) {
+        byte[] values = new byte[task.getCnf().getVariableCount() + 1];
+        for (int number = 1; number < values.length; number++) {
+            values[number] = solver.getValue(number) ? TRUE : FALSE;
         }
+        return createSolution(task, values);
+    }
 
-        return result;
+    private static BooleanSolution createSolution(CnfTask task, byte[] values) {
+        IntCnf cnf = task.getCnf();
+        Map<String, BooleanVariable> vars = task.getVars();
+        final Map<BooleanVariable, Boolean> results = new HashMap<>();
+        for (int number = 1; number < values.length; number++) {
+            String varName = cnf.getVariable(number).getLabel();
+            if ((values[number] == UNKNOWN) || varName.isEmpty()) {
+                continue;
+            }
+            boolean value = values[number] == TRUE;
+            if (varName.equals("0")) {
+                if (value) {
+                    throw new RuntimeException("0");
+                }
+            } else if (varName.equals("1")) {
+                if (!value) {
+                    throw new RuntimeException("!1");
+                }
+            } else {
+                BooleanVariable var = vars.get(varName);
+                if (var == null) {
+                    throw new RuntimeException("No variable for solution:" + varName);
+                }
+                results.put(var, value);
+            }
+        }
+        return new BooleanSolutionImplementation(results);
     }
 
 }
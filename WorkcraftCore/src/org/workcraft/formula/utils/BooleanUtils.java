@@ -2,8 +2,11 @@ package org.workcraft.formula.utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
+import org.workcraft.formula.Aig;
+import org.workcraft.formula.AigBooleanWorker;
 import org.workcraft.formula.BooleanFormula;
 import org.workcraft.formula.BooleanVariable;
 import org.workcraft.formula.BooleanWorker;
@@ -11,6 +14,7 @@ import org.workcraft.formula.CleverBooleanWorker;
 import org.workcraft.formula.DumbBooleanWorker;
 import org.workcraft.formula.MemoryConservingBooleanWorker;
 import org.workcraft.formula.PrettifyBooleanWorker;
+import org.workcraft.formula.bdd.Bdd;
 
 public class BooleanUtils {
 
@@ -80,4 +84,41 @@ public class BooleanUtils {
         return result;
     }
 
+    /**
+     * Substitutes the variables in an And-Inverter Graph, which reduces the result to a
+     * constant whenever it is constant by structure.
+     */
+    public static BooleanFormula aigReplace(BooleanFormula formula,
+            List<? extends BooleanVariable> params, List<? extends BooleanFormula> values) {
+        BooleanFormula result = null;
+        if (formula != null) {
+            if (params.size() != values.size()) {
+                throw new RuntimeException("Length of the variable list must be equal to that of formula list.");
+            }
+            AigBooleanWorker worker = new AigBooleanWorker();
+            Aig aig = worker.getAig();
+            HashMap<BooleanVariable, Integer> substitution = new HashMap<>();
+            for (int i = 0; i < params.size(); i++) {
+                substitution.put(params.get(i), worker.getLiteral(values.get(i)));
+            }
+            result = worker.getFormula(aig.compose(worker.getLiteral(formula), substitution));
+        }
+        return result;
+    }
+
+    public static BooleanFormula aigReplace(BooleanFormula formula, BooleanVariable param, BooleanFormula value) {
+        return aigReplace(formula, Arrays.asList(param), Arrays.asList(value));
+    }
+
+    /**
+     * Compares the functions of the formulas by their BDDs.
+     */
+    public static boolean isEquivalent(BooleanFormula formula1, BooleanFormula formula2) {
+        Bdd bdd = new Bdd();
+        HashMap<BooleanVariable, Integer> variables = new HashMap<>();
+        int bdd1 = bdd.ref(bdd.build(formula1, variables));
+        int bdd2 = bdd.build(formula2, variables);
+        return bdd1 == bdd2;
+    }
+
 }
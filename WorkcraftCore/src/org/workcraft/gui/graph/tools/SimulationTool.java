@@ -336,26 +336,11 @@ public abstract class SimulationTool extends AbstractTool implements ClipboardOw
                 int row = traceTable.getSelectedRow();
                 if (column == 0) {
                     if (row < mainTrace.size()) {
-                        boolean work = true;
-                        while (work && (branchTrace.getPosition() > 0)) {
-                            work = quietStepBack();
-                        }
-                        while (work && (mainTrace.getPosition() > row)) {
-                            work = quietStepBack();
-                        }
-                        while (work && (mainTrace.getPosition() < row)) {
-                            work = quietStep();
-                        }
+                        quietSeek(row, 0);
                     }
                 } else {
                     if ((row >= mainTrace.getPosition()) && (row < mainTrace.getPosition() + branchTrace.size())) {
-                        boolean work = true;
-                        while (work && (mainTrace.getPosition() + branchTrace.getPosition() > row)) {
-                            work = quietStepBack();
-                        }
-                        while (work && (mainTrace.getPosition() + branchTrace.getPosition() < row)) {
-                            work = quietStep();
-                        }
+                        quietSeek(mainTrace.getPosition(), row - mainTrace.getPosition());
                     }
                 }
                 updateState(editor);
@@ -519,6 +504,29 @@ public abstract class SimulationTool extends AbstractTool implements ClipboardOw
         return result;
     }
 
+    /**
+     * Moves to the positions in the main and the branch traces without updating the view.
+     * The branch is left first, and it is cleared if left completely, as in stepping back.
+     * @return false if a step on the way could not be made.
+     */
+    protected boolean quietSeek(int mainPosition, int branchPosition) {
+        boolean work = true;
+        while (work && (branchTrace.getPosition() > 0)
+                && ((branchTrace.getPosition() > branchPosition) || (mainTrace.getPosition() != mainPosition))) {
+            work = quietStepBack();
+        }
+        while (work && (mainTrace.getPosition() > mainPosition)) {
+            work = quietStepBack();
+        }
+        while (work && (mainTrace.getPosition() < mainPosition)) {
+            work = quietStep();
+        }
+        while (work && (branchTrace.getPosition() < branchPosition)) {
+            work = quietStep();
+        }
+        return work;
+    }
+
     private boolean step(final GraphEditor editor) {
         boolean ret = quietStep();
         updateState(editor);
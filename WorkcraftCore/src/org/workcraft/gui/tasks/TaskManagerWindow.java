@@ -46,6 +46,7 @@ import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Result.Outcome;
 import org.workcraft.tasks.Task;
+import org.workcraft.tasks.TaskMetrics;
 import org.workcraft.tasks.TaskMonitor;
 
 @SuppressWarnings("serial")
@@ -232,4 +233,9 @@ public class TaskManagerWindow extends JPanel implements TaskMonitor {
         }
         return new TaskControlMonitor(this, tcg.getTaskCotnrol());
     }
+
+    @Override
+    public void taskFinished(TaskMetrics metrics) {
+        // Task controls are removed by their monitors.
+    }
 }
@@ -30,10 +30,11 @@ import java.nio.channels.WritableByteChannel;
 import java.util.LinkedList;
 
 public class ExternalProcess {
+    private static final int BUFFER_SIZE = 16384;
 
     abstract static class StreamReaderThread extends Thread {
         private final ReadableByteChannel channel;
-        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
 
         StreamReaderThread(ReadableByteChannel channel) {
             this.channel = channel;
@@ -109,7 +110,7 @@ public class ExternalProcess {
 
     private final ProcessBuilder processBuilder;
     private Process process = null;
-    private boolean finished = false;
+    private volatile boolean finished = false;
 
     private ReadableByteChannel inputStream = null;
     private ReadableByteChannel errorStream = null;
@@ -0,0 +1,57 @@
+package org.workcraft.interop;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Splits the standard output of an external process into lines as the data arrives, so that
+ * the output can be parsed while the process is still running and without keeping all of it.
+ * The bytes are decoded as ISO-8859-1, the line terminator is '\n' and it is not included in
+ * the line. The standard error is ignored unless {@link #errorData(byte[])} is overridden.
+ */
+public abstract class LineOutputListener implements ExternalProcessListener {
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    public abstract void outputLine(String line);
+
+    public void outputFinished(int returnCode) {
+    }
+
+    @Override
+    public void outputData(byte[] data) {
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                String line;
+                if (pending.size() > 0) {
+                    pending.write(data, start, i - start);
+                    line = new String(pending.toByteArray(), LATIN1);
+                    pending.reset();
+                } else {
+                    line = new String(data, start, i - start, LATIN1);
+                }
+                outputLine(line);
+                start = i + 1;
+            }
+        }
+        if (start < data.length) {
+            pending.write(data, start, data.length - start);
+        }
+    }
+
+    @Override
+    public void errorData(byte[] data) {
+    }
+
+    @Override
+    public void processFinished(int returnCode) {
+        if (pending.size() > 0) {
+            outputLine(new String(pending.toByteArray(), LATIN1));
+            pending.reset();
+        }
+        outputFinished(returnCode);
+    }
+
+}
@@ -23,6 +23,8 @@ package org.workcraft.interop;
 
 import java.io.IOException;
 import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class SynchronousExternalProcess {
     class SynchronousListener implements ExternalProcessListener {
@@ -41,12 +43,12 @@ public class SynchronousExternalProcess {
         @Override
         public void processFinished(int returnCode) {
             SynchronousExternalProcess.this.returnCode = returnCode;
-            finished = true;
+            finished.countDown();
         }
     }
 
-    private int returnCode;
-    private boolean finished = false;
+    private volatile int returnCode;
+    private CountDownLatch finished;
     private final ExternalProcess process;
 
     private final LinkedList<byte[]> errorData = new LinkedList<>();
@@ -64,24 +66,19 @@ public class SynchronousExternalProcess {
     public boolean start(long timeout, byte[] input) throws IOException {
         errorData.clear();
         outputData.clear();
-        finished = false;
+        finished = new CountDownLatch(1);
         returnCode = -1;
 
-        long endTime = System.currentTimeMillis() + timeout;
-
         process.start();
         process.writeData(input);
         process.closeInput();
 
-        while (System.currentTimeMillis() < endTime) {
-            if (finished) {
+        try {
+            if (finished.await(timeout, TimeUnit.MILLISECONDS)) {
                 return true;
             }
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-                return false;
-            }
+        } catch (InterruptedException e) {
+            return false;
         }
 
         process.cancel();
@@ -0,0 +1,151 @@
+package org.workcraft.observation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.workcraft.dom.Node;
+import org.workcraft.util.Hierarchy;
+
+/**
+ * Defers the post-modification hierarchy events (nodes added, deleted and
+ * reparented) sent within the hierarchy of a root node and coalesces runs of
+ * similar events into single bulk events, which are delivered when the
+ * outermost batch for that root is closed. Pre-modification events (adding,
+ * deleting, reparenting) are still delivered immediately, as observers such
+ * as hanging connection removers must react before the hierarchy changes.
+ *
+ * Observers implementing ImmediateHierarchyObserver (node context, type index
+ * and reference managers) are always notified immediately, because other
+ * observers query them while the hierarchy is being modified. The rest of the
+ * observers see the modifications only at the end of the batch.
+ */
+public final class HierarchyBatch implements AutoCloseable {
+    private static final ConcurrentHashMap<Node, HierarchyBatch> batches = new ConcurrentHashMap<>();
+
+    private final Node root;
+    private final LinkedList<Notification> notifications = new LinkedList<>();
+    private int depth = 0;
+
+    private HierarchyBatch(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Starts a batch for the hierarchy of the given root node. Nested calls for
+     * the same root join the already active batch.
+     */
+    public static HierarchyBatch begin(Node root) {
+        synchronized (batches) {
+            HierarchyBatch batch = batches.get(root);
+            if (batch == null) {
+                batch = new HierarchyBatch(root);
+                batches.put(root, batch);
+            }
+            batch.depth++;
+            return batch;
+        }
+    }
+
+    /**
+     * Ends the active batch for the given root node, if any.
+     */
+    public static void end(Node root) {
+        HierarchyBatch batch = batches.get(root);
+        if (batch != null) {
+            batch.close();
+        }
+    }
+
+    public static boolean isActive(Node root) {
+        return batches.containsKey(root);
+    }
+
+    @Override
+    public void close() {
+        synchronized (batches) {
+            if (depth == 0) {
+                return;
+            }
+            depth--;
+            if (depth > 0) {
+                return;
+            }
+            batches.remove(root);
+        }
+        flush();
+    }
+
+    private void flush() {
+        while (!notifications.isEmpty()) {
+            Notification notification = notifications.removeFirst();
+            for (HierarchyObserver observer : notification.observers) {
+                observer.notify(notification.event);
+            }
+        }
+    }
+
+    /**
+     * @return the active batch for the hierarchy of the event sender if the event
+     * is deferrable, or null if the event has to be delivered immediately.
+     */
+    static HierarchyBatch find(HierarchyEvent e) {
+        if (batches.isEmpty() || !isDeferrable(e) || !(e.getSender() instanceof Node)) {
+            return null;
+        }
+        return batches.get(Hierarchy.getTopParent((Node) e.getSender()));
+    }
+
+    private static boolean isDeferrable(HierarchyEvent e) {
+        return (e instanceof NodesAddedEvent) || (e instanceof NodesDeletedEvent) || (e instanceof NodesReparentedEvent);
+    }
+
+    synchronized void enqueue(ArrayList<HierarchyObserver> observers, HierarchyEvent e) {
+        Notification last = notifications.peekLast();
+        if ((last != null) && last.observers.equals(observers) && last.canMerge(e)) {
+            last.merge(e);
+        } else {
+            notifications.add(new Notification(observers, e));
+        }
+    }
+
+    private static final class Notification {
+        private final ArrayList<HierarchyObserver> observers;
+        private final ArrayList<Node> affectedNodes;
+        private final HierarchyEvent event;
+
+        Notification(ArrayList<HierarchyObserver> observers, HierarchyEvent e) {
+            this.observers = observers;
+            // The affected nodes are copied, as the sender may reuse its collection.
+            this.affectedNodes = new ArrayList<>(e.getAffectedNodes());
+            this.event = createBulkEvent(e, affectedNodes);
+        }
+
+        boolean canMerge(HierarchyEvent e) {
+            if ((e.getClass() != event.getClass()) || (e.getSender() != event.getSender())) {
+                return false;
+            }
+            if (e instanceof NodesReparentedEvent) {
+                return ((NodesReparentedEvent) e).getOldParent() == ((NodesReparentedEvent) event).getOldParent();
+            }
+            return true;
+        }
+
+        void merge(HierarchyEvent e) {
+            affectedNodes.addAll(e.getAffectedNodes());
+        }
+
+        private static HierarchyEvent createBulkEvent(HierarchyEvent e, Collection<Node> nodes) {
+            if (e instanceof NodesAddedEvent) {
+                return new NodesAddedEvent((Node) e.getSender(), nodes);
+            } else if (e instanceof NodesDeletedEvent) {
+                return new NodesDeletedEvent((Node) e.getSender(), nodes);
+            } else {
+                NodesReparentedEvent re = (NodesReparentedEvent) e;
+                return new NodesReparentedEvent(re.getOldParent(), re.getNewParent(), nodes);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package org.workcraft.observation;
+
+/**
+ * A marker for the hierarchy observers that must be notified immediately even
+ * within a HierarchyBatch, as other observers rely on their state being current.
+ */
+public interface ImmediateHierarchyObserver extends HierarchyObserver {
+}
@@ -21,6 +21,7 @@
 
 package org.workcraft.observation;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 
 public class ObservableHierarchyImpl implements ObservableHierarchy {
@@ -39,8 +40,23 @@ public class ObservableHierarchyImpl implements ObservableHierarchy {
     }
 
     public void sendNotification(HierarchyEvent e) {
-        for (HierarchyObserver obs : observers) {
-            obs.notify(e);
+        HierarchyBatch batch = HierarchyBatch.find(e);
+        if (batch == null) {
+            for (HierarchyObserver obs : observers) {
+                obs.notify(e);
+            }
+        } else {
+            ArrayList<HierarchyObserver> deferredObservers = new ArrayList<>();
+            for (HierarchyObserver obs : new ArrayList<>(observers)) {
+                if (obs instanceof ImmediateHierarchyObserver) {
+                    obs.notify(e);
+                } else {
+                    deferredObservers.add(obs);
+                }
+            }
+            if (!deferredObservers.isEmpty()) {
+                batch.enqueue(deferredObservers, e);
+            }
         }
     }
 }
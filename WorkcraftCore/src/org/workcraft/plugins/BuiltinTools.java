@@ -17,6 +17,7 @@ import org.workcraft.plugins.shared.CommonLogSettings;
 import org.workcraft.plugins.shared.CommonSatSettings;
 import org.workcraft.plugins.shared.CommonSignalSettings;
 import org.workcraft.plugins.shared.CommonSimulationSettings;
+import org.workcraft.plugins.shared.CommonTaskSettings;
 import org.workcraft.plugins.shared.CommonVisualSettings;
 import org.workcraft.plugins.transform.CopyLablesTool;
 import org.workcraft.plugins.transform.StraightenConnectionsTool;
@@ -35,6 +36,7 @@ public class BuiltinTools implements Module {
         pm.registerClass(Settings.class, CommonLogSettings.class);
         pm.registerClass(Settings.class, CommonSignalSettings.class);
         pm.registerClass(Settings.class, CommonSatSettings.class);
+        pm.registerClass(Settings.class, CommonTaskSettings.class);
 
         pm.registerClass(Settings.class, DotLayoutSettings.class);
         pm.registerClass(Settings.class, RandomLayoutSettings.class);
@@ -21,13 +21,12 @@
 
 package org.workcraft.plugins.serialisation;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.workcraft.PluginProvider;
 import org.workcraft.dom.Model;
@@ -38,9 +37,9 @@ import org.workcraft.serialisation.Format;
 import org.workcraft.serialisation.ModelDeserialiser;
 import org.workcraft.serialisation.ReferenceResolver;
 import org.workcraft.serialisation.References;
+import org.workcraft.serialisation.xml.ElementStreamReader;
 import org.workcraft.serialisation.xml.XMLDeserialisationManager;
 import org.workcraft.util.XmlUtil;
-import org.xml.sax.SAXException;
 
 public class XMLModelDeserialiser implements ModelDeserialiser {
 
@@ -55,15 +54,57 @@ public class XMLModelDeserialiser implements ModelDeserialiser {
             XMLDeserialisationManager deserialisation = new XMLDeserialisationManager();
             deserialisation.processPlugins(plugins);
 
-            Document doc = XmlUtil.loadDocument(is);
-            Element modelElement = doc.getDocumentElement();
+            // The document is streamed, only the elements of the nodes are kept for the 2nd pass.
+            ElementStreamReader reader = new ElementStreamReader(is);
+            Element modelElement = reader.nextElement();
+            if (modelElement == null) {
+                throw new DeserialisationException("Model element is missing");
+            }
 
             deserialisation.begin(extRef);
 
             // 1st pass -- init instances
-            Element rootElement = XmlUtil.getChildElement("root", modelElement);
-            Node root = (Node) deserialisation.initInstance(rootElement);
+            Node root = null;
+            for (Element element = reader.nextElement(); element != null; element = reader.nextElement()) {
+                if ((root == null) && "root".equals(element.getTagName())) {
+                    root = (Node) deserialisation.initInstance(reader, element);
+                } else {
+                    reader.readContent(element);
+                    modelElement.appendChild(element);
+                }
+            }
+            reader.close();
+            if (root == null) {
+                throw new DeserialisationException("Root element is missing");
+            }
+
+            return finalise(deserialisation, modelElement, root, underlyingModel);
+        } catch (ParserConfigurationException | XMLStreamException e) {
+            throw new DeserialisationException(e);
+        }
+    }
+
+    /**
+     * Deserialises a model from the document element that is already in memory.
+     */
+    public DeserialisationResult deserialise(Element modelElement, ReferenceResolver extRef,
+            Model underlyingModel) throws DeserialisationException {
+        XMLDeserialisationManager deserialisation = new XMLDeserialisationManager();
+        deserialisation.processPlugins(plugins);
+        deserialisation.begin(extRef);
+
+        // 1st pass -- init instances
+        Element rootElement = XmlUtil.getChildElement("root", modelElement);
+        if (rootElement == null) {
+            throw new DeserialisationException("Root element is missing");
+        }
+        Node root = (Node) deserialisation.initInstance(rootElement);
+        return finalise(deserialisation, modelElement, root, underlyingModel);
+    }
 
+    private DeserialisationResult finalise(XMLDeserialisationManager deserialisation, Element modelElement,
+            Node root, Model underlyingModel) throws DeserialisationException {
+        try {
             // 2nd pass -- finalise instances
             deserialisation.finaliseInstances();
 
@@ -79,8 +120,7 @@ public class XMLModelDeserialiser implements ModelDeserialiser {
             deserialisation.deserialiseModelProperties(modelElement, model);
 
             return new DeserialisationResult(model, intRef);
-        } catch (ParserConfigurationException | SAXException | IOException |
-                SecurityException | IllegalArgumentException | ClassNotFoundException e) {
+        } catch (SecurityException | IllegalArgumentException | ClassNotFoundException e) {
             throw new DeserialisationException(e);
         }
     }
@@ -37,6 +37,7 @@ import org.workcraft.exceptions.SerialisationException;
 import org.workcraft.serialisation.Format;
 import org.workcraft.serialisation.ModelSerialiser;
 import org.workcraft.serialisation.ReferenceProducer;
+import org.workcraft.serialisation.xml.ElementStreamWriter;
 import org.workcraft.serialisation.xml.XMLSerialisationManager;
 import org.workcraft.util.XmlUtil;
 
@@ -81,6 +82,7 @@ public class XMLModelSerialiser implements ModelSerialiser {
                 }
             };
 
+            // The document only provides the elements of the node being written.
             Document doc = XmlUtil.createDocument();
 
             Element modelElement = doc.createElement("model");
@@ -88,15 +90,17 @@ public class XMLModelSerialiser implements ModelSerialiser {
 
             serialisation.begin(internalRefs, refs);
 
+            ElementStreamWriter writer = new ElementStreamWriter(out);
+            writer.startDocument();
             serialisation.serialise(modelElement, model);
-            serialisation.serialise(rootElement, model.getRoot());
+            writer.startElement(modelElement);
+            writer.writeContent(modelElement);
+            serialisation.serialise(writer, rootElement, model.getRoot());
+            writer.endElement(modelElement);
+            writer.endDocument();
 
             serialisation.end();
 
-            doc.appendChild(modelElement);
-            modelElement.appendChild(rootElement);
-            XmlUtil.writeDocument(doc, out);
-
             return internalRefs;
         } catch (ParserConfigurationException e) {
             throw new SerialisationException(e);
@@ -63,6 +63,7 @@ public class CommonEditorSettings implements Settings {
     private static final String keyShowAbsolutePaths = prefix + ".showAbsolutePaths";
     private static final String keyOpenNonvisual = prefix + ".openNonvisual";
     private static final String keyFlatNameSeparator = prefix + ".flatNameSeparator";
+    private static final String keyUndoMemoryLimit = prefix + ".undoMemoryLimit";
 
     private static final Color defaultBackgroundColor = Color.WHITE;
     private static final boolean defaultShowGrid = true;
@@ -74,6 +75,7 @@ public class CommonEditorSettings implements Settings {
     private static final boolean defaultShowAbsolutePaths = false;
     private static final boolean defaultOpenNonvisual = true;
     private static String defaultFlatNameSeparator = "__";
+    private static final int defaultUndoMemoryLimit = 64;
 
     private static Color backgroundColor = defaultBackgroundColor;
     private static boolean showGrid = defaultShowGrid;
@@ -85,6 +87,7 @@ public class CommonEditorSettings implements Settings {
     private static boolean showAbsolutePaths = defaultShowAbsolutePaths;
     private static boolean openNonvisual = defaultOpenNonvisual;
     private static String flatNameSeparator = defaultFlatNameSeparator;
+    private static int undoMemoryLimit = defaultUndoMemoryLimit;
 
     public CommonEditorSettings() {
         properties.add(new PropertyDeclaration<CommonEditorSettings, Color>(
@@ -207,6 +210,16 @@ public class CommonEditorSettings implements Settings {
                 return getFlatNameSeparator();
             }
         });
+
+        properties.add(new PropertyDeclaration<CommonEditorSettings, Integer>(
+                this, "Undo history memory limit in MB (1-4096)", Integer.class, true, false, false) {
+            protected void setter(CommonEditorSettings object, Integer value) {
+                setUndoMemoryLimit(value);
+            }
+            protected Integer getter(CommonEditorSettings object) {
+                return getUndoMemoryLimit();
+            }
+        });
     }
 
     @Override
@@ -226,6 +239,7 @@ public class CommonEditorSettings implements Settings {
         setShowAbsolutePaths(config.getBoolean(keyShowAbsolutePaths, defaultShowAbsolutePaths));
         setOpenNonvisual(config.getBoolean(keyOpenNonvisual, defaultOpenNonvisual));
         setFlatNameSeparator(config.getString(keyFlatNameSeparator, defaultFlatNameSeparator));
+        setUndoMemoryLimit(config.getInt(keyUndoMemoryLimit, defaultUndoMemoryLimit));
     }
 
     @Override
@@ -240,6 +254,7 @@ public class CommonEditorSettings implements Settings {
         config.setBoolean(keyShowAbsolutePaths, getShowAbsolutePaths());
         config.setBoolean(keyOpenNonvisual, getOpenNonvisual());
         config.set(keyFlatNameSeparator, getFlatNameSeparator());
+        config.setInt(keyUndoMemoryLimit, getUndoMemoryLimit());
     }
 
     @Override
@@ -340,4 +355,18 @@ public class CommonEditorSettings implements Settings {
         }
     }
 
+    public static int getUndoMemoryLimit() {
+        return undoMemoryLimit;
+    }
+
+    public static void setUndoMemoryLimit(int value) {
+        if (value < 1) {
+            value = 1;
+        }
+        if (value > 4096) {
+            value = 4096;
+        }
+        undoMemoryLimit = value;
+    }
+
 }
@@ -0,0 +1,179 @@
+package org.workcraft.plugins.shared;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.workcraft.Config;
+import org.workcraft.gui.propertyeditor.PropertyDeclaration;
+import org.workcraft.gui.propertyeditor.PropertyDescriptor;
+import org.workcraft.gui.propertyeditor.Settings;
+
+public class CommonTaskSettings implements Settings {
+    private static final LinkedList<PropertyDescriptor> properties = new LinkedList<>();
+    private static final String prefix = "CommonTaskSettings";
+
+    private static final String keyWorkerCount = prefix + ".workerCount";
+    private static final String keyQueueLimit = prefix + ".queueLimit";
+    private static final String keyExternalTimeLimit = prefix + ".externalTimeLimit";
+    private static final String keyExternalOutputLimit = prefix + ".externalOutputLimit";
+    private static final String keyCacheSize = prefix + ".cacheSize";
+
+    private static final int defaultWorkerCount = Math.max(2, Math.min(64, Runtime.getRuntime().availableProcessors()));
+    private static final int defaultQueueLimit = 1000;
+    private static final int defaultExternalTimeLimit = 0;
+    private static final int defaultExternalOutputLimit = 0;
+    private static final int defaultCacheSize = 256;
+
+    private static int workerCount = defaultWorkerCount;
+    private static int queueLimit = defaultQueueLimit;
+    private static int externalTimeLimit = defaultExternalTimeLimit;
+    private static int externalOutputLimit = defaultExternalOutputLimit;
+    private static int cacheSize = defaultCacheSize;
+
+    public CommonTaskSettings() {
+        properties.add(new PropertyDeclaration<CommonTaskSettings, Integer>(
+                this, "Number of tasks running at the same time (1-64)", Integer.class, true, false, false) {
+            protected void setter(CommonTaskSettings object, Integer value) {
+                setWorkerCount(value);
+            }
+            protected Integer getter(CommonTaskSettings object) {
+                return getWorkerCount();
+            }
+        });
+
+        properties.add(new PropertyDeclaration<CommonTaskSettings, Integer>(
+                this, "Number of tasks waiting in the queue (1-10000)", Integer.class, true, false, false) {
+            protected void setter(CommonTaskSettings object, Integer value) {
+                setQueueLimit(value);
+            }
+            protected Integer getter(CommonTaskSettings object) {
+                return getQueueLimit();
+            }
+        });
+
+        properties.add(new PropertyDeclaration<CommonTaskSettings, Integer>(
+                this, "Time limit for external tools (seconds, 0 for none)", Integer.class, true, false, false) {
+            protected void setter(CommonTaskSettings object, Integer value) {
+                setExternalTimeLimit(value);
+            }
+            protected Integer getter(CommonTaskSettings object) {
+                return getExternalTimeLimit();
+            }
+        });
+
+        properties.add(new PropertyDeclaration<CommonTaskSettings, Integer>(
+                this, "Kept output of external tools (MB per stream, 0 for all)", Integer.class, true, false, false) {
+            protected void setter(CommonTaskSettings object, Integer value) {
+                setExternalOutputLimit(value);
+            }
+            protected Integer getter(CommonTaskSettings object) {
+                return getExternalOutputLimit();
+            }
+        });
+
+        properties.add(new PropertyDeclaration<CommonTaskSettings, Integer>(
+                this, "Cache of external tool results (MB, 0 to disable)", Integer.class, true, false, false) {
+            protected void setter(CommonTaskSettings object, Integer value) {
+                setCacheSize(value);
+            }
+            protected Integer getter(CommonTaskSettings object) {
+                return getCacheSize();
+            }
+        });
+    }
+
+    @Override
+    public List<PropertyDescriptor> getDescriptors() {
+        return properties;
+    }
+
+    @Override
+    public void load(Config config) {
+        setWorkerCount(config.getInt(keyWorkerCount, defaultWorkerCount));
+        setQueueLimit(config.getInt(keyQueueLimit, defaultQueueLimit));
+        setExternalTimeLimit(config.getInt(keyExternalTimeLimit, defaultExternalTimeLimit));
+        setExternalOutputLimit(config.getInt(keyExternalOutputLimit, defaultExternalOutputLimit));
+        setCacheSize(config.getInt(keyCacheSize, defaultCacheSize));
+    }
+
+    @Override
+    public void save(Config config) {
+        config.setInt(keyWorkerCount, getWorkerCount());
+        config.setInt(keyQueueLimit, getQueueLimit());
+        config.setInt(keyExternalTimeLimit, getExternalTimeLimit());
+        config.setInt(keyExternalOutputLimit, getExternalOutputLimit());
+        config.setInt(keyCacheSize, getCacheSize());
+    }
+
+    @Override
+    public String getSection() {
+        return "Common";
+    }
+
+    @Override
+    public String getName() {
+        return "Tasks";
+    }
+
+    public static int getWorkerCount() {
+        return workerCount;
+    }
+
+    public static void setWorkerCount(int value) {
+        if (value < 1) {
+            value = 1;
+        }
+        if (value > 64) {
+            value = 64;
+        }
+        workerCount = value;
+    }
+
+    public static int getQueueLimit() {
+        return queueLimit;
+    }
+
+    public static void setQueueLimit(int value) {
+        if (value < 1) {
+            value = 1;
+        }
+        if (value > 10000) {
+            value = 10000;
+        }
+        queueLimit = value;
+    }
+
+    public static int getExternalTimeLimit() {
+        return externalTimeLimit;
+    }
+
+    public static void setExternalTimeLimit(int value) {
+        if (value < 0) {
+            value = 0;
+        }
+        externalTimeLimit = value;
+    }
+
+    public static int getExternalOutputLimit() {
+        return externalOutputLimit;
+    }
+
+    public static void setExternalOutputLimit(int value) {
+        if (value < 0) {
+            value = 0;
+        }
+        externalOutputLimit = value;
+    }
+
+    public static int getCacheSize() {
+        return cacheSize;
+    }
+
+    public static void setCacheSize(int value) {
+        if (value < 0) {
+            value = 0;
+        }
+        cacheSize = value;
+    }
+
+}
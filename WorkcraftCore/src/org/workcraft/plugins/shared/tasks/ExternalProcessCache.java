@@ -0,0 +1,322 @@
+package org.workcraft.plugins.shared.tasks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.workcraft.Framework;
+import org.workcraft.gui.DesktopApi;
+import org.workcraft.plugins.shared.CommonTaskSettings;
+import org.workcraft.util.FileUtils;
+import org.workcraft.util.LogUtils;
+
+/**
+ * Persistent cache of the results of external tools. An entry is addressed by a digest of
+ * everything the result depends on: the tool, its arguments and the content of its input files
+ * (see {@link Key}). It keeps the return code, stdout, stderr and the named output files.
+ *
+ * The entries live in directories named after their keys. The least recently used entries are
+ * removed when the total size exceeds the limit set in {@link CommonTaskSettings}; a limit of 0
+ * disables the cache.
+ */
+public class ExternalProcessCache {
+    private static final String CACHE_DIRECTORY_NAME = "cache";
+    private static final String RETURN_CODE_FILE_NAME = "returnCode";
+    private static final String STDOUT_FILE_NAME = "stdout";
+    private static final String STDERR_FILE_NAME = "stderr";
+    private static final String OUTPUT_DIRECTORY_NAME = "files";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final long STALE_TMP_AGE = 24 * 60 * 60 * 1000L;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static ExternalProcessCache instance = null;
+
+    private final File directory;
+    // Entry sizes in the order of use, the least recently used first.
+    private LinkedHashMap<String, Long> entries = null;
+    private long totalSize = 0;
+
+    public static final class Key {
+        private final MessageDigest digest;
+
+        private Key() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public Key add(String value) {
+            byte[] bytes = value.getBytes(UTF8);
+            addLength(bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+
+        /**
+         * Adds the command of a tool. An update of the tool changes the size or the time of its executable,
+         * which is looked up in PATH if the command is just a name.
+         */
+        public Key addTool(String command) {
+            add(command);
+            File file = findTool(command);
+            add(file.getAbsolutePath());
+            addLength(file.length());
+            addLength(file.lastModified());
+            return this;
+        }
+
+        /**
+         * Adds the content of the file, but not its name.
+         */
+        public Key addFile(File file) throws IOException {
+            addLength(file.length());
+            InputStream is = new FileInputStream(file);
+            try {
+                byte[] buffer = new byte[65536];
+                int count;
+                while ((count = is.read(buffer)) > 0) {
+                    digest.update(buffer, 0, count);
+                }
+            } finally {
+                is.close();
+            }
+            return this;
+        }
+
+        private void addLength(long value) {
+            for (int i = 0; i < 8; i++) {
+                digest.update((byte) (value >>> (8 * i)));
+            }
+        }
+
+        private String getName() {
+            StringBuilder result = new StringBuilder();
+            for (byte b : digest.digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * @return the executable that runs for the command: the command itself if it has a directory,
+     * otherwise the first match in the directories of PATH, trying the extensions of PATHEXT on Windows.
+     * If there is no match, the file of the command in the current directory.
+     */
+    public static File findTool(String command) {
+        File file = new File(command);
+        if ((file.getParent() != null) || file.isAbsolute()) {
+            return file;
+        }
+        List<String> names = new ArrayList<>();
+        names.add(command);
+        if (DesktopApi.getOs().isWindows() && !command.contains(".")) {
+            String extensions = System.getenv("PATHEXT");
+            if (extensions == null) {
+                extensions = ".COM;.EXE;.BAT;.CMD";
+            }
+            for (String extension : extensions.split(File.pathSeparator)) {
+                names.add(command + extension);
+            }
+        }
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String dir : path.split(File.pathSeparator)) {
+                if (dir.isEmpty()) {
+                    continue;
+                }
+                for (String name : names) {
+                    File candidate = new File(dir, name);
+                    if (candidate.isFile()) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return file;
+    }
+
+    public ExternalProcessCache(File directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized ExternalProcessCache getInstance() {
+        if (instance == null) {
+            instance = new ExternalProcessCache(new File(Framework.SETTINGS_DIRECTORY_PATH, CACHE_DIRECTORY_NAME));
+        }
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return CommonTaskSettings.getCacheSize() > 0;
+    }
+
+    public static Key createKey() {
+        return new Key();
+    }
+
+    /**
+     * Looks the key up and, on a hit, copies the cached output files to the given destinations.
+     * @return the cached result, or null if there is none.
+     */
+    public ExternalProcessResult get(Key key, Map<String, File> outputFiles) {
+        String name = key.getName();
+        synchronized (this) {
+            loadEntries();
+            if (!entries.containsKey(name)) {
+                return null;
+            }
+            // Move the entry to the end of the use order.
+            entries.put(name, entries.remove(name));
+        }
+        File entryDirectory = new File(directory, name);
+        try {
+            int returnCode = Integer.parseInt(FileUtils.readAllText(new File(entryDirectory, RETURN_CODE_FILE_NAME)).trim());
+            byte[] output = FileUtils.readAllBytes(new File(entryDirectory, STDOUT_FILE_NAME));
+            byte[] errors = FileUtils.readAllBytes(new File(entryDirectory, STDERR_FILE_NAME));
+            File outputDirectory = new File(entryDirectory, OUTPUT_DIRECTORY_NAME);
+            for (Map.Entry<String, File> outputFile : outputFiles.entrySet()) {
+                File file = new File(outputDirectory, outputFile.getKey());
+                if (file.exists()) {
+                    FileUtils.copyFile(file, outputFile.getValue());
+                }
+            }
+            entryDirectory.setLastModified(System.currentTimeMillis());
+            return new ExternalProcessResult(returnCode, output, errors);
+        } catch (IOException | NumberFormatException e) {
+            LogUtils.logWarningLine("Cannot read cache entry " + name + ": " + e.getMessage());
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the result under the key, together with the output files that exist.
+     */
+    public void put(Key key, ExternalProcessResult result, Map<String, File> outputFiles) {
+        String name = key.getName();
+        synchronized (this) {
+            loadEntries();
+            if (entries.containsKey(name)) {
+                return;
+            }
+        }
+        File entryDirectory = new File(directory, name);
+        File tmpDirectory = new File(directory, name + TMP_SUFFIX + System.nanoTime());
+        try {
+            File outputDirectory = new File(tmpDirectory, OUTPUT_DIRECTORY_NAME);
+            if (!outputDirectory.mkdirs()) {
+                throw new IOException("Cannot create directory " + outputDirectory.getPath());
+            }
+            FileUtils.writeAllText(new File(tmpDirectory, RETURN_CODE_FILE_NAME), Integer.toString(result.getReturnCode()));
+            FileUtils.writeAllBytes(result.getOutput(), new File(tmpDirectory, STDOUT_FILE_NAME));
+            FileUtils.writeAllBytes(result.getErrors(), new File(tmpDirectory, STDERR_FILE_NAME));
+            for (Map.Entry<String, File> outputFile : outputFiles.entrySet()) {
+                if (outputFile.getValue().exists()) {
+                    FileUtils.copyFile(outputFile.getValue(), new File(outputDirectory, outputFile.getKey()));
+                }
+            }
+            synchronized (this) {
+                if (!entries.containsKey(name) && tmpDirectory.renameTo(entryDirectory)) {
+                    long size = getSize(entryDirectory);
+                    entries.put(name, size);
+                    totalSize += size;
+                    evict();
+                }
+            }
+        } catch (IOException e) {
+            LogUtils.logWarningLine("Cannot write cache entry " + name + ": " + e.getMessage());
+        } finally {
+            deleteRecursively(tmpDirectory);
+        }
+    }
+
+    private synchronized void remove(String name) {
+        loadEntries();
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalSize -= size;
+        }
+        deleteRecursively(new File(directory, name));
+    }
+
+    private void evict() {
+        long limit = CommonTaskSettings.getCacheSize() * 1024L * 1024L;
+        List<String> names = new ArrayList<>(entries.keySet());
+        for (String name : names) {
+            if (totalSize <= limit) {
+                break;
+            }
+            totalSize -= entries.remove(name);
+            deleteRecursively(new File(directory, name));
+        }
+    }
+
+    private void loadEntries() {
+        if (entries != null) {
+            return;
+        }
+        entries = new LinkedHashMap<>();
+        totalSize = 0;
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entryDirectories = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().contains(TMP_SUFFIX)) {
+                // Left behind by an interrupted write, unless another instance is still writing it.
+                if (file.lastModified() < System.currentTimeMillis() - STALE_TMP_AGE) {
+                    deleteRecursively(file);
+                }
+            } else if (file.isDirectory()) {
+                entryDirectories.add(file);
+            }
+        }
+        Collections.sort(entryDirectories, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File entryDirectory : entryDirectories) {
+            long size = getSize(entryDirectory);
+            entries.put(entryDirectory.getName(), size);
+            totalSize += size;
+        }
+    }
+
+    private static long getSize(File file) {
+        long result = file.length();
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                result += getSize(child);
+            }
+        }
+        return result;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -2,11 +2,17 @@ package org.workcraft.plugins.shared.tasks;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.workcraft.interop.ExternalProcess;
 import org.workcraft.interop.ExternalProcessListener;
+import org.workcraft.plugins.shared.CommonTaskSettings;
 import org.workcraft.tasks.ProgressMonitor;
 import org.workcraft.tasks.Result;
 import org.workcraft.tasks.Task;
@@ -14,18 +20,28 @@ import org.workcraft.util.DataAccumulator;
 import org.workcraft.util.LogUtils;
 
 public class ExternalProcessTask implements Task<ExternalProcessResult>, ExternalProcessListener {
+    // Cancellation is requested through the monitor, which can only be polled.
+    private static final long CANCEL_CHECK_INTERVAL = 50;
+
     private List<String> args;
     private final File workingDir;
     private boolean printStdout;
     private boolean printStderr;
+    private long timeLimit;
+    private long outputLimit;
+    private boolean outputKept = true;
 
-    private volatile boolean finished;
+    private final CountDownLatch finished = new CountDownLatch(1);
     private volatile int returnCode;
     private boolean userCancelled = false;
+    private boolean timedOut = false;
     private ProgressMonitor<? super ExternalProcessResult> monitor;
+    private final List<ExternalProcessListener> listeners = new CopyOnWriteArrayList<>();
 
     private final DataAccumulator stdoutAccum = new DataAccumulator();
     private final DataAccumulator stderrAccum = new DataAccumulator();
+    private long stdoutSize = 0;
+    private long stderrSize = 0;
 
     public ExternalProcessTask(List<String> args, File workingDir) {
         this(args, workingDir, false, false);
@@ -36,6 +52,39 @@ public class ExternalProcessTask implements Task<ExternalProcessResult>, Externa
         this.workingDir = workingDir;
         this.printStdout = printStdout;
         this.printStderr = printStderr;
+        this.timeLimit = TimeUnit.SECONDS.toMillis(CommonTaskSettings.getExternalTimeLimit());
+        this.outputLimit = CommonTaskSettings.getExternalOutputLimit() * 1024L * 1024L;
+    }
+
+    /**
+     * Sets the wall-clock time after which the process is killed and the task fails, 0 for no limit.
+     */
+    public void setTimeLimit(long milliseconds) {
+        this.timeLimit = milliseconds;
+    }
+
+    /**
+     * Sets how many bytes of stdout and of stderr are kept for the result, 0 for no limit.
+     * Exceeding the limit does not stop the process, and the listeners still receive all the data.
+     */
+    public void setOutputLimit(long bytes) {
+        this.outputLimit = bytes;
+    }
+
+    /**
+     * Sets whether stdout is kept for the result. It does not need to be when a listener
+     * consumes it, e.g. a parser that keeps only what it matched.
+     */
+    public void setOutputKept(boolean value) {
+        this.outputKept = value;
+    }
+
+    /**
+     * Adds a listener that receives the output while the process is running, e.g. a {@link org.workcraft.interop.LineOutputListener}.
+     * The listeners are notified of the process termination before the task returns.
+     */
+    public void addListener(ExternalProcessListener listener) {
+        listeners.add(listener);
     }
 
     @Override
@@ -54,27 +103,35 @@ public class ExternalProcessTask implements Task<ExternalProcessResult>, Externa
             return Result.exception(e);
         }
 
-        while (true) {
-            if (monitor.isCancelRequested() && process.isRunning()) {
-                process.cancel();
-                userCancelled = true;
-            }
-            if (finished) {
-                break;
-            }
-            try {
-                Thread.sleep(20);
-            } catch (InterruptedException e) {
-                process.cancel();
-                userCancelled = true;
-                break;
+        long deadline = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+        try {
+            while (!finished.await(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (userCancelled || timedOut) {
+                    continue;
+                }
+                if (monitor.isCancelRequested()) {
+                    process.cancel();
+                    userCancelled = true;
+                } else if (System.currentTimeMillis() > deadline) {
+                    process.cancel();
+                    timedOut = true;
+                }
             }
+        } catch (InterruptedException e) {
+            process.cancel();
+            userCancelled = true;
         }
 
         if (userCancelled) {
             return Result.cancelled();
         }
 
+        if (timedOut) {
+            String message = "External command exceeded the time limit of " + timeLimit + " ms: " + getCommandLine(args);
+            LogUtils.logErrorLine(message);
+            return Result.exception(new TimeoutException(message));
+        }
+
         ExternalProcessResult result = new ExternalProcessResult(
                 returnCode, stdoutAccum.getData(), stderrAccum.getData(),
                 Collections.<String, byte[]>emptyMap());
@@ -99,14 +156,38 @@ public class ExternalProcessTask implements Task<ExternalProcessResult>, Externa
         LogUtils.logInfoLine("Running external command: " + getCommandLine(args));
     }
 
-    @Override
-    public void outputData(byte[] data) {
+    public static void printCachedCommandLine(List<String> args) {
+        LogUtils.logInfoLine("Reusing cached result of external command: " + getCommandLine(args));
+    }
+
+    /**
+     * @return the number of bytes of the stream, the head of which was kept.
+     */
+    private long keep(DataAccumulator accum, long size, byte[] data, String stream) {
+        byte[] kept = data;
+        if ((outputLimit > 0) && (size + data.length > outputLimit)) {
+            if (size <= outputLimit) {
+                LogUtils.logWarningLine("Only the first " + outputLimit + " bytes of " + stream + " are kept.");
+            }
+            kept = Arrays.copyOf(data, (int) Math.max(0, outputLimit - size));
+        }
         try {
-            stdoutAccum.write(data);
+            accum.write(kept);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        return size + data.length;
+    }
+
+    @Override
+    public void outputData(byte[] data) {
+        if (outputKept) {
+            stdoutSize = keep(stdoutAccum, stdoutSize, data, "stdout");
+        }
         monitor.stdout(data);
+        for (ExternalProcessListener listener : listeners) {
+            listener.outputData(data);
+        }
         if (printStdout) {
             printData(data, LogUtils.PREFIX_STDOUT);
         }
@@ -114,12 +195,11 @@ public class ExternalProcessTask implements Task<ExternalProcessResult>, Externa
 
     @Override
     public void errorData(byte[] data) {
-        try {
-            stderrAccum.write(data);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        stderrSize = keep(stderrAccum, stderrSize, data, "stderr");
         monitor.stderr(data);
+        for (ExternalProcessListener listener : listeners) {
+            listener.errorData(data);
+        }
         if (printStderr) {
             printData(data, LogUtils.PREFIX_STDERR);
         }
@@ -133,7 +213,13 @@ public class ExternalProcessTask implements Task<ExternalProcessResult>, Externa
         } catch (IOException e) {
         }
         this.returnCode = returnCode;
-        this.finished = true;
+        try {
+            for (ExternalProcessListener listener : listeners) {
+                listener.processFinished(returnCode);
+            }
+        } finally {
+            finished.countDown();
+        }
     }
 
     private void printData(byte[] data, String prefix) {
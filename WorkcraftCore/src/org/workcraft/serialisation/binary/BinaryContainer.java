@@ -0,0 +1,162 @@
+package org.workcraft.serialisation.binary;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.w3c.dom.Document;
+
+/**
+ * Binary counterpart of the ZIP container of a work file. Every entry of the ZIP file
+ * becomes a section under the same name, holding the XML document of the entry in the
+ * form of {@link BinaryDocumentWriter}. The sections are addressed by offset from a
+ * directory at the start of the file, so a mapped file is only read where a section
+ * is actually decoded.
+ *
+ * Layout: magic, version, section count, then for every section its name, offset and
+ * length, followed by the section data.
+ */
+public class BinaryContainer {
+    public static final int MAGIC_LENGTH = 4;
+    private static final byte[] MAGIC = {'W', 'C', 'B', 'F'};
+    private static final int VERSION = 1;
+
+    private final ByteBuffer buffer;
+    private final LinkedHashMap<String, ByteBuffer> sections = new LinkedHashMap<>();
+
+    public BinaryContainer(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            readDirectory();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed binary work file", e);
+        }
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return (data.length >= MAGIC.length) && Arrays.equals(MAGIC, Arrays.copyOf(data, MAGIC.length));
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] header = new byte[MAGIC_LENGTH];
+            return (readHeader(is, header) == MAGIC_LENGTH) && isBinary(header);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Peeks at the start of the stream, which must be able to push back MAGIC_LENGTH bytes.
+     */
+    public static boolean isBinary(PushbackInputStream is) throws IOException {
+        byte[] header = new byte[MAGIC_LENGTH];
+        int count = readHeader(is, header);
+        is.unread(header, 0, count);
+        return (count == MAGIC_LENGTH) && isBinary(header);
+    }
+
+    private static int readHeader(InputStream is, byte[] header) throws IOException {
+        int count = 0;
+        while (count < header.length) {
+            int read = is.read(header, count, header.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Maps the file into memory read-only. The mapping stays valid after the file is closed.
+     */
+    public static BinaryContainer map(File file) throws IOException {
+        FileInputStream is = new FileInputStream(file);
+        try {
+            FileChannel channel = is.getChannel();
+            return new BinaryContainer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            is.close();
+        }
+    }
+
+    private void readDirectory() throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a binary work file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary work file version " + version);
+        }
+        int count = header.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[header.getShort() & 0xFFFF];
+            header.get(name);
+            int offset = header.getInt();
+            int length = header.getInt();
+            ByteBuffer section = buffer.duplicate();
+            section.position(offset);
+            section.limit(offset + length);
+            sections.put(new String(name, BinaryDocumentWriter.UTF8), section.slice());
+        }
+    }
+
+    public Set<String> getSectionNames() {
+        return sections.keySet();
+    }
+
+    public boolean hasSection(String name) {
+        return sections.containsKey(name);
+    }
+
+    /**
+     * @return the document of the section, or null if there is no such section.
+     */
+    public Document getDocument(String name) throws IOException {
+        ByteBuffer section = sections.get(name);
+        return (section == null) ? null : BinaryDocumentReader.decode(section);
+    }
+
+    /**
+     * Writes the container of the sections given as encoded documents, in the order of the map.
+     */
+    public static void write(Map<String, byte[]> sections, OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.write(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(sections.size());
+        int offset = MAGIC.length + 8;
+        for (String name : sections.keySet()) {
+            offset += 2 + name.getBytes(BinaryDocumentWriter.UTF8).length + 8;
+        }
+        for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+            byte[] name = section.getKey().getBytes(BinaryDocumentWriter.UTF8);
+            dos.writeShort(name.length);
+            dos.write(name);
+            dos.writeInt(offset);
+            dos.writeInt(section.getValue().length);
+            offset += section.getValue().length;
+        }
+        for (byte[] data : sections.values()) {
+            dos.write(data);
+        }
+        dos.flush();
+    }
+
+}
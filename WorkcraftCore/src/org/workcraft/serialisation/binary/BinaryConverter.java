@@ -0,0 +1,79 @@
+package org.workcraft.serialisation.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.w3c.dom.Document;
+import org.workcraft.util.XmlUtil;
+
+/**
+ * Converts work files between the ZIP container of XML documents and the binary container.
+ * The entries keep their names and order. The documents keep all elements, attributes
+ * and text; the indentation is produced again by the XML writer, so an entry written by
+ * Workcraft comes back byte for byte.
+ */
+public final class BinaryConverter {
+
+    private BinaryConverter() {
+    }
+
+    public static void toBinary(InputStream zippedData, OutputStream out) throws IOException {
+        LinkedHashMap<String, byte[]> sections = new LinkedHashMap<>();
+        ZipInputStream zis = new ZipInputStream(zippedData);
+        ZipEntry ze;
+        while ((ze = zis.getNextEntry()) != null) {
+            if (sections.containsKey(ze.getName())) {
+                throw new IOException("Duplicate entry '" + ze.getName() + "' in the ZIP file");
+            }
+            sections.put(ze.getName(), BinaryDocumentWriter.encode(new UnclosableInputStream(zis)));
+            zis.closeEntry();
+        }
+        zis.close();
+        if (sections.isEmpty()) {
+            throw new IOException("No entries in the ZIP file");
+        }
+        BinaryContainer.write(sections, out);
+    }
+
+    public static void toWork(BinaryContainer container, OutputStream out) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(out);
+        for (String name : container.getSectionNames()) {
+            Document doc = container.getDocument(name);
+            zos.putNextEntry(new ZipEntry(name));
+            XmlUtil.writeDocument(doc, zos);
+            zos.closeEntry();
+        }
+        zos.finish();
+    }
+
+    /**
+     * The StAX reader closes its input at the end of the document, which would close the whole ZIP stream.
+     */
+    private static final class UnclosableInputStream extends InputStream {
+        private final InputStream is;
+
+        private UnclosableInputStream(InputStream is) {
+            this.is = is;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return is.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return is.read(b, off, len);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package org.workcraft.serialisation.binary;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.workcraft.util.XmlUtil;
+
+/**
+ * Decodes a document written by {@link BinaryDocumentWriter} into a DOM tree.
+ * The columns are read directly from the buffer, which may be a mapped file,
+ * and the strings of the pool are decoded once and only when used.
+ */
+public class BinaryDocumentReader {
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringOffsetsPosition;
+    private final int stringDataPosition;
+    private final String[] strings;
+
+    private BinaryDocumentReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        stringCount = buffer.getInt(0);
+        stringOffsetsPosition = 4;
+        stringDataPosition = stringOffsetsPosition + 4 * (stringCount + 1);
+        strings = new String[stringCount];
+    }
+
+    public static Document decode(ByteBuffer section) throws IOException {
+        try {
+            return new BinaryDocumentReader(section.slice()).read();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Truncated binary document", e);
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String getString(int index) throws IOException {
+        if ((index < 0) || (index >= stringCount)) {
+            throw new IOException("String index " + index + " is out of the pool range");
+        }
+        String result = strings[index];
+        if (result == null) {
+            int from = buffer.getInt(stringOffsetsPosition + 4 * index);
+            int to = buffer.getInt(stringOffsetsPosition + 4 * (index + 1));
+            byte[] bytes = new byte[to - from];
+            ByteBuffer data = buffer.duplicate();
+            data.position(stringDataPosition + from);
+            data.get(bytes);
+            result = new String(bytes, BinaryDocumentWriter.UTF8);
+            strings[index] = result;
+        }
+        return result;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int position, int count) {
+        int[] result = new int[count];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.slice().asIntBuffer().get(result);
+        return result;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int position, int count) {
+        byte[] result = new byte[count];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(result);
+        return result;
+    }
+
+    private String getAttributeValue(byte type, int value) throws IOException {
+        switch (type) {
+        case BinaryDocumentWriter.TYPE_STRING:
+            return getString(value);
+        case BinaryDocumentWriter.TYPE_INT:
+            return Integer.toString(value);
+        case BinaryDocumentWriter.TYPE_BOOLEAN:
+            return Boolean.toString(value != 0);
+        default:
+            throw new IOException("Unknown attribute type " + type);
+        }
+    }
+
+    private Document read() throws IOException, ParserConfigurationException {
+        int position = stringDataPosition + buffer.getInt(stringOffsetsPosition + 4 * stringCount);
+        // node table
+        int nodeCount = buffer.getInt(position);
+        position += 4;
+        byte[] kinds = readBytes(buffer, position, nodeCount);
+        position += nodeCount;
+        int[] names = readInts(buffer, position, nodeCount);
+        position += 4 * nodeCount;
+        int[] parents = readInts(buffer, position, nodeCount);
+        position += 4 * nodeCount;
+        int[] attributeStarts = readInts(buffer, position, nodeCount + 1);
+        position += 4 * (nodeCount + 1);
+        // property columns
+        int attributeCount = buffer.getInt(position);
+        position += 4;
+        int[] attributeNames = readInts(buffer, position, attributeCount);
+        position += 4 * attributeCount;
+        byte[] attributeTypes = readBytes(buffer, position, attributeCount);
+        position += attributeCount;
+        int[] attributeValues = readInts(buffer, position, attributeCount);
+
+        Document doc = XmlUtil.createDocument();
+        Node[] nodes = new Node[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            Node node;
+            switch (kinds[i]) {
+            case BinaryDocumentWriter.KIND_ELEMENT:
+                Element element = doc.createElement(getString(names[i]));
+                for (int j = attributeStarts[i]; j < attributeStarts[i + 1]; j++) {
+                    String value = getAttributeValue(attributeTypes[j], attributeValues[j]);
+                    element.setAttribute(getString(attributeNames[j]), value);
+                }
+                node = element;
+                break;
+            case BinaryDocumentWriter.KIND_TEXT:
+                node = doc.createTextNode(getString(names[i]));
+                break;
+            case BinaryDocumentWriter.KIND_CDATA:
+                node = doc.createCDATASection(getString(names[i]));
+                break;
+            case BinaryDocumentWriter.KIND_COMMENT:
+                node = doc.createComment(getString(names[i]));
+                break;
+            default:
+                throw new IOException("Unknown node kind " + kinds[i]);
+            }
+            int parent = parents[i];
+            if (parent < 0) {
+                doc.appendChild(node);
+            } else if (parent < i) {
+                nodes[parent].appendChild(node);
+            } else {
+                throw new IOException("Node " + i + " precedes its parent " + parent);
+            }
+            nodes[i] = node;
+        }
+        return doc;
+    }
+
+}
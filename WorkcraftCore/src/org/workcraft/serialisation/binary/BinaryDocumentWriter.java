@@ -0,0 +1,266 @@
+package org.workcraft.serialisation.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Encodes an XML document into the columnar form read by {@link BinaryDocumentReader}.
+ * The document is consumed with StAX, so it never exists in memory as a DOM tree.
+ *
+ * Whitespace between elements is the indentation of the XML writer and is dropped;
+ * whitespace inside an element without child elements is content and is kept.
+ */
+public class BinaryDocumentWriter {
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    static final byte KIND_ELEMENT = 0;
+    static final byte KIND_TEXT = 1;
+    static final byte KIND_CDATA = 2;
+    static final byte KIND_COMMENT = 3;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_INT = 1;
+    static final byte TYPE_BOOLEAN = 2;
+
+    private static final class IntColumn {
+        private int[] data = new int[64];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, 2 * size);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        void set(int index, int value) {
+            data[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeInt(data[i]);
+            }
+        }
+
+        void writeBytes(DataOutputStream out) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeByte(data[i]);
+            }
+        }
+    }
+
+    private final HashMap<String, Integer> stringIndices = new HashMap<>();
+    private final ArrayList<String> strings = new ArrayList<>();
+
+    private final IntColumn nodeKinds = new IntColumn();
+    private final IntColumn nodeNames = new IntColumn();
+    private final IntColumn nodeParents = new IntColumn();
+    private final IntColumn nodeAttributes = new IntColumn();
+
+    private final IntColumn attributeNames = new IntColumn();
+    private final IntColumn attributeTypes = new IntColumn();
+    private final IntColumn attributeValues = new IntColumn();
+
+    private BinaryDocumentWriter() {
+    }
+
+    public static byte[] encode(InputStream is) throws IOException {
+        BinaryDocumentWriter writer = new BinaryDocumentWriter();
+        try {
+            writer.read(is);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        return writer.toByteArray();
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        if ((prefix == null) || prefix.isEmpty()) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private void read(InputStream is) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(is);
+        // Open elements with a flag whether they already have child elements.
+        IntColumn openElements = new IntColumn();
+        IntColumn openHasChildren = new IntColumn();
+        String pendingWhitespace = null;
+        int depth = 0;
+        while (reader.hasNext()) {
+            int parent = (depth == 0) ? -1 : openElements.get(depth - 1);
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                pendingWhitespace = null;
+                if (depth > 0) {
+                    openHasChildren.set(depth - 1, 1);
+                }
+                int element = addNode(KIND_ELEMENT, getQualifiedName(reader.getPrefix(), reader.getLocalName()), parent);
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    String name = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+                    addAttribute(name, reader.getAttributeValue(i));
+                }
+                if (depth == openElements.size()) {
+                    openElements.add(element);
+                    openHasChildren.add(0);
+                } else {
+                    openElements.set(depth, element);
+                    openHasChildren.set(depth, 0);
+                }
+                depth++;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if ((pendingWhitespace != null) && (openHasChildren.get(depth - 1) == 0)) {
+                    addNode(KIND_TEXT, pendingWhitespace, parent);
+                }
+                pendingWhitespace = null;
+                depth--;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                if (depth == 0) {
+                    break;
+                }
+                if (reader.isWhiteSpace()) {
+                    if (openHasChildren.get(depth - 1) == 0) {
+                        String text = reader.getText();
+                        pendingWhitespace = (pendingWhitespace == null) ? text : pendingWhitespace + text;
+                    }
+                } else {
+                    String text = reader.getText();
+                    if (pendingWhitespace != null) {
+                        text = pendingWhitespace + text;
+                        pendingWhitespace = null;
+                    }
+                    addNode(KIND_TEXT, text, parent);
+                }
+                break;
+            case XMLStreamConstants.CDATA:
+                if (depth > 0) {
+                    addNode(KIND_CDATA, reader.getText(), parent);
+                }
+                break;
+            case XMLStreamConstants.COMMENT:
+                if (depth > 0) {
+                    addNode(KIND_COMMENT, reader.getText(), parent);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        reader.close();
+        nodeAttributes.add(attributeNames.size());
+    }
+
+    private int getStringIndex(String s) {
+        Integer result = stringIndices.get(s);
+        if (result == null) {
+            result = strings.size();
+            strings.add(s);
+            stringIndices.put(s, result);
+        }
+        return result;
+    }
+
+    private int addNode(byte kind, String name, int parent) {
+        int result = nodeKinds.size();
+        nodeKinds.add(kind);
+        nodeNames.add(getStringIndex(name));
+        nodeParents.add(parent);
+        nodeAttributes.add(attributeNames.size());
+        return result;
+    }
+
+    private void addAttribute(String name, String value) {
+        attributeNames.add(getStringIndex(name));
+        if (isCanonicalInt(value)) {
+            attributeTypes.add(TYPE_INT);
+            attributeValues.add(Integer.parseInt(value));
+        } else if ("true".equals(value) || "false".equals(value)) {
+            attributeTypes.add(TYPE_BOOLEAN);
+            attributeValues.add("true".equals(value) ? 1 : 0);
+        } else {
+            attributeTypes.add(TYPE_STRING);
+            attributeValues.add(getStringIndex(value));
+        }
+    }
+
+    /**
+     * @return true if the value is written back unchanged by Integer.toString(Integer.parseInt(value)).
+     */
+    private static boolean isCanonicalInt(String value) {
+        int length = value.length();
+        int start = value.startsWith("-") ? 1 : 0;
+        if ((length == start) || (length - start > 10)) {
+            return false;
+        }
+        if ((value.charAt(start) == '0') && ((length - start > 1) || (start > 0))) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return false;
+            }
+        }
+        long parsed = Long.parseLong(value);
+        return (parsed >= Integer.MIN_VALUE) && (parsed <= Integer.MAX_VALUE);
+    }
+
+    private byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        // string pool
+        byte[][] encodedStrings = new byte[strings.size()][];
+        int offset = 0;
+        out.writeInt(strings.size());
+        out.writeInt(offset);
+        for (int i = 0; i < strings.size(); i++) {
+            encodedStrings[i] = strings.get(i).getBytes(UTF8);
+            offset += encodedStrings[i].length;
+            out.writeInt(offset);
+        }
+        for (byte[] encodedString : encodedStrings) {
+            out.write(encodedString);
+        }
+        // node table
+        out.writeInt(nodeKinds.size());
+        nodeKinds.writeBytes(out);
+        nodeNames.write(out);
+        nodeParents.write(out);
+        nodeAttributes.write(out);
+        // property columns
+        out.writeInt(attributeNames.size());
+        attributeNames.write(out);
+        attributeTypes.writeBytes(out);
+        attributeValues.write(out);
+        out.flush();
+        return bos.toByteArray();
+    }
+
+}
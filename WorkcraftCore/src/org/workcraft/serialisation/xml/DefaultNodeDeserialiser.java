@@ -21,13 +21,10 @@
 
 package org.workcraft.serialisation.xml;
 
-import static org.workcraft.serialisation.xml.BeanInfoCache.getBeanInfo;
-
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -42,6 +39,13 @@ class DefaultNodeDeserialiser {
     private final DeserialiserFactory fac;
     private final NodeInitialiser initialiser;
     private final NodeFinaliser finaliser;
+    private final HashMap<Class<?>, LevelPlan> plans = new HashMap<>();
+
+    // Properties of a class level together with their deserialisers, resolved once per class.
+    private static final class LevelPlan {
+        private final ArrayList<PropertyPlan.Property> properties = new ArrayList<>();
+        private final ArrayList<BasicXMLDeserialiser> propertyDeserialisers = new ArrayList<>();
+    }
 
     DefaultNodeDeserialiser(DeserialiserFactory factory, NodeInitialiser initialiser, NodeFinaliser finaliser) {
         this.fac = factory;
@@ -49,15 +53,44 @@ class DefaultNodeDeserialiser {
         this.finaliser = finaliser;
     }
 
+    private LevelPlan getPlan(Class<?> currentLevel) throws IntrospectionException, InstantiationException, IllegalAccessException {
+        LevelPlan plan = plans.get(currentLevel);
+        if (plan != null) {
+            return plan;
+        }
+        plan = new LevelPlan();
+        for (PropertyPlan.Property property : PropertyPlan.get(currentLevel).getProperties()) {
+            // the property is writable and is not of array type, try to get a deserialiser
+            XMLDeserialiser deserialiser = fac.getDeserialiserFor(property.getType().getName());
+
+            if (!(deserialiser instanceof BasicXMLDeserialiser)) {
+                // no deserialiser, try to use the special case enum deserialiser
+                if (property.getType().isEnum()) {
+                    deserialiser = fac.getDeserialiserFor(Enum.class.getName());
+                    if (deserialiser == null) {
+                        continue;
+                    }
+                } else {
+                    continue;
+                }
+            }
+            plan.properties.add(property);
+            plan.propertyDeserialisers.add((BasicXMLDeserialiser) deserialiser);
+        }
+        plans.put(currentLevel, plan);
+        return plan;
+    }
+
     private void autoDeserialiseProperties(Element currentLevelElement,
             Object instance, Class<?> currentLevel,
             ReferenceResolver externalReferenceResolver)
             throws DeserialisationException {
-        if (currentLevel.getAnnotation(NoAutoSerialisation.class) != null) {
-            return;
-        }
-
         try {
+            LevelPlan plan = getPlan(currentLevel);
+            if (plan.properties.isEmpty()) {
+                return;
+            }
+
             List<Element> propertyElements = XmlUtil.getChildElements("property", currentLevelElement);
             HashMap<String, Element> nameMap = new HashMap<>();
 
@@ -65,48 +98,15 @@ class DefaultNodeDeserialiser {
                 nameMap.put(e.getAttribute("name"), e);
             }
 
-            BeanInfo info = getBeanInfo(currentLevel);
-
-            for (PropertyDescriptor desc : info.getPropertyDescriptors()) {
-                if (!nameMap.containsKey(desc.getName())) {
+            for (int i = 0; i < plan.properties.size(); i++) {
+                PropertyPlan.Property property = plan.properties.get(i);
+                Element element = nameMap.get(property.getName());
+                if (element == null) {
                     continue;
                 }
+                Object value = plan.propertyDeserialisers.get(i).deserialise(element);
 
-                if (desc.getPropertyType() == null) {
-                    continue;
-                }
-
-                if (desc.getWriteMethod() == null || desc.getReadMethod() == null) {
-                    continue;
-                }
-
-                // property explicitly requested to be excluded from auto serialisation
-                if (
-                        desc.getReadMethod().getAnnotation(NoAutoSerialisation.class) != null ||
-                        desc.getWriteMethod().getAnnotation(NoAutoSerialisation.class) != null
-                ) {
-                    continue;
-                }
-
-                // the property is writable and is not of array type, try to get a deserialiser
-                XMLDeserialiser deserialiser = fac.getDeserialiserFor(desc.getPropertyType().getName());
-
-                if (!(deserialiser instanceof BasicXMLDeserialiser)) {
-                    // no deserialiser, try to use the special case enum deserialiser
-                    if (desc.getPropertyType().isEnum()) {
-                        deserialiser = fac.getDeserialiserFor(Enum.class.getName());
-                        if (deserialiser == null) {
-                            continue;
-                        }
-                    } else {
-                        continue;
-                    }
-                }
-
-                Element element = nameMap.get(desc.getName());
-                Object value = ((BasicXMLDeserialiser) deserialiser).deserialise(element);
-
-                desc.getWriteMethod().invoke(instance, value);
+                property.set(instance, value);
             }
         } catch (IllegalArgumentException | IllegalAccessException | InstantiationException |
                 IntrospectionException e) {
@@ -21,13 +21,11 @@
 
 package org.workcraft.serialisation.xml;
 
-import static org.workcraft.serialisation.xml.BeanInfoCache.getBeanInfo;
-
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 
 import org.w3c.dom.Element;
 import org.workcraft.dom.math.MathNode;
@@ -38,42 +36,39 @@ import org.workcraft.serialisation.ReferenceProducer;
 public class DefaultNodeSerialiser {
     private final SerialiserFactory fac;
     private final NodeSerialiser serialiser;
+    private final HashMap<Class<?>, LevelPlan> plans = new HashMap<>();
+
+    // Properties of a class level together with their serialisers, resolved once per class.
+    private static final class LevelPlan {
+        private final String elementName;
+        private final XMLSerialiser serialiser;
+        private final ArrayList<PropertyPlan.Property> properties = new ArrayList<>();
+        private final ArrayList<BasicXMLSerialiser> propertySerialisers = new ArrayList<>();
+
+        private LevelPlan(String elementName, XMLSerialiser serialiser) {
+            this.elementName = elementName;
+            this.serialiser = serialiser;
+        }
+    }
 
     public DefaultNodeSerialiser(SerialiserFactory factory, NodeSerialiser serialiser) {
         this.fac = factory;
         this.serialiser = serialiser;
     }
 
-    private void autoSerialiseProperties(Element element, Object object, Class<?> currentLevel) throws IntrospectionException, InstantiationException, IllegalAccessException, IllegalArgumentException, SerialisationException, InvocationTargetException {
-        // type explicitly requested to be excluded from auto serialisation
-        if (currentLevel.getAnnotation(NoAutoSerialisation.class) != null) {
-            return;
+    private LevelPlan getPlan(Class<?> currentLevel) throws IntrospectionException, InstantiationException, IllegalAccessException {
+        LevelPlan plan = plans.get(currentLevel);
+        if (plan != null) {
+            return plan;
         }
-
-        BeanInfo info = getBeanInfo(currentLevel);
-
-        for (PropertyDescriptor desc : info.getPropertyDescriptors()) {
-            if (desc.getPropertyType() == null) {
-                continue;
-            }
-
-            if (desc.getWriteMethod() == null || desc.getReadMethod() == null) {
-                continue;
-            }
-
-            // property explicitly requested to be excluded from auto serialisation
-            if (
-                    desc.getReadMethod().getAnnotation(NoAutoSerialisation.class) != null ||
-                    desc.getWriteMethod().getAnnotation(NoAutoSerialisation.class) != null) {
-                continue;
-            }
-
+        plan = new LevelPlan(currentLevel.getSimpleName(), fac.getSerialiserFor(currentLevel));
+        for (PropertyPlan.Property property : PropertyPlan.get(currentLevel).getProperties()) {
             // the property is writable and is not of array type, try to get a serialiser
-            XMLSerialiser serialiser = fac.getSerialiserFor(desc.getPropertyType());
+            XMLSerialiser serialiser = fac.getSerialiserFor(property.getType());
 
             if (!(serialiser instanceof BasicXMLSerialiser)) {
                 // no serialiser, try to use the special case enum serialiser
-                if (desc.getPropertyType().isEnum()) {
+                if (property.getType().isEnum()) {
                     serialiser = fac.getSerialiserFor(Enum.class);
                     if (serialiser == null) {
                         continue;
@@ -82,13 +77,22 @@ public class DefaultNodeSerialiser {
                     continue;
                 }
             }
+            plan.properties.add(property);
+            plan.propertySerialisers.add((BasicXMLSerialiser) serialiser);
+        }
+        plans.put(currentLevel, plan);
+        return plan;
+    }
 
+    private void autoSerialiseProperties(Element element, Object object, LevelPlan plan) throws SerialisationException, InvocationTargetException {
+        for (int i = 0; i < plan.properties.size(); i++) {
+            PropertyPlan.Property property = plan.properties.get(i);
             Element propertyElement = element.getOwnerDocument().createElement("property");
             element.appendChild(propertyElement);
-            propertyElement.setAttribute("class", desc.getPropertyType().getName());
-            propertyElement.setAttribute("name", desc.getName());
+            propertyElement.setAttribute("class", property.getType().getName());
+            propertyElement.setAttribute("name", property.getName());
 
-            ((BasicXMLSerialiser) serialiser).serialise(propertyElement, desc.getReadMethod().invoke(object));
+            plan.propertySerialisers.get(i).serialise(propertyElement, property.get(object));
         }
     }
 
@@ -99,12 +103,13 @@ public class DefaultNodeSerialiser {
             IllegalArgumentException, IntrospectionException,
             SerialisationException, InvocationTargetException {
 
+        LevelPlan plan = getPlan(currentLevel);
         Element curLevelElement = parentElement.getOwnerDocument()
-                .createElement(currentLevel.getSimpleName());
+                .createElement(plan.elementName);
 
-        autoSerialiseProperties(curLevelElement, object, currentLevel);
+        autoSerialiseProperties(curLevelElement, object, plan);
 
-        XMLSerialiser serialiser = fac.getSerialiserFor(currentLevel);
+        XMLSerialiser serialiser = plan.serialiser;
 
         if (serialiser != null) {
             if (serialiser instanceof BasicXMLSerialiser) {
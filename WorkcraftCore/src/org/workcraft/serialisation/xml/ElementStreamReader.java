@@ -0,0 +1,113 @@
+package org.workcraft.serialisation.xml;
+
+import java.io.InputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.workcraft.util.XmlUtil;
+
+/**
+ * Reads an XML document element by element with StAX. DOM elements are only
+ * built for the parts of the document the caller asks for, so the document
+ * never has to exist in memory as a whole tree.
+ *
+ * The reader descends into an element returned by {@link #nextElement()} either
+ * by calling {@link #nextElement()} again for its children, or by calling
+ * {@link #readContent(Element)} to read all of them at once.
+ */
+public class ElementStreamReader {
+    private final XMLStreamReader reader;
+    private final Document doc;
+
+    public ElementStreamReader(InputStream is) throws XMLStreamException, ParserConfigurationException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Deliver each text as one node, as the DOM parser does.
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        reader = factory.createXMLStreamReader(is);
+        doc = XmlUtil.createDocument();
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        if ((prefix == null) || prefix.isEmpty()) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private Element createElement() {
+        Element result = doc.createElement(getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String name = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            result.setAttribute(name, reader.getAttributeValue(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return the next child of the current element with its attributes but without
+     * any content, or null if the current element (or the document) has ended.
+     */
+    public Element nextElement() throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                return createElement();
+            case XMLStreamConstants.END_ELEMENT:
+            case XMLStreamConstants.END_DOCUMENT:
+                return null;
+            default:
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the remaining content of the element just returned by {@link #nextElement()}
+     * into it, including its end tag.
+     */
+    public void readContent(Element element) throws XMLStreamException {
+        Node current = element;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                Element child = createElement();
+                current.appendChild(child);
+                current = child;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (current == element) {
+                    return;
+                }
+                current = current.getParentNode();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                current.appendChild(doc.createTextNode(reader.getText()));
+                break;
+            case XMLStreamConstants.CDATA:
+                current.appendChild(doc.createCDATASection(reader.getText()));
+                break;
+            case XMLStreamConstants.COMMENT:
+                current.appendChild(doc.createComment(reader.getText()));
+                break;
+            default:
+                break;
+            }
+        }
+        throw new XMLStreamException("Unexpected end of document in element '" + element.getTagName() + "'");
+    }
+
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+}
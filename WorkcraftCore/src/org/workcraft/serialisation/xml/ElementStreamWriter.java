@@ -0,0 +1,136 @@
+package org.workcraft.serialisation.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Writes an XML document element by element, so that only the elements being
+ * written have to exist in memory. The events are fed to the same serialiser
+ * and with the same output properties as XmlUtil.writeDocument uses, hence the
+ * result is byte for byte the document that would be written from a DOM tree.
+ */
+public class ElementStreamWriter {
+    private static final String CDATA_TYPE = "CDATA";
+
+    private final TransformerHandler handler;
+
+    public ElementStreamWriter(OutputStream os) throws IOException {
+        try {
+            SAXTransformerFactory factory = (SAXTransformerFactory) SAXTransformerFactory.newInstance();
+            handler = factory.newTransformerHandler();
+        } catch (TransformerConfigurationException e) {
+            throw new IOException(e);
+        }
+        Transformer transformer = handler.getTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xalan}indent-amount", "2");
+        // A DOM document that was not parsed from a file is not standalone.
+        transformer.setOutputProperty(OutputKeys.STANDALONE, "no");
+        OutputStreamWriter writer = new OutputStreamWriter(os, Charset.forName("UTF-8").newEncoder());
+        handler.setResult(new StreamResult(writer));
+    }
+
+    public void startDocument() throws IOException {
+        try {
+            handler.startDocument();
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void endDocument() throws IOException {
+        try {
+            handler.endDocument();
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the start tag of the element with its attributes, but not its children.
+     */
+    public void startElement(Element element) throws IOException {
+        AttributesImpl attributes = new AttributesImpl();
+        NamedNodeMap map = element.getAttributes();
+        for (int i = 0; i < map.getLength(); i++) {
+            Attr attr = (Attr) map.item(i);
+            attributes.addAttribute("", attr.getName(), attr.getName(), CDATA_TYPE, attr.getValue());
+        }
+        try {
+            handler.startElement("", element.getTagName(), element.getTagName(), attributes);
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void endElement(Element element) throws IOException {
+        try {
+            handler.endElement("", element.getTagName(), element.getTagName());
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the element together with all its children.
+     */
+    public void writeElement(Element element) throws IOException {
+        startElement(element);
+        writeContent(element);
+        endElement(element);
+    }
+
+    /**
+     * Writes the children of the element, but not its own tags.
+     */
+    public void writeContent(Element element) throws IOException {
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            writeNode(child);
+        }
+    }
+
+    private void writeNode(Node node) throws IOException {
+        try {
+            switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                writeElement((Element) node);
+                break;
+            case Node.TEXT_NODE:
+                char[] text = node.getNodeValue().toCharArray();
+                handler.characters(text, 0, text.length);
+                break;
+            case Node.CDATA_SECTION_NODE:
+                char[] data = node.getNodeValue().toCharArray();
+                handler.startCDATA();
+                handler.characters(data, 0, data.length);
+                handler.endCDATA();
+                break;
+            case Node.COMMENT_NODE:
+                char[] comment = node.getNodeValue().toCharArray();
+                handler.comment(comment, 0, comment.length);
+                break;
+            default:
+                break;
+            }
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
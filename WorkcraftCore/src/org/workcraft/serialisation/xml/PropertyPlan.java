@@ -0,0 +1,127 @@
+package org.workcraft.serialisation.xml;
+
+import static org.workcraft.serialisation.xml.BeanInfoCache.getBeanInfo;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Auto-serialisable properties of one class level, i.e. the bean properties
+ * introduced by the class itself that have both a getter and a setter and are
+ * not excluded with NoAutoSerialisation. The accessors are resolved to method
+ * handles once per class, so (de)serialisation of a node neither introspects
+ * its class nor goes through reflective invocation.
+ */
+final class PropertyPlan {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final HashMap<Class<?>, PropertyPlan> plans = new HashMap<>();
+
+    static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private Property(PropertyDescriptor desc) throws IllegalAccessException {
+            this.name = desc.getName();
+            this.type = desc.getPropertyType();
+            this.getter = unreflect(desc.getReadMethod()).asType(GETTER_TYPE);
+            this.setter = unreflect(desc.getWriteMethod()).asType(SETTER_TYPE);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Exceptions of the getter are wrapped in InvocationTargetException as with reflective invocation.
+         */
+        Object get(Object instance) throws InvocationTargetException {
+            try {
+                return (Object) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        /**
+         * Exceptions of the setter are wrapped in InvocationTargetException as with reflective invocation.
+         */
+        void set(Object instance, Object value) throws InvocationTargetException {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    private final List<Property> properties;
+
+    private PropertyPlan(List<Property> properties) {
+        this.properties = properties;
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // Public accessor inherited from a class that is not public.
+            method.setAccessible(true);
+            return MethodHandles.publicLookup().unreflect(method);
+        }
+    }
+
+    static synchronized PropertyPlan get(Class<?> currentLevel) throws IntrospectionException, IllegalAccessException {
+        PropertyPlan result = plans.get(currentLevel);
+        if (result == null) {
+            result = create(currentLevel);
+            plans.put(currentLevel, result);
+        }
+        return result;
+    }
+
+    private static PropertyPlan create(Class<?> currentLevel) throws IntrospectionException, IllegalAccessException {
+        ArrayList<Property> properties = new ArrayList<>();
+        // type explicitly requested to be excluded from auto serialisation
+        if (currentLevel.getAnnotation(NoAutoSerialisation.class) == null) {
+            for (PropertyDescriptor desc : getBeanInfo(currentLevel).getPropertyDescriptors()) {
+                if (desc.getPropertyType() == null) {
+                    continue;
+                }
+                if ((desc.getWriteMethod() == null) || (desc.getReadMethod() == null)) {
+                    continue;
+                }
+                // property explicitly requested to be excluded from auto serialisation
+                if ((desc.getReadMethod().getAnnotation(NoAutoSerialisation.class) != null)
+                        || (desc.getWriteMethod().getAnnotation(NoAutoSerialisation.class) != null)) {
+                    continue;
+                }
+                properties.add(new Property(desc));
+            }
+        }
+        return new PropertyPlan(Collections.unmodifiableList(properties));
+    }
+
+    /**
+     * @return the properties in the order of the bean introspection, which is the order of serialisation.
+     */
+    List<Property> getProperties() {
+        return properties;
+    }
+
+}
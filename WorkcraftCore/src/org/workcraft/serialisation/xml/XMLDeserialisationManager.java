@@ -25,6 +25,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.w3c.dom.Element;
 import org.workcraft.PluginProvider;
 import org.workcraft.dom.Container;
@@ -64,11 +66,50 @@ public class XMLDeserialisationManager implements DeserialiserFactory, NodeIniti
         }
     }
 
-    public Object initInstance(Element element, Object ... constructorParameters) throws DeserialisationException {
+    private Object createInstance(Element element, Object ... constructorParameters) throws DeserialisationException {
         Object instance = nodeDeserialiser.initInstance(element, state.getExternalReferences(), constructorParameters);
 
         state.setInstanceElement(instance, element);
         state.setObject(element.getAttribute("ref"), instance);
+        return instance;
+    }
+
+    /**
+     * Streaming counterpart of {@link #initInstance(Element, Object...)}. The element
+     * holds the start tag of the node just read from the stream. Its class level
+     * elements, which precede the child nodes in a document, are read into it and
+     * the instance is created as soon as the first child node starts. The child
+     * nodes are then read and initialised one by one, and their elements are
+     * not attached to the element of the parent.
+     */
+    public Object initInstance(ElementStreamReader reader, Element element) throws DeserialisationException, XMLStreamException {
+        Object instance = null;
+        for (Element subElement = reader.nextElement(); subElement != null; subElement = reader.nextElement()) {
+            if (!"node".equals(subElement.getTagName())) {
+                reader.readContent(subElement);
+                element.appendChild(subElement);
+            } else {
+                if (instance == null) {
+                    instance = createInstance(element);
+                }
+                if (instance instanceof Container) {
+                    Object subNode = initInstance(reader, subElement);
+                    if (subNode instanceof Node) {
+                        state.addChildNode((Container) instance, (Node) subNode);
+                    }
+                } else {
+                    reader.readContent(subElement);
+                }
+            }
+        }
+        if (instance == null) {
+            instance = createInstance(element);
+        }
+        return instance;
+    }
+
+    public Object initInstance(Element element, Object ... constructorParameters) throws DeserialisationException {
+        Object instance = createInstance(element, constructorParameters);
 
         if (instance instanceof Container) {
             for (Element subNodeElement : XmlUtil.getChildElements("node", element)) {
@@ -21,6 +21,7 @@
 
 package org.workcraft.serialisation.xml;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -61,6 +62,29 @@ public class XMLSerialisationManager implements SerialiserFactory, NodeSerialise
         }
     }
 
+    /**
+     * Streaming counterpart of {@link #serialise(Element, Object)}: the element is
+     * filled in and written out, and then the elements of the child nodes are
+     * created and written one at a time without being attached to it.
+     */
+    public void serialise(ElementStreamWriter writer, Element element, Object object) throws SerialisationException, IOException {
+        element.setAttribute("class", object.getClass().getName());
+
+        nodeSerialiser.serialise(element, object, state.internalReferences, state.externalReferences);
+
+        writer.startElement(element);
+        writer.writeContent(element);
+        if (object instanceof Container) {
+            Container container = (Container) object;
+            ArrayList<Node> children = new ArrayList<>(container.getChildren());
+            for (Node child : children) {
+                Element childElement = element.getOwnerDocument().createElement("node");
+                serialise(writer, childElement, child);
+            }
+        }
+        writer.endElement(element);
+    }
+
     public void serialise(Element element, Object object) throws SerialisationException {
         element.setAttribute("class", object.getClass().getName());
 
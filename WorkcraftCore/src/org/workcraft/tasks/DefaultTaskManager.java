@@ -1,11 +1,35 @@
 package org.workcraft.tasks;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.workcraft.plugins.shared.CommonTaskSettings;
+import org.workcraft.tasks.ScheduledTask.State;
+import org.workcraft.util.LogUtils;
+
+/**
+ * Queued tasks are run by a pool of worker threads, the number of which is set in
+ * {@link CommonTaskSettings}. Interactive tasks are taken from the queue before background ones,
+ * and tasks of the same priority in the order they were queued. The tasks executed from within
+ * a queued task run in the same worker and are cancelled together with it.
+ */
 public class DefaultTaskManager implements TaskManager {
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    private static final ThreadLocal<ScheduledTask> currentTask = new ThreadLocal<>();
 
     TaskObserverList taskObserverList = new TaskObserverList();
 
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+
     static class TaskObserverList extends ArrayList<TaskMonitor> implements TaskMonitor {
         private static final long serialVersionUID = 1L;
 
@@ -18,6 +42,103 @@ public class DefaultTaskManager implements TaskManager {
             return l;
         }
 
+        @Override
+        public void taskFinished(TaskMetrics metrics) {
+            for (TaskMonitor obs : this) {
+                obs.taskFinished(metrics);
+            }
+        }
+
+    }
+
+    private final class QueuedTask<T> extends ScheduledTask implements Runnable, Comparable<QueuedTask<?>> {
+        private final Task<T> task;
+        private final ProgressMonitor<? super T> observer;
+        private final long order = sequence.getAndIncrement();
+        private final long queueTime = System.nanoTime();
+
+        QueuedTask(Task<T> task, String description, ProgressMonitor<? super T> observer, Priority priority) {
+            super(description, priority);
+            this.task = task;
+            this.observer = observer;
+        }
+
+        @Override
+        public int compareTo(QueuedTask<?> other) {
+            int result = getPriority().compareTo(other.getPriority());
+            if (result == 0) {
+                result = Long.compare(order, other.order);
+            }
+            return result;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (getState() != State.QUEUED) {
+                    return;
+                }
+                setState(State.RUNNING);
+            }
+            long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queueTime);
+            ScheduledTask parent = currentTask.get();
+            currentTask.set(this);
+            try {
+                if (isCancelRequested()) {
+                    finish(Result.<T>cancelled(), waitTime, 0);
+                } else {
+                    DefaultTaskManager.this.run(task, getDescription(), observer, getPriority(), waitTime);
+                }
+            } finally {
+                currentTask.set(parent);
+                setState(State.DONE);
+            }
+        }
+
+        @Override
+        public boolean runIfQueued() {
+            synchronized (this) {
+                if ((getState() != State.QUEUED) || !executor.remove(this)) {
+                    return false;
+                }
+            }
+            run();
+            return true;
+        }
+
+        @Override
+        void withdraw() {
+            synchronized (this) {
+                if ((getState() != State.QUEUED) || !executor.remove(this)) {
+                    return;
+                }
+                setState(State.DONE);
+            }
+            long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queueTime);
+            finish(Result.<T>cancelled(), waitTime, 0);
+        }
+
+        private void finish(Result<? extends T> result, long waitTime, long runTime) {
+            taskObserverList.taskFinished(new TaskMetrics(getDescription(), getPriority(),
+                    result.getOutcome(), waitTime, runTime, getQueueDepth()));
+            if (observer != null) {
+                observer.finished(result, getDescription());
+            }
+        }
+    }
+
+    public DefaultTaskManager() {
+        int workerCount = CommonTaskSettings.getWorkerCount();
+        executor = new ThreadPoolExecutor(workerCount, workerCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicLong count = new AtomicLong();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "Task worker " + count.incrementAndGet());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -36,35 +157,173 @@ public class DefaultTaskManager implements TaskManager {
     }
 
     protected <T> Result<? extends T> rawExecute(Task<T> task, String description, ProgressMonitor<? super T> observer) {
+        return run(task, description, observer, Priority.INTERACTIVE, 0);
+    }
+
+    private <T> Result<? extends T> run(Task<T> task, String description, ProgressMonitor<? super T> observer,
+            Priority priority, long waitTime) {
         ProgressMonitorArray<T> progressMon = taskObserverList.taskStarting(description);
         if (observer != null) {
             progressMon.add(observer);
         }
+        ScheduledTask scheduledTask = currentTask.get();
+        if (scheduledTask != null) {
+            progressMon.add(scheduledTask.getCancellationMonitor());
+            priority = scheduledTask.getPriority();
+        }
+        long startTime = System.nanoTime();
         Result<? extends T> result = task.run(progressMon);
+        long runTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        taskObserverList.taskFinished(new TaskMetrics(description, priority, result.getOutcome(),
+                waitTime, runTime, getQueueDepth()));
         progressMon.finished(result, description);
         return result;
     }
 
     @Override
-    public <T> void queue(final Task<T> task, final String description) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                execute(task, description);
+    public <T> List<Result<? extends T>> executeAll(List<? extends Task<T>> tasks, String description,
+            int parallelism, final ProgressMonitor<? super T> monitor) {
+        final ScheduledTask parent = currentTask.get();
+        Priority priority = (parent == null) ? Priority.INTERACTIVE : parent.getPriority();
+        final int count = tasks.size();
+        final List<Result<? extends T>> results = new ArrayList<>(Collections.<Result<? extends T>>nCopies(count, null));
+        final List<QueuedTask<T>> queuedTasks = new ArrayList<>();
+        final int[] remaining = {count};
+        boolean interrupted = false;
+        while (true) {
+            synchronized (results) {
+                if (remaining[0] == 0) {
+                    break;
+                }
+                int running = queuedTasks.size() - (count - remaining[0]);
+                while ((queuedTasks.size() < count) && (running < Math.max(1, parallelism))) {
+                    final int index = queuedTasks.size();
+                    ProgressMonitor<T> observer = new DummyProgressMonitor<T>() {
+                        @Override
+                        public boolean isCancelRequested() {
+                            return ((monitor != null) && monitor.isCancelRequested())
+                                    || ((parent != null) && parent.isCancelRequested());
+                        }
+
+                        @Override
+                        public void finished(Result<? extends T> result, String description) {
+                            if (monitor != null) {
+                                monitor.finished(result, description);
+                            }
+                            synchronized (results) {
+                                results.set(index, result);
+                                remaining[0]--;
+                                results.notifyAll();
+                            }
+                        }
+                    };
+                    QueuedTask<T> queuedTask = new QueuedTask<>(new GuardedTask<>(tasks.get(index)),
+                            description, observer, priority);
+                    queuedTasks.add(queuedTask);
+                    running++;
+                    updateWorkerCount();
+                    executor.execute(queuedTask);
+                }
+            }
+            boolean helped = false;
+            for (QueuedTask<T> queuedTask : queuedTasks) {
+                if (queuedTask.runIfQueued()) {
+                    helped = true;
+                    break;
+                }
+            }
+            if (helped) {
+                continue;
             }
+            synchronized (results) {
+                if ((remaining[0] > 0) && (queuedTasks.size() - (count - remaining[0]) > 0)) {
+                    try {
+                        results.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        for (QueuedTask<T> queuedTask : queuedTasks) {
+                            queuedTask.cancel();
+                        }
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
-        ).start();
+        return results;
     }
 
-    @Override
-    public <T> void queue(final Task<T> task, final String description, final ProgressMonitor<? super T> observer) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                rawExecute(task, description, observer);
+    /**
+     * Reports an exception thrown by the task as its result, so that the waiting tasks are always notified.
+     */
+    private static final class GuardedTask<T> implements Task<T> {
+        private final Task<T> task;
+
+        GuardedTask(Task<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public Result<? extends T> run(ProgressMonitor<? super T> monitor) {
+            try {
+                return task.run(monitor);
+            } catch (RuntimeException e) {
+                return Result.exception(e);
             }
         }
-        ).start();
+    }
+
+    @Override
+    public <T> void queue(Task<T> task, String description) {
+        queue(task, description, null, Priority.INTERACTIVE);
+    }
+
+    @Override
+    public <T> void queue(Task<T> task, String description, ProgressMonitor<? super T> observer) {
+        queue(task, description, observer, Priority.INTERACTIVE);
+    }
+
+    @Override
+    public synchronized <T> ScheduledTask queue(Task<T> task, String description,
+            ProgressMonitor<? super T> observer, Priority priority) {
+        QueuedTask<T> queuedTask = new QueuedTask<>(task, description, observer, priority);
+        int queueLimit = CommonTaskSettings.getQueueLimit();
+        if (getQueueDepth() >= queueLimit) {
+            String message = "Task '" + description + "' is rejected as " + queueLimit + " tasks are already waiting.";
+            LogUtils.logErrorLine(message);
+            queuedTask.setState(State.DONE);
+            queuedTask.finish(Result.<T>exception(new RejectedExecutionException(message)), 0, 0);
+        } else {
+            updateWorkerCount();
+            executor.execute(queuedTask);
+        }
+        return queuedTask;
+    }
+
+    private void updateWorkerCount() {
+        int workerCount = CommonTaskSettings.getWorkerCount();
+        if (workerCount > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(workerCount);
+            executor.setCorePoolSize(workerCount);
+        } else if (workerCount < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(workerCount);
+            executor.setMaximumPoolSize(workerCount);
+        }
+    }
+
+    /**
+     * @return number of queued tasks waiting for a worker.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return number of workers running a task.
+     */
+    public int getRunningCount() {
+        return executor.getActiveCount();
     }
 
     @Override
@@ -0,0 +1,77 @@
+package org.workcraft.tasks;
+
+import org.workcraft.tasks.TaskManager.Priority;
+
+/**
+ * Handle of a task in the queue of the task manager. Cancelling a waiting task removes it
+ * from the queue; cancelling a running task is seen through {@link ProgressMonitor#isCancelRequested()}
+ * of the task and of every subtask it executes, including the external processes.
+ */
+public abstract class ScheduledTask {
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE
+    }
+
+    private final String description;
+    private final Priority priority;
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested = false;
+
+    private final ProgressMonitor<Object> cancellationMonitor = new DummyProgressMonitor<Object>() {
+        @Override
+        public boolean isCancelRequested() {
+            return cancelRequested;
+        }
+    };
+
+    ScheduledTask(String description, Priority priority) {
+        this.description = description;
+        this.priority = priority;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    ProgressMonitor<Object> getCancellationMonitor() {
+        return cancellationMonitor;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+        if (state == State.QUEUED) {
+            withdraw();
+        }
+    }
+
+    /**
+     * Removes the task from the queue and reports it as cancelled, unless a worker has already taken it.
+     */
+    abstract void withdraw();
+
+    /**
+     * Runs the task in the calling thread, unless a worker has already taken it. A task that waits
+     * for the tasks it queued calls this, so that it never waits for a free worker.
+     * @return whether the task was run.
+     */
+    public abstract boolean runIfQueued();
+
+}
@@ -1,10 +1,27 @@
 package org.workcraft.tasks;
 
+import java.util.List;
+
 public interface TaskManager {
+    enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
     void addObserver(TaskMonitor obs);
     void removeObserver(TaskMonitor obs);
     <T> void queue(Task<T> task, String description);
     <T> void queue(Task<T> task, String description, ProgressMonitor<? super T> monitor);
+    <T> ScheduledTask queue(Task<T> task, String description, ProgressMonitor<? super T> monitor, Priority priority);
     <T> Result<? extends T> execute(Task<T> task, String description);
     <T> Result<? extends T> execute(Task<T> task, String description, ProgressMonitor<? super T> monitor);
+
+    /**
+     * Runs the tasks on the workers of the queue, at most the given number of them at a time, and
+     * waits for all of them. The calling thread runs the tasks no worker has taken, so the tasks of
+     * the queue do not multiply the threads and a queued task can wait for its subtasks without a free
+     * worker. The monitor is notified of every task, and the results are in the order of the tasks.
+     */
+    <T> List<Result<? extends T>> executeAll(List<? extends Task<T>> tasks, String description, int parallelism,
+            ProgressMonitor<? super T> monitor);
 }
@@ -0,0 +1,66 @@
+package org.workcraft.tasks;
+
+import org.workcraft.tasks.Result.Outcome;
+import org.workcraft.tasks.TaskManager.Priority;
+
+/**
+ * Timings of a finished task. The waiting time is spent in the queue of the task manager
+ * before a worker picks the task up; it is zero for the tasks executed in the calling thread.
+ */
+public class TaskMetrics {
+    private final String description;
+    private final Priority priority;
+    private final Outcome outcome;
+    private final long waitTime;
+    private final long runTime;
+    private final int queueDepth;
+
+    public TaskMetrics(String description, Priority priority, Outcome outcome, long waitTime, long runTime, int queueDepth) {
+        this.description = description;
+        this.priority = priority;
+        this.outcome = outcome;
+        this.waitTime = waitTime;
+        this.runTime = runTime;
+        this.queueDepth = queueDepth;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return time in milliseconds between queueing the task and starting it.
+     */
+    public long getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * @return time in milliseconds the task was running.
+     */
+    public long getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * @return number of tasks left waiting in the queue when this task finished.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "'" + description + "' (" + priority.name().toLowerCase() + ", " + outcome.name().toLowerCase()
+                + "): waited " + waitTime + " ms, ran " + runTime + " ms, " + queueDepth + " queued";
+    }
+
+}
@@ -2,4 +2,5 @@ package org.workcraft.tasks;
 
 public interface TaskMonitor {
     <T> ProgressMonitor<T> taskStarting(String description);
+    void taskFinished(TaskMetrics metrics);
 }
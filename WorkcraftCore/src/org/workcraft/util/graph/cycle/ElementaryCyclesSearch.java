@@ -59,6 +59,18 @@ public class ElementaryCyclesSearch {
         this.adjList = AdjacencyList.getAdjacencyList(matrix);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param adjList adjacency-list of the graph, the second dimension holds
+     * the indices of the direct successors of each node
+     * @param graphNodes array of the graphnodes of the graph
+     */
+    public ElementaryCyclesSearch(int[][] adjList, Object[] graphNodes) {
+        this.graphNodes = graphNodes;
+        this.adjList = adjList;
+    }
+
     /**
      * Returns List::List::Object with the Lists of nodes of all elementary
      * cycles in the graph.
@@ -0,0 +1,123 @@
+package org.workcraft.workspace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import org.workcraft.workspace.DeltaOperation.NodeAddedOperation;
+import org.workcraft.workspace.DeltaOperation.NodeOperation;
+import org.workcraft.workspace.DeltaOperation.NodeRemovedOperation;
+
+/**
+ * One step of the undo history: the sequence of reversible operations that
+ * modified the model between two consecutive checkpoints. Consecutive changes
+ * of the same transform or property are merged, so dragging a node produces
+ * one operation per node rather than one per mouse move.
+ */
+public class Delta {
+    private static final Comparator<NodeOperation> ADD_ORDER = new Comparator<NodeOperation>() {
+        @Override
+        public int compare(NodeOperation o1, NodeOperation o2) {
+            return Integer.compare(o1.getRank(), o2.getRank());
+        }
+    };
+
+    private static final Comparator<NodeOperation> REMOVE_ORDER = Collections.reverseOrder(ADD_ORDER);
+
+    private final ArrayList<DeltaOperation> operations = new ArrayList<>();
+    private final HashMap<Object, DeltaOperation> mergeableOperations = new HashMap<>();
+    private long size = 0;
+
+    void add(DeltaOperation operation) {
+        Object key = operation.getMergeKey();
+        if (key == null) {
+            // Merging across a structural change could reorder dependent operations.
+            mergeableOperations.clear();
+        } else {
+            DeltaOperation mergeableOperation = mergeableOperations.get(key);
+            if (mergeableOperation != null) {
+                mergeableOperation.merge(operation);
+                return;
+            }
+            mergeableOperations.put(key, operation);
+        }
+        operations.add(operation);
+        size += operation.getSize();
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * @return an estimate of the memory retained by this step in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Reverts the operations in the reverse order. Runs of node additions (or
+     * removals) are replayed sorted by rank, because the order of their recording
+     * depends on the order in which the observers of the model are notified.
+     */
+    void undo() {
+        mergeableOperations.clear();
+        int index = operations.size();
+        while (index > 0) {
+            int end = index;
+            Class<?> cls = operations.get(index - 1).getClass();
+            while ((index > 0) && isNodeOperation(cls) && (operations.get(index - 1).getClass() == cls)) {
+                index--;
+            }
+            if (index == end) {
+                index--;
+                operations.get(index).undo();
+            } else {
+                List<NodeOperation> run = getNodeOperations(index, end);
+                Collections.reverse(run);
+                Collections.sort(run, (cls == NodeRemovedOperation.class) ? ADD_ORDER : REMOVE_ORDER);
+                for (NodeOperation operation : run) {
+                    operation.undo();
+                }
+            }
+        }
+    }
+
+    void redo() {
+        mergeableOperations.clear();
+        int index = 0;
+        while (index < operations.size()) {
+            int start = index;
+            Class<?> cls = operations.get(index).getClass();
+            while ((index < operations.size()) && isNodeOperation(cls) && (operations.get(index).getClass() == cls)) {
+                index++;
+            }
+            if (index == start) {
+                operations.get(index).redo();
+                index++;
+            } else {
+                List<NodeOperation> run = getNodeOperations(start, index);
+                Collections.sort(run, (cls == NodeAddedOperation.class) ? ADD_ORDER : REMOVE_ORDER);
+                for (NodeOperation operation : run) {
+                    operation.redo();
+                }
+            }
+        }
+    }
+
+    private static boolean isNodeOperation(Class<?> cls) {
+        return (cls == NodeAddedOperation.class) || (cls == NodeRemovedOperation.class);
+    }
+
+    private List<NodeOperation> getNodeOperations(int from, int to) {
+        ArrayList<NodeOperation> result = new ArrayList<>(to - from);
+        for (DeltaOperation operation : operations.subList(from, to)) {
+            result.add((NodeOperation) operation);
+        }
+        return result;
+    }
+
+}
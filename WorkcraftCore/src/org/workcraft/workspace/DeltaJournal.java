@@ -0,0 +1,325 @@
+package org.workcraft.workspace;
+
+import java.awt.geom.AffineTransform;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.workcraft.dom.Container;
+import org.workcraft.dom.Model;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.math.MathModel;
+import org.workcraft.dom.math.MathNode;
+import org.workcraft.dom.visual.Dependent;
+import org.workcraft.dom.visual.VisualTransformableNode;
+import org.workcraft.gui.propertyeditor.Properties;
+import org.workcraft.gui.propertyeditor.PropertyDescriptor;
+import org.workcraft.observation.HierarchyEvent;
+import org.workcraft.observation.ImmediateHierarchyObserver;
+import org.workcraft.observation.NodesAddedEvent;
+import org.workcraft.observation.NodesDeletedEvent;
+import org.workcraft.observation.NodesDeletingEvent;
+import org.workcraft.observation.NodesReparentedEvent;
+import org.workcraft.observation.NodesReparentingEvent;
+import org.workcraft.observation.ObservableState;
+import org.workcraft.observation.PropertyChangedEvent;
+import org.workcraft.observation.StateEvent;
+import org.workcraft.observation.StateSupervisor;
+import org.workcraft.observation.TransformChangedEvent;
+import org.workcraft.observation.TransformChangingEvent;
+import org.workcraft.util.Hierarchy;
+
+/**
+ * Records the modifications of the math and visual models of a workspace entry
+ * as reversible delta operations, which are derived from the observation events:
+ * nodes being added, removed and reparented, transforms and properties being
+ * changed, and the model entry being replaced.
+ *
+ * As property change events do not carry the previous value, the journal keeps
+ * a shadow copy of the writable properties of every node, which is built when
+ * the recording starts and then kept up to date incrementally. A property change
+ * event that does not alter any writable property is considered a change of a
+ * derived state and is not recorded.
+ */
+class DeltaJournal {
+    private final WorkspaceEntry we;
+    private final ArrayList<ModelSupervisor> supervisors = new ArrayList<>();
+    private ModelEntry modelEntry = null;
+    private Delta target = null;
+    private boolean replaying = false;
+    private int reparentingDepth = 0;
+
+    DeltaJournal(WorkspaceEntry we) {
+        this.we = we;
+    }
+
+    void attach(ModelEntry modelEntry) {
+        ModelEntry oldModelEntry = this.modelEntry;
+        detach();
+        if (isRecording() && (oldModelEntry != null) && (oldModelEntry != modelEntry)) {
+            target.add(new DeltaOperation.ModelEntryChangedOperation(we, oldModelEntry, modelEntry));
+        }
+        this.modelEntry = modelEntry;
+        if (modelEntry != null) {
+            supervisors.add(new ModelSupervisor(modelEntry.getMathModel()));
+            if (modelEntry.isVisual()) {
+                supervisors.add(new ModelSupervisor(modelEntry.getVisualModel()));
+            }
+            if (target != null) {
+                buildShadows();
+            }
+        }
+    }
+
+    private void detach() {
+        for (ModelSupervisor supervisor : supervisors) {
+            supervisor.dispose();
+        }
+        supervisors.clear();
+        reparentingDepth = 0;
+        modelEntry = null;
+    }
+
+    /**
+     * Directs the recorded operations to the given delta, or stops the recording if it is null.
+     */
+    void setTarget(Delta target) {
+        this.target = target;
+        if (target != null) {
+            buildShadows();
+        }
+    }
+
+    void undo(Delta delta) {
+        replaying = true;
+        try {
+            delta.undo();
+        } finally {
+            replaying = false;
+        }
+    }
+
+    void redo(Delta delta) {
+        replaying = true;
+        try {
+            delta.redo();
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private boolean isRecording() {
+        return (target != null) && !replaying;
+    }
+
+    private void record(DeltaOperation operation) {
+        if (isRecording()) {
+            target.add(operation);
+        }
+    }
+
+    private void buildShadows() {
+        for (ModelSupervisor supervisor : supervisors) {
+            supervisor.buildShadow();
+        }
+    }
+
+    static Collection<PropertyDescriptor> getDescriptors(Model model, Node node) {
+        ArrayList<PropertyDescriptor> result = new ArrayList<>();
+        if (model instanceof MathModel) {
+            result.addAll(model.getProperties(node).getDescriptors());
+        }
+        if (node instanceof Properties) {
+            result.addAll(((Properties) node).getDescriptors());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> readProperties(Model model, Node node) {
+        LinkedHashMap<String, Object> result = new LinkedHashMap<>();
+        for (PropertyDescriptor descriptor : getDescriptors(model, node)) {
+            if (descriptor.isWritable()) {
+                try {
+                    result.put(descriptor.getName(), descriptor.getValue());
+                } catch (InvocationTargetException e) {
+                    // The property cannot be read back, so it cannot be restored either.
+                }
+            }
+        }
+        return result;
+    }
+
+    private final class ModelSupervisor extends StateSupervisor implements ImmediateHierarchyObserver {
+        private final Model model;
+        private final HashMap<Node, DeltaOperation.NodeRemovedOperation> removingOperations = new HashMap<>();
+        private final HashMap<Node, AffineTransform> changingTransforms = new HashMap<>();
+        private final HashMap<Node, Map<String, Object>> shadow = new HashMap<>();
+        // Visual components forward the state events of their math nodes.
+        private final HashMap<Node, LinkedHashSet<Node>> mathToDependents = new HashMap<>();
+        private boolean shadowReady = false;
+        private boolean attaching = true;
+
+        ModelSupervisor(Model model) {
+            this.model = model;
+            attach(model.getRoot());
+            attaching = false;
+        }
+
+        void dispose() {
+            for (Node node : Hierarchy.getDescendantsOfType(getRoot(), Node.class)) {
+                if (node instanceof ObservableState) {
+                    ((ObservableState) node).removeObserver(this);
+                }
+            }
+            if (getRoot() instanceof ObservableState) {
+                ((ObservableState) getRoot()).removeObserver(this);
+            }
+            detach();
+        }
+
+        void buildShadow() {
+            if (!shadowReady) {
+                shadowReady = true;
+                for (Node node : getRoot().getChildren()) {
+                    shadowAdded(node);
+                }
+            }
+        }
+
+        private void shadowAdded(Node node) {
+            if (shadowReady) {
+                shadow.put(node, readProperties(model, node));
+                if (node instanceof Dependent) {
+                    for (MathNode mathNode : ((Dependent) node).getMathReferences()) {
+                        LinkedHashSet<Node> dependents = mathToDependents.get(mathNode);
+                        if (dependents == null) {
+                            dependents = new LinkedHashSet<>();
+                            mathToDependents.put(mathNode, dependents);
+                        }
+                        dependents.add(node);
+                    }
+                }
+                for (Node child : node.getChildren()) {
+                    shadowAdded(child);
+                }
+            }
+        }
+
+        private void shadowRemoved(Node node) {
+            if (shadowReady) {
+                shadow.remove(node);
+                if (node instanceof Dependent) {
+                    for (MathNode mathNode : ((Dependent) node).getMathReferences()) {
+                        LinkedHashSet<Node> dependents = mathToDependents.get(mathNode);
+                        if (dependents != null) {
+                            dependents.remove(node);
+                            if (dependents.isEmpty()) {
+                                mathToDependents.remove(mathNode);
+                            }
+                        }
+                    }
+                }
+                for (Node child : node.getChildren()) {
+                    shadowRemoved(child);
+                }
+            }
+        }
+
+        private void propertyChanged(Node node) {
+            Map<String, Object> oldValues = shadow.get(node);
+            if (oldValues == null) {
+                return;
+            }
+            Map<String, Object> newValues = readProperties(model, node);
+            shadow.put(node, newValues);
+            for (Map.Entry<String, Object> entry : newValues.entrySet()) {
+                String propertyName = entry.getKey();
+                Object oldValue = oldValues.get(propertyName);
+                Object newValue = entry.getValue();
+                if ((oldValue == null) ? (newValue != null) : !oldValue.equals(newValue)) {
+                    record(new DeltaOperation.PropertyChangedOperation(model, node, propertyName, oldValue, newValue));
+                }
+            }
+        }
+
+        private void transformChanging(VisualTransformableNode node) {
+            if (!changingTransforms.containsKey(node)) {
+                changingTransforms.put(node, new AffineTransform(node.getLocalToParentTransform()));
+            }
+        }
+
+        private void transformChanged(VisualTransformableNode node) {
+            AffineTransform oldTransform = changingTransforms.remove(node);
+            AffineTransform newTransform = node.getLocalToParentTransform();
+            if ((oldTransform != null) && !oldTransform.equals(newTransform)) {
+                record(new DeltaOperation.TransformChangedOperation(node, oldTransform, new AffineTransform(newTransform)));
+            }
+            // Coordinates are also exposed as properties, which must not be reported as changed later on.
+            if (shadow.containsKey(node)) {
+                shadow.put(node, readProperties(model, node));
+            }
+        }
+
+        @Override
+        public void handleHierarchyEvent(HierarchyEvent e) {
+            if (attaching) {
+                return;
+            }
+            if (e instanceof NodesReparentingEvent) {
+                reparentingDepth++;
+            } else if (e instanceof NodesReparentedEvent) {
+                reparentingDepth--;
+                NodesReparentedEvent re = (NodesReparentedEvent) e;
+                if ((re.getOldParent() instanceof Container) && (re.getNewParent() instanceof Container)) {
+                    record(new DeltaOperation.NodesReparentedOperation(
+                            (Container) re.getOldParent(), (Container) re.getNewParent(), re.getAffectedNodes()));
+                }
+            } else if (e instanceof NodesAddedEvent) {
+                for (Node node : e.getAffectedNodes()) {
+                    if ((reparentingDepth == 0) && (node.getParent() instanceof Container)) {
+                        record(new DeltaOperation.NodeAddedOperation(model, (Container) node.getParent(), node));
+                    }
+                    shadowAdded(node);
+                }
+            } else if (e instanceof NodesDeletingEvent) {
+                for (Node node : e.getAffectedNodes()) {
+                    if (isRecording() && (node.getParent() instanceof Container)) {
+                        removingOperations.put(node,
+                                new DeltaOperation.NodeRemovedOperation(model, (Container) node.getParent(), node));
+                    }
+                }
+            } else if (e instanceof NodesDeletedEvent) {
+                for (Node node : e.getAffectedNodes()) {
+                    DeltaOperation.NodeRemovedOperation operation = removingOperations.remove(node);
+                    if (operation != null) {
+                        record(operation);
+                    }
+                    shadowRemoved(node);
+                }
+            }
+        }
+
+        @Override
+        public void handleEvent(StateEvent e) {
+            if (e instanceof PropertyChangedEvent) {
+                Node sender = ((PropertyChangedEvent) e).getSender();
+                propertyChanged(sender);
+                LinkedHashSet<Node> dependents = mathToDependents.get(sender);
+                if (dependents != null) {
+                    for (Node dependent : dependents) {
+                        propertyChanged(dependent);
+                    }
+                }
+            } else if ((e instanceof TransformChangingEvent) && (e.getSender() instanceof VisualTransformableNode)) {
+                transformChanging((VisualTransformableNode) e.getSender());
+            } else if ((e instanceof TransformChangedEvent) && (e.getSender() instanceof VisualTransformableNode)) {
+                transformChanged((VisualTransformableNode) e.getSender());
+            }
+        }
+    }
+
+}
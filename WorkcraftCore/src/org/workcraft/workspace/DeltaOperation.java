@@ -0,0 +1,320 @@
+package org.workcraft.workspace;
+
+import java.awt.geom.AffineTransform;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.workcraft.dom.Connection;
+import org.workcraft.dom.Container;
+import org.workcraft.dom.Model;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.math.MathModel;
+import org.workcraft.dom.visual.VisualTransformableNode;
+import org.workcraft.exceptions.ArgumentException;
+import org.workcraft.gui.propertyeditor.PropertyDescriptor;
+import org.workcraft.util.LogUtils;
+
+/**
+ * A single reversible modification of a model recorded by the delta journal.
+ * Operations refer to the live node objects, so they can only be replayed
+ * against the model they were recorded on. Replaying an operation whose
+ * effect is already in place (e.g. because a supervisor has removed the node
+ * as a side effect of another operation) does nothing.
+ */
+abstract class DeltaOperation {
+    private static final int BASE_SIZE = 64;
+
+    abstract void undo();
+
+    abstract void redo();
+
+    /**
+     * @return an estimate of the memory retained by this operation in bytes.
+     */
+    long getSize() {
+        return BASE_SIZE;
+    }
+
+    /**
+     * @return the key of the state modified by this operation if consecutive
+     * modifications of that state can be merged into one, or null otherwise.
+     */
+    Object getMergeKey() {
+        return null;
+    }
+
+    void merge(DeltaOperation operation) {
+    }
+
+    /**
+     * Node is added to (or removed from) a container of a model. Math nodes
+     * keep their name, as the reference manager assigns a default name to
+     * the nodes added back to the model.
+     */
+    abstract static class NodeOperation extends DeltaOperation {
+        protected final Model model;
+        protected final Container parent;
+        protected final Node node;
+        protected String name;
+
+        NodeOperation(Model model, Container parent, Node node) {
+            this.model = model;
+            this.parent = parent;
+            this.node = node;
+        }
+
+        /**
+         * @return the position of the node in the order the nodes of one step
+         * have to be added back: math nodes go before the visual nodes that
+         * refer to them, and connections go after the nodes they connect.
+         */
+        int getRank() {
+            int rank = (model instanceof MathModel) ? 0 : 2;
+            if (node instanceof Connection) {
+                rank++;
+            }
+            return rank;
+        }
+
+        protected void readName() {
+            if (model instanceof MathModel) {
+                name = model.getName(node);
+            }
+        }
+
+        protected void add() {
+            if (node.getParent() == null) {
+                parent.add(node);
+                if ((name != null) && !name.equals(model.getName(node))) {
+                    model.setName(node, name);
+                }
+            }
+        }
+
+        protected void remove() {
+            if (node.getParent() == parent) {
+                readName();
+                parent.remove(node);
+            }
+        }
+    }
+
+    static class NodeAddedOperation extends NodeOperation {
+        NodeAddedOperation(Model model, Container parent, Node node) {
+            super(model, parent, node);
+        }
+
+        @Override
+        void undo() {
+            remove();
+        }
+
+        @Override
+        void redo() {
+            add();
+        }
+    }
+
+    static class NodeRemovedOperation extends NodeOperation {
+        NodeRemovedOperation(Model model, Container parent, Node node) {
+            super(model, parent, node);
+            readName();
+        }
+
+        @Override
+        void undo() {
+            add();
+        }
+
+        @Override
+        void redo() {
+            remove();
+        }
+    }
+
+    static class NodesReparentedOperation extends DeltaOperation {
+        private final Container oldParent;
+        private final Container newParent;
+        private final ArrayList<Node> nodes;
+
+        NodesReparentedOperation(Container oldParent, Container newParent, Collection<Node> nodes) {
+            this.oldParent = oldParent;
+            this.newParent = newParent;
+            this.nodes = new ArrayList<>(nodes);
+        }
+
+        private static void reparent(Collection<Node> nodes, Container from, Container to) {
+            ArrayList<Node> movable = new ArrayList<>();
+            for (Node node : nodes) {
+                if (node.getParent() == from) {
+                    movable.add(node);
+                }
+            }
+            if (!movable.isEmpty()) {
+                from.reparent(movable, to);
+            }
+        }
+
+        @Override
+        void undo() {
+            reparent(nodes, newParent, oldParent);
+        }
+
+        @Override
+        void redo() {
+            reparent(nodes, oldParent, newParent);
+        }
+
+        @Override
+        long getSize() {
+            return super.getSize() + 8 * nodes.size();
+        }
+    }
+
+    static class TransformChangedOperation extends DeltaOperation {
+        private final VisualTransformableNode node;
+        private final AffineTransform oldTransform;
+        private AffineTransform newTransform;
+
+        TransformChangedOperation(VisualTransformableNode node, AffineTransform oldTransform, AffineTransform newTransform) {
+            this.node = node;
+            this.oldTransform = oldTransform;
+            this.newTransform = newTransform;
+        }
+
+        @Override
+        void undo() {
+            node.setTransform(oldTransform);
+        }
+
+        @Override
+        void redo() {
+            node.setTransform(newTransform);
+        }
+
+        @Override
+        long getSize() {
+            return super.getSize() + 96;
+        }
+
+        @Override
+        Object getMergeKey() {
+            return node;
+        }
+
+        @Override
+        void merge(DeltaOperation operation) {
+            newTransform = ((TransformChangedOperation) operation).newTransform;
+        }
+    }
+
+    static class PropertyChangedOperation extends DeltaOperation {
+        private final Model model;
+        private final Node node;
+        private final String propertyName;
+        private final Object oldValue;
+        private Object newValue;
+
+        PropertyChangedOperation(Model model, Node node, String propertyName, Object oldValue, Object newValue) {
+            this.model = model;
+            this.node = node;
+            this.propertyName = propertyName;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        private void setValue(Object value) {
+            for (PropertyDescriptor descriptor : DeltaJournal.getDescriptors(model, node)) {
+                if (propertyName.equals(descriptor.getName())) {
+                    try {
+                        descriptor.setValue(value);
+                    } catch (InvocationTargetException e) {
+                        reportFailure(e.getCause());
+                    } catch (ArgumentException e) {
+                        reportFailure(e);
+                    }
+                    break;
+                }
+            }
+        }
+
+        private void reportFailure(Throwable cause) {
+            LogUtils.logErrorLine("Cannot restore the value of property '" + propertyName + "': "
+                    + ((cause == null) ? "unknown error" : cause.getMessage()));
+        }
+
+        @Override
+        void undo() {
+            setValue(oldValue);
+        }
+
+        @Override
+        void redo() {
+            setValue(newValue);
+        }
+
+        @Override
+        long getSize() {
+            long result = super.getSize();
+            if (oldValue instanceof String) {
+                result += 2 * ((String) oldValue).length();
+            }
+            if (newValue instanceof String) {
+                result += 2 * ((String) newValue).length();
+            }
+            return result;
+        }
+
+        @Override
+        Object getMergeKey() {
+            return Arrays.asList(node, propertyName);
+        }
+
+        @Override
+        void merge(DeltaOperation operation) {
+            newValue = ((PropertyChangedOperation) operation).newValue;
+        }
+    }
+
+    /**
+     * The whole model of the workspace entry is replaced, e.g. when pasting or
+     * inserting a model, which is done by deserialising a merged copy. Such an
+     * opaque modification is not expressed by observation events, so the
+     * previous model itself is kept as a snapshot to switch back to.
+     */
+    static class ModelEntryChangedOperation extends DeltaOperation {
+        private static final int NODE_SIZE = 256;
+
+        private final WorkspaceEntry we;
+        private final ModelEntry oldModelEntry;
+        private final ModelEntry newModelEntry;
+
+        ModelEntryChangedOperation(WorkspaceEntry we, ModelEntry oldModelEntry, ModelEntry newModelEntry) {
+            this.we = we;
+            this.oldModelEntry = oldModelEntry;
+            this.newModelEntry = newModelEntry;
+        }
+
+        @Override
+        void undo() {
+            we.setModelEntry(oldModelEntry);
+        }
+
+        @Override
+        void redo() {
+            we.setModelEntry(newModelEntry);
+        }
+
+        @Override
+        long getSize() {
+            long nodeCount = oldModelEntry.getMathModel().getNodesOfTypeView(Node.class).size();
+            if (oldModelEntry.isVisual()) {
+                nodeCount += oldModelEntry.getVisualModel().getNodesOfTypeView(Node.class).size();
+            }
+            return super.getSize() + NODE_SIZE * nodeCount;
+        }
+    }
+
+}
@@ -1,55 +1,98 @@
 package org.workcraft.workspace;
 
-import java.util.Stack;
+import java.util.LinkedList;
 
+import org.workcraft.plugins.shared.CommonEditorSettings;
+
+/**
+ * Undo and redo history of a workspace entry. The total estimated size of the
+ * history is kept within a memory budget by forgetting the oldest undo steps
+ * first and then the most distant redo steps. The most recent undo step is
+ * never forgotten, as it may still be recording.
+ */
 public class MementoManager {
-    private final Stack<Memento> undoStack = new Stack<>();
-    private final Stack<Memento> redoStack = new Stack<>();
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final LinkedList<Delta> undoStack = new LinkedList<>();
+    private final LinkedList<Delta> redoStack = new LinkedList<>();
+    private long capacity = -1;
 
-    public void pushUndo(Memento memento) {
-        this.undoStack.push(memento);
+    /**
+     * Sets the memory budget of the history in bytes. A negative value makes
+     * the budget follow the undo memory limit of the common editor settings.
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
     }
 
-    public Memento pullUndo() {
-        return undoStack.pop();
+    public long getCapacity() {
+        if (capacity < 0) {
+            return CommonEditorSettings.getUndoMemoryLimit() * MEGABYTE;
+        }
+        return capacity;
     }
 
-    public boolean canUndo() {
-        return !undoStack.empty();
+    public long getSize() {
+        long result = 0;
+        for (Delta delta : undoStack) {
+            result += delta.getSize();
+        }
+        for (Delta delta : redoStack) {
+            result += delta.getSize();
+        }
+        return result;
     }
 
-    public void pushRedo(Memento memento) {
-        this.redoStack.push(memento);
+    public void pushUndo(Delta delta) {
+        undoStack.addLast(delta);
+        trim();
     }
 
-    public Memento pullRedo() {
-        return redoStack.pop();
+    public Delta pullUndo() {
+        return undoStack.removeLast();
     }
 
-    public boolean canRedo() {
-        return !redoStack.empty();
+    public Delta peekUndo() {
+        return undoStack.peekLast();
     }
 
-    public Memento undo(Memento memento) {
-        Memento result = null;
-        if (canUndo()) {
-            result = pullUndo();
-            pushRedo(memento);
-        }
-        return result;
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
     }
 
-    public Memento redo(Memento memento) {
-        Memento result = null;
-        if (canRedo()) {
-            result = pullRedo();
-            pushUndo(memento);
-        }
-        return result;
+    public void pushRedo(Delta delta) {
+        redoStack.addLast(delta);
+    }
+
+    public Delta pullRedo() {
+        return redoStack.removeLast();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
     }
 
     public void clearRedo() {
         redoStack.clear();
     }
 
+    public int getUndoCount() {
+        return undoStack.size();
+    }
+
+    public int getRedoCount() {
+        return redoStack.size();
+    }
+
+    private void trim() {
+        long limit = getCapacity();
+        long size = getSize();
+        while ((size > limit) && (undoStack.size() > 1)) {
+            size -= undoStack.removeFirst().getSize();
+        }
+        while ((size > limit) && !redoStack.isEmpty()) {
+            size -= redoStack.removeFirst().getSize();
+        }
+    }
+
 }
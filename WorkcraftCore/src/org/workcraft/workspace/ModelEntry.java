@@ -4,30 +4,44 @@ import org.workcraft.dom.Model;
 import org.workcraft.dom.ModelDescriptor;
 import org.workcraft.dom.math.MathModel;
 import org.workcraft.dom.visual.VisualModel;
+import org.workcraft.util.Func;
 
 public class ModelEntry {
     private final ModelDescriptor descriptor;
     private Model model;
+    private Func<MathModel, VisualModel> visualModelLoader = null;
 
     public ModelEntry(ModelDescriptor descriptor, Model model) {
         this.descriptor = descriptor;
         this.model = model;
     }
 
+    /**
+     * Entry of a visual model that is only loaded on the first request for it.
+     * Until then the math model is available on its own.
+     */
+    public ModelEntry(ModelDescriptor descriptor, MathModel mathModel, Func<MathModel, VisualModel> visualModelLoader) {
+        this(descriptor, mathModel);
+        this.visualModelLoader = visualModelLoader;
+    }
+
     public ModelDescriptor getDescriptor() {
         return descriptor;
     }
 
     public void setModel(Model model) {
         this.model = model;
+        visualModelLoader = null;
     }
 
     public Model getModel() {
+        loadVisualModel();
         return model;
     }
 
     public VisualModel getVisualModel() {
         if (isVisual()) {
+            loadVisualModel();
             return (VisualModel) model;
         } else {
             return null;
@@ -35,15 +49,26 @@ public class ModelEntry {
     }
 
     public MathModel getMathModel() {
-        if (isVisual()) {
-            return getVisualModel().getMathModel();
+        if (model instanceof VisualModel) {
+            return ((VisualModel) model).getMathModel();
         } else {
             return (MathModel) model;
         }
     }
 
     public boolean isVisual() {
+        return (visualModelLoader != null) || (model instanceof VisualModel);
+    }
+
+    public boolean isVisualModelLoaded() {
         return model instanceof VisualModel;
     }
 
+    private void loadVisualModel() {
+        if (visualModelLoader != null) {
+            model = visualModelLoader.eval((MathModel) model);
+            visualModelLoader = null;
+        }
+    }
+
 }
@@ -64,8 +64,11 @@ public class WorkspaceEntry implements ObservableState {
     private boolean canSelect = true;
     private boolean canModify = true;
     private boolean canCopy = true;
-    private Memento capturedMemento = null;
-    private Memento savedMemento = null;
+    private final DeltaJournal journal = new DeltaJournal(this);
+    private Delta capturedDelta = null;
+    // The saved state is the state before or after the savedDelta step, depending on savedDeltaApplied.
+    private Delta savedDelta = null;
+    private boolean savedDeltaApplied = false;
 
     public WorkspaceEntry(Workspace workspace) {
         this.workspace = workspace;
@@ -75,7 +78,7 @@ public class WorkspaceEntry implements ObservableState {
         if (this.changed != changed) {
             this.changed = changed;
             if (changed == false) {
-                savedMemento = null;
+                savedDelta = null;
             }
             workspace.fireEntryChanged(this);
             final Framework framework = Framework.getInstance();
@@ -108,6 +111,7 @@ public class WorkspaceEntry implements ObservableState {
             }
         }
         this.modelEntry = modelEntry;
+        journal.attach(modelEntry);
 
         observableState.sendNotification(new StateEvent() {
             @Override
@@ -230,74 +234,91 @@ public class WorkspaceEntry implements ObservableState {
         updateActionState();
     }
 
+    private void setSavedDelta(Delta delta, boolean applied) {
+        savedDelta = delta;
+        savedDeltaApplied = applied;
+    }
+
+    private boolean isSavedDelta(Delta delta, boolean applied) {
+        return (savedDelta == delta) && (savedDeltaApplied == applied);
+    }
+
     public void captureMemento() {
-        final Framework framework = Framework.getInstance();
-        capturedMemento = framework.save(modelEntry);
+        capturedDelta = new Delta();
         if (changed == false) {
-            savedMemento = capturedMemento;
+            setSavedDelta(capturedDelta, false);
         }
+        journal.setTarget(capturedDelta);
 
         if (CommonDebugSettings.getCopyModelOnChange()) {
+            final Framework framework = Framework.getInstance();
+            Memento memento = framework.save(modelEntry);
             Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-            String str = unzipInputStream(new ZipInputStream(capturedMemento.getStream()));
+            String str = unzipInputStream(new ZipInputStream(memento.getStream()));
             clipboard.setContents(new StringSelection(str), null);
         }
     }
 
     public void cancelMemento() {
-        final Framework framework = Framework.getInstance();
-        if (capturedMemento != null) {
-            setModelEntry(framework.load(capturedMemento));
-            setChanged(savedMemento != capturedMemento);
+        if (capturedDelta != null) {
+            journal.setTarget(null);
+            journal.undo(capturedDelta);
+            setChanged(!isSavedDelta(capturedDelta, false));
         }
-        capturedMemento = null;
+        capturedDelta = null;
+        journal.setTarget(history.peekUndo());
     }
 
     public void saveMemento() {
-        Memento currentMemento = capturedMemento;
-        capturedMemento = null;
-        if (currentMemento == null) {
-            final Framework framework = Framework.getInstance();
-            currentMemento = framework.save(modelEntry);
+        Delta currentDelta = capturedDelta;
+        capturedDelta = null;
+        if (currentDelta == null) {
+            currentDelta = new Delta();
         }
         if (changed == false) {
-            savedMemento = currentMemento;
+            setSavedDelta(currentDelta, false);
         }
-        history.pushUndo(currentMemento);
+        discardEmptyUndo();
+        history.pushUndo(currentDelta);
         history.clearRedo();
+        journal.setTarget(currentDelta);
         updateActionState();
     }
 
+    private void discardEmptyUndo() {
+        // A step without any recorded operations would make undo appear to do nothing.
+        while (history.canUndo() && history.peekUndo().isEmpty() && (history.peekUndo() != savedDelta)) {
+            history.pullUndo();
+        }
+    }
+
     public void undo() {
+        discardEmptyUndo();
         if (history.canUndo()) {
-            Memento undoMemento = history.pullUndo();
-            if (undoMemento != null) {
-                final Framework framework = Framework.getInstance();
-                Memento currentMemento = framework.save(modelEntry);
-                if (changed == false) {
-                    savedMemento = currentMemento;
-                }
-                history.pushRedo(currentMemento);
-                setModelEntry(framework.load(undoMemento));
-                setChanged(undoMemento != savedMemento);
+            Delta undoDelta = history.pullUndo();
+            if (changed == false) {
+                setSavedDelta(undoDelta, true);
             }
+            journal.setTarget(null);
+            journal.undo(undoDelta);
+            history.pushRedo(undoDelta);
+            setChanged(!isSavedDelta(undoDelta, false));
         }
+        journal.setTarget(history.peekUndo());
         updateActionState();
     }
 
     public void redo() {
         if (history.canRedo()) {
-            Memento redoMemento = history.pullRedo();
-            if (redoMemento != null) {
-                final Framework framework = Framework.getInstance();
-                Memento currentMemento = framework.save(modelEntry);
-                if (changed == false) {
-                    savedMemento = currentMemento;
-                }
-                history.pushUndo(currentMemento);
-                setModelEntry(framework.load(redoMemento));
-                setChanged(redoMemento != savedMemento);
+            Delta redoDelta = history.pullRedo();
+            if (changed == false) {
+                setSavedDelta(redoDelta, false);
             }
+            journal.setTarget(null);
+            journal.redo(redoDelta);
+            history.pushUndo(redoDelta);
+            journal.setTarget(redoDelta);
+            setChanged(!isSavedDelta(redoDelta, true));
         }
         updateActionState();
     }
@@ -348,6 +369,8 @@ public class WorkspaceEntry implements ObservableState {
     public void copy() {
         VisualModel model = modelEntry.getVisualModel();
         if (model.getSelection().size() > 0) {
+            Container currentLevel = model.getCurrentLevel();
+            Collection<Node> selection = new HashSet<>(model.getSelection());
             captureMemento();
             try {
                 // copy selected nodes inside a group as if it was the root
@@ -374,6 +397,8 @@ public class WorkspaceEntry implements ObservableState {
                 }
             } finally {
                 cancelMemento();
+                model.setCurrentLevel(currentLevel);
+                model.select(selection);
             }
         }
     }
@@ -0,0 +1,49 @@
+package org.workcraft.testing.dom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.workcraft.dom.GraphSnapshot;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.NodeContextTracker;
+import org.workcraft.dom.math.MathConnection;
+import org.workcraft.dom.math.MathGroup;
+import org.workcraft.dom.math.MathNode;
+
+public class GraphSnapshotTests {
+
+    class MockNode extends MathNode {
+    }
+
+    @Test
+    public void testAdjacency() {
+        MathGroup group = new MathGroup();
+        MockNode n1 = new MockNode();
+        MockNode n2 = new MockNode();
+        MockNode n3 = new MockNode();
+        group.add(n1);
+        group.add(n2);
+        group.add(n3);
+        MathConnection con1 = new MathConnection(n1, n3);
+        MathConnection con2 = new MathConnection(n2, n3);
+        group.add(con1);
+        group.add(con2);
+
+        NodeContextTracker nct = new NodeContextTracker();
+        nct.attach(group);
+        GraphSnapshot snapshot = GraphSnapshot.build(Arrays.<Node>asList(n1, n2, n3, con1, con2), nct);
+
+        assertEquals(5, snapshot.getNodeCount());
+        assertEquals(2, snapshot.getId(n3));
+        assertEquals(-1, snapshot.getId(group));
+        assertArrayEquals(new int[] {0, 1}, snapshot.getPreset(2));
+        assertArrayEquals(new int[] {2}, snapshot.getPostset(0));
+        assertEquals(0, snapshot.getPostsetSize(2));
+        assertArrayEquals(new int[] {3, 4}, snapshot.getConnections(2));
+        assertEquals(con1, snapshot.getNode(snapshot.getConnectionId(0, 0)));
+    }
+
+}
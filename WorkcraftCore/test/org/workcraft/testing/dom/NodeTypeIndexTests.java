@@ -0,0 +1,76 @@
+package org.workcraft.testing.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.NodeTypeIndex;
+import org.workcraft.dom.math.MathConnection;
+import org.workcraft.dom.math.MathGroup;
+import org.workcraft.dom.math.MathNode;
+
+public class NodeTypeIndexTests {
+
+    class MockNode extends MathNode {
+    }
+
+    class OtherMockNode extends MockNode {
+    }
+
+    @Test
+    public void testInitAndQuery() {
+        MathGroup root = new MathGroup();
+        MockNode n1 = new MockNode();
+        OtherMockNode n2 = new OtherMockNode();
+        MathGroup group = new MathGroup();
+        MockNode n3 = new MockNode();
+        group.add(n3);
+        root.add(n1);
+        root.add(n2);
+        root.add(group);
+        root.add(new MathConnection(n1, n2));
+
+        NodeTypeIndex index = new NodeTypeIndex();
+        index.attach(root);
+
+        assertEquals(3, index.count(MockNode.class));
+        assertEquals(1, index.count(OtherMockNode.class));
+        assertEquals(1, index.count(MathConnection.class));
+        assertEquals(1, index.count(MathGroup.class));
+        assertFalse(index.contains(root));
+        assertTrue(index.getNodes(MockNode.class).containsAll(Arrays.asList(n1, n2, n3)));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        MathGroup root = new MathGroup();
+        NodeTypeIndex index = new NodeTypeIndex();
+        index.attach(root);
+
+        Collection<MockNode> view = index.getNodesView(MockNode.class);
+        assertTrue(view.isEmpty());
+
+        MockNode n1 = new MockNode();
+        root.add(n1);
+        MathGroup group = new MathGroup();
+        OtherMockNode n2 = new OtherMockNode();
+        group.add(n2);
+        root.add(group);
+        assertEquals(2, view.size());
+        assertTrue(view.contains(n2));
+
+        root.remove(group);
+        assertEquals(1, view.size());
+        assertFalse(index.contains(n2));
+
+        MathGroup otherRoot = new MathGroup();
+        root.reparent(Arrays.<Node>asList(n1), otherRoot);
+        assertTrue(view.isEmpty());
+    }
+
+}
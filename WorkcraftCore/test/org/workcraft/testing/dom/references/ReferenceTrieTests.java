@@ -0,0 +1,41 @@
+package org.workcraft.testing.dom.references;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.workcraft.dom.references.ReferenceTrie;
+
+public class ReferenceTrieTests {
+
+    @Test
+    public void testPutGetRemove() {
+        ReferenceTrie<Integer> trie = new ReferenceTrie<>();
+        trie.put("p", 1);
+        trie.put("p1", 2);
+        trie.put("page/p1", 3);
+        trie.put("page/p10", 4);
+        assertEquals(4, trie.size());
+        assertEquals(Integer.valueOf(1), trie.get("p"));
+        assertEquals(Integer.valueOf(2), trie.get("p1"));
+        assertEquals(Integer.valueOf(3), trie.get(new StringBuilder("page/p1")));
+        assertNull(trie.get("page"));
+        assertNull(trie.get("page/p100"));
+
+        assertEquals(Integer.valueOf(3), trie.remove("page/p1"));
+        assertNull(trie.get("page/p1"));
+        assertEquals(Integer.valueOf(4), trie.get("page/p10"));
+        assertNull(trie.remove("page/p1"));
+        assertNull(trie.remove("page"));
+
+        assertEquals(Integer.valueOf(1), trie.put("p", 5));
+        assertEquals(Integer.valueOf(5), trie.get("p"));
+        assertEquals(3, trie.size());
+
+        trie.clear();
+        assertTrue(trie.isEmpty());
+        assertNull(trie.get("p1"));
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.workcraft.testing.dom.references;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.workcraft.dom.Node;
+import org.workcraft.dom.math.CommentNode;
+import org.workcraft.dom.references.UniqueNameManager;
+
+public class UniqueNameManagerTests {
+
+    private static class CountingNameManager extends UniqueNameManager {
+        private long probeCount = 0;
+
+        @Override
+        public boolean isUnusedName(String name) {
+            probeCount++;
+            return super.isUnusedName(name);
+        }
+    }
+
+    private static long deriveNames(int count) {
+        CountingNameManager mgr = new CountingNameManager();
+        mgr.setName(new CommentNode(), "p");
+        for (int i = 0; i < count; i++) {
+            Node node = new CommentNode();
+            mgr.setName(node, mgr.getDerivedName(node, "p"));
+        }
+        return mgr.probeCount;
+    }
+
+    private static long createDefaultNames(int count) {
+        CountingNameManager mgr = new CountingNameManager();
+        for (int i = 0; i < count; i++) {
+            mgr.setDefaultNameIfUnnamed(new CommentNode());
+        }
+        return mgr.probeCount;
+    }
+
+    @Test
+    public void testDerivedNames() {
+        UniqueNameManager mgr = new UniqueNameManager();
+        ArrayList<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Node node = new CommentNode();
+            nodes.add(node);
+            mgr.setName(node, mgr.getDerivedName(node, "p"));
+        }
+        assertEquals("p", mgr.getName(nodes.get(0)));
+        assertEquals("pa", mgr.getName(nodes.get(1)));
+        assertEquals("pz", mgr.getName(nodes.get(26)));
+        assertEquals("pab", mgr.getName(nodes.get(27)));
+        assertEquals("pbb", mgr.getName(nodes.get(28)));
+
+        // Released names are derived again, the lowest first.
+        mgr.remove(nodes.get(28));
+        mgr.remove(nodes.get(3));
+        mgr.setName(nodes.get(2), "q");
+        Node node = new CommentNode();
+        assertEquals("pb", mgr.getDerivedName(node, "p"));
+        mgr.setName(node, "pb");
+        assertEquals("pc", mgr.getDerivedName(new CommentNode(), "p"));
+    }
+
+    @Test
+    public void testLinearScaling() {
+        // The old linear probing took about n^2/2 probes for n names derived from the same candidate.
+        int count = 20000;
+        assertTrue(deriveNames(count) <= 4L * count);
+        assertTrue(deriveNames(2 * count) <= 2 * 4L * count);
+        assertTrue(createDefaultNames(2 * count) <= 2 * 2L * count);
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.workcraft.testing.formula;
+
+import static org.workcraft.formula.BooleanOperations.and;
+import static org.workcraft.formula.BooleanOperations.iff;
+import static org.workcraft.formula.BooleanOperations.not;
+import static org.workcraft.formula.BooleanOperations.or;
+import static org.workcraft.formula.BooleanOperations.xor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.formula.Aig;
+import org.workcraft.formula.AigBooleanWorker;
+import org.workcraft.formula.BooleanFormula;
+import org.workcraft.formula.BooleanSolution;
+import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.FreeVariable;
+import org.workcraft.formula.One;
+import org.workcraft.formula.Zero;
+import org.workcraft.formula.sat.AigCnfGenerator;
+import org.workcraft.formula.sat.ConsoleBooleanSolver;
+import org.workcraft.formula.utils.BooleanUtils;
+import org.workcraft.plugins.shared.CommonSatSettings;
+
+public class AigTests {
+    private final FreeVariable a = new FreeVariable("a");
+    private final FreeVariable b = new FreeVariable("b");
+    private final FreeVariable c = new FreeVariable("c");
+
+    @Test
+    public void testStructuralHashing() {
+        Aig aig = new Aig();
+        int x = aig.variable(a);
+        int y = aig.variable(b);
+        Assert.assertEquals(aig.and(x, y), aig.and(y, x));
+        Assert.assertEquals(Aig.not(aig.and(Aig.not(x), Aig.not(y))), aig.or(x, y));
+        Assert.assertEquals(Aig.FALSE, aig.and(x, Aig.not(x)));
+        Assert.assertEquals(x, aig.and(x, Aig.TRUE));
+        Assert.assertEquals(Aig.TRUE, aig.or(y, Aig.not(y)));
+        Assert.assertEquals(5, aig.getNodeCount());
+    }
+
+    @Test
+    public void testWorkerSharesNodes() {
+        AigBooleanWorker worker = new AigBooleanWorker();
+        BooleanFormula ab = worker.and(a, b);
+        Assert.assertSame(ab, worker.and(b, a));
+        Assert.assertSame(worker.zero(), worker.and(ab, worker.not(a)));
+        Assert.assertSame(a, worker.not(worker.not(a)));
+        Assert.assertSame(worker.or(a, c), worker.not(worker.and(worker.not(a), worker.not(c))));
+    }
+
+    @Test
+    public void testReplaceByConstants() {
+        BooleanFormula formula = or(and(a, not(b)), xor(b, c));
+        BooleanVariable[] variables = {a, b, c};
+        for (int code = 0; code < 8; code++) {
+            BooleanFormula[] values = new BooleanFormula[3];
+            boolean[] bits = new boolean[3];
+            for (int i = 0; i < 3; i++) {
+                bits[i] = ((code >> i) & 1) != 0;
+                values[i] = bits[i] ? One.instance() : Zero.instance();
+            }
+            boolean expected = (bits[0] && !bits[1]) || (bits[1] != bits[2]);
+            BooleanFormula result = BooleanUtils.aigReplace(formula, Arrays.asList(variables), Arrays.asList(values));
+            Assert.assertSame(expected ? One.instance() : Zero.instance(), result);
+        }
+        // The cofactors of a buffer are constants even when they are so only by structure
+        BooleanFormula buffer = or(and(a, c), and(a, not(c)));
+        Assert.assertSame(Zero.instance(), BooleanUtils.aigReplace(buffer, a, Zero.instance()));
+        Assert.assertSame(One.instance(), BooleanUtils.aigReplace(buffer, a, One.instance()));
+    }
+
+    @Test
+    public void testCompose() {
+        Aig aig = new Aig();
+        int x = aig.variable(a);
+        int y = aig.variable(b);
+        int f = aig.xor(x, y);
+        HashMap<BooleanVariable, Integer> substitution = new HashMap<>();
+        substitution.put(b, x);
+        Assert.assertEquals(Aig.FALSE, aig.compose(f, substitution));
+        substitution.put(b, Aig.not(x));
+        Assert.assertEquals(Aig.TRUE, aig.compose(f, substitution));
+    }
+
+    @Test
+    public void testCnf() {
+        CommonSatSettings.SatSolver solver = CommonSatSettings.getSatSolver();
+        CommonSatSettings.setSatSolver(CommonSatSettings.SatSolver.BUILTIN);
+        try {
+            ConsoleBooleanSolver sat = new ConsoleBooleanSolver();
+            AigCnfGenerator generator = new AigCnfGenerator();
+            Assert.assertNull(sat.solve(generator.getCnf(and(xor(a, b), iff(a, b)))));
+            BooleanSolution solution = sat.solve(generator.getCnf(and(or(a, b), and(not(a), iff(b, not(c))))));
+            Assert.assertFalse(solution.getSolution(a));
+            Assert.assertTrue(solution.getSolution(b));
+            Assert.assertFalse(solution.getSolution(c));
+        } finally {
+            CommonSatSettings.setSatSolver(solver);
+        }
+    }
+
+}
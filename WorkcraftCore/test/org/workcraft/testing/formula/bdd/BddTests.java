@@ -0,0 +1,109 @@
+package org.workcraft.testing.formula.bdd;
+
+import static org.workcraft.formula.BooleanOperations.and;
+import static org.workcraft.formula.BooleanOperations.not;
+import static org.workcraft.formula.BooleanOperations.or;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.formula.BooleanVariable;
+import org.workcraft.formula.FreeVariable;
+import org.workcraft.formula.bdd.Bdd;
+import org.workcraft.formula.utils.BooleanUtils;
+
+public class BddTests {
+
+    @Test
+    public void testCanonicity() {
+        Bdd bdd = new Bdd();
+        int a = bdd.var(bdd.newVariable());
+        int b = bdd.var(bdd.newVariable());
+        int c = bdd.var(bdd.newVariable());
+        Assert.assertEquals(bdd.and(a, bdd.or(b, c)), bdd.or(bdd.and(a, b), bdd.and(c, a)));
+        Assert.assertEquals(bdd.not(bdd.and(a, b)), bdd.or(bdd.not(a), bdd.not(b)));
+        Assert.assertEquals(Bdd.ZERO, bdd.and(a, bdd.not(a)));
+        Assert.assertEquals(Bdd.ONE, bdd.imply(bdd.and(a, b), a));
+        Assert.assertEquals(bdd.xor(a, b), bdd.ite(a, bdd.not(b), b));
+        Assert.assertEquals(6.0, bdd.satCount(bdd.or(a, b)), 0.0);
+    }
+
+    @Test
+    public void testQuantification() {
+        Bdd bdd = new Bdd();
+        int x = bdd.newVariable();
+        int y = bdd.newVariable();
+        int z = bdd.newVariable();
+        int f = bdd.and(bdd.var(x), bdd.or(bdd.var(y), bdd.var(z)));
+        Assert.assertEquals(bdd.var(x), bdd.exists(f, bdd.cube(y, z)));
+        Assert.assertEquals(bdd.or(bdd.var(y), bdd.var(z)), bdd.exists(f, bdd.cube(x)));
+        int g = bdd.nvar(z);
+        Assert.assertEquals(bdd.exists(bdd.and(f, g), bdd.cube(y, z)), bdd.relProd(f, g, bdd.cube(y, z)));
+        Assert.assertEquals(bdd.and(bdd.var(x), bdd.or(bdd.var(z), bdd.var(y))), bdd.replace(f, new int[] {x, z, y}));
+    }
+
+    @Test
+    public void testReorder() {
+        Bdd bdd = new Bdd();
+        int n = 8;
+        int[] vars = new int[2 * n];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = bdd.newVariable();
+        }
+        // The pairs are far apart in the initial order, which makes the BDD exponential
+        int f = Bdd.ZERO;
+        for (int i = 0; i < n; i++) {
+            f = bdd.or(f, bdd.and(bdd.var(vars[i]), bdd.var(vars[i + n])));
+        }
+        bdd.ref(f);
+        int before = bdd.getNodeCount(f);
+        Random random = new Random(1);
+        boolean[][] samples = new boolean[100][vars.length];
+        boolean[] expected = new boolean[samples.length];
+        for (int s = 0; s < samples.length; s++) {
+            for (int i = 0; i < vars.length; i++) {
+                samples[s][i] = random.nextBoolean();
+            }
+            expected[s] = bdd.evaluate(f, samples[s]);
+        }
+        bdd.reorder();
+        Assert.assertTrue(bdd.getNodeCount(f) < before);
+        for (int s = 0; s < samples.length; s++) {
+            Assert.assertEquals(expected[s], bdd.evaluate(f, samples[s]));
+        }
+        // The unique tables stay canonical, so building the function again gives the same node
+        int g = Bdd.ZERO;
+        for (int i = 0; i < n; i++) {
+            g = bdd.or(g, bdd.and(bdd.var(vars[i]), bdd.var(vars[i + n])));
+        }
+        Assert.assertEquals(f, g);
+    }
+
+    @Test
+    public void testGarbageCollection() {
+        Bdd bdd = new Bdd();
+        int a = bdd.ref(bdd.var(bdd.newVariable()));
+        int b = bdd.ref(bdd.var(bdd.newVariable()));
+        int kept = bdd.ref(bdd.xor(a, b));
+        bdd.and(a, b);
+        int live = bdd.getLiveNodeCount();
+        bdd.gc();
+        Assert.assertEquals(live - 1, bdd.getLiveNodeCount());
+        Assert.assertEquals(kept, bdd.xor(a, b));
+        bdd.deref(kept);
+    }
+
+    @Test
+    public void testEquivalence() {
+        BooleanVariable a = new FreeVariable("a");
+        BooleanVariable b = new FreeVariable("b");
+        Assert.assertTrue(BooleanUtils.isEquivalent(not(and(a, b)), or(not(b), not(a))));
+        Assert.assertFalse(BooleanUtils.isEquivalent(and(a, b), or(a, b)));
+        HashMap<BooleanVariable, Integer> variables = new HashMap<>();
+        Bdd bdd = new Bdd();
+        Assert.assertEquals(bdd.build(or(a, b), variables), bdd.build(not(and(not(a), not(b))), variables));
+    }
+
+}
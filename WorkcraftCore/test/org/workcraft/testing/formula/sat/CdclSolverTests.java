@@ -0,0 +1,68 @@
+package org.workcraft.testing.formula.sat;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.formula.sat.CdclSolver;
+
+public class CdclSolverTests {
+
+    private static boolean satisfies(CdclSolver solver, int[][] clauses) {
+        for (int[] clause : clauses) {
+            boolean sat = false;
+            for (int literal : clause) {
+                sat |= solver.getValue(Math.abs(literal)) == (literal > 0);
+            }
+            if (!sat) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSatisfiable() {
+        int[][] clauses = {{1, 2}, {-1, 3}, {-2, -3}, {-3, 4}, {2, -4}};
+        CdclSolver solver = new CdclSolver();
+        for (int[] clause : clauses) {
+            Assert.assertTrue(solver.addClause(clause));
+        }
+        Assert.assertTrue(solver.solve());
+        Assert.assertTrue(satisfies(solver, clauses));
+    }
+
+    @Test
+    public void testPigeonholeIsUnsatisfiable() {
+        // Four pigeons in three holes, pigeon p is in hole h if the variable 3p + h + 1 is true
+        CdclSolver solver = new CdclSolver();
+        for (int p = 0; p < 4; p++) {
+            solver.addClause(3 * p + 1, 3 * p + 2, 3 * p + 3);
+        }
+        for (int h = 0; h < 3; h++) {
+            for (int p = 0; p < 4; p++) {
+                for (int q = p + 1; q < 4; q++) {
+                    solver.addClause(-(3 * p + h + 1), -(3 * q + h + 1));
+                }
+            }
+        }
+        Assert.assertFalse(solver.solve());
+        Assert.assertFalse(solver.solve());
+    }
+
+    @Test
+    public void testAssumptionsAndIncrementalClauses() {
+        CdclSolver solver = new CdclSolver();
+        solver.addClause(1, 2);
+        solver.addClause(-1, 3);
+        Assert.assertFalse(solver.solve(-2, -3));
+        Assert.assertTrue(solver.solve(-2));
+        Assert.assertTrue(solver.getValue(1));
+        Assert.assertTrue(solver.getValue(3));
+        solver.addClause(-3);
+        Assert.assertTrue(solver.solve());
+        Assert.assertFalse(solver.getValue(1));
+        Assert.assertTrue(solver.getValue(2));
+        Assert.assertFalse(solver.solve(-2));
+        Assert.assertTrue(solver.solve());
+    }
+
+}
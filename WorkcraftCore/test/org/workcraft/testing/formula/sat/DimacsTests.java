@@ -0,0 +1,62 @@
+package org.workcraft.testing.formula.sat;
+
+import static org.workcraft.formula.encoding.CnfOperations.literal;
+import static org.workcraft.formula.encoding.CnfOperations.not;
+import static org.workcraft.formula.encoding.CnfOperations.or;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.formula.BooleanSolution;
+import org.workcraft.formula.FreeVariable;
+import org.workcraft.formula.Literal;
+import org.workcraft.formula.cnf.Cnf;
+import org.workcraft.formula.sat.CnfTask;
+import org.workcraft.formula.sat.DimacsWriter;
+import org.workcraft.formula.sat.SimpleCnfTaskProvider;
+import org.workcraft.formula.sat.SolutionReader;
+
+public class DimacsTests {
+    private final FreeVariable x = new FreeVariable("x");
+    private final FreeVariable y = new FreeVariable("y");
+
+    private CnfTask createTask() {
+        Cnf cnf = new Cnf();
+        cnf.add(or(literal(x), new Literal("")));
+        cnf.add(or(not(x), not(y)));
+        return new SimpleCnfTaskProvider().getCnf(cnf);
+    }
+
+    private static BooleanSolution read(CnfTask task, String output) throws Exception {
+        return SolutionReader.readSolution(task, new ByteArrayInputStream(output.getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DimacsWriter.write(createTask().getCnf(), out);
+        String expected = "c 1 x\nc 3 y\nc 4 0\nc 5 1\np cnf 5 4\n1 2 0\n-1 -3 0\n-4 0\n5 0\n";
+        Assert.assertEquals(expected, out.toString("UTF-8"));
+    }
+
+    @Test
+    public void testMinisatOutput() throws Exception {
+        CnfTask task = createTask();
+        BooleanSolution solution = read(task, "SAT\n1 -2 -3 -4 5 0\n");
+        Assert.assertTrue(solution.getSolution(x));
+        Assert.assertFalse(solution.getSolution(y));
+        Assert.assertNull(read(task, "UNSAT\n"));
+    }
+
+    @Test
+    public void testClaspOutput() throws Exception {
+        CnfTask task = createTask();
+        BooleanSolution solution = read(task, "c clasp version 3\nc Solving 1 2\ns SATISFIABLE\nv -1 2\nv 3 -4 5 0\nc Models : 1\n");
+        Assert.assertFalse(solution.getSolution(x));
+        Assert.assertTrue(solution.getSolution(y));
+        Assert.assertNull(read(task, "c clasp version 3\ns UNSATISFIABLE\n"));
+    }
+
+}
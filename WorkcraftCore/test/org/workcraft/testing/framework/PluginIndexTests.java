@@ -0,0 +1,37 @@
+package org.workcraft.testing.framework;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.Plugin;
+import org.workcraft.PluginFinder;
+import org.workcraft.PluginManager;
+import org.workcraft.plugins.PluginInfo;
+
+public class PluginIndexTests {
+
+    @Test
+    public void testIndexListsAllPlugins() throws Exception {
+        Set<String> found = new HashSet<>();
+        String[] classPathLocations = System.getProperty("java.class.path").split(System.getProperty("path.separator"));
+        for (String location : classPathLocations) {
+            if (new File(location).isDirectory()) {
+                for (Class<?> cls : PluginFinder.search(new File(location))) {
+                    found.add(cls.getName());
+                }
+            }
+        }
+
+        PluginManager pluginManager = new PluginManager();
+        Assert.assertTrue(pluginManager.loadIndex());
+        Set<String> indexed = new HashSet<>();
+        for (PluginInfo<? extends Plugin> info : pluginManager.getPlugins(Plugin.class)) {
+            indexed.add(info.newInstance().getClass().getName());
+        }
+        Assert.assertTrue(found.toString(), indexed.containsAll(found));
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.workcraft.testing.framework;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.Trace;
+
+public class TraceTests {
+
+    @Test
+    public void testListOperations() {
+        Trace trace = new Trace();
+        trace.fromString("a+, b+, a-, b-");
+        Assert.assertEquals(Arrays.asList("a+", "b+", "a-", "b-"), trace);
+        Trace other = new Trace();
+        other.add(new String("a+"));
+        Assert.assertSame(trace.get(0), other.get(0));
+        Assert.assertEquals(trace.getId(0), Trace.intern("a+"));
+
+        trace.setPosition(3);
+        trace.remove(1);
+        Assert.assertEquals(2, trace.getPosition());
+        Assert.assertEquals("b-", trace.getCurrent());
+        int version = trace.getVersion();
+        trace.setPosition(0);
+        Assert.assertEquals(version, trace.getVersion());
+
+        Trace copy = new Trace();
+        copy.addAll(trace);
+        copy.addAll(Arrays.asList("c+"));
+        Assert.assertEquals("a+, a-, b-, c+", copy.toString());
+    }
+
+    @Test
+    public void testSerialisation() throws Exception {
+        Trace trace = new Trace();
+        for (int i = 0; i < 10000; i++) {
+            trace.add((i % 2 == 0) ? "t" + (i % 200) : "dummy");
+        }
+        trace.setPosition(1234);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+        Assert.assertTrue(out.size() < 3 * trace.size());
+        Trace result = Trace.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(trace, result);
+        Assert.assertEquals(1234, result.getPosition());
+    }
+
+    @Test
+    public void testCloneAndObjectStream() throws Exception {
+        Trace trace = new Trace();
+        trace.fromString("2: a+, b+, a-, b-");
+        Trace copy = trace.clone();
+        copy.add("c+");
+        Assert.assertEquals(4, trace.size());
+        Assert.assertEquals(5, copy.size());
+        Assert.assertEquals(2, copy.getPosition());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(trace);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            Trace result = (Trace) ois.readObject();
+            Assert.assertEquals(trace, result);
+            Assert.assertEquals(2, result.getPosition());
+            Assert.assertSame(trace.get(0), result.get(0));
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.workcraft.testing.interop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.interop.LineOutputListener;
+
+public class LineOutputListenerTests {
+
+    private static List<String> split(String text, int chunkSize) throws Exception {
+        final List<String> lines = new ArrayList<>();
+        LineOutputListener listener = new LineOutputListener() {
+            @Override
+            public void outputLine(String line) {
+                lines.add(line);
+            }
+        };
+        byte[] data = text.getBytes("ISO-8859-1");
+        for (int i = 0; i < data.length; i += chunkSize) {
+            listener.outputData(Arrays.copyOfRange(data, i, Math.min(data.length, i + chunkSize)));
+        }
+        listener.processFinished(0);
+        return lines;
+    }
+
+    @Test
+    public void testChunkBoundaries() throws Exception {
+        String text = "SOLUTION 1\n\na, b,\tc\r\ntotal cost of all paths: 3\nénd";
+        List<String> expected = Arrays.asList("SOLUTION 1", "", "a, b,\tc\r", "total cost of all paths: 3", "énd");
+        for (int chunkSize = 1; chunkSize <= text.length(); chunkSize++) {
+            Assert.assertEquals(expected, split(text, chunkSize));
+        }
+    }
+
+    @Test
+    public void testTrailingNewline() throws Exception {
+        Assert.assertEquals(Arrays.asList("a", "b"), split("a\nb\n", 3));
+        Assert.assertEquals(Arrays.asList(), split("", 1));
+    }
+
+}
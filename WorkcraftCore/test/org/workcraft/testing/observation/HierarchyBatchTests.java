@@ -0,0 +1,58 @@
+package org.workcraft.testing.observation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.workcraft.dom.NodeTypeIndex;
+import org.workcraft.dom.math.MathGroup;
+import org.workcraft.dom.math.MathNode;
+import org.workcraft.observation.HierarchyBatch;
+import org.workcraft.observation.HierarchyEvent;
+import org.workcraft.observation.HierarchyObserver;
+import org.workcraft.observation.NodesAddedEvent;
+import org.workcraft.observation.NodesAddingEvent;
+import org.workcraft.observation.NodesDeletedEvent;
+
+public class HierarchyBatchTests {
+
+    class MockNode extends MathNode {
+    }
+
+    @Test
+    public void testDeferredAndCoalesced() {
+        MathGroup root = new MathGroup();
+        final ArrayList<HierarchyEvent> events = new ArrayList<>();
+        root.addObserver(new HierarchyObserver() {
+            @Override
+            public void notify(HierarchyEvent e) {
+                events.add(e);
+            }
+        });
+        NodeTypeIndex index = new NodeTypeIndex();
+        index.attach(root);
+
+        MockNode n1 = new MockNode();
+        MockNode n2 = new MockNode();
+        MockNode n3 = new MockNode();
+        try (HierarchyBatch batch = HierarchyBatch.begin(root)) {
+            root.add(n1);
+            root.add(n2);
+            root.add(n3);
+            // Pre-modification events and immediate observers are not deferred
+            assertEquals(3, events.size());
+            assertTrue(events.get(0) instanceof NodesAddingEvent);
+            assertEquals(3, index.count(MockNode.class));
+            root.remove(n3);
+        }
+        assertTrue(!HierarchyBatch.isActive(root));
+        assertEquals(6, events.size());
+        assertTrue(events.get(4) instanceof NodesAddedEvent);
+        assertEquals(3, events.get(4).getAffectedNodes().size());
+        assertTrue(events.get(5) instanceof NodesDeletedEvent);
+        assertEquals(2, index.count(MockNode.class));
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.workcraft.testing.plugins.shared.tasks;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.shared.CommonTaskSettings;
+import org.workcraft.plugins.shared.tasks.ExternalProcessCache;
+import org.workcraft.plugins.shared.tasks.ExternalProcessResult;
+import org.workcraft.util.FileUtils;
+
+public class ExternalProcessCacheTests {
+    private final int cacheSize = CommonTaskSettings.getCacheSize();
+
+    @After
+    public void restoreSettings() {
+        CommonTaskSettings.setCacheSize(cacheSize);
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        File directory = FileUtils.createTempDirectory("cache-test-");
+        ExternalProcessCache cache = new ExternalProcessCache(new File(directory, "cache"));
+        File input = new File(directory, "net.g");
+        FileUtils.writeAllText(input, ".model test\n.end\n");
+        File output = new File(directory, "unfolding.mci");
+        FileUtils.writeAllText(output, "unfolding");
+        Map<String, File> outputFiles = Collections.singletonMap("unfolding", output);
+
+        ExternalProcessResult result = new ExternalProcessResult(1, "out".getBytes(), "err".getBytes());
+        cache.put(ExternalProcessCache.createKey().add("-v").addFile(input), result, outputFiles);
+
+        File restored = new File(directory, "restored.mci");
+        ExternalProcessResult cached = cache.get(ExternalProcessCache.createKey().add("-v").addFile(input),
+                Collections.singletonMap("unfolding", restored));
+        Assert.assertNotNull(cached);
+        Assert.assertEquals(1, cached.getReturnCode());
+        Assert.assertArrayEquals("out".getBytes(), cached.getOutput());
+        Assert.assertArrayEquals("err".getBytes(), cached.getErrors());
+        Assert.assertArrayEquals(FileUtils.readAllBytes(output), FileUtils.readAllBytes(restored));
+
+        Assert.assertNull(cache.get(ExternalProcessCache.createKey().add("-f").addFile(input), outputFiles));
+        FileUtils.writeAllText(input, ".model test2\n.end\n");
+        Assert.assertNull(cache.get(ExternalProcessCache.createKey().add("-v").addFile(input), outputFiles));
+        FileUtils.deleteOnExitRecursively(directory);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        CommonTaskSettings.setCacheSize(1);
+        File directory = FileUtils.createTempDirectory("cache-test-");
+        ExternalProcessCache cache = new ExternalProcessCache(directory);
+        byte[] data = new byte[400 * 1024];
+        Map<String, File> noFiles = Collections.emptyMap();
+        for (int i = 0; i < 3; i++) {
+            cache.put(ExternalProcessCache.createKey().add("entry" + i), new ExternalProcessResult(0, data, new byte[0]), noFiles);
+            if (i == 1) {
+                // Entry 0 becomes more recently used than entry 1.
+                Assert.assertNotNull(cache.get(ExternalProcessCache.createKey().add("entry0"), noFiles));
+            }
+        }
+        Assert.assertNotNull(cache.get(ExternalProcessCache.createKey().add("entry0"), noFiles));
+        Assert.assertNull(cache.get(ExternalProcessCache.createKey().add("entry1"), noFiles));
+        Assert.assertNotNull(cache.get(ExternalProcessCache.createKey().add("entry2"), noFiles));
+
+        ExternalProcessCache reopened = new ExternalProcessCache(directory);
+        Assert.assertNotNull(reopened.get(ExternalProcessCache.createKey().add("entry2"), noFiles));
+        FileUtils.deleteOnExitRecursively(directory);
+    }
+
+    @Test
+    public void testToolInPath() {
+        File missing = ExternalProcessCache.findTool("no-such-tool-in-path");
+        Assert.assertFalse(missing.exists());
+        File tool = null;
+        String path = System.getenv("PATH");
+        for (String dir : (path == null) ? new String[0] : path.split(File.pathSeparator)) {
+            File[] files = dir.isEmpty() ? null : new File(dir).listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (file.isFile()) {
+                        tool = file;
+                        break;
+                    }
+                }
+            }
+            if (tool != null) {
+                break;
+            }
+        }
+        if (tool != null) {
+            Assert.assertEquals(tool, ExternalProcessCache.findTool(tool.getName()));
+            Assert.assertEquals(tool, ExternalProcessCache.findTool(tool.getPath()));
+        }
+    }
+
+}
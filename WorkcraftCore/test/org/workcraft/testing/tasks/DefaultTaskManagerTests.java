@@ -0,0 +1,245 @@
+package org.workcraft.testing.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.workcraft.plugins.shared.CommonTaskSettings;
+import org.workcraft.tasks.DefaultTaskManager;
+import org.workcraft.tasks.DummyProgressMonitor;
+import org.workcraft.tasks.ProgressMonitor;
+import org.workcraft.tasks.Result;
+import org.workcraft.tasks.Result.Outcome;
+import org.workcraft.tasks.ScheduledTask;
+import org.workcraft.tasks.Task;
+import org.workcraft.tasks.TaskManager.Priority;
+import org.workcraft.tasks.TaskMetrics;
+import org.workcraft.tasks.TaskMonitor;
+
+public class DefaultTaskManagerTests {
+    private final int workerCount = CommonTaskSettings.getWorkerCount();
+    private final int queueLimit = CommonTaskSettings.getQueueLimit();
+
+    @After
+    public void restoreSettings() {
+        CommonTaskSettings.setWorkerCount(workerCount);
+        CommonTaskSettings.setQueueLimit(queueLimit);
+    }
+
+    private static class BlockingTask implements Task<Object> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+            started.countDown();
+            try {
+                while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCancelRequested()) {
+                        return Result.cancelled();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return Result.exception(e);
+            }
+            return Result.finished(null);
+        }
+    }
+
+    private static class RecordingTask implements Task<Object> {
+        private final List<String> log;
+        private final String name;
+
+        RecordingTask(List<String> log, String name) {
+            this.log = log;
+            this.name = name;
+        }
+
+        @Override
+        public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+            log.add(name);
+            return Result.finished(null);
+        }
+    }
+
+    private static class ResultMonitor extends DummyProgressMonitor<Object> {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Result<? extends Object> result;
+
+        @Override
+        public void finished(Result<? extends Object> result, String description) {
+            this.result = result;
+            done.countDown();
+        }
+
+        Result<? extends Object> await() throws InterruptedException {
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            return result;
+        }
+    }
+
+    @Test
+    public void testWorkerLimit() throws Exception {
+        CommonTaskSettings.setWorkerCount(2);
+        DefaultTaskManager tm = new DefaultTaskManager();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        List<ResultMonitor> monitors = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ResultMonitor monitor = new ResultMonitor();
+            monitors.add(monitor);
+            tm.queue(new Task<Object>() {
+                @Override
+                public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+                    int count = running.incrementAndGet();
+                    synchronized (peak) {
+                        peak.set(Math.max(peak.get(), count));
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        return Result.exception(e);
+                    }
+                    running.decrementAndGet();
+                    return Result.finished(null);
+                }
+            }, "Task " + i, monitor, Priority.BACKGROUND);
+        }
+        for (ResultMonitor monitor : monitors) {
+            Assert.assertEquals(Outcome.FINISHED, monitor.await().getOutcome());
+        }
+        Assert.assertTrue(peak.get() <= 2);
+    }
+
+    @Test
+    public void testInteractiveFirst() throws Exception {
+        CommonTaskSettings.setWorkerCount(1);
+        DefaultTaskManager tm = new DefaultTaskManager();
+        BlockingTask blocker = new BlockingTask();
+        tm.queue(blocker, "Blocker", null, Priority.BACKGROUND);
+        Assert.assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        ResultMonitor last = new ResultMonitor();
+        tm.queue(new RecordingTask(log, "background1"), "Background 1", null, Priority.BACKGROUND);
+        tm.queue(new RecordingTask(log, "interactive1"), "Interactive 1", null, Priority.INTERACTIVE);
+        tm.queue(new RecordingTask(log, "background2"), "Background 2", last, Priority.BACKGROUND);
+        tm.queue(new RecordingTask(log, "interactive2"), "Interactive 2", null, Priority.INTERACTIVE);
+        Assert.assertEquals(4, tm.getQueueDepth());
+        blocker.release.countDown();
+        last.await();
+        Assert.assertEquals(4, log.size());
+        Assert.assertEquals("interactive1", log.get(0));
+        Assert.assertEquals("interactive2", log.get(1));
+        Assert.assertEquals("background1", log.get(2));
+        Assert.assertEquals("background2", log.get(3));
+    }
+
+    @Test
+    public void testCancellation() throws Exception {
+        CommonTaskSettings.setWorkerCount(1);
+        final DefaultTaskManager tm = new DefaultTaskManager();
+        final BlockingTask child = new BlockingTask();
+        ResultMonitor parentMonitor = new ResultMonitor();
+        ScheduledTask parent = tm.queue(new Task<Object>() {
+            @Override
+            public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+                // The subtask gets its own monitor, which knows nothing about the parent.
+                return tm.execute(child, "Child", new DummyProgressMonitor<Object>());
+            }
+        }, "Parent", parentMonitor, Priority.INTERACTIVE);
+
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        ResultMonitor waitingMonitor = new ResultMonitor();
+        ScheduledTask waiting = tm.queue(new RecordingTask(log, "waiting"), "Waiting", waitingMonitor, Priority.INTERACTIVE);
+        waiting.cancel();
+        Assert.assertEquals(Outcome.CANCELLED, waitingMonitor.await().getOutcome());
+        Assert.assertEquals(ScheduledTask.State.DONE, waiting.getState());
+
+        Assert.assertTrue(child.started.await(10, TimeUnit.SECONDS));
+        parent.cancel();
+        Assert.assertEquals(Outcome.CANCELLED, parentMonitor.await().getOutcome());
+        Assert.assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void testQueueLimitAndMetrics() throws Exception {
+        CommonTaskSettings.setWorkerCount(1);
+        CommonTaskSettings.setQueueLimit(1);
+        DefaultTaskManager tm = new DefaultTaskManager();
+        final List<TaskMetrics> metrics = Collections.synchronizedList(new ArrayList<TaskMetrics>());
+        tm.addObserver(new TaskMonitor() {
+            @Override
+            public <T> ProgressMonitor<T> taskStarting(String description) {
+                return new DummyProgressMonitor<>();
+            }
+
+            @Override
+            public void taskFinished(TaskMetrics m) {
+                metrics.add(m);
+            }
+        });
+        BlockingTask blocker = new BlockingTask();
+        tm.queue(blocker, "Blocker", null, Priority.INTERACTIVE);
+        Assert.assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        ResultMonitor acceptedMonitor = new ResultMonitor();
+        ResultMonitor rejectedMonitor = new ResultMonitor();
+        tm.queue(new RecordingTask(log, "accepted"), "Accepted", acceptedMonitor, Priority.INTERACTIVE);
+        tm.queue(new RecordingTask(log, "rejected"), "Rejected", rejectedMonitor, Priority.INTERACTIVE);
+        Result<? extends Object> rejected = rejectedMonitor.await();
+        Assert.assertEquals(Outcome.FAILED, rejected.getOutcome());
+        Assert.assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+
+        Thread.sleep(50);
+        blocker.release.countDown();
+        Assert.assertEquals(Outcome.FINISHED, acceptedMonitor.await().getOutcome());
+        Assert.assertEquals(Collections.singletonList("accepted"), log);
+
+        TaskMetrics accepted = null;
+        for (TaskMetrics m : new ArrayList<>(metrics)) {
+            if ("Accepted".equals(m.getDescription())) {
+                accepted = m;
+            }
+        }
+        Assert.assertNotNull(accepted);
+        Assert.assertEquals(Priority.INTERACTIVE, accepted.getPriority());
+        Assert.assertTrue(accepted.getWaitTime() >= 50);
+    }
+
+    @Test
+    public void testExecuteAllInQueuedTask() throws Exception {
+        // The only worker runs the parent, so the subtasks are run by the parent itself.
+        CommonTaskSettings.setWorkerCount(1);
+        final DefaultTaskManager tm = new DefaultTaskManager();
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        final List<Result<? extends Object>> results = new ArrayList<>();
+        ResultMonitor parentMonitor = new ResultMonitor();
+        tm.queue(new Task<Object>() {
+            @Override
+            public Result<? extends Object> run(ProgressMonitor<? super Object> monitor) {
+                List<Task<Object>> tasks = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    tasks.add(new RecordingTask(log, "child" + i));
+                }
+                results.addAll(tm.executeAll(tasks, "Child", 2, null));
+                return Result.finished(null);
+            }
+        }, "Parent", parentMonitor, Priority.BACKGROUND);
+        Assert.assertEquals(Outcome.FINISHED, parentMonitor.await().getOutcome());
+        Assert.assertEquals(3, results.size());
+        for (Result<? extends Object> result : results) {
+            Assert.assertEquals(Outcome.FINISHED, result.getOutcome());
+        }
+        Assert.assertEquals(3, log.size());
+    }
+
+}
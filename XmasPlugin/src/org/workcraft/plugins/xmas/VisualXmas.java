@@ -122,7 +122,7 @@ public class VisualXmas extends AbstractVisualModel {
 
     public Collection<Node> getNodes() {
         ArrayList<Node> result = new ArrayList<>();
-        for (Node node : Hierarchy.getDescendantsOfType(getRoot(), Node.class)) {
+        for (Node node : getNodesOfType(Node.class)) {
             if ((node instanceof VisualSourceComponent)
                     || (node instanceof VisualFunctionComponent)
                     || (node instanceof VisualQueueComponent)
@@ -81,7 +81,7 @@ public class Xmas extends AbstractMathModel {
 
     public Collection<Node> getNodes() {
         ArrayList<Node> result = new ArrayList<>();
-        for (Node node : Hierarchy.getDescendantsOfType(getRoot(), Node.class)) {
+        for (Node node : getNodesOfType(Node.class)) {
             if (node instanceof SourceComponent) {
                 result.add(node);
             }
@@ -127,15 +127,15 @@ public class Xmas extends AbstractMathModel {
     }
 
     public Collection<SourceComponent> getSourceComponents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), SourceComponent.class);
+        return getNodesOfType(SourceComponent.class);
     }
 
     public Collection<FunctionComponent> getFunctionComponents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), FunctionComponent.class);
+        return getNodesOfType(FunctionComponent.class);
     }
 
     public Collection<SwitchComponent> getSwitchComponents() {
-        return Hierarchy.getDescendantsOfType(getRoot(), SwitchComponent.class);
+        return getNodesOfType(SwitchComponent.class);
     }
 
 }